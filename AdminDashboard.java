@@ -1,9 +1,15 @@
 package view;
 
 import javax.swing.*;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionListener;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.time.YearMonth;
 
 /**
  * Admin Dashboard for the Hotel Management System
@@ -25,6 +31,7 @@ public class AdminDashboard extends JFrame {
     private JButton addRoomButton;
     private JButton editRoomButton;
     private JButton deleteRoomButton;
+    private JButton bulkRatesButton;
     private JButton refreshRoomsButton;
     private JTextField searchRoomsField;
     private JButton searchRoomsButton;
@@ -51,6 +58,24 @@ public class AdminDashboard extends JFrame {
     private JButton checkOutButton;
     private JButton cancelBookingButton;
     
+    // Reports components
+    private JTable revenueByTypeTable;
+    private DefaultTableModel revenueByTypeTableModel;
+    private JTable revenueDailyTable;
+    private DefaultTableModel revenueDailyTableModel;
+    private JTextField reportMonthField;
+    private JButton showReportButton;
+    
+    // Diagnostics components; the tab is hidden until Ctrl+Shift+D
+    private JPanel diagnosticsPanel;
+    private JTable diagnosticsTable;
+    private DefaultTableModel diagnosticsTableModel;
+    private LatencyHistogram latencyHistogram;
+    private JButton resetDiagnosticsButton;
+    private JTable stallsTable;
+    private DefaultTableModel stallsTableModel;
+    private JTextArea stallStackArea;
+    
     // Menu components
     private JMenuBar menuBar;
     private JMenu fileMenu;
@@ -86,6 +111,12 @@ public class AdminDashboard extends JFrame {
         // Initialize bookings components
         initializeBookingsComponents();
         
+        // Initialize reports components
+        initializeReportsComponents();
+        
+        // Initialize diagnostics components
+        initializeDiagnosticsComponents();
+        
         // Initialize menu
         initializeMenu();
     }
@@ -105,6 +136,7 @@ public class AdminDashboard extends JFrame {
         addRoomButton = new JButton("Add Room");
         editRoomButton = new JButton("Edit Room");
         deleteRoomButton = new JButton("Delete Room");
+        bulkRatesButton = new JButton("Bulk Rates");
         refreshRoomsButton = new JButton("Refresh");
         searchRoomsField = new JTextField(15);
         searchRoomsButton = new JButton("Search");
@@ -113,6 +145,7 @@ public class AdminDashboard extends JFrame {
         addRoomButton.setPreferredSize(new Dimension(100, 30));
         editRoomButton.setPreferredSize(new Dimension(100, 30));
         deleteRoomButton.setPreferredSize(new Dimension(100, 30));
+        bulkRatesButton.setPreferredSize(new Dimension(100, 30));
         refreshRoomsButton.setPreferredSize(new Dimension(100, 30));
         searchRoomsButton.setPreferredSize(new Dimension(80, 30));
     }
@@ -153,7 +186,7 @@ public class AdminDashboard extends JFrame {
             }
         };
         bookingsTable = new JTable(bookingsTableModel);
-        bookingsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        bookingsTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
         bookingsTable.setRowHeight(25);
         
         addBookingButton = new JButton("New Booking");
@@ -176,6 +209,67 @@ public class AdminDashboard extends JFrame {
         cancelBookingButton.setPreferredSize(new Dimension(100, 30));
     }
     
+    private void initializeReportsComponents() {
+        String[] byTypeColumns = {"Room Type", "Room-Nights", "Revenue", "ADR", "RevPAR", "Occupancy"};
+        revenueByTypeTableModel = new DefaultTableModel(byTypeColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        revenueByTypeTable = new JTable(revenueByTypeTableModel);
+        revenueByTypeTable.setRowHeight(25);
+        
+        String[] dailyColumns = {"Date", "Room-Nights", "Revenue", "ADR", "RevPAR", "Occupancy"};
+        revenueDailyTableModel = new DefaultTableModel(dailyColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        revenueDailyTable = new JTable(revenueDailyTableModel);
+        revenueDailyTable.setRowHeight(25);
+        
+        reportMonthField = new JTextField(YearMonth.now().toString(), 8);
+        showReportButton = new JButton("Show");
+        showReportButton.setPreferredSize(new Dimension(80, 30));
+    }
+    
+    private void initializeDiagnosticsComponents() {
+        String[] diagnosticsColumns = {"Statement", "Executions", "Errors", "Rows", "Total ms", "Mean ms",
+            "p50 ms", "p95 ms", "p99 ms", "Max ms"};
+        diagnosticsTableModel = new DefaultTableModel(diagnosticsColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        diagnosticsTable = new JTable(diagnosticsTableModel);
+        diagnosticsTable.setRowHeight(25);
+        diagnosticsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        diagnosticsTable.getColumnModel().getColumn(0).setPreferredWidth(600);
+        
+        latencyHistogram = new LatencyHistogram();
+        
+        String[] stallsColumns = {"Handler", "Stalls", "Total ms", "Mean ms", "Max ms", "Last"};
+        stallsTableModel = new DefaultTableModel(stallsColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        stallsTable = new JTable(stallsTableModel);
+        stallsTable.setRowHeight(25);
+        stallsTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        stallsTable.getColumnModel().getColumn(0).setPreferredWidth(400);
+        
+        stallStackArea = new JTextArea();
+        stallStackArea.setEditable(false);
+        stallStackArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        resetDiagnosticsButton = new JButton("Reset");
+        resetDiagnosticsButton.setPreferredSize(new Dimension(80, 30));
+    }
+    
     private void initializeMenu() {
         menuBar = new JMenuBar();
         
@@ -206,9 +300,21 @@ public class AdminDashboard extends JFrame {
         tabbedPane.addTab("Rooms", createRoomsPanel());
         tabbedPane.addTab("Customers", createCustomersPanel());
         tabbedPane.addTab("Bookings", createBookingsPanel());
+        tabbedPane.addTab("Reports", createReportsPanel());
         
         add(tabbedPane, BorderLayout.CENTER);
         setJMenuBar(menuBar);
+        
+        // Diagnostics tab for support staff, toggled from the keyboard only
+        diagnosticsPanel = createDiagnosticsPanel();
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(
+            KeyStroke.getKeyStroke(KeyEvent.VK_D, InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK), "toggleDiagnostics");
+        getRootPane().getActionMap().put("toggleDiagnostics", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                toggleDiagnosticsTab();
+            }
+        });
     }
     
     private JPanel createDashboardPanel() {
@@ -276,6 +382,7 @@ public class AdminDashboard extends JFrame {
         buttonPanel.add(addRoomButton);
         buttonPanel.add(editRoomButton);
         buttonPanel.add(deleteRoomButton);
+        buttonPanel.add(bulkRatesButton);
         
         roomsPanel.add(searchPanel, BorderLayout.NORTH);
         roomsPanel.add(scrollPane, BorderLayout.CENTER);
@@ -337,6 +444,80 @@ public class AdminDashboard extends JFrame {
         return bookingsPanel;
     }
     
+    private JPanel createReportsPanel() {
+        JPanel reportsPanel = new JPanel(new BorderLayout());
+        
+        // Month panel
+        JPanel monthPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        monthPanel.add(new JLabel("Month (yyyy-MM):"));
+        monthPanel.add(reportMonthField);
+        monthPanel.add(showReportButton);
+        
+        // Tables panel
+        JScrollPane byTypeScrollPane = new JScrollPane(revenueByTypeTable);
+        byTypeScrollPane.setBorder(BorderFactory.createTitledBorder("Revenue by Room Type"));
+        JScrollPane dailyScrollPane = new JScrollPane(revenueDailyTable);
+        dailyScrollPane.setBorder(BorderFactory.createTitledBorder("Daily Revenue"));
+        
+        JSplitPane tablesPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, byTypeScrollPane, dailyScrollPane);
+        tablesPane.setResizeWeight(0.35);
+        
+        reportsPanel.add(monthPanel, BorderLayout.NORTH);
+        reportsPanel.add(tablesPane, BorderLayout.CENTER);
+        
+        return reportsPanel;
+    }
+    
+    private JPanel createDiagnosticsPanel() {
+        JPanel panel = new JPanel(new BorderLayout());
+        
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        topPanel.add(new JLabel("Since start or reset, slowest in total first"));
+        topPanel.add(resetDiagnosticsButton);
+        
+        JScrollPane statementsScrollPane = new JScrollPane(diagnosticsTable);
+        statementsScrollPane.setBorder(BorderFactory.createTitledBorder("Statements"));
+        JPanel histogramPanel = new JPanel(new BorderLayout());
+        histogramPanel.setBorder(BorderFactory.createTitledBorder("Latency"));
+        histogramPanel.add(latencyHistogram, BorderLayout.CENTER);
+        
+        JSplitPane statementsPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, statementsScrollPane, histogramPanel);
+        statementsPane.setResizeWeight(0.7);
+        
+        // Event dispatch thread stalls (see EdtWatchdog)
+        JScrollPane stallsScrollPane = new JScrollPane(stallsTable);
+        stallsScrollPane.setBorder(BorderFactory.createTitledBorder("Handlers that held up the screen"));
+        JScrollPane stackScrollPane = new JScrollPane(stallStackArea);
+        stackScrollPane.setBorder(BorderFactory.createTitledBorder("Most sampled stack"));
+        JSplitPane stallsPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, stallsScrollPane, stackScrollPane);
+        stallsPane.setResizeWeight(0.5);
+        
+        JTabbedPane diagnosticsTabs = new JTabbedPane();
+        diagnosticsTabs.addTab("JDBC Statements", statementsPane);
+        diagnosticsTabs.addTab("UI Stalls", stallsPane);
+        
+        panel.add(topPanel, BorderLayout.NORTH);
+        panel.add(diagnosticsTabs, BorderLayout.CENTER);
+        return panel;
+    }
+    
+    /**
+     * Show the diagnostics tab, or hide it if it is showing
+     */
+    public void toggleDiagnosticsTab() {
+        int index = tabbedPane.indexOfComponent(diagnosticsPanel);
+        if (index >= 0) {
+            tabbedPane.removeTabAt(index);
+        } else {
+            tabbedPane.addTab("Diagnostics", diagnosticsPanel);
+            tabbedPane.setSelectedComponent(diagnosticsPanel);
+        }
+    }
+    
+    public boolean isDiagnosticsShowing() {
+        return isVisible() && tabbedPane.getSelectedComponent() == diagnosticsPanel;
+    }
+    
     private void setupFrame() {
         setTitle("Hotel Management System - Admin Dashboard");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -349,15 +530,21 @@ public class AdminDashboard extends JFrame {
     public DefaultTableModel getRoomsTableModel() { return roomsTableModel; }
     public DefaultTableModel getCustomersTableModel() { return customersTableModel; }
     public DefaultTableModel getBookingsTableModel() { return bookingsTableModel; }
+    public DefaultTableModel getRevenueByTypeTableModel() { return revenueByTypeTableModel; }
+    public DefaultTableModel getRevenueDailyTableModel() { return revenueDailyTableModel; }
+    public DefaultTableModel getDiagnosticsTableModel() { return diagnosticsTableModel; }
+    public DefaultTableModel getStallsTableModel() { return stallsTableModel; }
     
     // Getters for tables
     public JTable getRoomsTable() { return roomsTable; }
     public JTable getCustomersTable() { return customersTable; }
     public JTable getBookingsTable() { return bookingsTable; }
+    public LatencyHistogram getLatencyHistogram() { return latencyHistogram; }
     
     // Getters for search fields
     public String getRoomsSearchText() { return searchRoomsField.getText().trim(); }
     public String getCustomersSearchText() { return searchCustomersField.getText().trim(); }
+    public String getReportMonthText() { return reportMonthField.getText().trim(); }
     
     // Statistics getters
     public JLabel getTotalRoomsLabel() { return totalRoomsLabel; }
@@ -369,8 +556,10 @@ public class AdminDashboard extends JFrame {
     public void addRoomsAddButtonListener(ActionListener listener) { addRoomButton.addActionListener(listener); }
     public void addRoomsEditButtonListener(ActionListener listener) { editRoomButton.addActionListener(listener); }
     public void addRoomsDeleteButtonListener(ActionListener listener) { deleteRoomButton.addActionListener(listener); }
+    public void addRoomsBulkRatesButtonListener(ActionListener listener) { bulkRatesButton.addActionListener(listener); }
     public void addRoomsRefreshButtonListener(ActionListener listener) { refreshRoomsButton.addActionListener(listener); }
     public void addRoomsSearchButtonListener(ActionListener listener) { searchRoomsButton.addActionListener(listener); }
+    public void addRoomsSearchFieldListener(DocumentListener listener) { searchRoomsField.getDocument().addDocumentListener(listener); }
     
     // Action listeners for customers
     public void addCustomersAddButtonListener(ActionListener listener) { addCustomerButton.addActionListener(listener); }
@@ -378,6 +567,7 @@ public class AdminDashboard extends JFrame {
     public void addCustomersDeleteButtonListener(ActionListener listener) { deleteCustomerButton.addActionListener(listener); }
     public void addCustomersRefreshButtonListener(ActionListener listener) { refreshCustomersButton.addActionListener(listener); }
     public void addCustomersSearchButtonListener(ActionListener listener) { searchCustomersButton.addActionListener(listener); }
+    public void addCustomersSearchFieldListener(DocumentListener listener) { searchCustomersField.getDocument().addDocumentListener(listener); }
     
     // Action listeners for bookings
     public void addBookingsAddButtonListener(ActionListener listener) { addBookingButton.addActionListener(listener); }
@@ -389,6 +579,14 @@ public class AdminDashboard extends JFrame {
     public void addBookingsCheckOutButtonListener(ActionListener listener) { checkOutButton.addActionListener(listener); }
     public void addBookingsCancelButtonListener(ActionListener listener) { cancelBookingButton.addActionListener(listener); }
     
+    // Action listeners for reports
+    public void addShowReportButtonListener(ActionListener listener) { showReportButton.addActionListener(listener); }
+    
+    // Action listeners for diagnostics
+    public void addResetDiagnosticsButtonListener(ActionListener listener) { resetDiagnosticsButton.addActionListener(listener); }
+    public void addDiagnosticsSelectionListener(ListSelectionListener listener) { diagnosticsTable.getSelectionModel().addListSelectionListener(listener); }
+    public void addStallsSelectionListener(ListSelectionListener listener) { stallsTable.getSelectionModel().addListSelectionListener(listener); }
+    
     // Action listeners for menu
     public void addLogoutMenuItemListener(ActionListener listener) { logoutMenuItem.addActionListener(listener); }
     public void addExitMenuItemListener(ActionListener listener) { exitMenuItem.addActionListener(listener); }
@@ -396,6 +594,7 @@ public class AdminDashboard extends JFrame {
     
     // Action listeners for dashboard
     public void addRefreshStatsButtonListener(ActionListener listener) { refreshStatsButton.addActionListener(listener); }
+    public void refreshStatistics() { refreshStatsButton.doClick(); }
     
     // Utility methods
     public void showMessage(String message, String title, int messageType) {
@@ -410,6 +609,16 @@ public class AdminDashboard extends JFrame {
     public int getSelectedRoomsRow() { return roomsTable.getSelectedRow(); }
     public int getSelectedCustomersRow() { return customersTable.getSelectedRow(); }
     public int getSelectedBookingsRow() { return bookingsTable.getSelectedRow(); }
+    public int[] getSelectedBookingsRows() { return bookingsTable.getSelectedRows(); }
+    public int getSelectedDiagnosticsRow() { return diagnosticsTable.getSelectedRow(); }
+    public void selectDiagnosticsRow(int row) { diagnosticsTable.setRowSelectionInterval(row, row); }
+    public int getSelectedStallsRow() { return stallsTable.getSelectedRow(); }
+    public void selectStallsRow(int row) { stallsTable.setRowSelectionInterval(row, row); }
+    
+    public void setStallStackText(String text) {
+        stallStackArea.setText(text);
+        stallStackArea.setCaretPosition(0);
+    }
     
     public void clearRoomsSelection() { roomsTable.clearSelection(); }
     public void clearCustomersSelection() { customersTable.clearSelection(); }
@@ -0,0 +1,614 @@
+package model;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Headless HTTP API for the Hotel Management System
+ * Serves rooms, customers, bookings and date-range availability as JSON over the
+ * JDK HttpServer, for web and kiosk clients. Requests run on a fixed pool of worker
+ * threads. Every worker keeps its own JsonWriter and, for availability, its own open
+ * connection with prepared statements, so the hot path does not connect, prepare or
+ * allocate buffers per request. Each request works for the hotel named by its
+ * X-Hotel-Id header or hotelId parameter, or else the server's default hotel.
+ *
+ * GET  /api/health
+ * GET  /api/rooms[?type=&q=]            GET /api/rooms/{id}
+ * GET  /api/customers[?q=]              GET /api/customers/{id}     POST /api/customers
+ * GET  /api/bookings?customerId=|status= GET /api/bookings/{id}     POST /api/bookings
+ * GET  /api/availability?checkIn=yyyy-MM-dd&checkOut=yyyy-MM-dd[&type=][&roomId=]
+ */
+public class ApiServer {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // Same overlap rule as Booking.isRoomAvailable: a confirmed or checked-in stay blocks the room
+    private static final String AVAILABILITY_SQL = """
+        SELECT r.room_id, r.room_number, r.room_type, r.price_per_night
+        FROM rooms r
+        WHERE NOT EXISTS (
+            SELECT 1 FROM bookings b
+            WHERE b.room_id = r.room_id AND b.booking_status IN ('CONFIRMED', 'CHECKED_IN')
+              AND b.check_in_date < ? AND b.check_out_date > ?)
+          AND r.hotel_id = ?
+        """;
+
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * Per-thread state: a reusable JSON writer and a lazily opened connection for availability queries
+     */
+    private static class Worker {
+        final JsonWriter json = new JsonWriter();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+        final byte[] readBuffer = new byte[4096];
+        Connection connection;
+        final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        PreparedStatement prepare(String sql) throws SQLException {
+            if (connection == null) {
+                connection = DBConnection.openConnection();
+            }
+            PreparedStatement stmt = statements.get(sql);
+            if (stmt == null) {
+                stmt = connection.prepareStatement(sql);
+                statements.put(sql, stmt);
+            }
+            return stmt;
+        }
+
+        // Drop the connection after an error; the next request reconnects
+        void discardConnection() {
+            statements.clear();
+            if (connection != null) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    // Already broken
+                }
+                connection = null;
+            }
+        }
+    }
+
+    /**
+     * An error answered with a status code and a message
+     */
+    private static class ApiException extends Exception {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Create a server; call start() to accept requests
+     * @param port Port to listen on
+     * @param threads Number of worker threads
+     */
+    public ApiServer(int port, int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), 1024);
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "api-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(workers);
+        server.createContext("/api/health", handler(this::health));
+        server.createContext("/api/rooms", handler(this::rooms));
+        server.createContext("/api/customers", handler(this::customers));
+        server.createContext("/api/bookings", handler(this::bookings));
+        server.createContext("/api/availability", handler(this::availability));
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stop accepting requests and wait up to the given delay for running ones
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+    }
+
+    private interface Endpoint {
+        int handle(HttpExchange exchange, Worker worker) throws ApiException, SQLException, IOException;
+    }
+
+    @SuppressWarnings("try") // The hotel scope is only held open, never used in the body
+    private HttpHandler handler(Endpoint endpoint) {
+        return exchange -> {
+            Worker state = worker.get();
+            JsonWriter json = state.json.reset();
+            int status;
+            try (Hotel.Scope scope = Hotel.enter(hotelId(exchange))) {
+                status = endpoint.handle(exchange, state);
+            } catch (ApiException e) {
+                status = e.status;
+                json.reset().beginObject().name("error").value(e.getMessage()).endObject();
+            } catch (SQLException e) {
+                System.err.println("API database error: " + e.getMessage());
+                state.discardConnection();
+                status = 503;
+                json.reset().beginObject().name("error").value("Database unavailable").endObject();
+            } catch (RuntimeException e) {
+                System.err.println("API error: " + e.getMessage());
+                e.printStackTrace();
+                status = 500;
+                json.reset().beginObject().name("error").value("Internal error").endObject();
+            }
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                int length = json.encode();
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(status, length);
+                json.writeTo(out);
+            }
+        };
+    }
+
+    private int health(HttpExchange exchange, Worker state) throws ApiException {
+        requireMethod(exchange, "GET");
+        state.json.beginObject().name("status").value("ok").endObject();
+        return 200;
+    }
+
+    private int rooms(HttpExchange exchange, Worker state) throws ApiException {
+        requireMethod(exchange, "GET");
+        JsonWriter json = state.json;
+        Integer roomId = pathId(exchange, "/api/rooms");
+        if (roomId != null) {
+            Room room = Room.getRoomById(roomId);
+            if (room == null) {
+                throw new ApiException(404, "Room " + roomId + " not found");
+            }
+            writeRoom(json, room);
+            return 200;
+        }
+
+        Map<String, String> query = query(exchange);
+        List<Room> rooms;
+        if (query.containsKey("type")) {
+            rooms = Room.getRoomsByType(query.get("type"));
+        } else if (query.containsKey("q")) {
+            rooms = Room.searchRooms(query.get("q"));
+        } else {
+            rooms = Room.getAllRooms();
+        }
+        json.beginArray();
+        for (Room room : rooms) {
+            writeRoom(json, room);
+        }
+        json.endArray();
+        return 200;
+    }
+
+    private int customers(HttpExchange exchange, Worker state) throws ApiException, IOException {
+        JsonWriter json = state.json;
+        if (exchange.getRequestMethod().equals("POST")) {
+            Map<String, String> body = parseObject(readBody(exchange, state));
+            Customer customer = new Customer(required(body, "firstName"), required(body, "lastName"),
+                required(body, "email"), required(body, "phone"), body.get("address"));
+            if (Customer.getCustomerByEmail(customer.getEmail()) != null) {
+                throw new ApiException(409, "A customer with this email already exists");
+            }
+            if (!customer.addCustomer()) {
+                throw new ApiException(500, "Failed to add customer");
+            }
+            writeCustomer(json, customer);
+            return 201;
+        }
+
+        requireMethod(exchange, "GET");
+        Integer customerId = pathId(exchange, "/api/customers");
+        if (customerId != null) {
+            Customer customer = Customer.getCustomerById(customerId);
+            if (customer == null) {
+                throw new ApiException(404, "Customer " + customerId + " not found");
+            }
+            writeCustomer(json, customer);
+            return 200;
+        }
+
+        Map<String, String> query = query(exchange);
+        List<Customer> customers = query.containsKey("q")
+            ? Customer.searchCustomers(query.get("q"))
+            : Customer.getAllCustomers();
+        json.beginArray();
+        for (Customer customer : customers) {
+            writeCustomer(json, customer);
+        }
+        json.endArray();
+        return 200;
+    }
+
+    private int bookings(HttpExchange exchange, Worker state) throws ApiException, SQLException, IOException {
+        JsonWriter json = state.json;
+        if (exchange.getRequestMethod().equals("POST")) {
+            Map<String, String> body = parseObject(readBody(exchange, state));
+            int customerId = intParam(required(body, "customerId"), "customerId");
+            int roomId = intParam(required(body, "roomId"), "roomId");
+            LocalDate checkIn = dateParam(required(body, "checkIn"), "checkIn");
+            LocalDate checkOut = dateParam(required(body, "checkOut"), "checkOut");
+            if (!checkOut.isAfter(checkIn)) {
+                throw new ApiException(400, "checkOut must be after checkIn");
+            }
+
+            Room room = Room.getRoomById(roomId);
+            if (room == null) {
+                throw new ApiException(404, "Room " + roomId + " not found");
+            }
+            if (Customer.getCustomerById(customerId) == null) {
+                throw new ApiException(404, "Customer " + customerId + " not found");
+            }
+
+            Booking booking = new Booking(customerId, roomId, checkIn, checkOut, RateCalendar.quote(room, checkIn, checkOut));
+            insertIfAvailable(booking);
+            Booking created = Booking.getBookingById(booking.getBookingId());
+            writeBooking(json, created != null ? created : booking);
+            return 201;
+        }
+
+        requireMethod(exchange, "GET");
+        Integer bookingId = pathId(exchange, "/api/bookings");
+        if (bookingId != null) {
+            Booking booking = Booking.getBookingById(bookingId);
+            if (booking == null) {
+                throw new ApiException(404, "Booking " + bookingId + " not found");
+            }
+            writeBooking(json, booking);
+            return 200;
+        }
+
+        Map<String, String> query = query(exchange);
+        List<Booking> bookings;
+        if (query.containsKey("customerId")) {
+            bookings = Booking.getBookingsByCustomerId(intParam(query.get("customerId"), "customerId"));
+        } else if (query.containsKey("status")) {
+            try {
+                bookings = Booking.getBookingsByStatus(
+                    Booking.BookingStatus.valueOf(query.get("status").toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Unknown status: " + query.get("status"));
+            }
+        } else {
+            throw new ApiException(400, "Filter by customerId or status, or request /api/bookings/{id}");
+        }
+        json.beginArray();
+        for (Booking booking : bookings) {
+            writeBooking(json, booking);
+        }
+        json.endArray();
+        return 200;
+    }
+
+    /**
+     * Insert a booking unless a pending, confirmed or checked-in stay overlaps it, in one
+     * transaction holding the room's row lock
+     */
+    private static void insertIfAvailable(Booking booking) throws ApiException, SQLException {
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                // The room was found above, so a refusal here means the stay overlaps another
+                if (!Booking.lockRoomIfFree(conn, booking.getRoomId(), booking.getCheckInDate(), booking.getCheckOutDate())) {
+                    throw new ApiException(409, "Room is not available for the selected dates");
+                }
+                if (!booking.insertBooking(conn)) {
+                    throw new ApiException(404, "Room or customer not found");
+                }
+                conn.commit();
+                DBConnection.markWrite();
+            } catch (ApiException | SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private int availability(HttpExchange exchange, Worker state) throws ApiException, SQLException {
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        LocalDate checkIn = dateParam(required(query, "checkIn"), "checkIn");
+        LocalDate checkOut = dateParam(required(query, "checkOut"), "checkOut");
+        if (!checkOut.isAfter(checkIn)) {
+            throw new ApiException(400, "checkOut must be after checkIn");
+        }
+        String type = query.get("type");
+        Integer roomId = query.containsKey("roomId") ? intParam(query.get("roomId"), "roomId") : null;
+
+        // Four fixed statement shapes, each prepared once per worker
+        String sql = AVAILABILITY_SQL
+            + (type != null ? " AND r.room_type = ?" : "")
+            + (roomId != null ? " AND r.room_id = ?" : "")
+            + " ORDER BY r.room_number";
+        PreparedStatement stmt = state.prepare(sql);
+        int index = 1;
+        stmt.setDate(index++, Date.valueOf(checkOut));
+        stmt.setDate(index++, Date.valueOf(checkIn));
+        stmt.setInt(index++, Hotel.currentId());
+        if (type != null) {
+            stmt.setString(index++, type);
+        }
+        if (roomId != null) {
+            stmt.setInt(index, roomId);
+        }
+
+        long fromEpochDay = checkIn.toEpochDay();
+        int nights = Math.toIntExact(checkOut.toEpochDay() - fromEpochDay);
+        JsonWriter json = state.json;
+        json.beginObject()
+            .name("checkIn").value(checkIn)
+            .name("checkOut").value(checkOut)
+            .name("nights").value(nights)
+            .name("rooms").beginArray();
+        try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                String roomType = rs.getString("room_type");
+                Money price = Money.getMoney(rs, "price_per_night");
+                json.beginObject()
+                    .name("roomId").value(rs.getInt("room_id"))
+                    .name("roomNumber").value(rs.getString("room_number"))
+                    .name("roomType").value(roomType)
+                    .name("pricePerNight").value(price)
+                    .name("total").value(Money.ofMinor(
+                        RateCalendar.quoteCents(roomType, price.getMinorUnits(), fromEpochDay, nights), price.getCurrency()))
+                    .endObject();
+            }
+        }
+        json.endArray().endObject();
+        return 200;
+    }
+
+    private static void writeRoom(JsonWriter json, Room room) {
+        json.beginObject()
+            .name("roomId").value(room.getRoomId())
+            .name("roomNumber").value(room.getRoomNumber())
+            .name("roomType").value(room.getRoomType())
+            .name("pricePerNight").value(room.getPricePerNight())
+            .name("available").value(room.isAvailable())
+            .name("description").value(room.getDescription())
+            .endObject();
+    }
+
+    private static void writeCustomer(JsonWriter json, Customer customer) {
+        json.beginObject()
+            .name("customerId").value(customer.getCustomerId())
+            .name("firstName").value(customer.getFirstName())
+            .name("lastName").value(customer.getLastName())
+            .name("email").value(customer.getEmail())
+            .name("phone").value(customer.getPhone())
+            .name("address").value(customer.getAddress())
+            .endObject();
+    }
+
+    private static void writeBooking(JsonWriter json, Booking booking) {
+        json.beginObject()
+            .name("bookingId").value(booking.getBookingId())
+            .name("customerId").value(booking.getCustomerId())
+            .name("customerName").value(booking.getCustomerName())
+            .name("roomId").value(booking.getRoomId())
+            .name("roomNumber").value(booking.getRoomNumber())
+            .name("checkIn").value(booking.getCheckInDate())
+            .name("checkOut").value(booking.getCheckOutDate())
+            .name("totalAmount").value(booking.getTotalAmount())
+            .name("status").value(booking.getBookingStatus().name())
+            .endObject();
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws ApiException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new ApiException(405, "Method " + exchange.getRequestMethod() + " not allowed");
+        }
+    }
+
+    // Returns the numeric ID after the context path, or null for the collection itself
+    private static Integer pathId(HttpExchange exchange, String context) throws ApiException {
+        String rest = exchange.getRequestURI().getPath().substring(context.length());
+        if (rest.isEmpty() || rest.equals("/")) {
+            return null;
+        }
+        String id = rest.substring(1);
+        if (rest.charAt(0) != '/' || id.indexOf('/') >= 0) {
+            throw new ApiException(404, "Not found");
+        }
+        return intParam(id, "id");
+    }
+
+    // The X-Hotel-Id header wins over the hotelId parameter
+    private static int hotelId(HttpExchange exchange) throws ApiException {
+        String header = exchange.getRequestHeaders().getFirst("X-Hotel-Id");
+        if (header != null) {
+            return intParam(header, "X-Hotel-Id");
+        }
+        String param = query(exchange).get("hotelId");
+        return param != null ? intParam(param, "hotelId") : Hotel.currentId();
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static String required(Map<String, String> params, String name) throws ApiException {
+        String value = params.get(name);
+        if (value == null || value.isBlank()) {
+            throw new ApiException(400, "Missing " + name);
+        }
+        return value.trim();
+    }
+
+    private static int intParam(String value, String name) throws ApiException {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid " + name + ": " + value);
+        }
+    }
+
+    private static LocalDate dateParam(String value, String name) throws ApiException {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid " + name + " (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange, Worker state) throws IOException, ApiException {
+        ByteArrayOutputStream body = state.body;
+        body.reset();
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(state.readBuffer)) > 0) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body too large");
+                }
+                body.write(state.readBuffer, 0, read);
+            }
+        }
+        return body.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parse a flat JSON object whose values are strings, numbers, booleans or null
+     * @return Member values as strings; null members are left out
+     */
+    static Map<String, String> parseObject(String text) throws ApiException {
+        Map<String, String> members = new HashMap<>();
+        int[] position = {skipSpace(text, 0)};
+        expect(text, position, '{');
+        if (peek(text, position) == '}') {
+            position[0]++;
+            return members;
+        }
+        while (true) {
+            String name = parseString(text, position);
+            expect(text, position, ':');
+            String value;
+            char c = peek(text, position);
+            if (c == '"') {
+                value = parseString(text, position);
+            } else {
+                int start = position[0];
+                while (position[0] < text.length() && ",} \t\r\n".indexOf(text.charAt(position[0])) < 0) {
+                    position[0]++;
+                }
+                value = text.substring(start, position[0]);
+                if (value.isEmpty() || value.equals("{") || value.startsWith("[")) {
+                    throw new ApiException(400, "Invalid JSON value for " + name);
+                }
+                if (value.equals("null")) {
+                    value = null;
+                }
+            }
+            if (value != null) {
+                members.put(name, value);
+            }
+            c = peek(text, position);
+            position[0]++;
+            if (c == '}') {
+                return members;
+            }
+            if (c != ',') {
+                throw new ApiException(400, "Invalid JSON: expected ',' or '}'");
+            }
+        }
+    }
+
+    private static String parseString(String text, int[] position) throws ApiException {
+        expect(text, position, '"');
+        StringBuilder sb = new StringBuilder();
+        int i = position[0];
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return sb.toString();
+            }
+            if (c == '\\' && i < text.length()) {
+                char escaped = text.charAt(i++);
+                switch (escaped) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (i + 4 > text.length()) {
+                            throw new ApiException(400, "Invalid JSON escape");
+                        }
+                        try {
+                            sb.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw new ApiException(400, "Invalid JSON escape");
+                        }
+                        i += 4;
+                        break;
+                    default: sb.append(escaped); break;
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        throw new ApiException(400, "Invalid JSON: unterminated string");
+    }
+
+    private static void expect(String text, int[] position, char expected) throws ApiException {
+        if (peek(text, position) != expected) {
+            throw new ApiException(400, "Invalid JSON: expected '" + expected + "'");
+        }
+        position[0]++;
+    }
+
+    // Skips whitespace and returns the next character, or 0 at the end
+    private static char peek(String text, int[] position) {
+        position[0] = skipSpace(text, position[0]);
+        return position[0] < text.length() ? text.charAt(position[0]) : 0;
+    }
+
+    private static int skipSpace(String text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
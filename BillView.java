@@ -1,6 +1,7 @@
 package view;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionListener;
 import java.time.format.DateTimeFormatter;
@@ -25,9 +26,16 @@ public class BillView extends JDialog {
     private JLabel checkOutDateLabel;
     private JLabel nightsLabel;
     private JLabel pricePerNightLabel;
+    private JLabel roomChargesLabel;
+    private JLabel extraChargesLabel;
     private JLabel subtotalLabel;
     private JLabel taxLabel;
     private JLabel totalAmountLabel;
+    private JLabel paymentsLabel;
+    private JLabel balanceDueLabel;
+    
+    private JTable folioTable;
+    private DefaultTableModel folioTableModel;
     
     private JLabel statusLabel;
     private JLabel issueDateLabel;
@@ -36,6 +44,8 @@ public class BillView extends JDialog {
     private JButton emailButton;
     private JButton closeButton;
     private JButton refreshButton;
+    private JButton postChargeButton;
+    private JButton recordPaymentButton;
     
     private JPanel billPanel;
     private JScrollPane scrollPane;
@@ -74,9 +84,25 @@ public class BillView extends JDialog {
         checkOutDateLabel = new JLabel("");
         nightsLabel = new JLabel("");
         pricePerNightLabel = new JLabel("");
+        roomChargesLabel = new JLabel("");
+        extraChargesLabel = new JLabel("");
         subtotalLabel = new JLabel("");
         taxLabel = new JLabel("");
         totalAmountLabel = new JLabel("");
+        paymentsLabel = new JLabel("");
+        balanceDueLabel = new JLabel("");
+        
+        // Folio entries table
+        String[] folioColumns = {"Posted", "Type", "Category", "Description", "Amount", "Balance"};
+        folioTableModel = new DefaultTableModel(folioColumns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        folioTable = new JTable(folioTableModel);
+        folioTable.setFillsViewportHeight(true);
+        folioTable.setRowHeight(22);
         
         // Status and date labels
         statusLabel = new JLabel("");
@@ -87,11 +113,15 @@ public class BillView extends JDialog {
         emailButton = new JButton("Email Bill");
         closeButton = new JButton("Close");
         refreshButton = new JButton("Refresh");
+        postChargeButton = new JButton("Post Charge");
+        recordPaymentButton = new JButton("Record Payment");
         
         printButton.setPreferredSize(new Dimension(120, 30));
         emailButton.setPreferredSize(new Dimension(120, 30));
         closeButton.setPreferredSize(new Dimension(100, 30));
         refreshButton.setPreferredSize(new Dimension(100, 30));
+        postChargeButton.setPreferredSize(new Dimension(120, 30));
+        recordPaymentButton.setPreferredSize(new Dimension(140, 30));
         
         // Set fonts for labels
         Font labelFont = new Font("Arial", Font.PLAIN, 12);
@@ -107,9 +137,13 @@ public class BillView extends JDialog {
         checkOutDateLabel.setFont(valueFont);
         nightsLabel.setFont(valueFont);
         pricePerNightLabel.setFont(valueFont);
+        roomChargesLabel.setFont(valueFont);
+        extraChargesLabel.setFont(valueFont);
         subtotalLabel.setFont(valueFont);
         taxLabel.setFont(valueFont);
         totalAmountLabel.setFont(valueFont);
+        paymentsLabel.setFont(valueFont);
+        balanceDueLabel.setFont(valueFont);
         statusLabel.setFont(valueFont);
         issueDateLabel.setFont(valueFont);
     }
@@ -238,16 +272,26 @@ public class BillView extends JDialog {
         billPanel.add(pricePerNightLabel, gbc);
         
         gbc.gridx = 0; gbc.gridy = 21;
+        billPanel.add(new JLabel("Room Charges:"), gbc);
+        gbc.gridx = 1;
+        billPanel.add(roomChargesLabel, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 22;
+        billPanel.add(new JLabel("Extra Charges:"), gbc);
+        gbc.gridx = 1;
+        billPanel.add(extraChargesLabel, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 23;
         billPanel.add(new JLabel("Subtotal:"), gbc);
         gbc.gridx = 1;
         billPanel.add(subtotalLabel, gbc);
         
-        gbc.gridx = 0; gbc.gridy = 22;
+        gbc.gridx = 0; gbc.gridy = 24;
         billPanel.add(new JLabel("Tax (10%):"), gbc);
         gbc.gridx = 1;
         billPanel.add(taxLabel, gbc);
         
-        gbc.gridx = 0; gbc.gridy = 23;
+        gbc.gridx = 0; gbc.gridy = 25;
         billPanel.add(new JLabel("Total Amount:"), gbc);
         gbc.gridx = 1;
         JLabel totalLabel = new JLabel("$0.00");
@@ -255,8 +299,31 @@ public class BillView extends JDialog {
         totalLabel.setForeground(new Color(46, 204, 113));
         billPanel.add(totalAmountLabel, gbc);
         
+        gbc.gridx = 0; gbc.gridy = 26;
+        billPanel.add(new JLabel("Payments:"), gbc);
+        gbc.gridx = 1;
+        billPanel.add(paymentsLabel, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 27;
+        billPanel.add(new JLabel("Balance Due:"), gbc);
+        gbc.gridx = 1;
+        billPanel.add(balanceDueLabel, gbc);
+        
+        // Folio Section
+        gbc.gridx = 0; gbc.gridy = 28; gbc.gridwidth = 2; gbc.anchor = GridBagConstraints.WEST;
+        JLabel folioSectionTitle = new JLabel("Folio");
+        folioSectionTitle.setFont(new Font("Arial", Font.BOLD, 14));
+        folioSectionTitle.setForeground(new Color(52, 73, 94));
+        billPanel.add(folioSectionTitle, gbc);
+        
+        gbc.gridy = 29; gbc.fill = GridBagConstraints.BOTH;
+        JScrollPane folioScrollPane = new JScrollPane(folioTable);
+        folioScrollPane.setPreferredSize(new Dimension(520, 140));
+        billPanel.add(folioScrollPane, gbc);
+        gbc.fill = GridBagConstraints.NONE;
+        
         // Footer
-        gbc.gridx = 0; gbc.gridy = 25; gbc.gridwidth = 2; gbc.anchor = GridBagConstraints.CENTER;
+        gbc.gridx = 0; gbc.gridy = 31; gbc.gridwidth = 2; gbc.anchor = GridBagConstraints.CENTER;
         JLabel footerLabel = new JLabel("Thank you for choosing Grand Hotel Paradise!");
         footerLabel.setFont(new Font("Arial", Font.ITALIC, 12));
         footerLabel.setForeground(new Color(128, 128, 128));
@@ -270,6 +337,8 @@ public class BillView extends JDialog {
         // Button panel
         JPanel buttonPanel = new JPanel(new FlowLayout());
         buttonPanel.setBackground(Color.WHITE);
+        buttonPanel.add(postChargeButton);
+        buttonPanel.add(recordPaymentButton);
         buttonPanel.add(printButton);
         buttonPanel.add(emailButton);
         buttonPanel.add(refreshButton);
@@ -280,7 +349,7 @@ public class BillView extends JDialog {
     }
     
     private void setupDialog() {
-        setSize(600, 700);
+        setSize(720, 800);
         setLocationRelativeTo(getParent());
         setResizable(true);
         setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
@@ -297,9 +366,13 @@ public class BillView extends JDialog {
     public void setCheckOutDate(String checkOutDate) { checkOutDateLabel.setText(checkOutDate); }
     public void setNights(String nights) { nightsLabel.setText(nights); }
     public void setPricePerNight(String pricePerNight) { pricePerNightLabel.setText(pricePerNight); }
+    public void setRoomCharges(String roomCharges) { roomChargesLabel.setText(roomCharges); }
+    public void setExtraCharges(String extraCharges) { extraChargesLabel.setText(extraCharges); }
     public void setSubtotal(String subtotal) { subtotalLabel.setText(subtotal); }
     public void setTax(String tax) { taxLabel.setText(tax); }
     public void setTotalAmount(String totalAmount) { totalAmountLabel.setText(totalAmount); }
+    public void setPayments(String payments) { paymentsLabel.setText(payments); }
+    public void setBalanceDue(String balanceDue) { balanceDueLabel.setText(balanceDue); }
     public void setStatus(String status) { statusLabel.setText(status); }
     public void setIssueDate(String issueDate) { issueDateLabel.setText(issueDate); }
     
@@ -308,6 +381,10 @@ public class BillView extends JDialog {
     public void addEmailButtonListener(ActionListener listener) { emailButton.addActionListener(listener); }
     public void addCloseButtonListener(ActionListener listener) { closeButton.addActionListener(listener); }
     public void addRefreshButtonListener(ActionListener listener) { refreshButton.addActionListener(listener); }
+    public void addPostChargeButtonListener(ActionListener listener) { postChargeButton.addActionListener(listener); }
+    public void addRecordPaymentButtonListener(ActionListener listener) { recordPaymentButton.addActionListener(listener); }
+    
+    public DefaultTableModel getFolioTableModel() { return folioTableModel; }
     
     // Utility methods
     public void clearBill() {
@@ -321,9 +398,14 @@ public class BillView extends JDialog {
         setCheckOutDate("");
         setNights("");
         setPricePerNight("");
+        setRoomCharges("");
+        setExtraCharges("");
         setSubtotal("");
         setTax("");
         setTotalAmount("");
+        setPayments("");
+        setBalanceDue("");
+        folioTableModel.setRowCount(0);
         setStatus("");
         setIssueDate("");
     }
@@ -4,7 +4,10 @@ import java.sql.*;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Booking model class for the Hotel Management System
@@ -12,7 +15,48 @@ import java.util.List;
  */
 public class Booking {
     public enum BookingStatus {
-        PENDING, CONFIRMED, CHECKED_IN, CHECKED_OUT, CANCELLED
+        PENDING, CONFIRMED, CHECKED_IN, CHECKED_OUT, CANCELLED;
+        
+        /**
+         * Check whether a booking in this status may move to the given status
+         * Bookings move PENDING -> CONFIRMED -> CHECKED_IN -> CHECKED_OUT and can be
+         * cancelled until the guest has checked in
+         * @param next Requested status
+         * @return true if the transition is allowed
+         */
+        public boolean canTransitionTo(BookingStatus next) {
+            switch (this) {
+                case PENDING:
+                    return next == CONFIRMED || next == CANCELLED;
+                case CONFIRMED:
+                    return next == CHECKED_IN || next == CANCELLED;
+                case CHECKED_IN:
+                    return next == CHECKED_OUT;
+                default:
+                    return false;
+            }
+        }
+    }
+    
+    /**
+     * Outcome of a batch status change
+     * Either every booking was changed or, if any was rejected, none were
+     */
+    public static class StatusChangeResult {
+        private final boolean applied;
+        private final Map<Integer, String> rejected;
+        
+        StatusChangeResult(boolean applied, Map<Integer, String> rejected) {
+            this.applied = applied;
+            this.rejected = Collections.unmodifiableMap(rejected);
+        }
+        
+        public boolean isApplied() { return applied; }
+        
+        /**
+         * @return Reason for each booking that blocked the change, keyed by booking ID
+         */
+        public Map<Integer, String> getRejected() { return rejected; }
     }
     
     private int bookingId;
@@ -20,20 +64,23 @@ public class Booking {
     private int roomId;
     private LocalDate checkInDate;
     private LocalDate checkOutDate;
-    private double totalAmount;
+    private Money totalAmount;
     private BookingStatus bookingStatus;
     private Timestamp createdAt;
+    private Money folioCharges = Money.ZERO;
+    private Money folioPayments = Money.ZERO;
+    private Timestamp updatedAt;
     
     // Additional fields for display purposes
     private String customerName;
     private String roomNumber;
     private String roomType;
-    private double pricePerNight;
+    private Money pricePerNight;
     
     // Constructors
     public Booking() {}
     
-    public Booking(int customerId, int roomId, LocalDate checkInDate, LocalDate checkOutDate, double totalAmount) {
+    public Booking(int customerId, int roomId, LocalDate checkInDate, LocalDate checkOutDate, Money totalAmount) {
         this.customerId = customerId;
         this.roomId = roomId;
         this.checkInDate = checkInDate;
@@ -43,7 +90,7 @@ public class Booking {
     }
     
     public Booking(int bookingId, int customerId, int roomId, LocalDate checkInDate, LocalDate checkOutDate, 
-                   double totalAmount, BookingStatus bookingStatus, Timestamp createdAt) {
+                   Money totalAmount, BookingStatus bookingStatus, Timestamp createdAt) {
         this.bookingId = bookingId;
         this.customerId = customerId;
         this.roomId = roomId;
@@ -70,8 +117,8 @@ public class Booking {
     public LocalDate getCheckOutDate() { return checkOutDate; }
     public void setCheckOutDate(LocalDate checkOutDate) { this.checkOutDate = checkOutDate; }
     
-    public double getTotalAmount() { return totalAmount; }
-    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    public Money getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(Money totalAmount) { this.totalAmount = totalAmount; }
     
     public BookingStatus getBookingStatus() { return bookingStatus; }
     public void setBookingStatus(BookingStatus bookingStatus) { this.bookingStatus = bookingStatus; }
@@ -79,6 +126,18 @@ public class Booking {
     public Timestamp getCreatedAt() { return createdAt; }
     public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
     
+    public Money getFolioCharges() { return folioCharges; }
+    public void setFolioCharges(Money folioCharges) { this.folioCharges = folioCharges; }
+    
+    public Money getFolioPayments() { return folioPayments; }
+    public void setFolioPayments(Money folioPayments) { this.folioPayments = folioPayments; }
+    
+    /**
+     * @return Version of the row as loaded by getBookingById, or null if not loaded; updateBooking checks it
+     */
+    public Timestamp getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
+    
     public String getCustomerName() { return customerName; }
     public void setCustomerName(String customerName) { this.customerName = customerName; }
     
@@ -88,8 +147,8 @@ public class Booking {
     public String getRoomType() { return roomType; }
     public void setRoomType(String roomType) { this.roomType = roomType; }
     
-    public double getPricePerNight() { return pricePerNight; }
-    public void setPricePerNight(double pricePerNight) { this.pricePerNight = pricePerNight; }
+    public Money getPricePerNight() { return pricePerNight; }
+    public void setPricePerNight(Money pricePerNight) { this.pricePerNight = pricePerNight; }
     
     /**
      * Calculate number of nights
@@ -104,27 +163,95 @@ public class Booking {
      * @param pricePerNight Price per night
      * @return Calculated total amount
      */
-    public double calculateTotalAmount(double pricePerNight) {
+    public Money calculateTotalAmount(Money pricePerNight) {
         long nights = getNumberOfNights();
-        return nights * pricePerNight;
+        return pricePerNight.times(nights);
     }
     
     /**
-     * Add a new booking to the database
-     * @return true if successful, false otherwise
+     * Add a new booking
+     * The booking is written straight to the database, never journaled, with its room locked
+     * while the stay is checked against pending, confirmed and checked-in bookings, so two
+     * desks cannot both be told they got the same room for the same nights.
+     * @return true if successful, false if the room is taken or the booking could not be saved
      */
     public boolean addBooking() {
-        String sql = "INSERT INTO bookings (customer_id, room_id, check_in_date, check_out_date, total_amount, booking_status) VALUES (?, ?, ?, ?, ?, ?)";
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean inserted = lockRoomIfFree(conn, roomId, checkInDate, checkOutDate) && insertBooking(conn);
+                conn.commit();
+                DBConnection.markWrite();
+                return inserted;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error adding booking: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+    
+    /**
+     * Lock one of the current hotel's rooms and check that no pending, confirmed or checked-in
+     * booking overlaps the stay; the lock is held until the caller's transaction ends
+     * @param conn Connection to use; the caller owns the transaction
+     * @return true if the room exists and is free for the whole stay
+     */
+    static boolean lockRoomIfFree(Connection conn, int roomId, LocalDate checkInDate, LocalDate checkOutDate) throws SQLException {
+        String lockSql = "SELECT room_id FROM rooms WHERE room_id = ? AND hotel_id = ? FOR UPDATE";
+        String overlapSql = """
+            SELECT COUNT(*) FROM bookings
+            WHERE room_id = ? AND booking_status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN')
+              AND check_in_date < ? AND check_out_date > ?
+            """;
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement lock = conn.prepareStatement(lockSql);
+             PreparedStatement overlap = conn.prepareStatement(overlapSql)) {
+            lock.setInt(1, roomId);
+            lock.setInt(2, Hotel.currentId());
+            try (ResultSet rs = lock.executeQuery()) {
+                if (!rs.next()) {
+                    return false;
+                }
+            }
             
-            stmt.setInt(1, customerId);
-            stmt.setInt(2, roomId);
-            stmt.setDate(3, Date.valueOf(checkInDate));
-            stmt.setDate(4, Date.valueOf(checkOutDate));
-            stmt.setDouble(5, totalAmount);
-            stmt.setString(6, bookingStatus.name());
+            overlap.setInt(1, roomId);
+            overlap.setDate(2, Date.valueOf(checkOutDate));
+            overlap.setDate(3, Date.valueOf(checkInDate));
+            try (ResultSet rs = overlap.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 0;
+            }
+        }
+    }
+    
+    /**
+     * Insert this booking, mark its room unavailable and add it to the revenue rollups
+     * on the given connection
+     * Nothing is inserted unless the room and the customer both belong to the current hotel.
+     * @param conn Connection to use; the caller owns the transaction
+     * @return true if the booking was inserted
+     */
+    boolean insertBooking(Connection conn) throws SQLException {
+        String sql = """
+            INSERT INTO bookings (hotel_id, customer_id, room_id, check_in_date, check_out_date, total_amount, booking_status)
+            SELECT r.hotel_id, c.customer_id, r.room_id, ?, ?, ?, ?
+            FROM rooms r JOIN customers c ON c.hotel_id = r.hotel_id
+            WHERE r.room_id = ? AND c.customer_id = ? AND r.hotel_id = ?
+            """;
+        String roomSql = "UPDATE rooms SET is_available = FALSE WHERE room_id = ?";
+        
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            stmt.setDate(1, Date.valueOf(checkInDate));
+            stmt.setDate(2, Date.valueOf(checkOutDate));
+            Money.setMoney(stmt, 3, totalAmount);
+            stmt.setString(4, bookingStatus.name());
+            stmt.setInt(5, roomId);
+            stmt.setInt(6, customerId);
+            stmt.setInt(7, Hotel.currentId());
             
             int affectedRows = stmt.executeUpdate();
             
@@ -136,42 +263,77 @@ public class Booking {
                 }
                 
                 // Update room availability
-                Room.updateRoomAvailability(roomId, false);
+                try (PreparedStatement roomStmt = conn.prepareStatement(roomSql)) {
+                    roomStmt.setInt(1, roomId);
+                    roomStmt.executeUpdate();
+                }
+                
+                RevenueRollup.recordChange(conn, null, RevenueRollup.readStay(conn, bookingId));
+                BookingEvents.append(conn, BookingEvents.EventType.CREATED, bookingId);
+                ChangeFeed.changed(ChangeFeed.Table.BOOKINGS, bookingId);
+                ChangeFeed.changed(ChangeFeed.Table.ROOMS, roomId);
                 return true;
             }
-        } catch (SQLException e) {
-            System.err.println("Error adding booking: " + e.getMessage());
-            e.printStackTrace();
         }
         return false;
     }
     
     /**
      * Update booking information in the database
-     * @return true if successful, false otherwise
+     * Nothing is written if the booking changed since it was loaded, e.g. by a status change
+     * or a folio posting; a booking without a loaded version (see getUpdatedAt) is overwritten.
+     * @return Result of the update; on a conflict it carries the booking as it is now
      */
-    public boolean updateBooking() {
-        String sql = "UPDATE bookings SET customer_id = ?, room_id = ?, check_in_date = ?, check_out_date = ?, total_amount = ?, booking_status = ? WHERE booking_id = ?";
+    public UpdateResult<Booking> updateBooking() {
+        String lockSql = "SELECT booking_id FROM bookings WHERE booking_id = ? AND hotel_id = ? FOR UPDATE";
+        String sql = "UPDATE bookings SET customer_id = ?, room_id = ?, check_in_date = ?, check_out_date = ?, total_amount = ?, booking_status = ? WHERE booking_id = ? AND hotel_id = ?"
+            + (updatedAt != null ? " AND updated_at = ?" : "");
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, customerId);
-            stmt.setInt(2, roomId);
-            stmt.setDate(3, Date.valueOf(checkInDate));
-            stmt.setDate(4, Date.valueOf(checkOutDate));
-            stmt.setDouble(5, totalAmount);
-            stmt.setString(6, bookingStatus.name());
-            stmt.setInt(7, bookingId);
-            
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                lock.setInt(1, bookingId);
+                lock.setInt(2, Hotel.currentId());
+                lock.executeQuery().close();
+                RevenueRollup.Stay before = RevenueRollup.readStay(conn, bookingId);
+                
+                stmt.setInt(1, customerId);
+                stmt.setInt(2, roomId);
+                stmt.setDate(3, Date.valueOf(checkInDate));
+                stmt.setDate(4, Date.valueOf(checkOutDate));
+                Money.setMoney(stmt, 5, totalAmount);
+                stmt.setString(6, bookingStatus.name());
+                stmt.setInt(7, bookingId);
+                stmt.setInt(8, Hotel.currentId());
+                if (updatedAt != null) {
+                    stmt.setTimestamp(9, updatedAt);
+                }
+                
+                if (stmt.executeUpdate() == 0) {
+                    Booking current = getBookingById(conn, bookingId);
+                    conn.rollback();
+                    return current != null ? UpdateResult.conflict(current) : UpdateResult.notFound();
+                }
+                RevenueRollup.recordChange(conn, before, RevenueRollup.readStay(conn, bookingId));
+                BookingEvents.append(conn, BookingEvents.EventType.AMENDED, bookingId);
+                ChangeFeed.changed(ChangeFeed.Table.BOOKINGS, bookingId);
+                updatedAt = UpdateResult.readVersion(conn, "bookings", "booking_id", bookingId);
+                conn.commit();
+                DBConnection.markWrite();
+                return UpdateResult.updated(this);
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating booking: " + e.getMessage());
             e.printStackTrace();
         }
-        return false;
+        return UpdateResult.failed();
     }
     
     /**
@@ -181,36 +343,139 @@ public class Booking {
      * @return true if successful, false otherwise
      */
     public static boolean updateBookingStatus(int bookingId, BookingStatus status) {
-        String sql = "UPDATE bookings SET booking_status = ? WHERE booking_id = ?";
+        BookingJournal journal = BookingJournal.getOpenJournal();
+        if (journal != null) {
+            return journal.appendStatusChange(List.of(bookingId), status);
+        }
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, status.name());
-            stmt.setInt(2, bookingId);
-            
-            int affectedRows = stmt.executeUpdate();
+        // Same locked, validated path as bulk changes, so the room and revenue rollups move with it
+        return updateBookingStatuses(List.of(bookingId), status).isApplied();
+    }
+    
+    /**
+     * Move several bookings to a new status in one transaction
+     * All bookings are locked and checked against the status transition rules first;
+     * if any booking is missing or cannot make the transition, nothing is changed.
+     * When the booking journal is open the change is journaled and checked when it reaches
+     * the database; rejections are reported to the journal's listeners.
+     * @param bookingIds IDs of the bookings to update
+     * @param status New booking status
+     * @return Result listing any rejected bookings
+     */
+    public static StatusChangeResult updateBookingStatuses(List<Integer> bookingIds, BookingStatus status) {
+        if (bookingIds.isEmpty()) {
+            return new StatusChangeResult(false, new LinkedHashMap<>());
+        }
+        
+        BookingJournal journal = BookingJournal.getOpenJournal();
+        if (journal != null) {
+            return new StatusChangeResult(journal.appendStatusChange(bookingIds, status), new LinkedHashMap<>());
+        }
+        
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
-            if (affectedRows > 0 && (status == BookingStatus.CANCELLED || status == BookingStatus.CHECKED_OUT)) {
-                // Get room_id and make room available again
-                String getRoomIdSql = "SELECT room_id FROM bookings WHERE booking_id = ?";
-                try (PreparedStatement getRoomStmt = conn.prepareStatement(getRoomIdSql)) {
-                    getRoomStmt.setInt(1, bookingId);
-                    ResultSet rs = getRoomStmt.executeQuery();
-                    if (rs.next()) {
-                        int roomId = rs.getInt("room_id");
-                        Room.updateRoomAvailability(roomId, true);
-                    }
+            try {
+                StatusChangeResult result = applyStatusChange(conn, bookingIds, status);
+                if (result.isApplied()) {
+                    conn.commit();
+                    DBConnection.markWrite();
+                } else {
+                    conn.rollback();
                 }
+                return result;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
-            
-            return affectedRows > 0;
-            
         } catch (SQLException e) {
-            System.err.println("Error updating booking status: " + e.getMessage());
+            System.err.println("Error updating booking statuses: " + e.getMessage());
             e.printStackTrace();
         }
-        return false;
+        return new StatusChangeResult(false, new LinkedHashMap<>());
+    }
+    
+    /**
+     * Lock, validate and update several bookings on the given connection
+     * Nothing is written if any booking is rejected; the caller commits or rolls back.
+     * @param conn Connection with auto-commit off
+     * @param bookingIds IDs of the bookings to update
+     * @param status New booking status
+     * @return Result listing any rejected bookings
+     */
+    static StatusChangeResult applyStatusChange(Connection conn, List<Integer> bookingIds, BookingStatus status) throws SQLException {
+        Map<Integer, String> rejected = new LinkedHashMap<>();
+        
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < bookingIds.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        String selectSql = "SELECT booking_id, room_id, booking_status FROM bookings WHERE booking_id IN (" + placeholders + ") AND hotel_id = ? FOR UPDATE";
+        String updateSql = "UPDATE bookings SET booking_status = ? WHERE booking_id = ?";
+        String roomSql = "UPDATE rooms SET is_available = TRUE WHERE room_id = ?";
+        
+        // Lock the rows and validate every transition before writing anything
+        Map<Integer, Integer> roomIds = new LinkedHashMap<>();
+        Map<Integer, BookingStatus> currentStatuses = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+            for (int i = 0; i < bookingIds.size(); i++) {
+                stmt.setInt(i + 1, bookingIds.get(i));
+            }
+            stmt.setInt(bookingIds.size() + 1, Hotel.currentId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    roomIds.put(rs.getInt("booking_id"), rs.getInt("room_id"));
+                    currentStatuses.put(rs.getInt("booking_id"), BookingStatus.valueOf(rs.getString("booking_status")));
+                }
+            }
+        }
+        
+        for (int bookingId : bookingIds) {
+            BookingStatus current = currentStatuses.get(bookingId);
+            if (current == null) {
+                rejected.put(bookingId, "booking no longer exists");
+            } else if (!current.canTransitionTo(status)) {
+                rejected.put(bookingId, "cannot change from " + current + " to " + status);
+            }
+        }
+        
+        if (!rejected.isEmpty()) {
+            return new StatusChangeResult(false, rejected);
+        }
+        
+        Map<Integer, RevenueRollup.Stay> stays = RevenueRollup.readStays(conn, currentStatuses.keySet());
+        
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            for (int bookingId : currentStatuses.keySet()) {
+                stmt.setString(1, status.name());
+                stmt.setInt(2, bookingId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        
+        if (status == BookingStatus.CANCELLED || status == BookingStatus.CHECKED_OUT) {
+            // Make the rooms available again
+            try (PreparedStatement stmt = conn.prepareStatement(roomSql)) {
+                for (int roomId : roomIds.values()) {
+                    stmt.setInt(1, roomId);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            ChangeFeed.changed(Hotel.currentId(), ChangeFeed.Table.ROOMS, roomIds.values());
+        }
+        
+        RevenueRollup.Delta revenue = new RevenueRollup.Delta();
+        for (RevenueRollup.Stay stay : stays.values()) {
+            revenue.change(stay, stay.withStatus(status));
+        }
+        revenue.write(conn);
+        BookingEvents.append(conn, BookingEvents.EventType.forStatus(status), currentStatuses.keySet());
+        ChangeFeed.changed(Hotel.currentId(), ChangeFeed.Table.BOOKINGS, currentStatuses.keySet());
+        
+        return new StatusChangeResult(true, rejected);
     }
     
     /**
@@ -219,15 +484,39 @@ public class Booking {
      * @return true if successful, false otherwise
      */
     public static boolean deleteBooking(int bookingId) {
-        String sql = "DELETE FROM bookings WHERE booking_id = ?";
+        String lockSql = "SELECT booking_id FROM bookings WHERE booking_id = ? AND hotel_id = ? FOR UPDATE";
+        String sql = "DELETE FROM bookings WHERE booking_id = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, bookingId);
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                lock.setInt(1, bookingId);
+                lock.setInt(2, Hotel.currentId());
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (rs.next()) {
+                        BookingEvents.append(conn, BookingEvents.EventType.DELETED, bookingId);
+                    }
+                }
+                RevenueRollup.Stay before = RevenueRollup.readStay(conn, bookingId);
+                
+                stmt.setInt(1, bookingId);
+                stmt.setInt(2, Hotel.currentId());
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    RevenueRollup.recordChange(conn, before, null);
+                    ChangeFeed.changed(ChangeFeed.Table.BOOKINGS, bookingId);
+                }
+                conn.commit();
+                DBConnection.markWrite();
+                return affectedRows > 0;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting booking: " + e.getMessage());
             e.printStackTrace();
@@ -241,45 +530,64 @@ public class Booking {
      * @return Booking object or null if not found
      */
     public static Booking getBookingById(int bookingId) {
+        try (Connection conn = DBConnection.getReadConnection()) {
+            return getBookingById(conn, bookingId);
+        } catch (SQLException e) {
+            System.err.println("Error getting booking by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+    
+    private static Booking getBookingById(Connection conn, int bookingId) throws SQLException {
         String sql = """
             SELECT b.*, CONCAT(c.first_name, ' ', c.last_name) as customer_name, 
                    r.room_number, r.room_type, r.price_per_night
             FROM bookings b
             JOIN customers c ON b.customer_id = c.customer_id
             JOIN rooms r ON b.room_id = r.room_id
-            WHERE b.booking_id = ?
+            WHERE b.booking_id = ? AND b.hotel_id = ?
             """;
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, bookingId);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                Booking booking = new Booking(
-                    rs.getInt("booking_id"),
-                    rs.getInt("customer_id"),
-                    rs.getInt("room_id"),
-                    rs.getDate("check_in_date").toLocalDate(),
-                    rs.getDate("check_out_date").toLocalDate(),
-                    rs.getDouble("total_amount"),
-                    BookingStatus.valueOf(rs.getString("booking_status")),
-                    rs.getTimestamp("created_at")
-                );
-                booking.setCustomerName(rs.getString("customer_name"));
-                booking.setRoomNumber(rs.getString("room_number"));
-                booking.setRoomType(rs.getString("room_type"));
-                booking.setPricePerNight(rs.getDouble("price_per_night"));
+                Booking booking = fromJoinedRow(rs);
+                booking.setFolioCharges(Money.getMoney(rs, "folio_charges"));
+                booking.setFolioPayments(Money.getMoney(rs, "folio_payments"));
+                booking.setUpdatedAt(rs.getTimestamp("updated_at"));
                 return booking;
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting booking by ID: " + e.getMessage());
-            e.printStackTrace();
         }
         return null;
     }
     
+    /**
+     * Read the current row of a bookings query joined with customer name and room columns
+     * @param rs Result set positioned on a row
+     * @return Booking with its display fields filled in
+     */
+    static Booking fromJoinedRow(ResultSet rs) throws SQLException {
+        Booking booking = new Booking(
+            rs.getInt("booking_id"),
+            rs.getInt("customer_id"),
+            rs.getInt("room_id"),
+            rs.getDate("check_in_date").toLocalDate(),
+            rs.getDate("check_out_date").toLocalDate(),
+            Money.getMoney(rs, "total_amount"),
+            BookingStatus.valueOf(rs.getString("booking_status")),
+            rs.getTimestamp("created_at")
+        );
+        booking.setCustomerName(rs.getString("customer_name"));
+        booking.setRoomNumber(rs.getString("room_number"));
+        booking.setRoomType(rs.getString("room_type"));
+        booking.setPricePerNight(Money.getMoney(rs, "price_per_night"));
+        return booking;
+    }
+    
     /**
      * Get all bookings
      * @return List of all bookings
@@ -292,29 +600,18 @@ public class Booking {
             FROM bookings b
             JOIN customers c ON b.customer_id = c.customer_id
             JOIN rooms r ON b.room_id = r.room_id
+            WHERE b.hotel_id = ?
             ORDER BY b.created_at DESC
             """;
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, Hotel.currentId());
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                Booking booking = new Booking(
-                    rs.getInt("booking_id"),
-                    rs.getInt("customer_id"),
-                    rs.getInt("room_id"),
-                    rs.getDate("check_in_date").toLocalDate(),
-                    rs.getDate("check_out_date").toLocalDate(),
-                    rs.getDouble("total_amount"),
-                    BookingStatus.valueOf(rs.getString("booking_status")),
-                    rs.getTimestamp("created_at")
-                );
-                booking.setCustomerName(rs.getString("customer_name"));
-                booking.setRoomNumber(rs.getString("room_number"));
-                booking.setRoomType(rs.getString("room_type"));
-                booking.setPricePerNight(rs.getDouble("price_per_night"));
-                bookings.add(booking);
+                bookings.add(fromJoinedRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting all bookings: " + e.getMessage());
@@ -336,32 +633,19 @@ public class Booking {
             FROM bookings b
             JOIN customers c ON b.customer_id = c.customer_id
             JOIN rooms r ON b.room_id = r.room_id
-            WHERE b.customer_id = ?
+            WHERE b.customer_id = ? AND b.hotel_id = ?
             ORDER BY b.created_at DESC
             """;
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setInt(1, customerId);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                Booking booking = new Booking(
-                    rs.getInt("booking_id"),
-                    rs.getInt("customer_id"),
-                    rs.getInt("room_id"),
-                    rs.getDate("check_in_date").toLocalDate(),
-                    rs.getDate("check_out_date").toLocalDate(),
-                    rs.getDouble("total_amount"),
-                    BookingStatus.valueOf(rs.getString("booking_status")),
-                    rs.getTimestamp("created_at")
-                );
-                booking.setCustomerName(rs.getString("customer_name"));
-                booking.setRoomNumber(rs.getString("room_number"));
-                booking.setRoomType(rs.getString("room_type"));
-                booking.setPricePerNight(rs.getDouble("price_per_night"));
-                bookings.add(booking);
+                bookings.add(fromJoinedRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting bookings by customer ID: " + e.getMessage());
@@ -383,32 +667,19 @@ public class Booking {
             FROM bookings b
             JOIN customers c ON b.customer_id = c.customer_id
             JOIN rooms r ON b.room_id = r.room_id
-            WHERE b.booking_status = ?
+            WHERE b.hotel_id = ? AND b.booking_status = ?
             ORDER BY b.created_at DESC
             """;
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setString(1, status.name());
+            stmt.setInt(1, Hotel.currentId());
+            stmt.setString(2, status.name());
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
-                Booking booking = new Booking(
-                    rs.getInt("booking_id"),
-                    rs.getInt("customer_id"),
-                    rs.getInt("room_id"),
-                    rs.getDate("check_in_date").toLocalDate(),
-                    rs.getDate("check_out_date").toLocalDate(),
-                    rs.getDouble("total_amount"),
-                    BookingStatus.valueOf(rs.getString("booking_status")),
-                    rs.getTimestamp("created_at")
-                );
-                booking.setCustomerName(rs.getString("customer_name"));
-                booking.setRoomNumber(rs.getString("room_number"));
-                booking.setRoomType(rs.getString("room_type"));
-                booking.setPricePerNight(rs.getDouble("price_per_night"));
-                bookings.add(booking);
+                bookings.add(fromJoinedRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error getting bookings by status: " + e.getMessage());
@@ -431,6 +702,7 @@ public class Booking {
             AND ((check_in_date <= ? AND check_out_date > ?) OR 
                  (check_in_date < ? AND check_out_date >= ?) OR 
                  (check_in_date >= ? AND check_out_date <= ?))
+            AND hotel_id = ?
             """;
         
         try (Connection conn = DBConnection.getConnection();
@@ -438,11 +710,12 @@ public class Booking {
             
             stmt.setInt(1, roomId);
             stmt.setDate(2, Date.valueOf(checkOutDate));
-            stmt.setDate(3, checkInDate);
-            stmt.setDate(4, checkOutDate);
-            stmt.setDate(5, checkInDate);
-            stmt.setDate(6, checkInDate);
-            stmt.setDate(7, checkOutDate);
+            stmt.setDate(3, Date.valueOf(checkInDate));
+            stmt.setDate(4, Date.valueOf(checkOutDate));
+            stmt.setDate(5, Date.valueOf(checkInDate));
+            stmt.setDate(6, Date.valueOf(checkInDate));
+            stmt.setDate(7, Date.valueOf(checkOutDate));
+            stmt.setInt(8, Hotel.currentId());
             
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -457,7 +730,7 @@ public class Booking {
     
     @Override
     public String toString() {
-        return String.format("Booking{ID: %d, Customer: %s, Room: %s, Check-in: %s, Check-out: %s, Status: %s, Amount: $%.2f}", 
+        return String.format("Booking{ID: %d, Customer: %s, Room: %s, Check-in: %s, Check-out: %s, Status: %s, Amount: %s}", 
                            bookingId, customerName != null ? customerName : "Unknown", 
                            roomNumber != null ? roomNumber : "Unknown", 
                            checkInDate, checkOutDate, bookingStatus, totalAmount);
@@ -1,28 +1,55 @@
 package controller;
 
 import model.Booking;
+import model.BookingJournal;
+import model.BookingService;
+import model.ChangeFeed;
 import model.Customer;
+import model.CustomerService;
+import model.Folio;
+import model.Hotel;
+import model.Invoice;
+import model.InvoiceRenderer;
+import model.InvoiceTemplate;
+import model.LocalCatalog;
+import model.MailDispatcher;
+import model.Money;
+import model.RateCalendar;
 import model.Room;
+import model.RoomService;
+import model.UpdateResult;
 import view.AdminDashboard;
 import view.BookingView;
 import view.BillView;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import java.awt.Desktop;
+import java.awt.GridLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Booking Controller for the Hotel Management System
  * Handles booking management operations
  */
 public class BookingController {
+    private static final int STATUS_COLUMN = 6;
+    
     private AdminDashboard adminDashboard;
     private BookingView bookingView;
+    private Booking editingBooking; // As loaded when the edit dialog opened
     private BillView billView;
+    private Invoice billInvoice;
     private RoomController roomController;
     private CustomerController customerController;
     private JTable bookingsTable;
@@ -38,7 +65,15 @@ public class BookingController {
         this.customerController = new CustomerController(adminDashboard);
         
         setupEventHandlers();
-        loadBookings();
+        
+        // Start from the warm catalog when available; Refresh always queries the database
+        if (LocalCatalog.isLoaded()) {
+            List<Booking> bookings = LocalCatalog.getBookings();
+            populateBookingsTable(bookings);
+            System.out.println("Loaded " + bookings.size() + " bookings from catalog");
+        } else {
+            loadBookings();
+        }
     }
     
     private void setupEventHandlers() {
@@ -51,14 +86,39 @@ public class BookingController {
         adminDashboard.addBookingsCheckInButtonListener(e -> checkInBooking());
         adminDashboard.addBookingsCheckOutButtonListener(e -> checkOutBooking());
         adminDashboard.addBookingsCancelButtonListener(e -> cancelBooking());
+        
+        // Journaled changes reach the database in the background
+        BookingJournal journal = BookingJournal.getOpenJournal();
+        if (journal != null) {
+            journal.addListener(new BookingJournal.Listener() {
+                @Override
+                public void recordsApplied(int hotelId, Set<Integer> bookingIds) {
+                    if (hotelId == Hotel.currentId()) {
+                        SwingUtilities.invokeLater(() -> refreshRows(new ArrayList<>(bookingIds)));
+                    }
+                }
+                
+                @Override
+                public void recordRejected(long sequence, String reason) {
+                    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(adminDashboard,
+                        "A saved booking change could not be applied:\n" + reason,
+                        "Booking Change Rejected", JOptionPane.WARNING_MESSAGE));
+                }
+            });
+        }
     }
     
     private void showAddBookingDialog() {
-        bookingView = new BookingView(adminDashboard, "New Booking");
-        bookingView.setEditMode(false);
-        populateBookingViewData();
-        setupBookingViewEventHandlers();
-        bookingView.display();
+        CompletableFuture<List<Customer>> customersFuture = CustomerService.getAllCustomers();
+        CompletableFuture<List<Room>> roomsFuture = RoomService.getAvailableRooms();
+        
+        SwingFutures.onEdt(CompletableFuture.allOf(customersFuture, roomsFuture), loaded -> {
+            bookingView = new BookingView(adminDashboard, "New Booking");
+            bookingView.setEditMode(false);
+            populateBookingViewData(customersFuture.join(), roomsFuture.join());
+            setupBookingViewEventHandlers();
+            bookingView.display();
+        }, error -> adminDashboard.showMessage("Failed to load customers and rooms.", "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     private void showEditBookingDialog() {
@@ -72,24 +132,35 @@ public class BookingController {
         String bookingIdStr = (String) bookingsTableModel.getValueAt(selectedRow, 0);
         int bookingId = Integer.parseInt(bookingIdStr);
         
-        Booking booking = Booking.getBookingById(bookingId);
-        if (booking != null) {
-            bookingView = new BookingView(adminDashboard, "Edit Booking");
-            bookingView.setEditMode(true);
-            populateBookingViewData();
-            populateBookingView(booking);
-            setupBookingViewEventHandlers();
-            bookingView.display();
-        }
+        // The booking and the combo box data don't depend on each other, so load them together
+        CompletableFuture<Booking> bookingFuture = BookingService.getBookingById(bookingId);
+        CompletableFuture<List<Customer>> customersFuture = CustomerService.getAllCustomers();
+        CompletableFuture<List<Room>> roomsFuture = RoomService.getAvailableRooms();
+        
+        SwingFutures.onEdt(CompletableFuture.allOf(bookingFuture, customersFuture, roomsFuture), loaded -> {
+            Booking booking = bookingFuture.join();
+            if (booking != null) {
+                editingBooking = booking;
+                bookingView = new BookingView(adminDashboard, "Edit Booking");
+                bookingView.setEditMode(true);
+                populateBookingViewData(customersFuture.join(), roomsFuture.join());
+                populateBookingView(booking);
+                setupBookingViewEventHandlers();
+                bookingView.display();
+            }
+        }, error -> adminDashboard.showMessage("Failed to load the booking.", "Error", JOptionPane.ERROR_MESSAGE));
     }
     
-    private void populateBookingViewData() {
+    private void populateBookingViewData(List<Customer> customers, List<Room> availableRooms) {
         // Populate customer combo box
-        String[] customerData = customerController.createCustomerComboBoxData();
+        String[] customerData = new String[customers.size()];
+        for (int i = 0; i < customers.size(); i++) {
+            Customer customer = customers.get(i);
+            customerData[i] = customer.getCustomerId() + " - " + customer.getFirstName() + " " + customer.getLastName();
+        }
         bookingView.setCustomerComboBoxData(customerData);
         
         // Populate room combo box with available rooms
-        List<Room> availableRooms = roomController.getAvailableRooms();
         String[] roomData = new String[availableRooms.size()];
         for (int i = 0; i < availableRooms.size(); i++) {
             Room room = availableRooms.get(i);
@@ -111,14 +182,14 @@ public class BookingController {
         
         bookingView.setCheckInDate(booking.getCheckInDate());
         bookingView.setCheckOutDate(booking.getCheckOutDate());
-        bookingView.setTotalAmount(String.format("%.2f", booking.getTotalAmount()));
+        bookingView.setTotalAmount(booking.getTotalAmount().toPlainString());
         bookingView.setSelectedStatus(booking.getBookingStatus().name());
         
         // Set additional info
         bookingView.setCustomerName(booking.getCustomerName());
-        bookingView.setRoomDetails(booking.getRoomType() + " - $" + booking.getPricePerNight() + "/night");
+        bookingView.setRoomDetails(booking.getRoomType() + " - " + booking.getPricePerNight() + "/night");
         bookingView.setNights(booking.getNumberOfNights() + " nights");
-        bookingView.setPricePerNight("$" + String.format("%.2f", booking.getPricePerNight()));
+        bookingView.setPricePerNight(booking.getPricePerNight().toString());
     }
     
     private void setupBookingViewEventHandlers() {
@@ -170,8 +241,8 @@ public class BookingController {
         if (roomId != -1) {
             Room room = roomController.getRoomById(roomId);
             if (room != null) {
-                bookingView.setRoomDetails(room.getRoomType() + " - $" + room.getPricePerNight() + "/night");
-                bookingView.setPricePerNight("$" + String.format("%.2f", room.getPricePerNight()));
+                bookingView.setRoomDetails(room.getRoomType() + " - " + room.getPricePerNight() + "/night");
+                bookingView.setPricePerNight(room.getPricePerNight().toString());
                 calculateBookingAmount();
             }
         }
@@ -186,8 +257,8 @@ public class BookingController {
             if (roomId != -1) {
                 Room room = roomController.getRoomById(roomId);
                 if (room != null) {
-                    double totalAmount = room.getPricePerNight() * nights;
-                    bookingView.setTotalAmount(String.format("%.2f", totalAmount));
+                    Money totalAmount = RateCalendar.quote(room, bookingView.getCheckInDate(), bookingView.getCheckOutDate());
+                    bookingView.setTotalAmount(totalAmount.toPlainString());
                 }
             }
         }
@@ -206,17 +277,34 @@ public class BookingController {
             String message = "";
             
             if (bookingView.getTitle().equals("Edit Booking")) {
-                // Update existing booking
-                booking = Booking.getBookingById(Integer.parseInt(bookingView.getBookingId()));
-                if (booking != null) {
-                    booking.setCustomerId(bookingView.getSelectedCustomerId());
-                    booking.setRoomId(bookingView.getSelectedRoomId());
-                    booking.setCheckInDate(bookingView.getCheckInDate());
-                    booking.setCheckOutDate(bookingView.getCheckOutDate());
-                    booking.setTotalAmount(Double.parseDouble(bookingView.getTotalAmount()));
-                    booking.setBookingStatus(Booking.BookingStatus.valueOf(bookingView.getSelectedStatus()));
-                    
-                    success = booking.updateBooking();
+                // Update existing booking against the version loaded when the dialog opened
+                booking = new Booking();
+                booking.setBookingId(editingBooking.getBookingId());
+                booking.setCustomerId(bookingView.getSelectedCustomerId());
+                booking.setRoomId(bookingView.getSelectedRoomId());
+                booking.setCheckInDate(bookingView.getCheckInDate());
+                booking.setCheckOutDate(bookingView.getCheckOutDate());
+                booking.setTotalAmount(Money.parse(bookingView.getTotalAmount()));
+                booking.setBookingStatus(Booking.BookingStatus.valueOf(bookingView.getSelectedStatus()));
+                booking.setUpdatedAt(editingBooking.getUpdatedAt());
+                
+                UpdateResult<Booking> result = booking.updateBooking();
+                Booking original = editingBooking;
+                while (result.isConflict()) {
+                    Booking current = result.getCurrent();
+                    if (!MergePrompt.show(bookingView, "Booking #" + current.getBookingId(), mergeFields(original, booking, current))) {
+                        bookingView.showErrorMessage("Your changes were not saved.");
+                        return;
+                    }
+                    booking.setUpdatedAt(current.getUpdatedAt());
+                    original = current;
+                    result = booking.updateBooking();
+                }
+                
+                success = result.isUpdated();
+                if (result.getStatus() == UpdateResult.Status.NOT_FOUND) {
+                    message = "This booking has been deleted by someone else.";
+                } else {
                     message = success ? "Booking updated successfully!" : "Failed to update booking!";
                 }
             } else {
@@ -225,7 +313,7 @@ public class BookingController {
                 int roomId = bookingView.getSelectedRoomId();
                 LocalDate checkIn = bookingView.getCheckInDate();
                 LocalDate checkOut = bookingView.getCheckOutDate();
-                double totalAmount = Double.parseDouble(bookingView.getTotalAmount());
+                Money totalAmount = Money.parse(bookingView.getTotalAmount());
                 
                 // Check room availability
                 if (!Booking.isRoomAvailable(roomId, checkIn, checkOut)) {
@@ -236,7 +324,8 @@ public class BookingController {
                 
                 booking = new Booking(customerId, roomId, checkIn, checkOut, totalAmount);
                 success = booking.addBooking();
-                message = success ? "Booking created successfully!" : "Failed to create booking!";
+                message = success ? "Booking created successfully!"
+                    : "Failed to create booking! The room may have just been booked for these dates.";
             }
             
             if (success) {
@@ -254,83 +343,114 @@ public class BookingController {
         }
     }
     
+    private static List<MergePrompt.Field> mergeFields(Booking original, Booking mine, Booking current) {
+        return List.of(
+            new MergePrompt.Field("Customer ID", original.getCustomerId(), mine.getCustomerId(), current.getCustomerId(),
+                () -> mine.setCustomerId(current.getCustomerId())),
+            new MergePrompt.Field("Room ID", original.getRoomId(), mine.getRoomId(), current.getRoomId(),
+                () -> mine.setRoomId(current.getRoomId())),
+            new MergePrompt.Field("Check-in", original.getCheckInDate(), mine.getCheckInDate(), current.getCheckInDate(),
+                () -> mine.setCheckInDate(current.getCheckInDate())),
+            new MergePrompt.Field("Check-out", original.getCheckOutDate(), mine.getCheckOutDate(), current.getCheckOutDate(),
+                () -> mine.setCheckOutDate(current.getCheckOutDate())),
+            new MergePrompt.Field("Total amount", original.getTotalAmount(), mine.getTotalAmount(), current.getTotalAmount(),
+                () -> mine.setTotalAmount(current.getTotalAmount())),
+            new MergePrompt.Field("Status", original.getBookingStatus(), mine.getBookingStatus(), current.getBookingStatus(),
+                () -> mine.setBookingStatus(current.getBookingStatus()))
+        );
+    }
+    
     private void confirmBooking() {
-        int selectedRow = adminDashboard.getSelectedBookingsRow();
-        if (selectedRow == -1) {
-            adminDashboard.showMessage("Please select a booking to confirm.", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        
-        String bookingIdStr = (String) bookingsTableModel.getValueAt(selectedRow, 0);
-        int bookingId = Integer.parseInt(bookingIdStr);
-        
-        if (Booking.updateBookingStatus(bookingId, Booking.BookingStatus.CONFIRMED)) {
-            JOptionPane.showMessageDialog(adminDashboard, "Booking confirmed successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            loadBookings();
-        } else {
-            JOptionPane.showMessageDialog(adminDashboard, "Failed to confirm booking!", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        changeSelectedBookingsStatus(Booking.BookingStatus.CONFIRMED, "confirm",
+            "Booking confirmed successfully!", "bookings confirmed successfully!", "Failed to confirm booking!");
     }
     
     private void checkInBooking() {
-        int selectedRow = adminDashboard.getSelectedBookingsRow();
-        if (selectedRow == -1) {
-            adminDashboard.showMessage("Please select a booking to check in.", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        
-        String bookingIdStr = (String) bookingsTableModel.getValueAt(selectedRow, 0);
-        int bookingId = Integer.parseInt(bookingIdStr);
-        
-        if (Booking.updateBookingStatus(bookingId, Booking.BookingStatus.CHECKED_IN)) {
-            JOptionPane.showMessageDialog(adminDashboard, "Guest checked in successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            loadBookings();
-        } else {
-            JOptionPane.showMessageDialog(adminDashboard, "Failed to check in guest!", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        changeSelectedBookingsStatus(Booking.BookingStatus.CHECKED_IN, "check in",
+            "Guest checked in successfully!", "guests checked in successfully!", "Failed to check in guest!");
     }
     
     private void checkOutBooking() {
-        int selectedRow = adminDashboard.getSelectedBookingsRow();
-        if (selectedRow == -1) {
-            adminDashboard.showMessage("Please select a booking to check out.", "No Selection", JOptionPane.WARNING_MESSAGE);
-            return;
-        }
-        
-        String bookingIdStr = (String) bookingsTableModel.getValueAt(selectedRow, 0);
-        int bookingId = Integer.parseInt(bookingIdStr);
-        
-        if (Booking.updateBookingStatus(bookingId, Booking.BookingStatus.CHECKED_OUT)) {
-            JOptionPane.showMessageDialog(adminDashboard, "Guest checked out successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-            loadBookings();
-        } else {
-            JOptionPane.showMessageDialog(adminDashboard, "Failed to check out guest!", "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        changeSelectedBookingsStatus(Booking.BookingStatus.CHECKED_OUT, "check out",
+            "Guest checked out successfully!", "guests checked out successfully!", "Failed to check out guest!");
     }
     
     private void cancelBooking() {
-        int selectedRow = adminDashboard.getSelectedBookingsRow();
-        if (selectedRow == -1) {
+        int[] selectedRows = adminDashboard.getSelectedBookingsRows();
+        if (selectedRows.length == 0) {
             adminDashboard.showMessage("Please select a booking to cancel.", "No Selection", JOptionPane.WARNING_MESSAGE);
             return;
         }
         
-        String bookingIdStr = (String) bookingsTableModel.getValueAt(selectedRow, 0);
-        int bookingId = Integer.parseInt(bookingIdStr);
-        
         int result = JOptionPane.showConfirmDialog(adminDashboard, 
-            "Are you sure you want to cancel this booking?", 
+            selectedRows.length == 1 
+                ? "Are you sure you want to cancel this booking?" 
+                : "Are you sure you want to cancel these " + selectedRows.length + " bookings?", 
             "Confirm Cancellation", 
             JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
-            if (Booking.updateBookingStatus(bookingId, Booking.BookingStatus.CANCELLED)) {
-                JOptionPane.showMessageDialog(adminDashboard, "Booking cancelled successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
-                loadBookings();
-            } else {
-                JOptionPane.showMessageDialog(adminDashboard, "Failed to cancel booking!", "Error", JOptionPane.ERROR_MESSAGE);
+            changeSelectedBookingsStatus(Booking.BookingStatus.CANCELLED, "cancel",
+                "Booking cancelled successfully!", "bookings cancelled successfully!", "Failed to cancel booking!");
+        }
+    }
+    
+    /**
+     * Move every selected booking to the given status in one transaction
+     * Only the status cells of the affected rows are updated afterwards
+     */
+    private void changeSelectedBookingsStatus(Booking.BookingStatus status, String action,
+                                              String singleSuccessMessage, String multipleSuccessMessage,
+                                              String failureMessage) {
+        int[] selectedRows = adminDashboard.getSelectedBookingsRows();
+        if (selectedRows.length == 0) {
+            adminDashboard.showMessage("Please select a booking to " + action + ".", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        List<Integer> bookingIds = new ArrayList<>();
+        for (int row : selectedRows) {
+            bookingIds.add(getBookingIdAt(row));
+        }
+        
+        // Check the transitions against the table first; journaled changes are only validated later
+        StringBuilder invalid = new StringBuilder();
+        for (int row : selectedRows) {
+            Booking.BookingStatus current = Booking.BookingStatus.valueOf(
+                String.valueOf(bookingsTableModel.getValueAt(row, STATUS_COLUMN)));
+            if (!current.canTransitionTo(status)) {
+                invalid.append("\nBooking ").append(getBookingIdAt(row))
+                    .append(": cannot change from ").append(current).append(" to ").append(status);
             }
         }
+        if (invalid.length() > 0) {
+            JOptionPane.showMessageDialog(adminDashboard, "No bookings were changed. Cannot " + action + ":" + invalid,
+                "Invalid Status Change", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        Booking.StatusChangeResult result = Booking.updateBookingStatuses(bookingIds, status);
+        if (result.isApplied()) {
+            for (int row : selectedRows) {
+                bookingsTableModel.setValueAt(status.name(), row, STATUS_COLUMN);
+            }
+            String message = selectedRows.length == 1 
+                ? singleSuccessMessage 
+                : selectedRows.length + " " + multipleSuccessMessage;
+            JOptionPane.showMessageDialog(adminDashboard, message, "Success", JOptionPane.INFORMATION_MESSAGE);
+        } else if (!result.getRejected().isEmpty()) {
+            StringBuilder message = new StringBuilder("No bookings were changed. Cannot " + action + ":");
+            for (Map.Entry<Integer, String> rejected : result.getRejected().entrySet()) {
+                message.append("\nBooking ").append(rejected.getKey()).append(": ").append(rejected.getValue());
+            }
+            JOptionPane.showMessageDialog(adminDashboard, message.toString(), "Invalid Status Change", JOptionPane.WARNING_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(adminDashboard, failureMessage, "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+    
+    private int getBookingIdAt(int row) {
+        return Integer.parseInt(String.valueOf(bookingsTableModel.getValueAt(row, 0)));
     }
     
     private void deleteBooking() {
@@ -359,79 +479,244 @@ public class BookingController {
     }
     
     private void loadBookings() {
+        // Load all bookings
+        SwingFutures.onEdt(BookingService.getAllBookings(), bookings -> {
+            populateBookingsTable(bookings);
+            System.out.println("Loaded " + bookings.size() + " bookings");
+        });
+    }
+    
+    private void populateBookingsTable(List<Booking> bookings) {
         // Clear existing data
         bookingsTableModel.setRowCount(0);
         
-        // Load all bookings
-        List<Booking> bookings = Booking.getAllBookings();
         for (Booking booking : bookings) {
-            Object[] rowData = {
-                booking.getBookingId(),
-                booking.getCustomerName(),
-                booking.getRoomNumber(),
-                booking.getCheckInDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
-                booking.getCheckOutDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
-                String.format("$%.2f", booking.getTotalAmount()),
-                booking.getBookingStatus().name(),
-                booking.getCreatedAt().toString().split(" ")[0] // Date only
-            };
-            bookingsTableModel.addRow(rowData);
+            bookingsTableModel.addRow(bookingRow(booking));
         }
-        
-        System.out.println("Loaded " + bookings.size() + " bookings");
+    }
+    
+    static Object[] bookingRow(Booking booking) {
+        return new Object[] {
+            booking.getBookingId(),
+            booking.getCustomerName(),
+            booking.getRoomNumber(),
+            booking.getCheckInDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+            booking.getCheckOutDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+            booking.getTotalAmount(), // Renders through its cached display string
+            booking.getBookingStatus().name(),
+            booking.getCreatedAt().toString().split(" ")[0] // Date only
+        };
+    }
+    
+    /**
+     * Re-read bookings changed at another desk and update their rows in place
+     * New bookings are added at the top.
+     */
+    void applyChange(ChangeFeed.Change change) {
+        if (LiveUpdates.needsReload(change)) {
+            loadBookings();
+            return;
+        }
+        refreshRows(change.getIds());
+    }
+    
+    // Re-read the given bookings and update, add or remove their rows in place
+    private void refreshRows(List<Integer> bookingIds) {
+        LiveUpdates.fetch(bookingIds, BookingService::getBookingById, (bookingId, booking) ->
+            LiveUpdates.updateRow(bookingsTableModel, bookingId, booking != null ? bookingRow(booking) : null, 0));
     }
     
     // Method to show bill for selected booking
     public void showBill(int bookingId) {
-        Booking booking = Booking.getBookingById(bookingId);
-        if (booking != null) {
-            billView = new BillView(adminDashboard, "Booking Invoice");
-            populateBillView(booking);
-            setupBillViewEventHandlers();
-            billView.display();
-        }
+        loadBill(bookingId, true);
+    }
+    
+    private void reloadBill() {
+        loadBill(billInvoice.getBooking().getBookingId(), false);
     }
     
-    private void populateBillView(Booking booking) {
+    private void loadBill(int bookingId, boolean open) {
+        // The booking, its customer and its folio are independent reads, so they run at the same time
+        CompletableFuture<Booking> bookingFuture = BookingService.getBookingById(bookingId);
+        CompletableFuture<Customer> customerFuture = CustomerService.getCustomerByBookingId(bookingId);
+        CompletableFuture<List<Folio.Entry>> entriesFuture = BookingService.getFolioEntries(bookingId);
+        
+        SwingFutures.onEdt(CompletableFuture.allOf(bookingFuture, customerFuture, entriesFuture), loaded -> {
+            Booking booking = bookingFuture.join();
+            if (booking == null) {
+                return;
+            }
+            Customer customer = customerFuture.join();
+            if (open) {
+                billView = new BillView(adminDashboard, "Booking Invoice");
+                setupBillViewEventHandlers();
+            }
+            billInvoice = new Invoice(booking,
+                customer != null ? customer.getEmail() : "",
+                customer != null ? customer.getPhone() : "",
+                LocalDate.now());
+            populateBillView(billInvoice);
+            populateFolioTable(entriesFuture.join());
+            if (open) {
+                billView.display();
+            }
+        }, error -> JOptionPane.showMessageDialog(open ? adminDashboard : billView,
+            "Failed to load the bill: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE));
+    }
+    
+    private void populateBillView(Invoice invoice) {
+        Booking booking = invoice.getBooking();
         billView.setBookingId(String.valueOf(booking.getBookingId()));
         billView.setCustomerName(booking.getCustomerName());
-        billView.setCustomerEmail(customerController.getCustomerEmailById(booking.getCustomerId()));
-        billView.setCustomerPhone(customerController.getCustomerPhoneById(booking.getCustomerId()));
+        billView.setCustomerEmail(invoice.getCustomerEmail());
+        billView.setCustomerPhone(invoice.getCustomerPhone());
         billView.setRoomNumber(booking.getRoomNumber());
         billView.setRoomType(booking.getRoomType());
         billView.setCheckInDate(booking.getCheckInDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
         billView.setCheckOutDate(booking.getCheckOutDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
         billView.setNights(String.valueOf(booking.getNumberOfNights()));
-        billView.setPricePerNight("$" + String.format("%.2f", booking.getPricePerNight()));
-        
-        double subtotal = booking.getTotalAmount();
-        double tax = subtotal * 0.10; // 10% tax
-        double total = subtotal + tax;
-        
-        billView.setSubtotal("$" + String.format("%.2f", subtotal));
-        billView.setTax("$" + String.format("%.2f", tax));
-        billView.setTotalAmount("$" + String.format("%.2f", total));
+        billView.setPricePerNight(booking.getPricePerNight().toString());
+        
+        // Folio totals come from the booking row, so the ledger is never summed here
+        billView.setRoomCharges(invoice.getRoomCharges().toString());
+        billView.setExtraCharges(invoice.getExtraCharges().toString());
+        billView.setSubtotal(invoice.getSubtotal().toString());
+        billView.setTax(invoice.getTax().toString());
+        billView.setTotalAmount(invoice.getTotal().toString());
+        billView.setPayments(invoice.getPayments().toString());
+        billView.setBalanceDue(invoice.getBalanceDue().toString());
         billView.setStatus(booking.getBookingStatus().name());
-        billView.setIssueDate(LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        billView.setIssueDate(invoice.getIssueDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
     }
     
     private void setupBillViewEventHandlers() {
         billView.addPrintButtonListener(e -> printBill());
         billView.addEmailButtonListener(e -> emailBill());
         billView.addCloseButtonListener(e -> billView.dispose());
-        billView.addRefreshButtonListener(e -> {
-            // Refresh bill data if needed
+        billView.addRefreshButtonListener(e -> reloadBill());
+        billView.addPostChargeButtonListener(e -> postFolioEntry(Folio.EntryType.CHARGE));
+        billView.addRecordPaymentButtonListener(e -> postFolioEntry(Folio.EntryType.PAYMENT));
+    }
+    
+    private void populateFolioTable(List<Folio.Entry> entries) {
+        DefaultTableModel folioTableModel = billView.getFolioTableModel();
+        folioTableModel.setRowCount(0);
+        DateTimeFormatter postedFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        for (Folio.Entry entry : entries) {
+            Object[] rowData = {
+                entry.getPostedAt() != null ? entry.getPostedAt().toLocalDateTime().format(postedFormat) : "",
+                entry.getEntryType().name(),
+                entry.getCategory(),
+                entry.getDescription(),
+                entry.getAmount(),
+                entry.getBalanceAfter()
+            };
+            folioTableModel.addRow(rowData);
+        }
+    }
+    
+    private void postFolioEntry(Folio.EntryType type) {
+        boolean charge = type == Folio.EntryType.CHARGE;
+        JComboBox<String> categoryCombo = new JComboBox<>(charge ? Folio.CHARGE_CATEGORIES : Folio.PAYMENT_METHODS);
+        JTextField descriptionField = new JTextField(20);
+        JTextField amountField = new JTextField(10);
+        
+        JPanel panel = new JPanel(new GridLayout(0, 2, 5, 5));
+        panel.add(new JLabel(charge ? "Category:" : "Method:"));
+        panel.add(categoryCombo);
+        panel.add(new JLabel("Description:"));
+        panel.add(descriptionField);
+        panel.add(new JLabel("Amount:"));
+        panel.add(amountField);
+        
+        String title = charge ? "Post Charge" : "Record Payment";
+        int result = JOptionPane.showConfirmDialog(billView, panel, title,
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (result != JOptionPane.OK_OPTION) {
+            return;
+        }
+        
+        Money amount;
+        try {
+            amount = Money.parse(amountField.getText());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(billView, "Please enter a valid amount.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (amount.isZero()) {
+            JOptionPane.showMessageDialog(billView, "Amount must not be zero.", "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        int bookingId = billInvoice.getBooking().getBookingId();
+        String category = (String) categoryCombo.getSelectedItem();
+        String description = descriptionField.getText().trim();
+        CompletableFuture<Boolean> posted = charge
+            ? BookingService.postCharge(bookingId, category, description, amount)
+            : BookingService.postPayment(bookingId, category, description, amount);
+        
+        SwingFutures.onEdt(posted, success -> {
+            if (!success) {
+                JOptionPane.showMessageDialog(billView,
+                    charge ? "Failed to post charge! Charges can't be posted to cancelled bookings." : "Failed to record payment!",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            reloadBill();
         });
     }
     
     private void printBill() {
-        // Implementation for printing bill
-        JOptionPane.showMessageDialog(billView, "Print functionality would be implemented here.", "Print Bill", JOptionPane.INFORMATION_MESSAGE);
+        // Save the invoice as a PDF through the same renderer the batch run uses, then hand it to the printer
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("invoice-" + billInvoice.getBooking().getBookingId() + ".pdf"));
+        if (chooser.showSaveDialog(billView) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        
+        try {
+            InvoiceRenderer renderer = new InvoiceRenderer(
+                InvoiceTemplate.compile(InvoiceTemplate.DEFAULT_TEMPLATE), InvoiceRenderer.Format.PDF);
+            renderer.render(billInvoice);
+            renderer.writeTo(file.toPath());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(billView, "Failed to save invoice: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
+        if (Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.PRINT)) {
+            try {
+                Desktop.getDesktop().print(file);
+                return;
+            } catch (IOException e) {
+                System.err.println("Error printing invoice: " + e.getMessage());
+            }
+        }
+        JOptionPane.showMessageDialog(billView, "Invoice saved to " + file.getPath(), "Print Bill", JOptionPane.INFORMATION_MESSAGE);
     }
     
     private void emailBill() {
-        // Implementation for emailing bill
-        JOptionPane.showMessageDialog(billView, "Email functionality would be implemented here.", "Email Bill", JOptionPane.INFORMATION_MESSAGE);
+        // Rendering the PDF and queueing it run in the background; the mail dispatcher sends it later
+        String email = billInvoice.getCustomerEmail();
+        if (email == null || email.isBlank()) {
+            JOptionPane.showMessageDialog(billView, "This customer has no email address.", "Email Bill", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        billView.setLoadingState(true);
+        SwingFutures.onEdt(BookingService.enqueueInvoice(billInvoice), outboxId -> {
+            billView.setLoadingState(false);
+            if (outboxId < 0) {
+                JOptionPane.showMessageDialog(billView, "Failed to queue the invoice email!", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            MailDispatcher.wake();
+            JOptionPane.showMessageDialog(billView, "Invoice queued for delivery to " + email + ".", "Email Bill", JOptionPane.INFORMATION_MESSAGE);
+        }, error -> {
+            billView.setLoadingState(false);
+            JOptionPane.showMessageDialog(billView, "Failed to queue the invoice email: " + error.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
     
     // Method to get bookings by status
@@ -0,0 +1,484 @@
+package model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Booking event store for the Hotel Management System
+ * Every booking write appends a numbered event per booking to booking_events in the same
+ * transaction. Created and amended events carry the whole booking, status events carry only
+ * the new status. Every SNAPSHOT_INTERVAL events a booking's state is saved to
+ * booking_snapshots, so a replay only folds the events after the latest snapshot. A booking
+ * written before the event store existed gets a CREATED event holding its current row before
+ * its first other event. The bookings table and room availability are projections of the
+ * events and can be rebuilt.
+ */
+public class BookingEvents {
+    public enum EventType {
+        CREATED, AMENDED, CONFIRMED, CHECKED_IN, CHECKED_OUT, CANCELLED, DELETED;
+
+        /**
+         * @param status New booking status
+         * @return Event recording a change to that status
+         */
+        public static EventType forStatus(Booking.BookingStatus status) {
+            switch (status) {
+                case CONFIRMED:
+                    return CONFIRMED;
+                case CHECKED_IN:
+                    return CHECKED_IN;
+                case CHECKED_OUT:
+                    return CHECKED_OUT;
+                case CANCELLED:
+                    return CANCELLED;
+                default:
+                    return AMENDED;
+            }
+        }
+
+        boolean carriesBooking() {
+            return this == CREATED || this == AMENDED;
+        }
+    }
+
+    static final int SNAPSHOT_INTERVAL = 20;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String NEXT_VERSION = "(SELECT COALESCE(MAX(e.version), 0) + 1 FROM booking_events e WHERE e.booking_id = b.booking_id)";
+    private static final String APPEND_BOOKING = "INSERT INTO booking_events (hotel_id, booking_id, version, event_type, "
+            + "customer_id, room_id, check_in_date, check_out_date, total_amount, booking_status) "
+            + "SELECT b.hotel_id, b.booking_id, " + NEXT_VERSION + ", ?, "
+            + "b.customer_id, b.room_id, b.check_in_date, b.check_out_date, b.total_amount, b.booking_status FROM bookings b ";
+    private static final String APPEND_STATUS = "INSERT INTO booking_events (hotel_id, booking_id, version, event_type, booking_status) "
+            + "SELECT b.hotel_id, b.booking_id, " + NEXT_VERSION + ", ?, b.booking_status FROM bookings b ";
+    private static final String WITHOUT_BOOKING_EVENT = "NOT EXISTS (SELECT 1 FROM booking_events x "
+            + "WHERE x.booking_id = b.booking_id AND x.event_type IN ('CREATED', 'AMENDED'))";
+    private static final String APPEND_DELETED = "INSERT INTO booking_events (hotel_id, booking_id, version, event_type) "
+            + "SELECT b.hotel_id, b.booking_id, " + NEXT_VERSION + ", 'DELETED' FROM bookings b ";
+    private static final String SNAPSHOT = "INSERT INTO booking_snapshots (booking_id, hotel_id, version, customer_id, room_id, "
+            + "check_in_date, check_out_date, total_amount, booking_status) "
+            + "SELECT b.booking_id, b.hotel_id, e.version, b.customer_id, b.room_id, b.check_in_date, b.check_out_date, "
+            + "b.total_amount, b.booking_status FROM bookings b JOIN booking_events e ON e.booking_id = b.booking_id "
+            + "WHERE b.booking_id = ? AND e.version = (SELECT MAX(version) FROM booking_events WHERE booking_id = ?) "
+            + "AND MOD(e.version, " + SNAPSHOT_INTERVAL + ") = 0 "
+            + "ON DUPLICATE KEY UPDATE version = VALUES(version), customer_id = VALUES(customer_id), room_id = VALUES(room_id), "
+            + "check_in_date = VALUES(check_in_date), check_out_date = VALUES(check_out_date), "
+            + "total_amount = VALUES(total_amount), booking_status = VALUES(booking_status), created_at = CURRENT_TIMESTAMP";
+
+    /**
+     * A booking's state while its events are replayed
+     */
+    private static final class State {
+        int customerId;
+        int roomId;
+        Date checkInDate;
+        Date checkOutDate;
+        Money totalAmount;
+        String bookingStatus;
+        boolean deleted;
+
+        State(ResultSet rs) throws SQLException {
+            customerId = rs.getInt("customer_id");
+            roomId = rs.getInt("room_id");
+            checkInDate = rs.getDate("check_in_date");
+            checkOutDate = rs.getDate("check_out_date");
+            totalAmount = Money.getMoney(rs, "total_amount");
+            bookingStatus = rs.getString("booking_status");
+        }
+
+        State() {
+        }
+
+        void apply(ResultSet rs) throws SQLException {
+            EventType type = EventType.valueOf(rs.getString("event_type"));
+            if (type == EventType.DELETED) {
+                deleted = true;
+                return;
+            }
+            deleted = false;
+            if (type.carriesBooking()) {
+                customerId = rs.getInt("customer_id");
+                roomId = rs.getInt("room_id");
+                checkInDate = rs.getDate("check_in_date");
+                checkOutDate = rs.getDate("check_out_date");
+                totalAmount = Money.getMoney(rs, "total_amount");
+            }
+            bookingStatus = rs.getString("booking_status");
+        }
+
+        boolean isComplete() {
+            return !deleted && checkInDate != null && bookingStatus != null;
+        }
+
+        boolean isDeleted() {
+            return deleted;
+        }
+    }
+
+    /**
+     * Append one event to a single booking as it is now
+     * @param conn Connection whose transaction also holds the booking write
+     * @param type Event type
+     * @param bookingId ID of the booking
+     */
+    static void append(Connection conn, EventType type, int bookingId) throws SQLException {
+        append(conn, type, List.of(bookingId));
+    }
+
+    /**
+     * Append the same event to several bookings as they are now
+     * @param conn Connection whose transaction also holds the booking writes
+     * @param type Event type
+     * @param bookingIds IDs of the bookings
+     */
+    static void append(Connection conn, EventType type, Collection<Integer> bookingIds) throws SQLException {
+        Map<Integer, EventType> events = new LinkedHashMap<>();
+        for (int bookingId : bookingIds) {
+            events.put(bookingId, type);
+        }
+        append(conn, events);
+    }
+
+    /**
+     * Append an event to each booking as it is now
+     * Append after the booking row is written, except for DELETED which must be appended
+     * before the row is deleted. The caller holds the booking rows' locks, so versions are
+     * numbered without gaps.
+     * @param conn Connection whose transaction also holds the booking writes
+     * @param events Event type by booking ID
+     */
+    static void append(Connection conn, Map<Integer, EventType> events) throws SQLException {
+        if (events.isEmpty()) {
+            return;
+        }
+        String where = "WHERE b.booking_id = ?";
+
+        // A booking older than the event store needs its full row recorded before a status or delete
+        try (PreparedStatement seed = conn.prepareStatement(APPEND_BOOKING + where + " AND " + WITHOUT_BOOKING_EVENT)) {
+            boolean seeds = false;
+            for (Map.Entry<Integer, EventType> event : events.entrySet()) {
+                if (!event.getValue().carriesBooking()) {
+                    seed.setString(1, EventType.CREATED.name());
+                    seed.setInt(2, event.getKey());
+                    seed.addBatch();
+                    seeds = true;
+                }
+            }
+            if (seeds) {
+                seed.executeBatch();
+            }
+        }
+
+        try (PreparedStatement booking = conn.prepareStatement(APPEND_BOOKING + where);
+             PreparedStatement status = conn.prepareStatement(APPEND_STATUS + where);
+             PreparedStatement deleted = conn.prepareStatement(APPEND_DELETED + where)) {
+            boolean bookings = false, statuses = false, deletes = false;
+            for (Map.Entry<Integer, EventType> event : events.entrySet()) {
+                if (event.getValue() == EventType.DELETED) {
+                    deleted.setInt(1, event.getKey());
+                    deleted.addBatch();
+                    deletes = true;
+                } else if (event.getValue().carriesBooking()) {
+                    booking.setString(1, event.getValue().name());
+                    booking.setInt(2, event.getKey());
+                    booking.addBatch();
+                    bookings = true;
+                } else {
+                    status.setString(1, event.getValue().name());
+                    status.setInt(2, event.getKey());
+                    status.addBatch();
+                    statuses = true;
+                }
+            }
+            if (bookings) {
+                booking.executeBatch();
+            }
+            if (statuses) {
+                status.executeBatch();
+            }
+            if (deletes) {
+                deleted.executeBatch();
+            }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(SNAPSHOT)) {
+            for (Map.Entry<Integer, EventType> event : events.entrySet()) {
+                if (event.getValue() != EventType.DELETED) {
+                    stmt.setInt(1, event.getKey());
+                    stmt.setInt(2, event.getKey());
+                    stmt.addBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Append a DELETED event to every booking of one of the current hotel's rooms or customers,
+     * before they are deleted with it
+     * @param conn Connection whose transaction also holds the delete
+     * @param column "room_id" or "customer_id"
+     * @param id Room or customer ID
+     */
+    static void appendDeletedFor(Connection conn, String column, int id) throws SQLException {
+        if (!column.equals("room_id") && !column.equals("customer_id")) {
+            throw new IllegalArgumentException("Unknown booking column: " + column);
+        }
+        List<Integer> bookingIds = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT booking_id FROM bookings WHERE " + column + " = ? AND hotel_id = ?")) {
+            stmt.setInt(1, id);
+            stmt.setInt(2, Hotel.currentId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    bookingIds.add(rs.getInt(1));
+                }
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(APPEND_DELETED + "WHERE b." + column + " = ? AND b.hotel_id = ?")) {
+            stmt.setInt(1, id);
+            stmt.setInt(2, Hotel.currentId());
+            stmt.executeUpdate();
+        }
+        ChangeFeed.changed(Hotel.currentId(), ChangeFeed.Table.BOOKINGS, bookingIds);
+    }
+
+    /**
+     * Append CREATED events for bookings with no event holding their whole row, e.g. bulk
+     * imports, or bookings older than the event store
+     * @param conn Connection whose transaction also holds the inserts
+     * @param fromBookingId Lowest booking ID to look at
+     * @return Number of events appended
+     */
+    static int appendCreatedSince(Connection conn, long fromBookingId) throws SQLException {
+        String sql = APPEND_BOOKING + "WHERE b.booking_id >= ? AND b.hotel_id = ? "
+                + "AND " + WITHOUT_BOOKING_EVENT;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, EventType.CREATED.name());
+            stmt.setLong(2, fromBookingId);
+            stmt.setInt(3, Hotel.currentId());
+            return stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Rebuild the current hotel's bookings, room availability and revenue rollups from the events
+     * Bookings written before the event store existed first get a CREATED event holding their
+     * current state. Worker threads then take booking ID ranges in parallel; each starts from
+     * the range's snapshots, streams the later events in order and writes the folded bookings
+     * back in one transaction per range. Folio totals are kept. A room is available when no
+     * pending, confirmed or checked-in booking holds it. Run it while bookings are not being changed.
+     * @param threads Number of worker threads
+     * @param chunkSize Booking IDs per range
+     * @return Number of events replayed, or -1 if the rebuild failed
+     */
+    public static long rebuild(int threads, int chunkSize) {
+        long startTime = System.nanoTime();
+        int hotelId = Hotel.currentId();
+        long maxBookingId;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int seeded = appendCreatedSince(conn, 0);
+                conn.commit();
+                if (seeded > 0) {
+                    System.out.println("Recorded " + seeded + " existing bookings as CREATED events");
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT COALESCE(MAX(booking_id), 0) FROM booking_events WHERE hotel_id = ?")) {
+                stmt.setInt(1, hotelId);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    maxBookingId = rs.getLong(1);
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            System.err.println("Error starting booking rebuild: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        AtomicLong nextChunkStart = new AtomicLong(1);
+        AtomicLong replayed = new AtomicLong();
+        AtomicLong written = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "booking-rebuild-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            futures.add(workers.submit(() -> {
+                try (Connection read = DBConnection.openStreamingConnection();
+                     Connection write = DBConnection.openBatchConnection()) {
+                    write.setAutoCommit(false);
+                    while (true) {
+                        long from = nextChunkStart.getAndAdd(chunkSize);
+                        if (from > maxBookingId) {
+                            return null;
+                        }
+                        Map<Integer, State> states = replay(read, hotelId, from, from + chunkSize - 1, replayed);
+                        try {
+                            written.addAndGet(project(write, hotelId, states));
+                            write.commit();
+                        } catch (SQLException e) {
+                            write.rollback();
+                            throw e;
+                        }
+                    }
+                }
+            }));
+        }
+
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (Exception e) {
+            System.err.println("Booking rebuild worker failed: " + e.getMessage());
+            e.printStackTrace();
+            workers.shutdownNow();
+            return -1;
+        }
+        workers.shutdown();
+
+        String availabilitySql = "UPDATE rooms r SET r.is_available = NOT EXISTS (SELECT 1 FROM bookings b "
+                + "WHERE b.room_id = r.room_id AND b.booking_status IN ('PENDING', 'CONFIRMED', 'CHECKED_IN')) WHERE r.hotel_id = ?";
+        try (Connection conn = DBConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(availabilitySql)) {
+            stmt.setInt(1, hotelId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding room availability: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        ChangeFeed.changedAll(ChangeFeed.Table.BOOKINGS);
+        ChangeFeed.changedAll(ChangeFeed.Table.ROOMS);
+        DBConnection.markWrite();
+
+        double seconds = Math.max((System.nanoTime() - startTime) / 1_000_000_000.0, 0.001);
+        System.out.println(String.format("Bookings rebuilt from %d events (%d bookings) in %.1f s (%.0f events/s)",
+                replayed.get(), written.get(), seconds, replayed.get() / seconds));
+
+        if (RevenueRollup.backfill(threads, chunkSize) < 0) {
+            return -1;
+        }
+        return replayed.get();
+    }
+
+    /**
+     * Fold the events of a booking ID range onto the range's snapshots
+     * @return State of every booking in the range that has events, by booking ID
+     */
+    private static Map<Integer, State> replay(Connection conn, int hotelId, long fromId, long toId,
+                                              AtomicLong replayed) throws SQLException {
+        Map<Integer, State> states = new HashMap<>();
+        Map<Integer, Integer> snapshotVersions = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT * FROM booking_snapshots WHERE booking_id BETWEEN ? AND ? AND hotel_id = ?")) {
+            stmt.setLong(1, fromId);
+            stmt.setLong(2, toId);
+            stmt.setInt(3, hotelId);
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    states.put(rs.getInt("booking_id"), new State(rs));
+                    snapshotVersions.put(rs.getInt("booking_id"), rs.getInt("version"));
+                }
+            }
+        }
+
+        // Events arrive in booking and version order; those up to a booking's snapshot are skipped
+        String sql = "SELECT * FROM booking_events WHERE booking_id BETWEEN ? AND ? AND hotel_id = ? ORDER BY booking_id, version";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, fromId);
+            stmt.setLong(2, toId);
+            stmt.setInt(3, hotelId);
+            stmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    int bookingId = rs.getInt("booking_id");
+                    if (rs.getInt("version") <= snapshotVersions.getOrDefault(bookingId, 0)) {
+                        continue;
+                    }
+                    states.computeIfAbsent(bookingId, id -> new State()).apply(rs);
+                    replayed.incrementAndGet();
+                }
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Write folded bookings to the bookings table
+     * Bookings whose room or customer no longer exists are left out. Only a DELETED event
+     * removes a booking; one whose events do not hold a whole row is left as it is.
+     * @return Number of bookings written
+     */
+    private static int project(Connection conn, int hotelId, Map<Integer, State> states) throws SQLException {
+        String upsertSql = """
+            INSERT INTO bookings (booking_id, hotel_id, customer_id, room_id, check_in_date, check_out_date, total_amount, booking_status)
+            SELECT ?, r.hotel_id, c.customer_id, r.room_id, ?, ?, ?, ?
+            FROM rooms r JOIN customers c ON c.hotel_id = r.hotel_id
+            WHERE r.room_id = ? AND c.customer_id = ? AND r.hotel_id = ?
+            ON DUPLICATE KEY UPDATE customer_id = VALUES(customer_id), room_id = VALUES(room_id),
+                check_in_date = VALUES(check_in_date), check_out_date = VALUES(check_out_date),
+                total_amount = VALUES(total_amount), booking_status = VALUES(booking_status)
+            """;
+        String deleteSql = "DELETE FROM bookings WHERE booking_id = ? AND hotel_id = ?";
+
+        int written = 0;
+        try (PreparedStatement upsert = conn.prepareStatement(upsertSql);
+             PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+            boolean upserts = false, deletes = false;
+            for (Map.Entry<Integer, State> entry : states.entrySet()) {
+                State state = entry.getValue();
+                if (state.isDeleted()) {
+                    delete.setInt(1, entry.getKey());
+                    delete.setInt(2, hotelId);
+                    delete.addBatch();
+                    deletes = true;
+                    continue;
+                }
+                if (!state.isComplete()) {
+                    System.err.println("Booking " + entry.getKey() + " has no event holding the whole booking; left unchanged");
+                    continue;
+                }
+                upsert.setInt(1, entry.getKey());
+                upsert.setDate(2, state.checkInDate);
+                upsert.setDate(3, state.checkOutDate);
+                Money.setMoney(upsert, 4, state.totalAmount);
+                upsert.setString(5, state.bookingStatus);
+                upsert.setInt(6, state.roomId);
+                upsert.setInt(7, state.customerId);
+                upsert.setInt(8, hotelId);
+                upsert.addBatch();
+                upserts = true;
+                written++;
+            }
+            if (upserts) {
+                upsert.executeBatch();
+            }
+            if (deletes) {
+                delete.executeBatch();
+            }
+        }
+        return written;
+    }
+}
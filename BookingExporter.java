@@ -0,0 +1,289 @@
+package model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming booking export for the Hotel Management System
+ * Reads bookings joined with their customer and room through a server-side cursor
+ * and writes each row straight to a file channel, so memory use does not grow
+ * with the number of bookings exported.
+ */
+public class BookingExporter {
+    public enum Format {
+        CSV, JSONL
+    }
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final String[] COLUMNS = {
+        "booking_id", "customer_id", "customer_name", "customer_email", "customer_phone",
+        "room_id", "room_number", "room_type", "check_in_date", "check_out_date", "nights",
+        "price_per_night", "total_amount", "booking_status", "created_at"
+    };
+
+    // Columns written as JSON numbers rather than strings
+    private static final boolean[] NUMERIC = {
+        true, true, false, false, false,
+        true, false, false, false, false, true,
+        true, true, false, false
+    };
+
+    private Format format = Format.CSV;
+    private boolean gzip;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    public Format getFormat() { return format; }
+    public void setFormat(Format format) { this.format = format; }
+
+    public boolean isGzip() { return gzip; }
+    public void setGzip(boolean gzip) { this.gzip = gzip; }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    /**
+     * Export bookings to a file
+     * Only bookings checking in on or after the from date and before the to date are exported when set
+     * @param outputFile File to write, replaced if it exists
+     * @return Number of bookings exported, or -1 if the export failed
+     */
+    public long export(Path outputFile) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT b.booking_id, b.customer_id, CONCAT(c.first_name, ' ', c.last_name) AS customer_name,
+                   c.email AS customer_email, c.phone AS customer_phone,
+                   b.room_id, r.room_number, r.room_type, b.check_in_date, b.check_out_date,
+                   DATEDIFF(b.check_out_date, b.check_in_date) AS nights,
+                   r.price_per_night, b.total_amount, b.booking_status, b.created_at
+            FROM bookings b
+            JOIN customers c ON b.customer_id = c.customer_id
+            JOIN rooms r ON b.room_id = r.room_id
+            WHERE b.hotel_id = ?
+            """);
+        if (fromDate != null) {
+            sql.append(" AND b.check_in_date >= ?");
+        }
+        if (toDate != null) {
+            sql.append(" AND b.check_in_date < ?");
+        }
+        sql.append(" ORDER BY b.booking_id");
+
+        long startTime = System.nanoTime();
+        long rows = 0;
+
+        try (Connection conn = DBConnection.openStreamingConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString(),
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+             ChannelSink sink = new ChannelSink(outputFile, gzip)) {
+
+            stmt.setFetchSize(FETCH_SIZE);
+            stmt.setInt(1, Hotel.currentId());
+            int parameterIndex = 2;
+            if (fromDate != null) {
+                stmt.setDate(parameterIndex++, Date.valueOf(fromDate));
+            }
+            if (toDate != null) {
+                stmt.setDate(parameterIndex, Date.valueOf(toDate));
+            }
+
+            if (format == Format.CSV) {
+                for (int i = 0; i < COLUMNS.length; i++) {
+                    sink.append(i == 0 ? "" : ",").append(COLUMNS[i]);
+                }
+                sink.endLine();
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (format == Format.CSV) {
+                        writeCsvRow(rs, sink);
+                    } else {
+                        writeJsonRow(rs, sink);
+                    }
+                    rows++;
+                }
+            }
+
+        } catch (SQLException | IOException e) {
+            System.err.println("Error exporting bookings: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        double seconds = Math.max((System.nanoTime() - startTime) / 1_000_000_000.0, 0.001);
+        System.out.println(String.format("Exported %d bookings to %s in %.1f s (%.0f rows/s)",
+                rows, outputFile, seconds, rows / seconds));
+        return rows;
+    }
+
+    private static void writeCsvRow(ResultSet rs, ChannelSink sink) throws SQLException, IOException {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                sink.append(",");
+            }
+            String value = rs.getString(i + 1);
+            if (value == null) {
+                continue;
+            }
+            if (needsQuoting(value)) {
+                sink.append("\"");
+                for (int j = 0; j < value.length(); j++) {
+                    char c = value.charAt(j);
+                    if (c == '"') {
+                        sink.append("\"\"");
+                    } else {
+                        sink.append(c);
+                    }
+                }
+                sink.append("\"");
+            } else {
+                sink.append(value);
+            }
+        }
+        sink.endLine();
+    }
+
+    private static boolean needsQuoting(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writeJsonRow(ResultSet rs, ChannelSink sink) throws SQLException, IOException {
+        sink.append("{");
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) {
+                sink.append(",");
+            }
+            sink.append("\"").append(COLUMNS[i]).append("\":");
+            String value = rs.getString(i + 1);
+            if (value == null) {
+                sink.append("null");
+            } else if (NUMERIC[i]) {
+                sink.append(value);
+            } else {
+                sink.append("\"");
+                for (int j = 0; j < value.length(); j++) {
+                    char c = value.charAt(j);
+                    switch (c) {
+                        case '"': sink.append("\\\""); break;
+                        case '\\': sink.append("\\\\"); break;
+                        case '\n': sink.append("\\n"); break;
+                        case '\r': sink.append("\\r"); break;
+                        case '\t': sink.append("\\t"); break;
+                        default:
+                            if (c < 0x20) {
+                                sink.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                            } else {
+                                sink.append(c);
+                            }
+                    }
+                }
+                sink.append("\"");
+            }
+        }
+        sink.append("}");
+        sink.endLine();
+    }
+
+    /**
+     * Buffered UTF-8 writer over a file channel, optionally gzip-compressed
+     * Characters are staged in a reused buffer and encoded straight into a direct byte buffer
+     */
+    private static class ChannelSink implements AutoCloseable {
+        private final WritableByteChannel channel;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE / 4);
+        private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        ChannelSink(Path outputFile, boolean gzip) throws IOException {
+            FileChannel file = FileChannel.open(outputFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            if (gzip) {
+                OutputStream compressed = new GZIPOutputStream(Channels.newOutputStream(file), BUFFER_SIZE);
+                channel = Channels.newChannel(compressed);
+            } else {
+                channel = file;
+            }
+        }
+
+        ChannelSink append(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                append(value.charAt(i));
+            }
+            return this;
+        }
+
+        ChannelSink append(char c) throws IOException {
+            if (!chars.hasRemaining()) {
+                encodeChars(false);
+            }
+            chars.put(c);
+            return this;
+        }
+
+        void endLine() throws IOException {
+            append('\n');
+        }
+
+        private void encodeChars(boolean endOfInput) throws IOException {
+            chars.flip();
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isOverflow()) {
+                    drainBytes();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            // Keep a dangling high surrogate for the next round
+            chars.compact();
+        }
+
+        private void drainBytes() throws IOException {
+            bytes.flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            bytes.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                encodeChars(true);
+                while (encoder.flush(bytes).isOverflow()) {
+                    drainBytes();
+                }
+                drainBytes();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.CRC32;
+
+/**
+ * Local write-ahead journal for booking status changes
+ * Status changes are appended to a memory-mapped file and acknowledged once the record is on
+ * disk; a background drainer replays them to the database in order. New bookings are not
+ * journaled: the room must be checked and taken in the database before the desk is told it
+ * has it (see Booking.addBooking), but ADD_BOOKING records left by earlier versions are replayed.
+ * The last applied sequence number is saved in the same transaction as each replayed change,
+ * so every record is applied exactly once, including after a restart. Each record carries the
+ * hotel it was made for and is replayed as that hotel, whichever hotel the process works for now.
+ *
+ * Layout: header (magic "HMWJ", version, journal ID, first sequence number) followed by
+ * records of [payload length][CRC32][sequence][type][payload]; every payload starts with the
+ * hotel ID. A record with a bad CRC or an unexpected sequence number marks the end of the journal.
+ */
+public class BookingJournal {
+    /**
+     * Receives drainer progress; called on the drainer thread
+     */
+    public interface Listener {
+        /**
+         * A batch of records reached the database
+         * @param hotelId Hotel the bookings belong to; called once per hotel in the batch
+         * @param bookingIds Bookings the records touched, whether applied or rejected
+         */
+        default void recordsApplied(int hotelId, Set<Integer> bookingIds) {}
+        default void recordRejected(long sequence, String reason) {}
+    }
+
+    private static final int MAGIC = 0x484D574A; // "HMWJ"
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 1;
+    private static final int DEFAULT_CAPACITY = 16 * 1024 * 1024;
+    private static final int MAX_BATCH = 256;
+    private static final long MIN_RETRY_DELAY_MILLIS = 500;
+    private static final long MAX_RETRY_DELAY_MILLIS = 30_000;
+
+    private static final byte ADD_BOOKING = 1;
+    private static final byte STATUS_CHANGE = 2;
+
+    private static final Path DEFAULT_JOURNAL_FILE =
+        Paths.get(System.getProperty("user.home"), ".hotel-management", "booking.journal");
+
+    private static final Booking.BookingStatus[] STATUSES = Booking.BookingStatus.values();
+
+    private static BookingJournal openJournal;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long journalId;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private long firstSequence;
+    private long nextSequence;
+    private int writePosition;
+    private int drainPosition = HEADER_SIZE;
+    private long drainSequence;
+    private boolean running;
+
+    private volatile long lastAppendedSequence;
+    private volatile long durableSequence;
+    private volatile long appliedSequence = -1; // Unknown until the drainer reaches the database
+
+    // Group fsync: one appender forces the file for everyone waiting
+    private final Object syncLock = new Object();
+    private boolean syncing;
+
+    private Thread drainer;
+
+    private static class JournalRecord {
+        final long sequence;
+        final byte type;
+        final ByteBuffer payload;
+        final int nextPosition;
+
+        JournalRecord(long sequence, byte type, ByteBuffer payload, int nextPosition) {
+            this.sequence = sequence;
+            this.type = type;
+            this.payload = payload;
+            this.nextPosition = nextPosition;
+        }
+    }
+
+    private BookingJournal(FileChannel channel, MappedByteBuffer buffer, long journalId, long firstSequence) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.journalId = journalId;
+        this.firstSequence = firstSequence;
+    }
+
+    /**
+     * Open the default journal, recover its records and start draining them to the database
+     * @return The open journal
+     * @throws IOException if the journal file cannot be opened
+     */
+    public static BookingJournal open() throws IOException {
+        return open(DEFAULT_JOURNAL_FILE);
+    }
+
+    /**
+     * Open a journal file, recover its records and start draining them to the database
+     * @param file Journal file, created if missing
+     * @return The open journal
+     * @throws IOException if the journal file cannot be opened or is not a journal
+     */
+    public static synchronized BookingJournal open(Path file) throws IOException {
+        if (openJournal != null) {
+            return openJournal;
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BookingJournal journal;
+        try {
+            long capacity = Math.max(channel.size(), DEFAULT_CAPACITY);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+            if (exists) {
+                if (buffer.getInt(0) != MAGIC) {
+                    throw new IOException("Not a booking journal: " + file);
+                }
+                if (buffer.getShort(4) != VERSION) {
+                    throw new IOException("Unsupported booking journal version " + buffer.getShort(4) + ": " + file);
+                }
+                journal = new BookingJournal(channel, buffer, buffer.getLong(8), buffer.getLong(16));
+            } else {
+                long journalId = UUID.randomUUID().getMostSignificantBits() & Long.MAX_VALUE;
+                journal = new BookingJournal(channel, buffer, journalId, 1);
+                journal.writeHeader();
+                buffer.force();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+
+        journal.recover();
+        journal.startDrainer();
+        openJournal = journal;
+        return journal;
+    }
+
+    /**
+     * Get the open journal
+     * @return The journal, or null if booking changes go straight to the database
+     */
+    public static synchronized BookingJournal getOpenJournal() {
+        return openJournal;
+    }
+
+    /**
+     * Stop the drainer and close the open journal; pending records are kept for the next start
+     */
+    public static synchronized void closeJournal() {
+        if (openJournal != null) {
+            openJournal.close();
+            openJournal = null;
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(0, MAGIC);
+        buffer.putShort(4, VERSION);
+        buffer.putLong(8, journalId);
+        buffer.putLong(16, firstSequence);
+        buffer.putInt(HEADER_SIZE, 0);
+    }
+
+    private synchronized void recover() {
+        int position = HEADER_SIZE;
+        long sequence = firstSequence;
+        JournalRecord record;
+        while ((record = readRecord(position, sequence)) != null) {
+            position = record.nextPosition;
+            sequence++;
+        }
+        writePosition = position;
+        nextSequence = sequence;
+        lastAppendedSequence = sequence - 1;
+        durableSequence = sequence - 1;
+        drainPosition = HEADER_SIZE;
+        drainSequence = firstSequence;
+
+        long recovered = sequence - firstSequence;
+        if (recovered > 0) {
+            System.out.println("Booking journal: " + recovered + " records on disk, replaying unapplied ones");
+        }
+    }
+
+    private JournalRecord readRecord(int position, long expectedSequence) {
+        if (position + RECORD_HEADER_SIZE > buffer.capacity()) {
+            return null;
+        }
+        int length = buffer.getInt(position);
+        if (length <= 0 || position + RECORD_HEADER_SIZE + length > buffer.capacity()) {
+            return null;
+        }
+
+        byte[] body = new byte[8 + 1 + length];
+        buffer.get(position + 8, body);
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(position + 4)) {
+            return null; // Torn write
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(body);
+        long sequence = in.getLong();
+        if (sequence != expectedSequence) {
+            return null; // Left over from before the journal was last reset
+        }
+        byte type = in.get();
+        return new JournalRecord(sequence, type, in.slice(), position + RECORD_HEADER_SIZE + length);
+    }
+
+    /**
+     * Journal a status change for one or more bookings, applied all-or-nothing
+     * @param bookingIds IDs of the bookings
+     * @param status New booking status
+     * @return true once the change is durable in the journal
+     */
+    public boolean appendStatusChange(List<Integer> bookingIds, Booking.BookingStatus status) {
+        ByteBuffer payload = ByteBuffer.allocate(4 + 1 + 4 + 4 * bookingIds.size());
+        payload.putInt(Hotel.currentId());
+        payload.put((byte) status.ordinal());
+        payload.putInt(bookingIds.size());
+        for (int bookingId : bookingIds) {
+            payload.putInt(bookingId);
+        }
+        return append(STATUS_CHANGE, payload.array());
+    }
+
+    private boolean append(byte type, byte[] payload) {
+        long sequence;
+        synchronized (this) {
+            if (!running) {
+                return false;
+            }
+            int size = RECORD_HEADER_SIZE + payload.length;
+            if (writePosition + size > buffer.capacity() && !resetIfDrained(size)) {
+                System.err.println("Booking journal is full; waiting for the database to catch up");
+                return false;
+            }
+
+            sequence = nextSequence++;
+            ByteBuffer body = ByteBuffer.allocate(8 + 1 + payload.length);
+            body.putLong(sequence).put(type).put(payload);
+            CRC32 crc = new CRC32();
+            crc.update(body.array());
+
+            int position = writePosition;
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.put(position + 8, body.array());
+            buffer.putInt(position, payload.length); // Length last: a record is never seen half written
+            writePosition = position + size;
+            lastAppendedSequence = sequence;
+        }
+
+        try {
+            awaitDurable(sequence);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (UncheckedIOException e) {
+            System.err.println("Error syncing booking journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Start the journal over from the header once every record has been applied
+     */
+    private boolean resetIfDrained(int recordSize) {
+        if (appliedSequence != nextSequence - 1 || HEADER_SIZE + recordSize > buffer.capacity()) {
+            return false;
+        }
+        firstSequence = nextSequence;
+        writeHeader();
+        buffer.force();
+        writePosition = HEADER_SIZE;
+        drainPosition = HEADER_SIZE;
+        drainSequence = firstSequence;
+        return true;
+    }
+
+    private void awaitDurable(long sequence) throws InterruptedException {
+        while (true) {
+            long target;
+            synchronized (syncLock) {
+                while (syncing && durableSequence < sequence) {
+                    syncLock.wait();
+                }
+                if (durableSequence >= sequence) {
+                    return;
+                }
+                syncing = true;
+                target = lastAppendedSequence; // Everything appended so far rides on this force
+            }
+
+            boolean forced = false;
+            try {
+                buffer.force();
+                forced = true;
+            } finally {
+                synchronized (syncLock) {
+                    syncing = false;
+                    if (forced && target > durableSequence) {
+                        durableSequence = target;
+                    }
+                    syncLock.notifyAll();
+                }
+            }
+            synchronized (this) {
+                notifyAll(); // Wake the drainer
+            }
+        }
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Get the number of journaled changes not yet applied to the database
+     * @return Pending record count
+     */
+    public long getPendingCount() {
+        long applied = appliedSequence;
+        return applied < 0 ? lastAppendedSequence - firstSequence + 1 : lastAppendedSequence - applied;
+    }
+
+    private synchronized void startDrainer() {
+        running = true;
+        drainer = new Thread(this::drain, "booking-journal-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    private void close() {
+        Thread thread;
+        synchronized (this) {
+            running = false;
+            notifyAll();
+            thread = drainer;
+        }
+        try {
+            thread.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing booking journal: " + e.getMessage());
+        }
+        long pending = getPendingCount();
+        if (pending > 0) {
+            System.out.println("Booking journal closed with " + pending + " changes still to apply");
+        }
+    }
+
+    private void drain() {
+        Connection conn = null;
+        long retryDelay = MIN_RETRY_DELAY_MILLIS;
+
+        while (true) {
+            try {
+                if (conn == null) {
+                    conn = DBConnection.openConnection();
+                    conn.setAutoCommit(false);
+                }
+                if (appliedSequence < 0) {
+                    appliedSequence = loadAppliedSequence(conn);
+                }
+
+                List<JournalRecord> batch = nextBatch();
+                if (batch == null) {
+                    break;
+                }
+                Map<Integer, Set<Integer>> touched = new TreeMap<>();
+                for (JournalRecord record : batch) {
+                    applyRecord(conn, record, touched);
+                    synchronized (this) {
+                        appliedSequence = record.sequence;
+                        drainPosition = record.nextPosition;
+                        drainSequence = record.sequence + 1;
+                    }
+                }
+                retryDelay = MIN_RETRY_DELAY_MILLIS;
+                for (Map.Entry<Integer, Set<Integer>> hotel : touched.entrySet()) {
+                    for (Listener listener : listeners) {
+                        listener.recordsApplied(hotel.getKey(), hotel.getValue());
+                    }
+                }
+
+            } catch (SQLException e) {
+                System.err.println("Booking journal waiting for database (" + getPendingCount()
+                    + " pending): " + e.getMessage());
+                closeQuietly(conn);
+                conn = null;
+                try {
+                    synchronized (this) {
+                        if (!running) {
+                            break;
+                        }
+                        wait(retryDelay);
+                    }
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        closeQuietly(conn);
+    }
+
+    /**
+     * Wait for durable records past the applied sequence and copy them out
+     * @return Records to apply in order, or null when the journal is closing
+     */
+    private synchronized List<JournalRecord> nextBatch() throws InterruptedException {
+        while (running && appliedSequence >= durableSequence) {
+            wait();
+        }
+        if (!running) {
+            return null;
+        }
+
+        // Records already in the database (replayed before a restart) are skipped
+        List<JournalRecord> batch = new ArrayList<>();
+        int position = drainPosition;
+        long sequence = drainSequence;
+        JournalRecord record;
+        while (sequence <= durableSequence && batch.size() < MAX_BATCH
+                && (record = readRecord(position, sequence)) != null) {
+            if (record.sequence > appliedSequence) {
+                batch.add(record);
+            } else {
+                drainPosition = record.nextPosition;
+                drainSequence = record.sequence + 1;
+            }
+            position = record.nextPosition;
+            sequence++;
+        }
+        return batch;
+    }
+
+    @SuppressWarnings("try") // The hotel scope is only held open, never used in the body
+    private void applyRecord(Connection conn, JournalRecord record, Map<Integer, Set<Integer>> touched) throws SQLException {
+        String rejection = null;
+        ByteBuffer in = record.payload.duplicate();
+        int hotelId = in.getInt();
+        List<Integer> bookingIds = new ArrayList<>();
+        try (Hotel.Scope scope = Hotel.enter(hotelId)) {
+            if (record.type == ADD_BOOKING) {
+                Booking booking = new Booking(in.getInt(), in.getInt(),
+                    LocalDate.ofEpochDay(in.getInt()), LocalDate.ofEpochDay(in.getInt()), Money.ofMinor(in.getLong()));
+                booking.setBookingStatus(STATUSES[in.get()]);
+                if (!Booking.lockRoomIfFree(conn, booking.getRoomId(), booking.getCheckInDate(), booking.getCheckOutDate())) {
+                    conn.rollback();
+                    rejection = "Room " + booking.getRoomId() + " is already booked for " + booking.getCheckInDate()
+                        + " to " + booking.getCheckOutDate() + " or not found in hotel " + hotelId;
+                } else if (!booking.insertBooking(conn)) {
+                    conn.rollback();
+                    rejection = "Room " + booking.getRoomId() + " or customer " + booking.getCustomerId()
+                        + " not found in hotel " + hotelId;
+                } else {
+                    bookingIds.add(booking.getBookingId());
+                }
+            } else if (record.type == STATUS_CHANGE) {
+                Booking.BookingStatus status = STATUSES[in.get()];
+                for (int i = in.getInt(); i > 0; i--) {
+                    bookingIds.add(in.getInt());
+                }
+                Booking.StatusChangeResult result = Booking.applyStatusChange(conn, bookingIds, status);
+                if (!result.isApplied()) {
+                    conn.rollback();
+                    StringBuilder reason = new StringBuilder("Cannot change to " + status + ":");
+                    for (Map.Entry<Integer, String> rejected : result.getRejected().entrySet()) {
+                        reason.append(" booking ").append(rejected.getKey()).append(" ").append(rejected.getValue()).append(";");
+                    }
+                    rejection = reason.toString();
+                }
+            } else {
+                rejection = "unknown record type " + record.type;
+            }
+        } catch (SQLIntegrityConstraintViolationException | SQLDataException e) {
+            // The database refuses this change for good; retrying would block every later record
+            conn.rollback();
+            rejection = e.getMessage();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+
+        try {
+            saveAppliedSequence(conn, record.sequence);
+            conn.commit();
+            DBConnection.markWrite();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        }
+
+        touched.computeIfAbsent(hotelId, id -> new LinkedHashSet<>()).addAll(bookingIds);
+        if (rejection != null) {
+            System.err.println("Booking journal record " + record.sequence + " rejected: " + rejection);
+            for (Listener listener : listeners) {
+                listener.recordRejected(record.sequence, rejection);
+            }
+        }
+    }
+
+    private long loadAppliedSequence(Connection conn) throws SQLException {
+        String sql = "SELECT last_applied_seq FROM booking_journal_state WHERE journal_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, journalId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                long applied = rs.next() ? rs.getLong(1) : 0;
+                conn.commit();
+                return applied;
+            }
+        }
+    }
+
+    private void saveAppliedSequence(Connection conn, long sequence) throws SQLException {
+        String sql = "INSERT INTO booking_journal_state (journal_id, last_applied_seq) VALUES (?, ?) "
+            + "ON DUPLICATE KEY UPDATE last_applied_seq = VALUES(last_applied_seq)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, journalId);
+            stmt.setLong(2, sequence);
+            stmt.executeUpdate();
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                // Connection is already broken
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous booking service for the Hotel Management System
+ * Each method runs the matching Booking, Folio or EmailOutbox call on the ServiceExecutor and returns at once
+ */
+public class BookingService {
+    public static CompletableFuture<Boolean> addBooking(Booking booking) {
+        return ServiceExecutor.supply(booking::addBooking);
+    }
+
+    public static CompletableFuture<UpdateResult<Booking>> updateBooking(Booking booking) {
+        return ServiceExecutor.supply(booking::updateBooking);
+    }
+
+    public static CompletableFuture<Boolean> updateBookingStatus(int bookingId, Booking.BookingStatus status) {
+        return ServiceExecutor.supply(() -> Booking.updateBookingStatus(bookingId, status));
+    }
+
+    public static CompletableFuture<Booking.StatusChangeResult> updateBookingStatuses(List<Integer> bookingIds,
+                                                                                     Booking.BookingStatus status) {
+        return ServiceExecutor.supply(() -> Booking.updateBookingStatuses(bookingIds, status));
+    }
+
+    public static CompletableFuture<Boolean> deleteBooking(int bookingId) {
+        return ServiceExecutor.supply(() -> Booking.deleteBooking(bookingId));
+    }
+
+    /**
+     * @return Future completed with the booking, or null if not found
+     */
+    public static CompletableFuture<Booking> getBookingById(int bookingId) {
+        return ServiceExecutor.supply(() -> Booking.getBookingById(bookingId));
+    }
+
+    public static CompletableFuture<List<Booking>> getAllBookings() {
+        return ServiceExecutor.supply(Booking::getAllBookings);
+    }
+
+    public static CompletableFuture<List<Booking>> getBookingsByCustomerId(int customerId) {
+        return ServiceExecutor.supply(() -> Booking.getBookingsByCustomerId(customerId));
+    }
+
+    public static CompletableFuture<List<Booking>> getBookingsByStatus(Booking.BookingStatus status) {
+        return ServiceExecutor.supply(() -> Booking.getBookingsByStatus(status));
+    }
+
+    public static CompletableFuture<Boolean> isRoomAvailable(int roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        return ServiceExecutor.supply(() -> Booking.isRoomAvailable(roomId, checkInDate, checkOutDate));
+    }
+
+    public static CompletableFuture<List<Folio.Entry>> getFolioEntries(int bookingId) {
+        return ServiceExecutor.supply(() -> Folio.getEntries(bookingId));
+    }
+
+    public static CompletableFuture<Boolean> postCharge(int bookingId, String category, String description, Money amount) {
+        return ServiceExecutor.supply(() -> Folio.postCharge(bookingId, category, description, amount));
+    }
+
+    public static CompletableFuture<Boolean> postPayment(int bookingId, String method, String description, Money amount) {
+        return ServiceExecutor.supply(() -> Folio.postPayment(bookingId, method, description, amount));
+    }
+
+    /**
+     * @return Future completed with the outbox ID of the queued invoice email, or -1 on failure
+     */
+    public static CompletableFuture<Long> enqueueInvoice(Invoice invoice) {
+        return ServiceExecutor.supply(() -> EmailOutbox.enqueueInvoice(invoice));
+    }
+}
@@ -0,0 +1,588 @@
+package model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Bulk importer for the Hotel Management System
+ * Streams rooms, customers or bookings from a CSV file into the database using
+ * JDBC batches, commits every few thousand rows and records a checkpoint after
+ * each commit so an interrupted import can resume where it stopped.
+ */
+public class BulkImporter {
+    public enum Target {
+        ROOMS, CUSTOMERS, BOOKINGS
+    }
+
+    private static final int MAX_REPORTED_REJECTS = 100;
+
+    private int batchSize = 1000;
+    private int commitInterval = 10000;
+    private boolean resume = true;
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = Math.max(1, batchSize); }
+
+    public int getCommitInterval() { return commitInterval; }
+    public void setCommitInterval(int commitInterval) { this.commitInterval = Math.max(1, commitInterval); }
+
+    public boolean isResume() { return resume; }
+    public void setResume(boolean resume) { this.resume = resume; }
+
+    /**
+     * Import a CSV file whose first line is a header naming the columns
+     * @param target Table to import into
+     * @param csvFile CSV file to read
+     * @return Report describing the outcome and throughput of the import
+     */
+    public ImportReport importFile(Target target, Path csvFile) {
+        ImportReport report = new ImportReport(target);
+        Path checkpointFile = csvFile.resolveSibling(csvFile.getFileName() + ".checkpoint");
+        long startTime = System.nanoTime();
+
+        try (CsvReader csv = CsvReader.open(csvFile);
+             Connection conn = DBConnection.openBatchConnection()) {
+
+            String[] header = csv.readRecord();
+            if (header == null) {
+                report.fail("File is empty: " + csvFile);
+                return report;
+            }
+
+            Columns columns = new Columns(header);
+            RowBinder binder = createBinder(target, columns, conn);
+            long resumeAfter = resume ? loadCheckpoint(checkpointFile, target) : 0;
+            if (resumeAfter > 0) {
+                System.out.println("Resuming " + target + " import after row " + resumeAfter);
+            }
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(binder.sql())) {
+                long rowIndex = 0;
+                long lastCommitRow = resumeAfter;
+                int pendingRows = 0;
+                String[] row;
+
+                while ((row = csv.readRecord()) != null) {
+                    rowIndex++;
+                    if (rowIndex <= resumeAfter) {
+                        report.skipped++;
+                        continue;
+                    }
+
+                    try {
+                        if (binder.bind(row, stmt)) {
+                            stmt.addBatch();
+                            pendingRows++;
+                        } else {
+                            report.duplicates++;
+                        }
+                    } catch (IllegalArgumentException e) {
+                        report.reject(csv.getRecordLineNumber(), e.getMessage());
+                    }
+
+                    if (pendingRows == batchSize) {
+                        report.written += executeBatch(stmt);
+                        pendingRows = 0;
+                    }
+
+                    if (rowIndex - lastCommitRow >= commitInterval) {
+                        report.written += executeBatch(stmt);
+                        pendingRows = 0;
+                        binder.beforeCommit(conn);
+                        ChangeFeed.changedAll(ChangeFeed.Table.valueOf(target.name()));
+                        conn.commit();
+                        DBConnection.markWrite();
+                        saveCheckpoint(checkpointFile, target, rowIndex);
+                        lastCommitRow = rowIndex;
+                        System.out.println(String.format("Committed %d %s rows (%.0f rows/s)",
+                                rowIndex, target.name().toLowerCase(Locale.ROOT),
+                                (rowIndex - resumeAfter) / seconds(startTime)));
+                    }
+                }
+
+                report.written += executeBatch(stmt);
+                binder.beforeCommit(conn);
+                ChangeFeed.changedAll(ChangeFeed.Table.valueOf(target.name()));
+                conn.commit();
+                DBConnection.markWrite();
+                Files.deleteIfExists(checkpointFile);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+        } catch (SQLException | IOException | IllegalArgumentException e) {
+            System.err.println("Error importing " + target.name().toLowerCase(Locale.ROOT) + ": " + e.getMessage());
+            e.printStackTrace();
+            report.fail(e.getMessage());
+        } finally {
+            report.elapsedSeconds = seconds(startTime);
+        }
+        return report;
+    }
+
+    private static int executeBatch(PreparedStatement stmt) throws SQLException {
+        // Every statement is a plain single-row INSERT, so one that succeeds without a count wrote its row
+        int written = 0;
+        for (int count : stmt.executeBatch()) {
+            written += (count == Statement.SUCCESS_NO_INFO) ? 1 : Math.max(count, 0);
+        }
+        return written;
+    }
+
+    private static double seconds(long startTime) {
+        return Math.max((System.nanoTime() - startTime) / 1_000_000_000.0, 0.001);
+    }
+
+    private RowBinder createBinder(Target target, Columns columns, Connection conn) throws SQLException {
+        switch (target) {
+            case ROOMS:
+                return roomBinder(columns, conn);
+            case CUSTOMERS:
+                return customerBinder(columns, conn);
+            case BOOKINGS:
+                return bookingBinder(columns, conn);
+            default:
+                throw new IllegalStateException("Unknown import target: " + target);
+        }
+    }
+
+    private static RowBinder roomBinder(Columns columns, Connection conn) throws SQLException {
+        int roomNumber = columns.require("room_number");
+        int roomType = columns.require("room_type");
+        int price = columns.require("price_per_night");
+        int available = columns.optional("is_available");
+        int description = columns.optional("description");
+        int hotelId = Hotel.currentId();
+        Set<String> roomNumbers = existingKeys(conn, "SELECT room_number FROM rooms WHERE hotel_id = ?", hotelId);
+
+        return new RowBinder() {
+            @Override
+            public String sql() {
+                return "INSERT INTO rooms (room_number, room_type, price_per_night, is_available, description, hotel_id) VALUES (?, ?, ?, ?, ?, ?)";
+            }
+
+            @Override
+            public boolean bind(String[] row, PreparedStatement stmt) throws SQLException {
+                String number = text(row, roomNumber, "room_number", 10);
+                stmt.setString(1, number);
+                stmt.setString(2, text(row, roomType, "room_type", 50));
+                Money.setMoney(stmt, 3, positiveAmount(row, price, "price_per_night"));
+                stmt.setBoolean(4, flag(row, available, "is_available", true));
+                stmt.setString(5, optionalText(row, description));
+                stmt.setInt(6, hotelId);
+                // Taken last, so a row rejected above does not claim the number
+                return roomNumbers.add(number.toLowerCase(Locale.ROOT));
+            }
+        };
+    }
+
+    private static RowBinder customerBinder(Columns columns, Connection conn) throws SQLException {
+        int firstName = columns.require("first_name");
+        int lastName = columns.require("last_name");
+        int email = columns.require("email");
+        int phone = columns.require("phone");
+        int address = columns.optional("address");
+        int hotelId = Hotel.currentId();
+        Set<String> emails = existingKeys(conn, "SELECT email FROM customers WHERE hotel_id = ?", hotelId);
+
+        return new RowBinder() {
+            @Override
+            public String sql() {
+                return "INSERT INTO customers (first_name, last_name, email, phone, address, hotel_id) VALUES (?, ?, ?, ?, ?, ?)";
+            }
+
+            @Override
+            public boolean bind(String[] row, PreparedStatement stmt) throws SQLException {
+                String emailValue = text(row, email, "email", 100);
+                if (emailValue.indexOf('@') <= 0) {
+                    throw new IllegalArgumentException("Invalid email: " + emailValue);
+                }
+                stmt.setString(1, text(row, firstName, "first_name", 50));
+                stmt.setString(2, text(row, lastName, "last_name", 50));
+                stmt.setString(3, emailValue);
+                stmt.setString(4, text(row, phone, "phone", 20));
+                stmt.setString(5, optionalText(row, address));
+                stmt.setInt(6, hotelId);
+                // Taken last, so a row rejected above does not claim the email
+                return emails.add(emailValue.toLowerCase(Locale.ROOT));
+            }
+        };
+    }
+
+    // Unique keys already taken in the hotel, lower-cased like the case-insensitive collation compares them
+    private static Set<String> existingKeys(Connection conn, String sql, int hotelId) throws SQLException {
+        Set<String> keys = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, hotelId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1).toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static RowBinder bookingBinder(Columns columns, Connection conn) throws SQLException {
+        int customerId = columns.optional("customer_id");
+        int customerEmail = columns.optional("customer_email");
+        int roomId = columns.optional("room_id");
+        int roomNumber = columns.optional("room_number");
+        int checkIn = columns.require("check_in_date");
+        int checkOut = columns.require("check_out_date");
+        int totalAmount = columns.optional("total_amount");
+        int status = columns.optional("booking_status");
+
+        if (customerId < 0 && customerEmail < 0) {
+            throw new IllegalArgumentException("Bookings file needs a customer_id or customer_email column");
+        }
+        if (roomId < 0 && roomNumber < 0) {
+            throw new IllegalArgumentException("Bookings file needs a room_id or room_number column");
+        }
+
+        // Resolve references in memory instead of one lookup query per row; only the
+        // current hotel's customers and rooms can be referenced
+        int hotelId = Hotel.currentId();
+        Set<Integer> customerIds = new HashSet<>();
+        Map<String, Integer> customerIdsByEmail = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT customer_id, email FROM customers WHERE hotel_id = ?")) {
+            stmt.setInt(1, hotelId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    customerIds.add(rs.getInt("customer_id"));
+                    customerIdsByEmail.put(rs.getString("email").toLowerCase(Locale.ROOT), rs.getInt("customer_id"));
+                }
+            }
+        }
+
+        Map<Integer, Room> roomsById = new HashMap<>();
+        Map<String, Integer> roomIdsByNumber = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT room_id, room_number, room_type, price_per_night FROM rooms WHERE hotel_id = ?")) {
+            stmt.setInt(1, hotelId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    roomsById.put(rs.getInt("room_id"), new Room(rs.getInt("room_id"), rs.getString("room_number"),
+                        rs.getString("room_type"), Money.getMoney(rs, "price_per_night"), true, null));
+                    roomIdsByNumber.put(rs.getString("room_number"), rs.getInt("room_id"));
+                }
+            }
+        }
+
+        // Imported bookings are added to the revenue rollups in the same transactions
+        RevenueRollup.Delta revenue = new RevenueRollup.Delta();
+
+        return new RowBinder() {
+            // Lowest ID the bookings inserted since the last commit can have
+            private long nextBookingId = nextBookingId(conn);
+
+            @Override
+            public String sql() {
+                return "INSERT INTO bookings (customer_id, room_id, check_in_date, check_out_date, total_amount, booking_status, hotel_id) VALUES (?, ?, ?, ?, ?, ?, ?)";
+            }
+
+            @Override
+            public boolean bind(String[] row, PreparedStatement stmt) throws SQLException {
+                int customer;
+                if (customerId >= 0 && !value(row, customerId).isEmpty()) {
+                    customer = integer(row, customerId, "customer_id");
+                    if (!customerIds.contains(customer)) {
+                        throw new IllegalArgumentException("Unknown customer_id: " + customer);
+                    }
+                } else {
+                    String email = text(row, customerEmail, "customer_email", 100);
+                    Integer id = customerIdsByEmail.get(email.toLowerCase(Locale.ROOT));
+                    if (id == null) {
+                        throw new IllegalArgumentException("Unknown customer_email: " + email);
+                    }
+                    customer = id;
+                }
+
+                int room;
+                if (roomId >= 0 && !value(row, roomId).isEmpty()) {
+                    room = integer(row, roomId, "room_id");
+                    if (!roomsById.containsKey(room)) {
+                        throw new IllegalArgumentException("Unknown room_id: " + room);
+                    }
+                } else {
+                    String number = text(row, roomNumber, "room_number", 10);
+                    Integer id = roomIdsByNumber.get(number);
+                    if (id == null) {
+                        throw new IllegalArgumentException("Unknown room_number: " + number);
+                    }
+                    room = id;
+                }
+
+                LocalDate checkInDate = date(row, checkIn, "check_in_date");
+                LocalDate checkOutDate = date(row, checkOut, "check_out_date");
+                if (!checkOutDate.isAfter(checkInDate)) {
+                    throw new IllegalArgumentException("check_out_date must be after check_in_date");
+                }
+
+                Money amount;
+                if (totalAmount >= 0 && !value(row, totalAmount).isEmpty()) {
+                    amount = amount(row, totalAmount, "total_amount");
+                } else {
+                    amount = RateCalendar.quote(roomsById.get(room), checkInDate, checkOutDate);
+                }
+
+                Booking.BookingStatus bookingStatus = Booking.BookingStatus.PENDING;
+                if (status >= 0 && !value(row, status).isEmpty()) {
+                    try {
+                        bookingStatus = Booking.BookingStatus.valueOf(value(row, status).toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Invalid booking_status: " + value(row, status));
+                    }
+                }
+
+                stmt.setInt(1, customer);
+                stmt.setInt(2, room);
+                stmt.setDate(3, Date.valueOf(checkInDate));
+                stmt.setDate(4, Date.valueOf(checkOutDate));
+                Money.setMoney(stmt, 5, amount);
+                stmt.setString(6, bookingStatus.name());
+                stmt.setInt(7, hotelId);
+                revenue.add(new RevenueRollup.Stay(hotelId, roomsById.get(room).getRoomType(),
+                        checkInDate, checkOutDate, amount, bookingStatus));
+                return true;
+            }
+
+            @Override
+            public void beforeCommit(Connection conn) throws SQLException {
+                revenue.write(conn);
+                BookingEvents.appendCreatedSince(conn, nextBookingId);
+                nextBookingId = nextBookingId(conn);
+            }
+        };
+    }
+
+    private static long nextBookingId(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(booking_id), 0) + 1 FROM bookings")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    // Field parsing helpers; validation failures reject the row with IllegalArgumentException
+
+    private static String value(String[] row, int index) {
+        return index >= 0 && index < row.length ? row[index].trim() : "";
+    }
+
+    private static String text(String[] row, int index, String column, int maxLength) {
+        String value = value(row, index);
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        if (value.length() > maxLength) {
+            throw new IllegalArgumentException(column + " is longer than " + maxLength + " characters");
+        }
+        return value;
+    }
+
+    private static String optionalText(String[] row, int index) {
+        String value = value(row, index);
+        return value.isEmpty() ? null : value;
+    }
+
+    private static int integer(String[] row, int index, String column) {
+        try {
+            return Integer.parseInt(value(row, index));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value(row, index));
+        }
+    }
+
+    private static Money amount(String[] row, int index, String column) {
+        try {
+            Money amount = Money.parse(value(row, index));
+            if (amount.signum() < 0) {
+                throw new IllegalArgumentException("Invalid " + column + ": " + value(row, index));
+            }
+            return amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value(row, index));
+        }
+    }
+
+    private static Money positiveAmount(String[] row, int index, String column) {
+        Money amount = amount(row, index, column);
+        if (amount.signum() <= 0) {
+            throw new IllegalArgumentException(column + " must be greater than 0");
+        }
+        return amount;
+    }
+
+    private static boolean flag(String[] row, int index, String column, boolean defaultValue) {
+        String value = value(row, index).toLowerCase(Locale.ROOT);
+        switch (value) {
+            case "":
+                return defaultValue;
+            case "true": case "yes": case "y": case "1":
+                return true;
+            case "false": case "no": case "n": case "0":
+                return false;
+            default:
+                throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static LocalDate date(String[] row, int index, String column) {
+        try {
+            return LocalDate.parse(value(row, index));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + " (expected yyyy-MM-dd): " + value(row, index));
+        }
+    }
+
+    // Checkpoint handling
+
+    private static long loadCheckpoint(Path checkpointFile, Target target) throws IOException {
+        if (!Files.exists(checkpointFile)) {
+            return 0;
+        }
+        Properties checkpoint = new Properties();
+        try (InputStream in = Files.newInputStream(checkpointFile)) {
+            checkpoint.load(in);
+        }
+        if (!target.name().equals(checkpoint.getProperty("target"))) {
+            throw new IOException("Checkpoint " + checkpointFile + " belongs to a " + checkpoint.getProperty("target") + " import");
+        }
+        return Long.parseLong(checkpoint.getProperty("rows", "0"));
+    }
+
+    private static void saveCheckpoint(Path checkpointFile, Target target, long rows) throws IOException {
+        Properties checkpoint = new Properties();
+        checkpoint.setProperty("target", target.name());
+        checkpoint.setProperty("rows", String.valueOf(rows));
+
+        // Write then rename so a crash never leaves a half-written checkpoint
+        Path tempFile = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            checkpoint.store(out, "Bulk import checkpoint: data rows committed");
+        }
+        Files.move(tempFile, checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Binds one validated CSV row to the insert statement
+     */
+    private interface RowBinder {
+        String sql();
+
+        /**
+         * @return false if the row duplicates an existing one and is skipped
+         */
+        boolean bind(String[] row, PreparedStatement stmt) throws SQLException;
+
+        /**
+         * Write anything that must be committed with the rows bound so far
+         */
+        default void beforeCommit(Connection conn) throws SQLException {
+        }
+    }
+
+    /**
+     * Maps header names to column positions
+     */
+    private static class Columns {
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        Columns(String[] header) {
+            for (int i = 0; i < header.length; i++) {
+                indexes.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        int require(String name) {
+            Integer index = indexes.get(name);
+            if (index == null) {
+                throw new IllegalArgumentException("Missing required column: " + name);
+            }
+            return index;
+        }
+
+        int optional(String name) {
+            return indexes.getOrDefault(name, -1);
+        }
+    }
+
+    /**
+     * Outcome and throughput of a bulk import
+     */
+    public static class ImportReport {
+        private final Target target;
+        private long written;
+        private long skipped;
+        private long duplicates;
+        private long rejected;
+        private final List<String> rejects = new ArrayList<>();
+        private double elapsedSeconds;
+        private String failure;
+
+        ImportReport(Target target) {
+            this.target = target;
+        }
+
+        void reject(long lineNumber, String reason) {
+            rejected++;
+            if (rejects.size() < MAX_REPORTED_REJECTS) {
+                rejects.add("Line " + lineNumber + ": " + reason);
+            }
+        }
+
+        void fail(String message) {
+            failure = message;
+        }
+
+        public Target getTarget() { return target; }
+        public long getWritten() { return written; }
+        public long getSkipped() { return skipped; }
+        public long getDuplicates() { return duplicates; }
+        public long getRejected() { return rejected; }
+        public List<String> getRejects() { return rejects; }
+        public double getElapsedSeconds() { return elapsedSeconds; }
+        public boolean isSuccessful() { return failure == null; }
+        public String getFailure() { return failure; }
+
+        public double getRowsPerSecond() {
+            return (written + duplicates + rejected) / Math.max(elapsedSeconds, 0.001);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%s import %s in %.1f s (%.0f rows/s): %d written, %d duplicates skipped, %d rejected, %d already imported",
+                    target.name().toLowerCase(Locale.ROOT), isSuccessful() ? "finished" : "FAILED",
+                    elapsedSeconds, getRowsPerSecond(), written, duplicates, rejected, skipped));
+            if (failure != null) {
+                sb.append(System.lineSeparator()).append("Error: ").append(failure);
+            }
+            for (String reject : rejects) {
+                sb.append(System.lineSeparator()).append("  ").append(reject);
+            }
+            if (rejected > rejects.size()) {
+                sb.append(System.lineSeparator()).append("  ... ").append(rejected - rejects.size()).append(" more rejected rows");
+            }
+            return sb.toString();
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live change notices for the Hotel Management System
+ * Model code notes the rooms, customers and bookings a transaction writes; when it commits
+ * (see DBConnection.markWrite) their IDs are published to the hotel's channel on a
+ * publish/subscribe broker: a Redis server or the embedded LocalChangeBroker. Open
+ * dashboards subscribe and re-read just those rows. A notice only says a row may have
+ * changed, so a row that can no longer be read was deleted.
+ * Publishing never holds up a commit: notices are queued for a background thread and
+ * dropped while the broker cannot be reached.
+ */
+public class ChangeFeed {
+    public static final String BROKER_HOST = System.getProperty("hotel.changes.host", "localhost");
+    public static final int BROKER_PORT = Integer.getInteger("hotel.changes.port", 6379);
+
+    private static final String ORIGIN = UUID.randomUUID().toString();
+    private static final int MAX_IDS = 500; // More rows than this are announced as a reload
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final long PUBLISH_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final long SUBSCRIBE_RETRY_MILLIS = 5000;
+
+    public enum Table {
+        ROOMS, CUSTOMERS, BOOKINGS
+    }
+
+    /**
+     * Rows of one table that another client changed
+     */
+    public static class Change {
+        private final int hotelId;
+        private final Table table;
+        private final List<Integer> ids;
+
+        Change(int hotelId, Table table, List<Integer> ids) {
+            this.hotelId = hotelId;
+            this.table = table;
+            this.ids = ids;
+        }
+
+        public int getHotelId() { return hotelId; }
+        public Table getTable() { return table; }
+
+        /**
+         * @return IDs of the changed rows, or null if any row of the table may have changed
+         */
+        public List<Integer> getIds() { return ids; }
+        public boolean isReload() { return ids == null; }
+    }
+
+    /**
+     * Receives the changes of a subscription on its background thread
+     */
+    public interface Listener {
+        void rowsChanged(Change change);
+
+        /**
+         * The connection to the broker was restored; changes made meanwhile were missed
+         */
+        void reconnected();
+    }
+
+    // Changed rows by hotel and table for the transaction open on this thread; a null set means every row.
+    // A rolled-back transaction leaves its rows here for the next commit, which only costs a re-read.
+    private static final ThreadLocal<Map<Integer, Map<Table, Set<Integer>>>> pending =
+        ThreadLocal.withInitial(HashMap::new);
+
+    private static final BlockingQueue<String[]> outbox = new LinkedBlockingQueue<>(10_000);
+    private static Thread publisher;
+
+    /**
+     * Note a row written by the current hotel in the transaction open on this thread
+     */
+    static void changed(Table table, int id) {
+        changed(Hotel.currentId(), table, List.of(id));
+    }
+
+    /**
+     * Note rows written in the transaction open on this thread
+     * @param hotelId Hotel the rows belong to
+     * @param table Table of the rows
+     * @param ids IDs of the rows
+     */
+    static void changed(int hotelId, Table table, Collection<Integer> ids) {
+        Map<Table, Set<Integer>> tables = pending.get().computeIfAbsent(hotelId, id -> new EnumMap<>(Table.class));
+        if (tables.containsKey(table) && tables.get(table) == null) {
+            return;
+        }
+        Set<Integer> rows = tables.computeIfAbsent(table, t -> new LinkedHashSet<>());
+        rows.addAll(ids);
+        if (rows.size() > MAX_IDS) {
+            tables.put(table, null);
+        }
+    }
+
+    /**
+     * Note that any of the current hotel's rows of a table may have changed, e.g. after a bulk load
+     */
+    static void changedAll(Table table) {
+        pending.get().computeIfAbsent(Hotel.currentId(), id -> new EnumMap<>(Table.class)).put(table, null);
+    }
+
+    /**
+     * Queue notices for the rows noted on this thread since its last commit
+     */
+    static void publishPending() {
+        Map<Integer, Map<Table, Set<Integer>>> hotels = pending.get();
+        if (hotels.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Integer, Map<Table, Set<Integer>>> hotel : hotels.entrySet()) {
+            for (Map.Entry<Table, Set<Integer>> table : hotel.getValue().entrySet()) {
+                StringBuilder payload = new StringBuilder(ORIGIN).append(' ').append(table.getKey()).append(' ');
+                if (table.getValue() == null) {
+                    payload.append('*');
+                } else {
+                    int i = 0;
+                    for (int id : table.getValue()) {
+                        payload.append(i++ == 0 ? "" : ",").append(id);
+                    }
+                }
+                if (!outbox.offer(new String[] {channel(hotel.getKey()), payload.toString()})) {
+                    System.err.println("Change notice queue full, dropping notice for " + table.getKey());
+                }
+            }
+        }
+        hotels.clear();
+        startPublisher();
+    }
+
+    private static String channel(int hotelId) {
+        return "hotel:" + hotelId + ":changes";
+    }
+
+    private static synchronized void startPublisher() {
+        if (publisher != null) {
+            return;
+        }
+        publisher = new Thread(ChangeFeed::publishQueued, "change-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+    }
+
+    private static void publishQueued() {
+        Socket socket = null;
+        long retryAt = System.nanoTime();
+        while (true) {
+            String[] notice;
+            try {
+                notice = outbox.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (socket == null) {
+                if (System.nanoTime() - retryAt < 0) {
+                    continue; // Broker down: drop notices until the next attempt
+                }
+                try {
+                    socket = connect();
+                } catch (IOException e) {
+                    System.err.println("Change broker unavailable, live updates paused: " + e.getMessage());
+                    retryAt = System.nanoTime() + PUBLISH_RETRY_NANOS;
+                    continue;
+                }
+            }
+            try {
+                writeCommand(socket.getOutputStream(), "PUBLISH", notice[0], notice[1]);
+                readReply(socket.getInputStream()); // Number of subscribers that received it
+            } catch (IOException e) {
+                System.err.println("Error publishing change notice: " + e.getMessage());
+                closeQuietly(socket);
+                socket = null;
+            }
+        }
+    }
+
+    private static Socket connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(BROKER_HOST, BROKER_PORT), CONNECT_TIMEOUT_MILLIS);
+            socket.setTcpNoDelay(true);
+            return socket;
+        } catch (IOException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Subscribe to changes other clients make to the current hotel's rows
+     * Changes this process makes itself are not delivered. The subscription reconnects on its
+     * own when the broker goes away.
+     * @param listener Listener called on the subscription's background thread
+     * @return Subscription to close when the listener is no longer needed
+     */
+    public static Subscription subscribe(Listener listener) {
+        return new Subscription(Hotel.currentId(), listener);
+    }
+
+    /**
+     * A subscription to one hotel's changes
+     */
+    public static final class Subscription implements Closeable {
+        private final int hotelId;
+        private final Listener listener;
+        private final Thread thread;
+        private volatile Socket socket;
+        private volatile boolean running = true;
+
+        private Subscription(int hotelId, Listener listener) {
+            this.hotelId = hotelId;
+            this.listener = listener;
+            thread = new Thread(this::run, "change-subscriber");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void run() {
+            boolean connectedBefore = false;
+            boolean reported = false;
+            while (running) {
+                try (Socket current = connect()) {
+                    socket = current;
+                    OutputStream out = current.getOutputStream();
+                    InputStream in = new BufferedInputStream(current.getInputStream());
+                    writeCommand(out, "SUBSCRIBE", channel(hotelId));
+                    readReply(in); // Subscription confirmation
+                    if (connectedBefore) {
+                        listener.reconnected();
+                    }
+                    connectedBefore = true;
+                    reported = false;
+
+                    while (running) {
+                        Object message = readReply(in);
+                        if (message instanceof List && ((List<?>) message).size() == 3
+                                && "message".equals(((List<?>) message).get(0))) {
+                            Change change = parse(hotelId, String.valueOf(((List<?>) message).get(2)));
+                            if (change != null) {
+                                listener.rowsChanged(change);
+                            }
+                        }
+                    }
+                } catch (IOException e) {
+                    if (running && !reported) {
+                        System.err.println("Change broker unavailable, retrying in the background: " + e.getMessage());
+                        reported = true;
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Error handling change notice: " + e.getMessage());
+                    e.printStackTrace();
+                }
+                try {
+                    Thread.sleep(SUBSCRIBE_RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            thread.interrupt();
+            Socket current = socket;
+            if (current != null) {
+                closeQuietly(current);
+            }
+        }
+    }
+
+    private static Change parse(int hotelId, String payload) {
+        String[] parts = payload.split(" ");
+        if (parts.length != 3 || parts[0].equals(ORIGIN)) {
+            return null;
+        }
+        try {
+            Table table = Table.valueOf(parts[1]);
+            if (parts[2].equals("*")) {
+                return new Change(hotelId, table, null);
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (String id : parts[2].split(",")) {
+                ids.add(Integer.parseInt(id));
+            }
+            return new Change(hotelId, table, Collections.unmodifiableList(ids));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring malformed change notice: " + payload);
+            return null;
+        }
+    }
+
+    // RESP, the Redis wire protocol: commands are arrays of bulk strings
+
+    static void writeCommand(OutputStream out, String... arguments) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out);
+        buffered.write(("*" + arguments.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String argument : arguments) {
+            writeBulk(buffered, argument);
+        }
+        buffered.flush();
+    }
+
+    private static void writeBulk(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(bytes);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    /**
+     * Read one reply
+     * @return String for simple and bulk strings, Long for integers, List for arrays, null for a null bulk string
+     * @throws IOException on an error reply or a closed connection
+     */
+    static Object readReply(InputStream in) throws IOException {
+        String line = readLine(in);
+        if (line == null || line.isEmpty()) {
+            throw new IOException("Connection closed by broker");
+        }
+        String value = line.substring(1);
+        switch (line.charAt(0)) {
+            case '+':
+                return value;
+            case '-':
+                throw new IOException("Broker error: " + value);
+            case ':':
+                return Long.parseLong(value);
+            case '$': {
+                int length = Integer.parseInt(value);
+                if (length < 0) {
+                    return null;
+                }
+                byte[] bytes = in.readNBytes(length + 2);
+                if (bytes.length < length + 2) {
+                    throw new IOException("Connection closed by broker");
+                }
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            case '*': {
+                int count = Integer.parseInt(value);
+                List<Object> items = new ArrayList<>(Math.max(count, 0));
+                for (int i = 0; i < count; i++) {
+                    items.add(readReply(in));
+                }
+                return items;
+            }
+            default:
+                throw new IOException("Unexpected reply from broker: " + line);
+        }
+    }
+
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) {
+                return buffer.size() > 0 ? buffer.toString(StandardCharsets.UTF_8) : null;
+            }
+            buffer.write(c);
+        }
+        byte[] bytes = buffer.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming CSV reader for the Hotel Management System
+ * Reads one record at a time so files of any size can be processed in constant memory.
+ * Supports quoted fields, doubled quotes and line breaks inside quotes; blank lines are skipped.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int bufferLength;
+    private int position;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> record = new ArrayList<>();
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Open a UTF-8 CSV file for streaming
+     * @param path Path of the CSV file
+     * @return CsvReader positioned at the first record
+     * @throws IOException if the file cannot be opened
+     */
+    public static CsvReader open(Path path) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read the next record
+     * @return Fields of the record, or null at end of file
+     * @throws IOException if reading fails or a quoted field is not terminated
+     */
+    public String[] readRecord() throws IOException {
+        while (true) {
+            record.clear();
+            field.setLength(0);
+            recordLineNumber = lineNumber;
+
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+
+            boolean inQuotes = false;
+            boolean sawQuote = false;
+            while (true) {
+                if (inQuotes) {
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted field starting at line " + recordLineNumber);
+                    }
+                    if (c == '"') {
+                        if (peek() == '"') {
+                            read();
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == -1 || c == '\n') {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    record.add(field.toString());
+                    break;
+                } else if (c == ',') {
+                    record.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '"' && field.length() == 0) {
+                    inQuotes = true;
+                    sawQuote = true;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+
+            // Skip blank lines
+            if (record.size() == 1 && record.get(0).isEmpty() && !sawQuote) {
+                continue;
+            }
+            return record.toArray(new String[0]);
+        }
+    }
+
+    /**
+     * Get the line number on which the last record started
+     * @return 1-based line number
+     */
+    public long getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    private int read() throws IOException {
+        if (position == bufferLength && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == bufferLength && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        bufferLength = reader.read(buffer, 0, buffer.length);
+        position = 0;
+        if (bufferLength <= 0) {
+            bufferLength = 0;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
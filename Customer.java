@@ -13,6 +13,7 @@ public class Customer {
     private String phone;
     private String address;
     private Timestamp createdAt;
+    private Timestamp updatedAt;
     
     // Constructors
     public Customer() {}
@@ -57,6 +58,12 @@ public class Customer {
     public Timestamp getCreatedAt() { return createdAt; }
     public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
     
+    /**
+     * @return Version of the row as loaded by getCustomerById, or null if not loaded; updateCustomer checks it
+     */
+    public Timestamp getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
+    
     public String getFullName() {
         return firstName + " " + lastName;
     }
@@ -66,7 +73,7 @@ public class Customer {
      * @return true if successful, false otherwise
      */
     public boolean addCustomer() {
-        String sql = "INSERT INTO customers (first_name, last_name, email, phone, address) VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO customers (first_name, last_name, email, phone, address, hotel_id) VALUES (?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
@@ -76,6 +83,7 @@ public class Customer {
             stmt.setString(3, email);
             stmt.setString(4, phone);
             stmt.setString(5, address);
+            stmt.setInt(6, Hotel.currentId());
             
             int affectedRows = stmt.executeUpdate();
             
@@ -85,6 +93,8 @@ public class Customer {
                         this.customerId = generatedKeys.getInt(1);
                     }
                 }
+                ChangeFeed.changed(ChangeFeed.Table.CUSTOMERS, customerId);
+                DBConnection.markWrite();
                 return true;
             }
         } catch (SQLException e) {
@@ -96,29 +106,49 @@ public class Customer {
     
     /**
      * Update customer information in the database
-     * @return true if successful, false otherwise
+     * Nothing is written if the customer changed since it was loaded; a customer without a
+     * loaded version (see getUpdatedAt) is overwritten.
+     * @return Result of the update; on a conflict it carries the customer as it is now
      */
-    public boolean updateCustomer() {
-        String sql = "UPDATE customers SET first_name = ?, last_name = ?, email = ?, phone = ?, address = ? WHERE customer_id = ?";
+    public UpdateResult<Customer> updateCustomer() {
+        String sql = "UPDATE customers SET first_name = ?, last_name = ?, email = ?, phone = ?, address = ? WHERE customer_id = ? AND hotel_id = ?"
+            + (updatedAt != null ? " AND updated_at = ?" : "");
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, firstName);
-            stmt.setString(2, lastName);
-            stmt.setString(3, email);
-            stmt.setString(4, phone);
-            stmt.setString(5, address);
-            stmt.setInt(6, customerId);
-            
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setString(1, firstName);
+                stmt.setString(2, lastName);
+                stmt.setString(3, email);
+                stmt.setString(4, phone);
+                stmt.setString(5, address);
+                stmt.setInt(6, customerId);
+                stmt.setInt(7, Hotel.currentId());
+                if (updatedAt != null) {
+                    stmt.setTimestamp(8, updatedAt);
+                }
+                
+                if (stmt.executeUpdate() == 0) {
+                    Customer current = getCustomerById(conn, customerId);
+                    conn.rollback();
+                    return current != null ? UpdateResult.conflict(current) : UpdateResult.notFound();
+                }
+                updatedAt = UpdateResult.readVersion(conn, "customers", "customer_id", customerId);
+                ChangeFeed.changed(ChangeFeed.Table.CUSTOMERS, customerId);
+                conn.commit();
+                DBConnection.markWrite();
+                return UpdateResult.updated(this);
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating customer: " + e.getMessage());
             e.printStackTrace();
         }
-        return false;
+        return UpdateResult.failed();
     }
     
     /**
@@ -127,15 +157,34 @@ public class Customer {
      * @return true if successful, false otherwise
      */
     public static boolean deleteCustomer(int customerId) {
-        String sql = "DELETE FROM customers WHERE customer_id = ?";
+        String sql = "DELETE FROM customers WHERE customer_id = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, customerId);
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // The customer's bookings are deleted with them, so take them out of the revenue rollups
+                RevenueRollup.Delta revenue = new RevenueRollup.Delta();
+                for (RevenueRollup.Stay stay : RevenueRollup.readStaysFor(conn, "customer_id", customerId)) {
+                    revenue.remove(stay);
+                }
+                BookingEvents.appendDeletedFor(conn, "customer_id", customerId);
+                
+                stmt.setInt(1, customerId);
+                stmt.setInt(2, Hotel.currentId());
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    revenue.write(conn);
+                    ChangeFeed.changed(ChangeFeed.Table.CUSTOMERS, customerId);
+                }
+                conn.commit();
+                DBConnection.markWrite();
+                return affectedRows > 0;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting customer: " + e.getMessage());
             e.printStackTrace();
@@ -149,12 +198,54 @@ public class Customer {
      * @return Customer object or null if not found
      */
     public static Customer getCustomerById(int customerId) {
-        String sql = "SELECT * FROM customers WHERE customer_id = ?";
+        try (Connection conn = DBConnection.getReadConnection()) {
+            return getCustomerById(conn, customerId);
+        } catch (SQLException e) {
+            System.err.println("Error getting customer by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+    
+    private static Customer getCustomerById(Connection conn, int customerId) throws SQLException {
+        String sql = "SELECT * FROM customers WHERE customer_id = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, customerId);
+            stmt.setInt(2, Hotel.currentId());
+            ResultSet rs = stmt.executeQuery();
+            
+            if (rs.next()) {
+                Customer customer = new Customer(
+                    rs.getInt("customer_id"),
+                    rs.getString("first_name"),
+                    rs.getString("last_name"),
+                    rs.getString("email"),
+                    rs.getString("phone"),
+                    rs.getString("address"),
+                    rs.getTimestamp("created_at")
+                );
+                customer.setUpdatedAt(rs.getTimestamp("updated_at"));
+                return customer;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Get the customer who made a booking
+     * Lets a caller load a booking and its customer at the same time
+     * @param bookingId ID of the booking
+     * @return Customer object or null if not found
+     */
+    public static Customer getCustomerByBookingId(int bookingId) {
+        String sql = "SELECT c.* FROM customers c JOIN bookings b ON b.customer_id = c.customer_id WHERE b.booking_id = ? AND b.hotel_id = ?";
+        
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
-            stmt.setInt(1, customerId);
+            stmt.setInt(1, bookingId);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -169,7 +260,7 @@ public class Customer {
                 );
             }
         } catch (SQLException e) {
-            System.err.println("Error getting customer by ID: " + e.getMessage());
+            System.err.println("Error getting customer by booking ID: " + e.getMessage());
             e.printStackTrace();
         }
         return null;
@@ -181,12 +272,13 @@ public class Customer {
      * @return Customer object or null if not found
      */
     public static Customer getCustomerByEmail(String email) {
-        String sql = "SELECT * FROM customers WHERE email = ?";
+        String sql = "SELECT * FROM customers WHERE email = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, email);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -213,11 +305,13 @@ public class Customer {
      */
     public static List<Customer> getAllCustomers() {
         List<Customer> customers = new ArrayList<>();
-        String sql = "SELECT * FROM customers ORDER BY created_at DESC";
+        String sql = "SELECT * FROM customers WHERE hotel_id = ? ORDER BY created_at DESC";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, Hotel.currentId());
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 customers.add(new Customer(
@@ -243,16 +337,31 @@ public class Customer {
      * @return List of matching customers
      */
     public static List<Customer> searchCustomers(String searchTerm) {
+        return searchCustomers(searchTerm, null);
+    }
+    
+    /**
+     * Search customers by name or email on a dedicated connection
+     * @param searchTerm Search term
+     * @param handle Handle used to cancel the query when it is superseded, or null
+     * @return List of matching customers, empty if the query was cancelled
+     */
+    public static List<Customer> searchCustomers(String searchTerm, QueryHandle handle) {
         List<Customer> customers = new ArrayList<>();
-        String sql = "SELECT * FROM customers WHERE first_name LIKE ? OR last_name LIKE ? OR email LIKE ? ORDER BY created_at DESC";
+        String sql = "SELECT * FROM customers WHERE (first_name LIKE ? OR last_name LIKE ? OR email LIKE ?) AND hotel_id = ? ORDER BY created_at DESC";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.openReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            if (handle != null && !handle.attach(stmt)) {
+                return customers;
+            }
+            
             String searchPattern = "%" + searchTerm + "%";
             stmt.setString(1, searchPattern);
             stmt.setString(2, searchPattern);
             stmt.setString(3, searchPattern);
+            stmt.setInt(4, Hotel.currentId());
             
             ResultSet rs = stmt.executeQuery();
             
@@ -268,8 +377,15 @@ public class Customer {
                 ));
             }
         } catch (SQLException e) {
+            if (handle != null && handle.isCancelled()) {
+                return new ArrayList<>();
+            }
             System.err.println("Error searching customers: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (handle != null) {
+                handle.detach();
+            }
         }
         return customers;
     }
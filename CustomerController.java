@@ -1,6 +1,10 @@
 package controller;
 
 import model.Customer;
+import model.ChangeFeed;
+import model.CustomerService;
+import model.LocalCatalog;
+import model.UpdateResult;
 import view.AdminDashboard;
 import view.CustomerRegistrationView;
 
@@ -17,16 +21,27 @@ import java.util.List;
 public class CustomerController {
     private AdminDashboard adminDashboard;
     private CustomerRegistrationView customerView;
+    private Customer editingCustomer; // As loaded when the edit dialog opened
     private JTable customersTable;
     private DefaultTableModel customersTableModel;
+    private LiveSearch<Customer> customerSearch;
     
     public CustomerController(AdminDashboard adminDashboard) {
         this.adminDashboard = adminDashboard;
         this.customersTable = adminDashboard.getCustomersTable();
         this.customersTableModel = adminDashboard.getCustomersTableModel();
+        this.customerSearch = new LiveSearch<>("customers", Customer::searchCustomers, this::showSearchResults);
         
         setupEventHandlers();
-        loadCustomers();
+        
+        // Start from the warm catalog when available; Refresh always queries the database
+        if (LocalCatalog.isLoaded()) {
+            List<Customer> customers = LocalCatalog.getCustomers();
+            populateCustomersTable(customers);
+            System.out.println("Loaded " + customers.size() + " customers from catalog");
+        } else {
+            loadCustomers();
+        }
     }
     
     private void setupEventHandlers() {
@@ -36,6 +51,7 @@ public class CustomerController {
         adminDashboard.addCustomersDeleteButtonListener(e -> deleteCustomer());
         adminDashboard.addCustomersRefreshButtonListener(e -> loadCustomers());
         adminDashboard.addCustomersSearchButtonListener(e -> searchCustomers());
+        adminDashboard.addCustomersSearchFieldListener(customerSearch.createDocumentListener(adminDashboard::getCustomersSearchText));
     }
     
     private void showAddCustomerDialog() {
@@ -58,6 +74,7 @@ public class CustomerController {
         
         Customer customer = Customer.getCustomerById(customerId);
         if (customer != null) {
+            editingCustomer = customer;
             customerView = new CustomerRegistrationView(adminDashboard, "Edit Customer");
             customerView.setEditMode(true);
             populateCustomerView(customer);
@@ -121,9 +138,27 @@ public class CustomerController {
                 customer.setEmail(customerView.getEmail());
                 customer.setPhone(customerView.getPhone());
                 customer.setAddress(customerView.getAddress());
+                customer.setUpdatedAt(editingCustomer.getUpdatedAt());
                 
-                success = customer.updateCustomer();
-                message = success ? "Customer updated successfully!" : "Failed to update customer!";
+                UpdateResult<Customer> result = customer.updateCustomer();
+                Customer original = editingCustomer;
+                while (result.isConflict()) {
+                    Customer current = result.getCurrent();
+                    if (!MergePrompt.show(customerView, "Customer " + original.getFullName(), mergeFields(original, customer, current))) {
+                        customerView.showErrorMessage("Your changes were not saved.");
+                        return;
+                    }
+                    customer.setUpdatedAt(current.getUpdatedAt());
+                    original = current;
+                    result = customer.updateCustomer();
+                }
+                
+                success = result.isUpdated();
+                if (result.getStatus() == UpdateResult.Status.NOT_FOUND) {
+                    message = "This customer has been deleted by someone else.";
+                } else {
+                    message = success ? "Customer updated successfully!" : "Failed to update customer!";
+                }
             } else {
                 // Create new customer
                 customer = new Customer(
@@ -153,6 +188,21 @@ public class CustomerController {
         }
     }
     
+    private static List<MergePrompt.Field> mergeFields(Customer original, Customer mine, Customer current) {
+        return List.of(
+            new MergePrompt.Field("First name", original.getFirstName(), mine.getFirstName(), current.getFirstName(),
+                () -> mine.setFirstName(current.getFirstName())),
+            new MergePrompt.Field("Last name", original.getLastName(), mine.getLastName(), current.getLastName(),
+                () -> mine.setLastName(current.getLastName())),
+            new MergePrompt.Field("Email", original.getEmail(), mine.getEmail(), current.getEmail(),
+                () -> mine.setEmail(current.getEmail())),
+            new MergePrompt.Field("Phone", original.getPhone(), mine.getPhone(), current.getPhone(),
+                () -> mine.setPhone(current.getPhone())),
+            new MergePrompt.Field("Address", original.getAddress(), mine.getAddress(), current.getAddress(),
+                () -> mine.setAddress(current.getAddress()))
+        );
+    }
+    
     private void deleteCustomer() {
         int selectedRow = adminDashboard.getSelectedCustomersRow();
         if (selectedRow == -1) {
@@ -182,54 +232,62 @@ public class CustomerController {
     }
     
     private void loadCustomers() {
-        // Clear existing data
-        customersTableModel.setRowCount(0);
-        
         // Load all customers
         List<Customer> customers = Customer.getAllCustomers();
-        for (Customer customer : customers) {
-            Object[] rowData = {
-                customer.getCustomerId(),
-                customer.getFirstName(),
-                customer.getLastName(),
-                customer.getEmail(),
-                customer.getPhone(),
-                customer.getAddress(),
-                customer.getCreatedAt().toString().split(" ")[0] // Date only
-            };
-            customersTableModel.addRow(rowData);
-        }
+        populateCustomersTable(customers);
         
         System.out.println("Loaded " + customers.size() + " customers");
     }
     
     private void searchCustomers() {
-        String searchTerm = adminDashboard.getCustomersSearchText();
+        // Runs in the background; results arrive through showSearchResults
+        customerSearch.search(adminDashboard.getCustomersSearchText());
+    }
+    
+    private void showSearchResults(List<Customer> customers) {
+        populateCustomersTable(customers);
         
+        String searchTerm = adminDashboard.getCustomersSearchText();
         if (searchTerm.isEmpty()) {
-            loadCustomers();
-            return;
+            System.out.println("Loaded " + customers.size() + " customers");
+        } else {
+            System.out.println("Found " + customers.size() + " customers matching: " + searchTerm);
         }
-        
+    }
+    
+    private void populateCustomersTable(List<Customer> customers) {
         // Clear existing data
         customersTableModel.setRowCount(0);
         
-        // Search customers
-        List<Customer> customers = Customer.searchCustomers(searchTerm);
         for (Customer customer : customers) {
-            Object[] rowData = {
-                customer.getCustomerId(),
-                customer.getFirstName(),
-                customer.getLastName(),
-                customer.getEmail(),
-                customer.getPhone(),
-                customer.getAddress(),
-                customer.getCreatedAt().toString().split(" ")[0] // Date only
-            };
-            customersTableModel.addRow(rowData);
+            customersTableModel.addRow(customerRow(customer));
         }
-        
-        System.out.println("Found " + customers.size() + " customers matching: " + searchTerm);
+    }
+    
+    static Object[] customerRow(Customer customer) {
+        return new Object[] {
+            customer.getCustomerId(),
+            customer.getFirstName(),
+            customer.getLastName(),
+            customer.getEmail(),
+            customer.getPhone(),
+            customer.getAddress(),
+            customer.getCreatedAt().toString().split(" ")[0] // Date only
+        };
+    }
+    
+    /**
+     * Re-read customers changed at another desk and update their rows in place
+     * New customers are added at the top unless a search is showing.
+     */
+    void applyChange(ChangeFeed.Change change) {
+        if (LiveUpdates.needsReload(change)) {
+            refreshCustomers();
+            return;
+        }
+        int insertAt = adminDashboard.getCustomersSearchText().isEmpty() ? 0 : -1;
+        LiveUpdates.fetch(change.getIds(), CustomerService::getCustomerById, (customerId, customer) ->
+            LiveUpdates.updateRow(customersTableModel, customerId, customer != null ? customerRow(customer) : null, insertAt));
     }
     
     // Method to get all customers (for combo boxes)
@@ -288,8 +346,12 @@ public class CustomerController {
         return getAllCustomers().size();
     }
     
-    // Method to refresh customers data
+    // Method to refresh customers data, keeping any search
     public void refreshCustomers() {
-        loadCustomers();
+        if (adminDashboard.getCustomersSearchText().isEmpty()) {
+            loadCustomers();
+        } else {
+            searchCustomers();
+        }
     }
 }
@@ -0,0 +1,54 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous customer service for the Hotel Management System
+ * Each method runs the matching Customer call on the ServiceExecutor and returns at once
+ */
+public class CustomerService {
+    public static CompletableFuture<Boolean> addCustomer(Customer customer) {
+        return ServiceExecutor.supply(customer::addCustomer);
+    }
+
+    public static CompletableFuture<UpdateResult<Customer>> updateCustomer(Customer customer) {
+        return ServiceExecutor.supply(customer::updateCustomer);
+    }
+
+    public static CompletableFuture<Boolean> deleteCustomer(int customerId) {
+        return ServiceExecutor.supply(() -> Customer.deleteCustomer(customerId));
+    }
+
+    /**
+     * @return Future completed with the customer, or null if not found
+     */
+    public static CompletableFuture<Customer> getCustomerById(int customerId) {
+        return ServiceExecutor.supply(() -> Customer.getCustomerById(customerId));
+    }
+
+    /**
+     * @return Future completed with the booking's customer, or null if not found
+     */
+    public static CompletableFuture<Customer> getCustomerByBookingId(int bookingId) {
+        return ServiceExecutor.supply(() -> Customer.getCustomerByBookingId(bookingId));
+    }
+
+    /**
+     * @return Future completed with the customer, or null if not found
+     */
+    public static CompletableFuture<Customer> getCustomerByEmail(String email) {
+        return ServiceExecutor.supply(() -> Customer.getCustomerByEmail(email));
+    }
+
+    public static CompletableFuture<List<Customer>> getAllCustomers() {
+        return ServiceExecutor.supply(Customer::getAllCustomers);
+    }
+
+    /**
+     * @param handle Handle to cancel the query with, or null
+     */
+    public static CompletableFuture<List<Customer>> searchCustomers(String searchTerm, QueryHandle handle) {
+        return ServiceExecutor.supply(() -> Customer.searchCustomers(searchTerm, handle));
+    }
+}
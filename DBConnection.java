@@ -1,47 +1,201 @@
 package model;
 
+import javax.sql.DataSource;
+import java.io.PrintWriter;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Statement;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
 
 /**
  * Database connection class for the Hotel Management System
  * Handles database connectivity and initialization
+ *
+ * The primary is MySQL on localhost unless -Ddb.url, -Ddb.user and -Ddb.password say otherwise.
+ * Writes go to the primary. When a replica is configured with -Ddb.replica.url, read-only
+ * model queries go to it instead, except for a short read-your-writes window after each
+ * write this process makes (-Ddb.replica.readYourWritesMs, default 5000), during which
+ * reads stay on the primary so the user sees their own change despite replication lag.
+ * Every connection handed out is measured per statement (see SqlMetrics).
  */
 public class DBConnection {
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/hotel_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "password";
-    private static Connection connection = null;
+    private static final String DB_URL = System.getProperty("db.url", "jdbc:mysql://localhost:3306/hotel_db");
+    private static final String DB_USER = System.getProperty("db.user", "root");
+    private static final String DB_PASSWORD = System.getProperty("db.password", "password");
+    private static final String REPLICA_URL = System.getProperty("db.replica.url");
+    private static final long READ_YOUR_WRITES_NANOS =
+        TimeUnit.MILLISECONDS.toNanos(Long.getLong("db.replica.readYourWritesMs", 5000));
+    private static final long REPLICA_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final DataSource writeDataSource = new DriverDataSource(DB_URL, new Properties());
+    private static final DataSource readDataSource =
+        REPLICA_URL != null ? new DriverDataSource(REPLICA_URL, new Properties()) : writeDataSource;
+    private static final DataSource batchDataSource =
+        new DriverDataSource(DB_URL, driverProperties("rewriteBatchedStatements", "true"));
+    private static final DataSource streamingDataSource =
+        new DriverDataSource(DB_URL, driverProperties("useCursorFetch", "true"));
+
+    // One connection per thread, so model calls made concurrently by the service layer
+    // never share a connection or close one another's
+    private static final ThreadLocal<Connection> connection = new ThreadLocal<>();
+    private static final ThreadLocal<Connection> readConnection = new ThreadLocal<>();
+
+    private static volatile long lastWriteNanos = System.nanoTime() - READ_YOUR_WRITES_NANOS;
+    private static volatile long replicaDownUntilNanos = System.nanoTime();
     
     /**
-     * Get database connection
+     * Get the calling thread's database connection
      * @return Connection object
      * @throws SQLException if connection fails
      */
     public static Connection getConnection() throws SQLException {
-        if (connection == null || connection.isClosed()) {
-            try {
-                Class.forName("com.mysql.cj.jdbc.Driver");
-                connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-                System.out.println("Database connected successfully!");
-            } catch (ClassNotFoundException e) {
-                System.err.println("MySQL JDBC Driver not found!");
-                e.printStackTrace();
-                throw new SQLException("Database driver not found", e);
+        Connection current = connection.get();
+        if (current == null || current.isClosed()) {
+            current = openConnection();
+            connection.set(current);
+            System.out.println("Database connected successfully!");
+        }
+        return current;
+    }
+    
+    /**
+     * Open a dedicated database connection that is not shared with other callers
+     * Background work uses this so it never closes the shared connection under the UI thread
+     * @return new Connection object, closed by the caller
+     * @throws SQLException if connection fails
+     */
+    public static Connection openConnection() throws SQLException {
+        return writeDataSource.getConnection();
+    }
+    
+    /**
+     * Get the calling thread's connection for read-only queries
+     * This is the replica connection, or the primary one (see getConnection) when no replica
+     * is configured, the replica is unreachable or this process wrote within the read-your-writes window.
+     * @return Connection object
+     * @throws SQLException if connection fails
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (!readFromReplica()) {
+            return getConnection();
+        }
+        Connection current = readConnection.get();
+        if (current == null || current.isClosed()) {
+            current = openReplica();
+            if (current == null) {
+                return getConnection();
             }
+            readConnection.set(current);
         }
-        return connection;
+        return current;
+    }
+    
+    /**
+     * Open a dedicated connection for read-only queries, routed like getReadConnection
+     * @return new Connection object, closed by the caller
+     * @throws SQLException if connection fails
+     */
+    public static Connection openReadConnection() throws SQLException {
+        Connection replica = readFromReplica() ? openReplica() : null;
+        return replica != null ? replica : openConnection();
     }
     
     /**
-     * Close database connection
+     * Record that this thread has just committed a write
+     * Reads stay on the primary for the read-your-writes window, and the rows the transaction
+     * noted with ChangeFeed are announced to other clients.
+     */
+    public static void markWrite() {
+        lastWriteNanos = System.nanoTime();
+        ChangeFeed.publishPending();
+    }
+    
+    /**
+     * Record that another client has just written rows this process is about to read,
+     * so reads stay on the primary for the read-your-writes window
+     */
+    public static void markRemoteWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+    
+    private static boolean readFromReplica() {
+        long now = System.nanoTime();
+        return readDataSource != writeDataSource
+            && now - lastWriteNanos >= READ_YOUR_WRITES_NANOS
+            && now - replicaDownUntilNanos >= 0;
+    }
+    
+    // Returns null and stops trying the replica for a while if it cannot be reached
+    private static Connection openReplica() throws SQLException {
+        try {
+            return readDataSource.getConnection();
+        } catch (SQLException e) {
+            if (e.getCause() instanceof ClassNotFoundException) {
+                throw e;
+            }
+            System.err.println("Replica unavailable, reading from the primary: " + e.getMessage());
+            replicaDownUntilNanos = System.nanoTime() + REPLICA_RETRY_NANOS;
+            return null;
+        }
+    }
+    
+    /**
+     * Open a dedicated connection tuned for bulk writes
+     * The driver rewrites batched inserts into multi-row INSERT statements
+     * @return new Connection object, closed by the caller
+     * @throws SQLException if connection fails
+     */
+    public static Connection openBatchConnection() throws SQLException {
+        return batchDataSource.getConnection();
+    }
+    
+    /**
+     * Open a dedicated connection that reads large results through a server-side cursor
+     * Statements fetch rows in blocks of their fetch size instead of buffering the whole result
+     * @return new Connection object, closed by the caller
+     * @throws SQLException if connection fails
+     */
+    public static Connection openStreamingConnection() throws SQLException {
+        return streamingDataSource.getConnection();
+    }
+    
+    // Driver settings passed as connection properties, so they combine with any already in the URL
+    private static Properties driverProperties(String name, String value) {
+        Properties properties = new Properties();
+        properties.setProperty(name, value);
+        return properties;
+    }
+    
+    private static void loadDriver() throws SQLException {
+        try {
+            Class.forName("com.mysql.cj.jdbc.Driver");
+        } catch (ClassNotFoundException e) {
+            System.err.println("MySQL JDBC Driver not found!");
+            e.printStackTrace();
+            throw new SQLException("Database driver not found", e);
+        }
+    }
+    
+    /**
+     * Close the calling thread's database connections
      */
     public static void closeConnection() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            Connection replica = readConnection.get();
+            readConnection.remove();
+            if (replica != null && !replica.isClosed()) {
+                replica.close();
+            }
+            Connection current = connection.get();
+            connection.remove();
+            if (current != null && !current.isClosed()) {
+                current.close();
                 System.out.println("Database connection closed.");
             }
         } catch (SQLException e) {
@@ -49,6 +203,73 @@ public class DBConnection {
         }
     }
     
+    /**
+     * DataSource opening plain driver connections to one server with the configured credentials
+     * and any extra driver properties
+     */
+    private static final class DriverDataSource implements DataSource {
+        private final String url;
+        private final Properties properties;
+        
+        DriverDataSource(String url, Properties properties) {
+            this.url = url;
+            this.properties = properties;
+        }
+        
+        @Override
+        public Connection getConnection() throws SQLException {
+            return getConnection(DB_USER, DB_PASSWORD);
+        }
+        
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            loadDriver();
+            Properties info = new Properties();
+            info.putAll(properties);
+            info.setProperty("user", username);
+            info.setProperty("password", password);
+            return SqlMetrics.instrument(DriverManager.getConnection(url, info));
+        }
+        
+        @Override
+        public PrintWriter getLogWriter() {
+            return DriverManager.getLogWriter();
+        }
+        
+        @Override
+        public void setLogWriter(PrintWriter out) {
+            DriverManager.setLogWriter(out);
+        }
+        
+        @Override
+        public void setLoginTimeout(int seconds) {
+            DriverManager.setLoginTimeout(seconds);
+        }
+        
+        @Override
+        public int getLoginTimeout() {
+            return DriverManager.getLoginTimeout();
+        }
+        
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+        
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            if (iface.isInstance(this)) {
+                return iface.cast(this);
+            }
+            throw new SQLException("Not a wrapper for " + iface.getName());
+        }
+        
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return iface.isInstance(this);
+        }
+    }
+    
     /**
      * Initialize database tables if they don't exist
      */
@@ -56,15 +277,32 @@ public class DBConnection {
         try (Connection conn = getConnection();
              Statement stmt = conn.createStatement()) {
             
+            // Create hotels table
+            String createHotelsTable = """
+                CREATE TABLE IF NOT EXISTS hotels (
+                    hotel_id INT PRIMARY KEY AUTO_INCREMENT,
+                    name VARCHAR(100) NOT NULL,
+                    address TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                )
+                """;
+            
             // Create rooms table
             String createRoomsTable = """
                 CREATE TABLE IF NOT EXISTS rooms (
                     room_id INT PRIMARY KEY AUTO_INCREMENT,
-                    room_number VARCHAR(10) UNIQUE NOT NULL,
+                    hotel_id INT NOT NULL DEFAULT 1,
+                    room_number VARCHAR(10) NOT NULL,
                     room_type VARCHAR(50) NOT NULL,
                     price_per_night DECIMAL(10,2) NOT NULL,
                     is_available BOOLEAN DEFAULT TRUE,
-                    description TEXT
+                    description TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+                    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+                    UNIQUE KEY uq_rooms_hotel_number (hotel_id, room_number),
+                    INDEX idx_rooms_hotel_type (hotel_id, room_type),
+                    INDEX idx_rooms_hotel_updated_at (hotel_id, updated_at)
                 )
                 """;
             
@@ -72,12 +310,17 @@ public class DBConnection {
             String createCustomersTable = """
                 CREATE TABLE IF NOT EXISTS customers (
                     customer_id INT PRIMARY KEY AUTO_INCREMENT,
+                    hotel_id INT NOT NULL DEFAULT 1,
                     first_name VARCHAR(50) NOT NULL,
                     last_name VARCHAR(50) NOT NULL,
-                    email VARCHAR(100) UNIQUE NOT NULL,
+                    email VARCHAR(100) NOT NULL,
                     phone VARCHAR(20) NOT NULL,
                     address TEXT,
-                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+                    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+                    UNIQUE KEY uq_customers_hotel_email (hotel_id, email),
+                    INDEX idx_customers_hotel_updated_at (hotel_id, updated_at)
                 )
                 """;
             
@@ -85,15 +328,164 @@ public class DBConnection {
             String createBookingsTable = """
                 CREATE TABLE IF NOT EXISTS bookings (
                     booking_id INT PRIMARY KEY AUTO_INCREMENT,
+                    hotel_id INT NOT NULL DEFAULT 1,
                     customer_id INT NOT NULL,
                     room_id INT NOT NULL,
                     check_in_date DATE NOT NULL,
                     check_out_date DATE NOT NULL,
                     total_amount DECIMAL(10,2) NOT NULL,
                     booking_status ENUM('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED') DEFAULT 'PENDING',
+                    folio_charges DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+                    folio_payments DECIMAL(12,2) NOT NULL DEFAULT 0.00,
                     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
                     FOREIGN KEY (customer_id) REFERENCES customers(customer_id) ON DELETE CASCADE,
-                    FOREIGN KEY (room_id) REFERENCES rooms(room_id) ON DELETE CASCADE
+                    FOREIGN KEY (room_id) REFERENCES rooms(room_id) ON DELETE CASCADE,
+                    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+                    INDEX idx_bookings_hotel_dates (hotel_id, check_in_date, check_out_date),
+                    INDEX idx_bookings_hotel_status (hotel_id, booking_status),
+                    INDEX idx_bookings_hotel_room (hotel_id, room_id, check_in_date),
+                    INDEX idx_bookings_hotel_updated_at (hotel_id, updated_at)
+                )
+                """;
+            
+            // Create booking event store tables
+            String createBookingEventsTable = """
+                CREATE TABLE IF NOT EXISTS booking_events (
+                    event_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    hotel_id INT NOT NULL,
+                    booking_id INT NOT NULL,
+                    version INT NOT NULL,
+                    event_type ENUM('CREATED', 'AMENDED', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED', 'DELETED') NOT NULL,
+                    customer_id INT,
+                    room_id INT,
+                    check_in_date DATE,
+                    check_out_date DATE,
+                    total_amount DECIMAL(10,2),
+                    booking_status ENUM('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED'),
+                    occurred_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3),
+                    UNIQUE KEY uq_booking_events_version (booking_id, version),
+                    INDEX idx_booking_events_hotel (hotel_id, booking_id)
+                )
+                """;
+            
+            String createBookingSnapshotsTable = """
+                CREATE TABLE IF NOT EXISTS booking_snapshots (
+                    booking_id INT PRIMARY KEY,
+                    hotel_id INT NOT NULL,
+                    version INT NOT NULL,
+                    customer_id INT NOT NULL,
+                    room_id INT NOT NULL,
+                    check_in_date DATE NOT NULL,
+                    check_out_date DATE NOT NULL,
+                    total_amount DECIMAL(10,2) NOT NULL,
+                    booking_status ENUM('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED') NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    INDEX idx_booking_snapshots_hotel (hotel_id, booking_id)
+                )
+                """;
+            
+            // Create room rate history table
+            String createRoomRateHistoryTable = """
+                CREATE TABLE IF NOT EXISTS room_rate_history (
+                    history_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    room_id INT NOT NULL,
+                    old_price DECIMAL(10,2) NOT NULL,
+                    new_price DECIMAL(10,2) NOT NULL,
+                    reason VARCHAR(255),
+                    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (room_id) REFERENCES rooms(room_id) ON DELETE CASCADE,
+                    INDEX idx_rate_history_room (room_id, changed_at)
+                )
+                """;
+            
+            // Create rate rules table
+            String createRateRulesTable = """
+                CREATE TABLE IF NOT EXISTS rate_rules (
+                    rule_id INT PRIMARY KEY AUTO_INCREMENT,
+                    hotel_id INT NOT NULL DEFAULT 1,
+                    room_type VARCHAR(50),
+                    layer ENUM('SEASON', 'DAY_OF_WEEK', 'LENGTH_OF_STAY') NOT NULL,
+                    start_date DATE,
+                    end_date DATE,
+                    days_of_week TINYINT NOT NULL DEFAULT 0,
+                    min_nights INT NOT NULL DEFAULT 0,
+                    adjustment ENUM('SET_PRICE', 'ADJUST_PERCENT') NOT NULL,
+                    value DECIMAL(10,2) NOT NULL,
+                    description VARCHAR(255),
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+                    INDEX idx_rate_rules_hotel (hotel_id)
+                )
+                """;
+            
+            // Create booking journal state table
+            String createBookingJournalStateTable = """
+                CREATE TABLE IF NOT EXISTS booking_journal_state (
+                    journal_id BIGINT PRIMARY KEY,
+                    last_applied_seq BIGINT NOT NULL,
+                    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+                )
+                """;
+            
+            // Create revenue rollup tables
+            String createRevenueDailyTable = """
+                CREATE TABLE IF NOT EXISTS revenue_daily (
+                    hotel_id INT NOT NULL,
+                    stay_date DATE NOT NULL,
+                    room_type VARCHAR(50) NOT NULL,
+                    room_nights INT NOT NULL DEFAULT 0,
+                    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                    PRIMARY KEY (hotel_id, stay_date, room_type)
+                )
+                """;
+            
+            String createRevenueMonthlyTable = """
+                CREATE TABLE IF NOT EXISTS revenue_monthly (
+                    hotel_id INT NOT NULL,
+                    month_start DATE NOT NULL,
+                    room_type VARCHAR(50) NOT NULL,
+                    room_nights INT NOT NULL DEFAULT 0,
+                    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                    PRIMARY KEY (hotel_id, month_start, room_type)
+                )
+                """;
+            
+            // Create folio entries table
+            String createFolioEntriesTable = """
+                CREATE TABLE IF NOT EXISTS folio_entries (
+                    entry_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    booking_id INT NOT NULL,
+                    entry_type ENUM('CHARGE', 'PAYMENT') NOT NULL,
+                    category VARCHAR(50) NOT NULL,
+                    description VARCHAR(255),
+                    amount DECIMAL(10,2) NOT NULL,
+                    balance_after DECIMAL(12,2) NOT NULL,
+                    posted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE CASCADE,
+                    INDEX idx_folio_booking (booking_id, entry_id)
+                )
+                """;
+            
+            // Create email outbox table
+            String createEmailOutboxTable = """
+                CREATE TABLE IF NOT EXISTS email_outbox (
+                    outbox_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+                    booking_id INT,
+                    recipient VARCHAR(100) NOT NULL,
+                    subject VARCHAR(255) NOT NULL,
+                    body MEDIUMTEXT NOT NULL,
+                    attachment_name VARCHAR(100),
+                    attachment MEDIUMBLOB,
+                    status ENUM('PENDING', 'SENDING', 'SENT', 'FAILED') NOT NULL DEFAULT 'PENDING',
+                    attempts INT NOT NULL DEFAULT 0,
+                    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                    last_error VARCHAR(500),
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    sent_at TIMESTAMP NULL,
+                    FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE SET NULL,
+                    INDEX idx_outbox_due (status, next_attempt_at),
+                    INDEX idx_outbox_booking (booking_id)
                 )
                 """;
             
@@ -109,14 +501,27 @@ public class DBConnection {
                 )
                 """;
             
+            stmt.execute(createHotelsTable);
             stmt.execute(createRoomsTable);
             stmt.execute(createCustomersTable);
             stmt.execute(createBookingsTable);
+            stmt.execute(createBookingEventsTable);
+            stmt.execute(createBookingSnapshotsTable);
+            stmt.execute(createRoomRateHistoryTable);
+            stmt.execute(createRateRulesTable);
+            stmt.execute(createBookingJournalStateTable);
+            stmt.execute(createRevenueDailyTable);
+            stmt.execute(createRevenueMonthlyTable);
+            stmt.execute(createFolioEntriesTable);
+            stmt.execute(createEmailOutboxTable);
             stmt.execute(createAdminUsersTable);
             
             // Insert sample data
             insertSampleData(stmt);
             
+            // Tables created by earlier versions are kept by CREATE TABLE IF NOT EXISTS
+            upgradeSchema(conn, stmt);
+            
             System.out.println("Database tables created successfully!");
             
         } catch (SQLException e) {
@@ -125,10 +530,114 @@ public class DBConnection {
         }
     }
     
+    /**
+     * Add the hotel, version and folio columns and keys that tables created by
+     * earlier versions lack. Each step checks the schema first, so running it
+     * again changes nothing; existing rows belong to hotel 1.
+     */
+    private static void upgradeSchema(Connection conn, Statement stmt) throws SQLException {
+        String updatedAt = "TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3)";
+        
+        addColumn(conn, stmt, "rooms", "hotel_id", "INT NOT NULL DEFAULT 1 AFTER room_id");
+        addColumn(conn, stmt, "rooms", "created_at", "TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
+        addColumn(conn, stmt, "rooms", "updated_at", updatedAt);
+        addColumn(conn, stmt, "customers", "hotel_id", "INT NOT NULL DEFAULT 1 AFTER customer_id");
+        addColumn(conn, stmt, "customers", "updated_at", updatedAt);
+        addColumn(conn, stmt, "bookings", "hotel_id", "INT NOT NULL DEFAULT 1 AFTER booking_id");
+        addColumn(conn, stmt, "bookings", "folio_charges", "DECIMAL(12,2) NOT NULL DEFAULT 0.00 AFTER booking_status");
+        addColumn(conn, stmt, "bookings", "folio_payments", "DECIMAL(12,2) NOT NULL DEFAULT 0.00 AFTER folio_charges");
+        addColumn(conn, stmt, "bookings", "updated_at", updatedAt);
+        
+        // Room numbers and emails used to be unique across all hotels
+        addIndex(conn, stmt, "rooms", "uq_rooms_hotel_number", "UNIQUE KEY uq_rooms_hotel_number (hotel_id, room_number)");
+        addIndex(conn, stmt, "rooms", "idx_rooms_hotel_type", "INDEX idx_rooms_hotel_type (hotel_id, room_type)");
+        addIndex(conn, stmt, "rooms", "idx_rooms_hotel_updated_at", "INDEX idx_rooms_hotel_updated_at (hotel_id, updated_at)");
+        dropIndex(conn, stmt, "rooms", "room_number");
+        addIndex(conn, stmt, "customers", "uq_customers_hotel_email", "UNIQUE KEY uq_customers_hotel_email (hotel_id, email)");
+        addIndex(conn, stmt, "customers", "idx_customers_hotel_updated_at", "INDEX idx_customers_hotel_updated_at (hotel_id, updated_at)");
+        dropIndex(conn, stmt, "customers", "email");
+        addIndex(conn, stmt, "bookings", "idx_bookings_hotel_dates", "INDEX idx_bookings_hotel_dates (hotel_id, check_in_date, check_out_date)");
+        addIndex(conn, stmt, "bookings", "idx_bookings_hotel_status", "INDEX idx_bookings_hotel_status (hotel_id, booking_status)");
+        addIndex(conn, stmt, "bookings", "idx_bookings_hotel_room", "INDEX idx_bookings_hotel_room (hotel_id, room_id, check_in_date)");
+        addIndex(conn, stmt, "bookings", "idx_bookings_hotel_updated_at", "INDEX idx_bookings_hotel_updated_at (hotel_id, updated_at)");
+        
+        addHotelForeignKey(conn, stmt, "rooms");
+        addHotelForeignKey(conn, stmt, "customers");
+        addHotelForeignKey(conn, stmt, "bookings");
+    }
+    
+    private static void addColumn(Connection conn, Statement stmt, String table, String column,
+                                  String definition) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getColumns(conn.getCatalog(), null, table, column)) {
+            if (rs.next()) {
+                return;
+            }
+        }
+        upgrade(stmt, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+    
+    private static void addIndex(Connection conn, Statement stmt, String table, String index,
+                                 String definition) throws SQLException {
+        if (!hasIndex(conn, table, index)) {
+            upgrade(stmt, "ALTER TABLE " + table + " ADD " + definition);
+        }
+    }
+    
+    private static void dropIndex(Connection conn, Statement stmt, String table, String index) throws SQLException {
+        if (hasIndex(conn, table, index)) {
+            upgrade(stmt, "ALTER TABLE " + table + " DROP INDEX " + index);
+        }
+    }
+    
+    private static boolean hasIndex(Connection conn, String table, String index) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+            while (rs.next()) {
+                if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static void addHotelForeignKey(Connection conn, Statement stmt, String table) throws SQLException {
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet rs = meta.getImportedKeys(conn.getCatalog(), null, table)) {
+            while (rs.next()) {
+                if ("hotel_id".equalsIgnoreCase(rs.getString("FKCOLUMN_NAME"))) {
+                    return;
+                }
+            }
+        }
+        upgrade(stmt, "ALTER TABLE " + table + " ADD FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id)");
+    }
+    
+    /**
+     * Run one schema change, failing startup with a message naming it rather
+     * than leaving every later query to fail on the missing column.
+     */
+    private static void upgrade(Statement stmt, String sql) {
+        try {
+            stmt.execute(sql);
+            System.out.println("Upgraded database schema: " + sql);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not upgrade the database schema with \"" + sql + "\" ("
+                    + e.getMessage() + "); apply the schema in hotel_db.sql by hand", e);
+        }
+    }
+    
     /**
      * Insert sample data into tables
      */
     private static void insertSampleData(Statement stmt) throws SQLException {
+        // Insert the first hotel; rows created before hotels existed belong to it
+        String insertHotel = """
+            INSERT IGNORE INTO hotels (hotel_id, name, address) VALUES
+            (1, 'Grand Hotel', NULL)
+            """;
+        
         // Insert sample rooms
         String insertRooms = """
             INSERT IGNORE INTO rooms (room_number, room_type, price_per_night, description) VALUES
@@ -148,6 +657,7 @@ public class DBConnection {
             ('admin', 'admin123', 'System Administrator', 'admin@hotel.com')
             """;
         
+        stmt.execute(insertHotel);
         stmt.execute(insertRooms);
         stmt.execute(insertAdmin);
         
@@ -0,0 +1,174 @@
+package controller;
+
+import model.SqlMetrics;
+import view.AdminDashboard;
+import view.LatencyHistogram;
+
+import javax.swing.Timer;
+import javax.swing.table.DefaultTableModel;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Diagnostics Controller for the Hotel Management System
+ * Fills the hidden diagnostics tab with the JDBC statement metrics (see SqlMetrics) and the
+ * event dispatch thread stalls (see EdtWatchdog), and keeps it current while it is the selected tab.
+ */
+public class DiagnosticsController {
+    private static final int REFRESH_MILLIS = 2000;
+    private static final String[] BUCKET_LABELS = bucketLabels();
+
+    private AdminDashboard adminDashboard;
+    private DefaultTableModel diagnosticsTableModel;
+    private DefaultTableModel stallsTableModel;
+    private List<SqlMetrics.Stats> shown = new ArrayList<>();
+    private List<EdtWatchdog.Stats> shownStalls = new ArrayList<>();
+    private boolean refreshing;
+
+    public DiagnosticsController(AdminDashboard adminDashboard) {
+        this.adminDashboard = adminDashboard;
+        this.diagnosticsTableModel = adminDashboard.getDiagnosticsTableModel();
+        this.stallsTableModel = adminDashboard.getStallsTableModel();
+
+        setupEventHandlers();
+        Timer timer = new Timer(REFRESH_MILLIS, e -> {
+            if (adminDashboard.isDiagnosticsShowing()) {
+                refresh();
+            }
+        });
+        timer.start();
+    }
+
+    private void setupEventHandlers() {
+        adminDashboard.addResetDiagnosticsButtonListener(e -> {
+            SqlMetrics.reset();
+            EdtWatchdog.reset();
+            refresh();
+        });
+        adminDashboard.addDiagnosticsSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && !refreshing) {
+                showHistogram();
+            }
+        });
+        adminDashboard.addStallsSelectionListener(e -> {
+            if (!e.getValueIsAdjusting() && !refreshing) {
+                showStack();
+            }
+        });
+    }
+
+    private void refresh() {
+        int selectedRow = adminDashboard.getSelectedDiagnosticsRow();
+        String selectedSql = selectedRow >= 0 && selectedRow < shown.size() ? shown.get(selectedRow).getSql() : null;
+
+        shown = SqlMetrics.snapshot();
+        refreshing = true;
+        try {
+            diagnosticsTableModel.setRowCount(0);
+            for (SqlMetrics.Stats stats : shown) {
+                diagnosticsTableModel.addRow(new Object[] {
+                    stats.getSql(),
+                    stats.getExecutions(),
+                    stats.getErrors(),
+                    stats.getRows(),
+                    millis(stats.getTotalMillis()),
+                    millis(stats.getMeanMillis()),
+                    millis(stats.getPercentileMillis(0.50)),
+                    millis(stats.getPercentileMillis(0.95)),
+                    millis(stats.getPercentileMillis(0.99)),
+                    millis(stats.getMaxMillis())
+                });
+            }
+            for (int row = 0; row < shown.size(); row++) {
+                if (shown.get(row).getSql().equals(selectedSql)) {
+                    adminDashboard.selectDiagnosticsRow(row);
+                    break;
+                }
+            }
+        } finally {
+            refreshing = false;
+        }
+        showHistogram();
+        refreshStalls();
+    }
+
+    private void refreshStalls() {
+        int selectedRow = adminDashboard.getSelectedStallsRow();
+        String selectedHandler = selectedRow >= 0 && selectedRow < shownStalls.size()
+            ? shownStalls.get(selectedRow).getHandler() : null;
+
+        shownStalls = EdtWatchdog.snapshot();
+        refreshing = true;
+        try {
+            stallsTableModel.setRowCount(0);
+            for (EdtWatchdog.Stats stats : shownStalls) {
+                stallsTableModel.addRow(new Object[] {
+                    stats.getHandler(),
+                    stats.getStalls(),
+                    millis(stats.getTotalMillis()),
+                    millis(stats.getMeanMillis()),
+                    millis(stats.getMaxMillis()),
+                    stats.getLastSeen().toLocalTime()
+                });
+            }
+            for (int row = 0; row < shownStalls.size(); row++) {
+                if (shownStalls.get(row).getHandler().equals(selectedHandler)) {
+                    adminDashboard.selectStallsRow(row);
+                    break;
+                }
+            }
+        } finally {
+            refreshing = false;
+        }
+        showStack();
+    }
+
+    private void showStack() {
+        int row = adminDashboard.getSelectedStallsRow();
+        if (row < 0 || row >= shownStalls.size()) {
+            adminDashboard.setStallStackText(EdtWatchdog.isInstalled()
+                ? "Select a handler. Stalls are events that ran longer than " + EdtWatchdog.THRESHOLD_MILLIS + " ms."
+                : "The stall detector is not running.");
+            return;
+        }
+        EdtWatchdog.Stats stats = shownStalls.get(row);
+        adminDashboard.setStallStackText(stats.getStackSamples() > 0
+            ? stats.getStackSamples() + " of " + stats.getSamples() + " samples:\n" + stats.getStackTrace()
+            : "Every stall ended before it was sampled. Samples are taken every "
+                + EdtWatchdog.SAMPLE_MILLIS + " ms once an event passes the threshold.");
+    }
+
+    private void showHistogram() {
+        LatencyHistogram histogram = adminDashboard.getLatencyHistogram();
+        int row = adminDashboard.getSelectedDiagnosticsRow();
+        if (row < 0 || row >= shown.size()) {
+            histogram.clear();
+            return;
+        }
+        SqlMetrics.Stats stats = shown.get(row);
+        histogram.setData(stats.getExecutions() + " executions of " + stats.getSql(), BUCKET_LABELS, stats.getBuckets());
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static String[] bucketLabels() {
+        double[] bounds = SqlMetrics.BUCKET_BOUNDS_MS;
+        String[] labels = new String[bounds.length + 1];
+        for (int i = 0; i < bounds.length; i++) {
+            labels[i] = "≤" + duration(bounds[i]);
+        }
+        labels[bounds.length] = ">" + duration(bounds[bounds.length - 1]);
+        return labels;
+    }
+
+    // 2.5 -> "2.5ms", 2500 -> "2.5s"
+    private static String duration(double millis) {
+        return millis >= 1000
+            ? BigDecimal.valueOf(millis).movePointLeft(3).stripTrailingZeros().toPlainString() + "s"
+            : BigDecimal.valueOf(millis).stripTrailingZeros().toPlainString() + "ms";
+    }
+}
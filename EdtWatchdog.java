@@ -0,0 +1,414 @@
+package controller;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Event dispatch thread stall detector
+ * install pushes an event queue that notes when each event starts and stops being dispatched,
+ * and starts a thread that samples the dispatch thread's stack while the current event has run
+ * longer than -Dhotel.ui.stallMillis (250 by default). Each stall is counted under the outermost
+ * application method on its stack, normally the controller's handler, together with the stacks
+ * sampled during it. Waiting in a modal dialog is not a stall, since events keep being dispatched.
+ * The report is shown on the diagnostics tab and written to REPORT_FILE at exit.
+ * Run with -Dhotel.ui.watchdog.disabled=true to leave the event queue alone.
+ */
+public class EdtWatchdog {
+    private static final boolean ENABLED = !Boolean.getBoolean("hotel.ui.watchdog.disabled");
+
+    public static final String THRESHOLD_PROPERTY = "hotel.ui.stallMillis";
+    public static final long THRESHOLD_MILLIS = Math.max(1, Long.getLong(THRESHOLD_PROPERTY, 250));
+    private static final long THRESHOLD_NANOS = THRESHOLD_MILLIS * 1_000_000;
+    public static final long SAMPLE_MILLIS = Math.max(10, THRESHOLD_MILLIS / 4);
+    public static final Path REPORT_FILE =
+        Paths.get(System.getProperty("user.home"), ".hotel-management", "ui-stalls.txt");
+
+    private static final int MAX_HANDLERS = 200; // Further distinct handlers share one entry
+    private static final int MAX_STACKS = 20; // Distinct stacks kept per handler
+    private static final int MAX_FRAMES = 40;
+    private static final String OTHER_HANDLERS = "(other handlers)";
+    private static final String[] APPLICATION_PACKAGES = {"controller.", "view.", "model."};
+    private static final String[] PLUMBING_CLASSES = {"controller.SwingFutures", "controller.EdtWatchdog"};
+
+    private static final Map<String, Recorder> handlers = new LinkedHashMap<>(); // Guarded by itself
+    private static volatile Dispatch current;
+    private static boolean installed;
+
+    /**
+     * One stretch of dispatching a single event
+     * An event that runs a nested loop, e.g. for a modal dialog, gets a new one when it resumes.
+     */
+    private static final class Dispatch {
+        final AWTEvent event;
+        final Thread thread = Thread.currentThread();
+        final long start = System.nanoTime();
+        final Map<String, Integer> stacks = new HashMap<>(); // Guarded by this
+        String handler; // From the first sample
+        boolean finished;
+
+        Dispatch(AWTEvent event) {
+            this.event = event;
+        }
+    }
+
+    /**
+     * Running counts for one handler, guarded by handlers
+     */
+    private static final class Recorder {
+        final String handler;
+        final Map<String, Integer> stacks = new HashMap<>();
+        long stalls;
+        long totalNanos;
+        long maxNanos;
+        long samples;
+        long lastSeen;
+
+        Recorder(String handler) {
+            this.handler = handler;
+        }
+
+        void record(long nanos, Map<String, Integer> sampled) {
+            stalls++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastSeen = System.currentTimeMillis();
+            for (Map.Entry<String, Integer> entry : sampled.entrySet()) {
+                samples += entry.getValue();
+                if (stacks.containsKey(entry.getKey()) || stacks.size() < MAX_STACKS) {
+                    stacks.merge(entry.getKey(), entry.getValue(), Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stalls of one handler at the time of a snapshot
+     */
+    public static class Stats {
+        private final String handler;
+        private final long stalls;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long samples;
+        private final LocalDateTime lastSeen;
+        private final String stack;
+        private final int stackSamples;
+
+        Stats(Recorder recorder) {
+            handler = recorder.handler;
+            stalls = recorder.stalls;
+            totalNanos = recorder.totalNanos;
+            maxNanos = recorder.maxNanos;
+            samples = recorder.samples;
+            lastSeen = LocalDateTime.ofInstant(Instant.ofEpochMilli(recorder.lastSeen), ZoneId.systemDefault())
+                .truncatedTo(ChronoUnit.SECONDS);
+            Map.Entry<String, Integer> top = null;
+            for (Map.Entry<String, Integer> entry : recorder.stacks.entrySet()) {
+                if (top == null || entry.getValue() > top.getValue()) {
+                    top = entry;
+                }
+            }
+            stack = top != null ? top.getKey() : "";
+            stackSamples = top != null ? top.getValue() : 0;
+        }
+
+        public String getHandler() { return handler; }
+        public long getStalls() { return stalls; }
+        public double getTotalMillis() { return totalNanos / 1_000_000.0; }
+        public double getMaxMillis() { return maxNanos / 1_000_000.0; }
+        public long getSamples() { return samples; }
+        public LocalDateTime getLastSeen() { return lastSeen; }
+
+        public double getMeanMillis() {
+            return stalls > 0 ? getTotalMillis() / stalls : 0;
+        }
+
+        /**
+         * @return The stack sampled most often during this handler's stalls, or "" if every stall
+         *         ended before it was sampled
+         */
+        public String getStackTrace() { return stack; }
+        public int getStackSamples() { return stackSamples; }
+    }
+
+    /**
+     * Event queue that tells the watchdog which event is being dispatched
+     */
+    private static final class WatchedQueue extends EventQueue {
+        private final Deque<AWTEvent> dispatching = new ArrayDeque<>(); // Dispatch thread only
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            finish();
+            dispatching.push(event);
+            current = new Dispatch(event);
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                finish();
+                dispatching.pop();
+                resume();
+            }
+        }
+
+        @Override
+        public AWTEvent getNextEvent() throws InterruptedException {
+            finish(); // Waiting inside a handler, e.g. in a modal dialog, keeps the screen responsive
+            try {
+                return super.getNextEvent();
+            } finally {
+                resume();
+            }
+        }
+
+        private void resume() {
+            if (!dispatching.isEmpty()) {
+                current = new Dispatch(dispatching.peek());
+            }
+        }
+    }
+
+    /**
+     * Start watching the event dispatch thread; later calls do nothing
+     * @return true if the watchdog is running, false if it is disabled
+     */
+    public static synchronized boolean install() {
+        if (!ENABLED || installed) {
+            return installed;
+        }
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new WatchedQueue());
+
+        Thread sampler = new Thread(EdtWatchdog::runSampler, "edt-watchdog");
+        sampler.setDaemon(true);
+        sampler.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(EdtWatchdog::writeReportFile, "edt-watchdog-report"));
+        installed = true;
+        return true;
+    }
+
+    public static synchronized boolean isInstalled() {
+        return installed;
+    }
+
+    /**
+     * Get the stalls of every handler since start or reset, longest in total first
+     * @return List of handler stalls
+     */
+    public static List<Stats> snapshot() {
+        List<Stats> result = new ArrayList<>();
+        synchronized (handlers) {
+            for (Recorder recorder : handlers.values()) {
+                result.add(new Stats(recorder));
+            }
+        }
+        result.sort(Comparator.comparingDouble(Stats::getTotalMillis).reversed());
+        return result;
+    }
+
+    /**
+     * Forget all stalls recorded so far
+     */
+    public static void reset() {
+        synchronized (handlers) {
+            handlers.clear();
+        }
+    }
+
+    /**
+     * Write the stall report as plain text
+     * @param out Destination
+     */
+    public static void writeReport(StringBuilder out) {
+        out.append("UI stall report, ").append(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS)).append('\n');
+        out.append("Events dispatched for longer than ").append(THRESHOLD_MILLIS)
+           .append(" ms, sampled every ").append(SAMPLE_MILLIS).append(" ms\n");
+
+        Dispatch dispatch = current;
+        long running = dispatch != null ? System.nanoTime() - dispatch.start : 0;
+        if (running >= THRESHOLD_NANOS) {
+            String handler;
+            synchronized (dispatch) {
+                handler = dispatch.handler != null ? dispatch.handler : describe(dispatch.event);
+            }
+            out.append("\nStill stalled for ").append(running / 1_000_000).append(" ms in ").append(handler).append('\n');
+            out.append(format(dispatch.thread.getStackTrace()));
+        }
+
+        List<Stats> all = snapshot();
+        if (all.isEmpty()) {
+            out.append("\nNo stalls recorded.\n");
+        }
+        for (Stats stats : all) {
+            out.append('\n').append(stats.getHandler()).append(": ").append(stats.getStalls())
+               .append(stats.getStalls() == 1 ? " stall, " : " stalls, ")
+               .append(Math.round(stats.getTotalMillis())).append(" ms in total, longest ")
+               .append(Math.round(stats.getMaxMillis())).append(" ms, last at ").append(stats.getLastSeen()).append('\n');
+            if (stats.getStackSamples() > 0) {
+                out.append("Most sampled stack (").append(stats.getStackSamples()).append(" of ")
+                   .append(stats.getSamples()).append(" samples):\n").append(stats.getStackTrace());
+            }
+        }
+    }
+
+    /**
+     * Write the stall report to REPORT_FILE, if there is anything to report
+     * @return true if the report was written or there was nothing to write
+     */
+    public static boolean writeReportFile() {
+        Dispatch dispatch = current;
+        if (snapshot().isEmpty() && (dispatch == null || System.nanoTime() - dispatch.start < THRESHOLD_NANOS)) {
+            return true;
+        }
+        StringBuilder report = new StringBuilder(4096);
+        writeReport(report);
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            Files.write(REPORT_FILE, report.toString().getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing UI stall report: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private static void runSampler() {
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            sample();
+        }
+    }
+
+    private static void sample() {
+        Dispatch dispatch = current;
+        if (dispatch == null || System.nanoTime() - dispatch.start < THRESHOLD_NANOS) {
+            return;
+        }
+        StackTraceElement[] stack = dispatch.thread.getStackTrace();
+        synchronized (dispatch) {
+            if (dispatch.finished) {
+                return; // The stack is of whatever the dispatch thread did next
+            }
+            if (dispatch.handler == null) {
+                dispatch.handler = handlerOf(stack, dispatch.event);
+            }
+            dispatch.stacks.merge(format(stack), 1, Integer::sum);
+        }
+    }
+
+    private static void finish() {
+        Dispatch dispatch = current;
+        if (dispatch == null) {
+            return;
+        }
+        current = null;
+        long nanos = System.nanoTime() - dispatch.start;
+        String handler;
+        synchronized (dispatch) {
+            dispatch.finished = true;
+            handler = dispatch.handler;
+        }
+        if (nanos < THRESHOLD_NANOS) {
+            return;
+        }
+        if (handler == null) {
+            handler = describe(dispatch.event); // Ended before the first sample
+        }
+        synchronized (handlers) {
+            Recorder recorder = handlers.get(handler);
+            if (recorder == null) {
+                String key = handlers.size() < MAX_HANDLERS ? handler : OTHER_HANDLERS;
+                recorder = handlers.computeIfAbsent(key, Recorder::new);
+            }
+            recorder.record(nanos, dispatch.stacks);
+        }
+        System.err.println("UI stall: " + nanos / 1_000_000 + " ms in " + handler);
+    }
+
+    /**
+     * Name the handler a stack belongs to: the outermost application method on it
+     * A lambda is named after the method of its class it calls, e.g. handleSaveBooking.
+     */
+    static String handlerOf(StackTraceElement[] stack, AWTEvent event) {
+        for (int i = stack.length - 1; i >= 0; i--) {
+            if (!isApplication(stack[i])) {
+                continue;
+            }
+            StackTraceElement frame = stack[i];
+            if (isSynthetic(frame) && i > 0 && stack[i - 1].getClassName().equals(frame.getClassName())
+                    && !isSynthetic(stack[i - 1])) {
+                frame = stack[i - 1];
+            }
+            String className = frame.getClassName();
+            return className.substring(className.lastIndexOf('.') + 1) + "." + frame.getMethodName();
+        }
+        return describe(event);
+    }
+
+    private static boolean isApplication(StackTraceElement frame) {
+        String className = frame.getClassName();
+        if (className.contains("$$Lambda")) {
+            return false; // The class the JVM generates for a lambda; its body is the lambda$ method
+        }
+        for (String plumbing : PLUMBING_CLASSES) {
+            if (className.equals(plumbing) || className.startsWith(plumbing + "$")) {
+                return false;
+            }
+        }
+        for (String prefix : APPLICATION_PACKAGES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return className.indexOf('.') < 0; // Main
+    }
+
+    private static boolean isSynthetic(StackTraceElement frame) {
+        return frame.getMethodName().startsWith("lambda$") || frame.getMethodName().startsWith("access$");
+    }
+
+    // e.g. "(PaintEvent on JTable)", for stalls outside application code
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        return "(" + simpleName(event.getClass()) + (source != null ? " on " + simpleName(source.getClass()) : "") + ")";
+    }
+
+    private static String simpleName(Class<?> type) {
+        return type.getSimpleName().isEmpty() ? type.getName().substring(type.getName().lastIndexOf('.') + 1)
+            : type.getSimpleName();
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder text = new StringBuilder(2048);
+        int frames = Math.min(stack.length, MAX_FRAMES);
+        for (int i = 0; i < frames; i++) {
+            text.append("\tat ").append(stack[i]).append('\n');
+        }
+        if (stack.length > frames) {
+            text.append("\t... ").append(stack.length - frames).append(" more\n");
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,278 @@
+package model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Email outbox for the Hotel Management System
+ * Outgoing mail is written to the email_outbox table and sent later by the
+ * MailDispatcher, so queuing a message is one insert and never waits on SMTP.
+ * The dispatcher claims due messages with a lease; a message whose sender dies
+ * mid-send becomes due again when the lease runs out. Failed sends are retried
+ * with exponential backoff until MAX_ATTEMPTS is reached.
+ */
+public class EmailOutbox {
+    public enum Status {
+        PENDING, SENDING, SENT, FAILED
+    }
+
+    public static final int MAX_ATTEMPTS = 8;
+    static final int LEASE_SECONDS = 300;
+    private static final int BASE_BACKOFF_SECONDS = 60;
+    private static final int MAX_BACKOFF_SECONDS = 3600;
+
+    /**
+     * A queued message
+     */
+    public static class OutboxMessage {
+        private final long outboxId;
+        private final Integer bookingId;
+        private final String recipient;
+        private final String subject;
+        private final String body;
+        private final String attachmentName;
+        private final byte[] attachment;
+        private final int attempts;
+
+        OutboxMessage(long outboxId, Integer bookingId, String recipient, String subject, String body,
+                      String attachmentName, byte[] attachment, int attempts) {
+            this.outboxId = outboxId;
+            this.bookingId = bookingId;
+            this.recipient = recipient;
+            this.subject = subject;
+            this.body = body;
+            this.attachmentName = attachmentName;
+            this.attachment = attachment;
+            this.attempts = attempts;
+        }
+
+        public long getOutboxId() { return outboxId; }
+        public Integer getBookingId() { return bookingId; }
+        public String getRecipient() { return recipient; }
+        public String getSubject() { return subject; }
+        public String getBody() { return body; }
+        public String getAttachmentName() { return attachmentName; }
+        public byte[] getAttachment() { return attachment; }
+
+        /**
+         * @return Send attempts including the current one
+         */
+        public int getAttempts() { return attempts; }
+    }
+
+    /**
+     * Queue a message
+     * @param bookingId Booking the message is about, or null
+     * @param attachmentName File name of the attachment, or null for none
+     * @param attachment Attachment bytes, or null for none
+     * @return Outbox ID, or -1 if the message could not be queued
+     */
+    public static long enqueue(Integer bookingId, String recipient, String subject, String body,
+                               String attachmentName, byte[] attachment) {
+        String sql = "INSERT INTO email_outbox (booking_id, recipient, subject, body, attachment_name, attachment) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            if (bookingId != null) {
+                stmt.setInt(1, bookingId);
+            } else {
+                stmt.setNull(1, Types.INTEGER);
+            }
+            stmt.setString(2, recipient);
+            stmt.setString(3, subject);
+            stmt.setString(4, body);
+            stmt.setString(5, attachmentName);
+            stmt.setBytes(6, attachment);
+            stmt.executeUpdate();
+
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    return keys.getLong(1);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error queuing email: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Queue an invoice email with the invoice attached as a PDF
+     * @param invoice Invoice to send to its customer
+     * @return Outbox ID, or -1 if the message could not be queued
+     */
+    public static long enqueueInvoice(Invoice invoice) {
+        Booking booking = invoice.getBooking();
+        InvoiceRenderer renderer = new InvoiceRenderer(
+            InvoiceTemplate.compile(InvoiceTemplate.DEFAULT_TEMPLATE), InvoiceRenderer.Format.PDF);
+        renderer.render(invoice);
+
+        String subject = InvoiceTemplate.HOTEL_NAME + " - Invoice for booking " + booking.getBookingId();
+        String body = "Dear " + booking.getCustomerName() + ",\n\n"
+            + "Thank you for staying with us. Your invoice for booking " + booking.getBookingId()
+            + " (" + booking.getCheckInDate() + " to " + booking.getCheckOutDate() + ") is attached.\n\n"
+            + "Total amount: " + invoice.getTotal() + "\n"
+            + "Balance due:  " + invoice.getBalanceDue() + "\n\n"
+            + InvoiceTemplate.HOTEL_NAME + "\n";
+        return enqueue(booking.getBookingId(), invoice.getCustomerEmail(), subject, body,
+            "invoice-" + booking.getBookingId() + ".pdf", renderer.toByteArray());
+    }
+
+    /**
+     * Claim due messages for sending
+     * Claimed messages are marked SENDING and leased for LEASE_SECONDS
+     * @param limit Maximum number of messages
+     * @return Claimed messages, oldest due first
+     */
+    static List<OutboxMessage> claimBatch(int limit) {
+        List<OutboxMessage> batch = new ArrayList<>();
+        String selectSql = """
+            SELECT outbox_id, booking_id, recipient, subject, body, attachment_name, attachment, attempts
+            FROM email_outbox
+            WHERE status IN ('PENDING', 'SENDING') AND next_attempt_at <= NOW()
+            ORDER BY next_attempt_at, outbox_id
+            LIMIT ?
+            FOR UPDATE
+            """;
+        String claimSql = "UPDATE email_outbox SET status = 'SENDING', attempts = attempts + 1, "
+            + "next_attempt_at = TIMESTAMPADD(SECOND, ?, NOW()) WHERE outbox_id = ?";
+
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement select = conn.prepareStatement(selectSql);
+                 PreparedStatement claim = conn.prepareStatement(claimSql)) {
+
+                select.setInt(1, limit);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        int bookingId = rs.getInt("booking_id");
+                        batch.add(new OutboxMessage(
+                            rs.getLong("outbox_id"),
+                            rs.wasNull() ? null : bookingId,
+                            rs.getString("recipient"),
+                            rs.getString("subject"),
+                            rs.getString("body"),
+                            rs.getString("attachment_name"),
+                            rs.getBytes("attachment"),
+                            rs.getInt("attempts") + 1
+                        ));
+                    }
+                }
+
+                for (OutboxMessage message : batch) {
+                    claim.setInt(1, LEASE_SECONDS);
+                    claim.setLong(2, message.getOutboxId());
+                    claim.addBatch();
+                }
+                if (!batch.isEmpty()) {
+                    claim.executeBatch();
+                }
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error claiming outbox messages: " + e.getMessage());
+            e.printStackTrace();
+            batch.clear();
+        }
+        return batch;
+    }
+
+    /**
+     * Record messages as delivered
+     * @param outboxIds IDs of the delivered messages
+     */
+    static void markSent(List<Long> outboxIds) {
+        if (outboxIds.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE email_outbox SET status = 'SENT', sent_at = NOW(), last_error = NULL WHERE outbox_id = ?";
+
+        try (Connection conn = DBConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (long outboxId : outboxIds) {
+                stmt.setLong(1, outboxId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+        } catch (SQLException e) {
+            // The lease will run out and the messages will be sent again
+            System.err.println("Error marking emails sent: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Record a failed send
+     * The message is retried after a backoff unless the failure is permanent or it has used all its attempts
+     * @param message Message that failed
+     * @param error Error to record
+     * @param permanent true if retrying cannot succeed
+     * @return Status the message was left in
+     */
+    static Status markFailed(OutboxMessage message, String error, boolean permanent) {
+        Status status = permanent || message.getAttempts() >= MAX_ATTEMPTS ? Status.FAILED : Status.PENDING;
+        String sql = "UPDATE email_outbox SET status = ?, last_error = ?, "
+            + "next_attempt_at = TIMESTAMPADD(SECOND, ?, NOW()) WHERE outbox_id = ?";
+
+        try (Connection conn = DBConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, status.name());
+            stmt.setString(2, error != null && error.length() > 500 ? error.substring(0, 500) : error);
+            stmt.setInt(3, status == Status.FAILED ? 0 : backoffSeconds(message.getAttempts()));
+            stmt.setLong(4, message.getOutboxId());
+            stmt.executeUpdate();
+
+        } catch (SQLException e) {
+            System.err.println("Error recording email failure: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return status;
+    }
+
+    /**
+     * Delay before the next attempt: doubles per attempt up to an hour, with up to 20% jitter
+     * so messages that failed together do not retry together
+     * @param attempts Attempts made so far
+     */
+    static int backoffSeconds(int attempts) {
+        long delay = Math.min((long) BASE_BACKOFF_SECONDS << Math.min(attempts - 1, 20), MAX_BACKOFF_SECONDS);
+        return (int) (delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1));
+    }
+
+    /**
+     * Get the delivery status of the latest email queued for a booking
+     * @param bookingId ID of the booking
+     * @return Status, or null if nothing was queued for the booking
+     */
+    public static Status getLatestStatus(int bookingId) {
+        String sql = "SELECT status FROM email_outbox WHERE booking_id = ? ORDER BY outbox_id DESC LIMIT 1";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, bookingId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return Status.valueOf(rs.getString("status"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting email status: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,176 @@
+package model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Guest folio for the Hotel Management System
+ * An append-only ledger of extra charges and payments per booking. Posting is one atomic
+ * increment of the totals kept on the booking row plus one insert into folio_entries,
+ * so a bill reads the booking's totals instead of adding up its entries. Entries are
+ * never changed; a mistake is corrected by posting a reversing entry.
+ */
+public class Folio {
+    public enum EntryType {
+        CHARGE, PAYMENT
+    }
+
+    public static final String[] CHARGE_CATEGORIES = {
+        "Minibar", "Restaurant", "Room Service", "Late Checkout", "Laundry", "Adjustment", "Other"
+    };
+
+    public static final String[] PAYMENT_METHODS = {
+        "Cash", "Card", "Bank Transfer", "Refund"
+    };
+
+    /**
+     * A folio entry
+     */
+    public static class Entry {
+        private final long entryId;
+        private final int bookingId;
+        private final EntryType entryType;
+        private final String category;
+        private final String description;
+        private final Money amount;
+        private final Money balanceAfter;
+        private final Timestamp postedAt;
+
+        public Entry(long entryId, int bookingId, EntryType entryType, String category, String description,
+                     Money amount, Money balanceAfter, Timestamp postedAt) {
+            this.entryId = entryId;
+            this.bookingId = bookingId;
+            this.entryType = entryType;
+            this.category = category;
+            this.description = description;
+            this.amount = amount;
+            this.balanceAfter = balanceAfter;
+            this.postedAt = postedAt;
+        }
+
+        public long getEntryId() { return entryId; }
+        public int getBookingId() { return bookingId; }
+        public EntryType getEntryType() { return entryType; }
+        public String getCategory() { return category; }
+        public String getDescription() { return description; }
+        public Money getAmount() { return amount; }
+
+        /**
+         * @return Folio balance (extra charges less payments) after this entry
+         */
+        public Money getBalanceAfter() { return balanceAfter; }
+
+        public Timestamp getPostedAt() { return postedAt; }
+    }
+
+    /**
+     * Post an extra charge to a booking's folio
+     * @param bookingId ID of the booking
+     * @param category Charge category, e.g. "Minibar"
+     * @param description Optional description
+     * @param amount Charge amount; negative to reverse an earlier charge
+     * @return true if posted, false if the booking is missing or cancelled
+     */
+    public static boolean postCharge(int bookingId, String category, String description, Money amount) {
+        return post(bookingId, EntryType.CHARGE, category, description, amount);
+    }
+
+    /**
+     * Record a payment against a booking's folio
+     * @param bookingId ID of the booking
+     * @param method Payment method, e.g. "Card"
+     * @param description Optional description
+     * @param amount Amount received; negative for a refund
+     * @return true if recorded, false if the booking is missing
+     */
+    public static boolean postPayment(int bookingId, String method, String description, Money amount) {
+        return post(bookingId, EntryType.PAYMENT, method, description, amount);
+    }
+
+    private static boolean post(int bookingId, EntryType type, String category, String description, Money amount) {
+        if (amount.isZero()) {
+            throw new IllegalArgumentException("Amount must not be zero");
+        }
+
+        // Charges can't be added to cancelled bookings; payments and refunds always can
+        String updateSql = type == EntryType.CHARGE
+            ? "UPDATE bookings SET folio_charges = folio_charges + ? WHERE booking_id = ? AND hotel_id = ? AND booking_status <> 'CANCELLED'"
+            : "UPDATE bookings SET folio_payments = folio_payments + ? WHERE booking_id = ? AND hotel_id = ?";
+        // The booking row is locked by the update, so the balance read here is this entry's
+        String insertSql = "INSERT INTO folio_entries (booking_id, entry_type, category, description, amount, balance_after) "
+            + "SELECT booking_id, ?, ?, ?, ?, folio_charges - folio_payments FROM bookings WHERE booking_id = ?";
+
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement update = conn.prepareStatement(updateSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+
+                Money.setMoney(update, 1, amount);
+                update.setInt(2, bookingId);
+                update.setInt(3, Hotel.currentId());
+                if (update.executeUpdate() == 0) {
+                    conn.rollback();
+                    return false;
+                }
+
+                insert.setString(1, type.name());
+                insert.setString(2, category);
+                insert.setString(3, description);
+                Money.setMoney(insert, 4, amount);
+                insert.setInt(5, bookingId);
+                insert.executeUpdate();
+
+                conn.commit();
+                DBConnection.markWrite();
+                return true;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error posting folio " + type.name().toLowerCase() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Get a booking's folio entries
+     * @param bookingId ID of the booking
+     * @return Entries in posting order
+     */
+    public static List<Entry> getEntries(int bookingId) {
+        List<Entry> entries = new ArrayList<>();
+        String sql = "SELECT f.* FROM folio_entries f JOIN bookings b ON b.booking_id = f.booking_id "
+            + "WHERE f.booking_id = ? AND b.hotel_id = ? ORDER BY f.entry_id";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, bookingId);
+            stmt.setInt(2, Hotel.currentId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new Entry(
+                        rs.getLong("entry_id"),
+                        rs.getInt("booking_id"),
+                        EntryType.valueOf(rs.getString("entry_type")),
+                        rs.getString("category"),
+                        rs.getString("description"),
+                        Money.getMoney(rs, "amount"),
+                        Money.getMoney(rs, "balance_after"),
+                        rs.getTimestamp("posted_at")
+                    ));
+                }
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting folio entries: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,143 @@
+package model;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Hotel (property) model class for the Hotel Management System
+ * Every room, customer and booking belongs to one hotel, and model queries only see the
+ * current hotel's rows. The current hotel is the one this process works for (the hotel.id
+ * system property, default 1, or the hotel chosen at login) unless the calling thread is
+ * serving another one through callAs, as the HTTP API does for each request.
+ */
+public class Hotel {
+    private static volatile int defaultHotelId = Integer.getInteger("hotel.id", 1);
+    private static final ThreadLocal<Integer> scopedHotelId = new ThreadLocal<>();
+
+    private int hotelId;
+    private String name;
+    private String address;
+
+    public Hotel(int hotelId, String name, String address) {
+        this.hotelId = hotelId;
+        this.name = name;
+        this.address = address;
+    }
+
+    public int getHotelId() { return hotelId; }
+    public String getName() { return name; }
+    public String getAddress() { return address; }
+
+    /**
+     * @return ID of the hotel the calling thread works for
+     */
+    public static int currentId() {
+        Integer scoped = scopedHotelId.get();
+        return scoped != null ? scoped : defaultHotelId;
+    }
+
+    /**
+     * Set the hotel this process works for; threads inside callAs are not affected
+     * @param hotelId ID of the hotel
+     */
+    public static void setDefaultHotelId(int hotelId) {
+        defaultHotelId = hotelId;
+    }
+
+    /**
+     * Work for the given hotel on the calling thread until the returned scope is closed
+     * @param hotelId ID of the hotel to work for
+     * @return Scope to close, e.g. in try-with-resources
+     */
+    public static Scope enter(int hotelId) {
+        Scope scope = new Scope(scopedHotelId.get());
+        scopedHotelId.set(hotelId);
+        return scope;
+    }
+
+    /**
+     * Run a call on the calling thread as the given hotel
+     * @param hotelId ID of the hotel to work for
+     * @param call Call to run
+     * @return Result of the call
+     */
+    @SuppressWarnings("try") // The scope is only held open, never used in the body
+    public static <T> T callAs(int hotelId, Supplier<T> call) {
+        try (Scope scope = enter(hotelId)) {
+            return call.get();
+        }
+    }
+
+    /**
+     * Restores the hotel the thread worked for before enter
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Integer previous;
+
+        private Scope(Integer previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                scopedHotelId.set(previous);
+            } else {
+                scopedHotelId.remove();
+            }
+        }
+    }
+
+    /**
+     * Get a hotel by ID
+     * @param hotelId ID of the hotel
+     * @return Hotel object or null if not found
+     */
+    public static Hotel getHotelById(int hotelId) {
+        String sql = "SELECT * FROM hotels WHERE hotel_id = ?";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, hotelId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Hotel(rs.getInt("hotel_id"), rs.getString("name"), rs.getString("address"));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting hotel by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Get all hotels of the group
+     * @return List of hotels ordered by ID
+     */
+    public static List<Hotel> getAllHotels() {
+        List<Hotel> hotels = new ArrayList<>();
+        String sql = "SELECT * FROM hotels ORDER BY hotel_id";
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                hotels.add(new Hotel(rs.getInt("hotel_id"), rs.getString("name"), rs.getString("address")));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting all hotels: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return hotels;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,64 @@
+package model;
+
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+/**
+ * Invoice model class for the Hotel Management System
+ * Combines a booking with the customer contact details printed on its bill.
+ * Folio extras and payments come from the totals kept on the booking row.
+ */
+public class Invoice {
+    public static final long TAX_PERCENT = 10;
+
+    private final Booking booking;
+    private final String customerEmail;
+    private final String customerPhone;
+    private final LocalDate issueDate;
+
+    /**
+     * @param booking Booking with its customer and room display fields set
+     * @param customerEmail Customer email
+     * @param customerPhone Customer phone
+     * @param issueDate Date printed on the invoice
+     */
+    public Invoice(Booking booking, String customerEmail, String customerPhone, LocalDate issueDate) {
+        this.booking = booking;
+        this.customerEmail = customerEmail;
+        this.customerPhone = customerPhone;
+        this.issueDate = issueDate;
+    }
+
+    public Booking getBooking() { return booking; }
+    public String getCustomerEmail() { return customerEmail; }
+    public String getCustomerPhone() { return customerPhone; }
+    public LocalDate getIssueDate() { return issueDate; }
+
+    public Money getRoomCharges() {
+        return booking.getTotalAmount();
+    }
+
+    public Money getExtraCharges() {
+        return booking.getFolioCharges();
+    }
+
+    public Money getSubtotal() {
+        return getRoomCharges().plus(getExtraCharges());
+    }
+
+    public Money getTax() {
+        return getSubtotal().multiply(TAX_PERCENT, 100, RoundingMode.HALF_UP);
+    }
+
+    public Money getTotal() {
+        return getSubtotal().plus(getTax());
+    }
+
+    public Money getPayments() {
+        return booking.getFolioPayments();
+    }
+
+    public Money getBalanceDue() {
+        return getTotal().minus(getPayments());
+    }
+}
@@ -0,0 +1,261 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Batch invoice run for the Hotel Management System
+ * Reads checked-out bookings in keyset pages and hands each page to a pool of worker
+ * threads through a bounded queue. Every worker owns an InvoiceRenderer, so the template
+ * is compiled once and each worker reuses its buffers for every invoice it writes.
+ * Invoices are written as invoice-<booking id>.pdf or .txt in the output directory.
+ */
+public class InvoiceBatch {
+    private static final List<Invoice> END_OF_BATCH = new ArrayList<>();
+
+    private InvoiceRenderer.Format format = InvoiceRenderer.Format.PDF;
+    private InvoiceTemplate template = InvoiceTemplate.compile(InvoiceTemplate.DEFAULT_TEMPLATE);
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int pageSize = 500;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private LocalDate issueDate = LocalDate.now();
+
+    public InvoiceRenderer.Format getFormat() { return format; }
+    public void setFormat(InvoiceRenderer.Format format) { this.format = format; }
+
+    public InvoiceTemplate getTemplate() { return template; }
+    public void setTemplate(InvoiceTemplate template) { this.template = template; }
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = Math.max(1, threads); }
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) { this.pageSize = Math.max(1, pageSize); }
+
+    public LocalDate getFromDate() { return fromDate; }
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    public LocalDate getIssueDate() { return issueDate; }
+    public void setIssueDate(LocalDate issueDate) { this.issueDate = issueDate; }
+
+    /**
+     * Render invoices for checked-out bookings
+     * Only bookings checking out on or after the from date and before the to date are included when set
+     * @param outputDir Directory to write invoices to, created if missing
+     * @return Batch report
+     */
+    public BatchReport run(Path outputDir) {
+        BatchReport report = new BatchReport(format);
+        long startTime = System.nanoTime();
+
+        try {
+            Files.createDirectories(outputDir);
+        } catch (IOException e) {
+            System.err.println("Error creating invoice directory: " + e.getMessage());
+            report.failed.incrementAndGet();
+            report.finish(startTime, false);
+            return report;
+        }
+
+        // Two pages per worker keeps everyone busy while the next page is read
+        BlockingQueue<List<Invoice>> pages = new ArrayBlockingQueue<>(threads * 2);
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "invoice-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(workers.submit(() -> renderPages(pages, outputDir, report)));
+        }
+
+        boolean completed = true;
+        try {
+            completed = readPages(pages, report);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            completed = false;
+        } finally {
+            for (int i = 0; i < threads; i++) {
+                try {
+                    pages.put(END_OF_BATCH);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    workers.shutdownNow();
+                    break;
+                }
+            }
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                System.err.println("Invoice worker failed: " + e.getMessage());
+                completed = false;
+            }
+        }
+        workers.shutdown();
+
+        report.finish(startTime, completed);
+        return report;
+    }
+
+    private boolean readPages(BlockingQueue<List<Invoice>> pages, BatchReport report) throws InterruptedException {
+        StringBuilder sql = new StringBuilder("""
+            SELECT b.*, CONCAT(c.first_name, ' ', c.last_name) AS customer_name,
+                   c.email AS customer_email, c.phone AS customer_phone,
+                   r.room_number, r.room_type, r.price_per_night
+            FROM bookings b
+            JOIN customers c ON b.customer_id = c.customer_id
+            JOIN rooms r ON b.room_id = r.room_id
+            WHERE b.booking_status = 'CHECKED_OUT' AND b.booking_id > ? AND b.hotel_id = ?
+            """);
+        if (fromDate != null) {
+            sql.append(" AND b.check_out_date >= ?");
+        }
+        if (toDate != null) {
+            sql.append(" AND b.check_out_date < ?");
+        }
+        sql.append(" ORDER BY b.booking_id LIMIT ?");
+
+        try (Connection conn = DBConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+
+            stmt.setInt(2, Hotel.currentId());
+            int parameterIndex = 3;
+            if (fromDate != null) {
+                stmt.setDate(parameterIndex++, Date.valueOf(fromDate));
+            }
+            if (toDate != null) {
+                stmt.setDate(parameterIndex++, Date.valueOf(toDate));
+            }
+            stmt.setInt(parameterIndex, pageSize);
+
+            int lastBookingId = 0;
+            while (true) {
+                stmt.setInt(1, lastBookingId);
+                List<Invoice> page = new ArrayList<>(pageSize);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        Booking booking = new Booking(
+                            rs.getInt("booking_id"),
+                            rs.getInt("customer_id"),
+                            rs.getInt("room_id"),
+                            rs.getDate("check_in_date").toLocalDate(),
+                            rs.getDate("check_out_date").toLocalDate(),
+                            Money.getMoney(rs, "total_amount"),
+                            Booking.BookingStatus.valueOf(rs.getString("booking_status")),
+                            rs.getTimestamp("created_at")
+                        );
+                        booking.setCustomerName(rs.getString("customer_name"));
+                        booking.setRoomNumber(rs.getString("room_number"));
+                        booking.setRoomType(rs.getString("room_type"));
+                        booking.setPricePerNight(Money.getMoney(rs, "price_per_night"));
+                        booking.setFolioCharges(Money.getMoney(rs, "folio_charges"));
+                        booking.setFolioPayments(Money.getMoney(rs, "folio_payments"));
+                        page.add(new Invoice(booking, rs.getString("customer_email"),
+                                rs.getString("customer_phone"), issueDate));
+                    }
+                }
+                if (page.isEmpty()) {
+                    return true;
+                }
+                lastBookingId = page.get(page.size() - 1).getBooking().getBookingId();
+                report.pages.incrementAndGet();
+                pages.put(page);
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error reading bookings for invoices: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void renderPages(BlockingQueue<List<Invoice>> pages, Path outputDir, BatchReport report) {
+        InvoiceRenderer renderer = new InvoiceRenderer(template, format);
+        String extension = format.getExtension();
+        try {
+            while (true) {
+                List<Invoice> page = pages.take();
+                if (page == END_OF_BATCH) {
+                    return;
+                }
+                for (Invoice invoice : page) {
+                    int bookingId = invoice.getBooking().getBookingId();
+                    try {
+                        int size = renderer.render(invoice);
+                        renderer.writeTo(outputDir.resolve("invoice-" + bookingId + extension));
+                        report.rendered.incrementAndGet();
+                        report.bytes.addAndGet(size);
+                    } catch (IOException | RuntimeException e) {
+                        System.err.println("Error rendering invoice for booking " + bookingId + ": " + e.getMessage());
+                        report.failed.incrementAndGet();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Summary of a batch invoice run
+     */
+    public static class BatchReport {
+        private final InvoiceRenderer.Format format;
+        private final AtomicLong rendered = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong pages = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        private double elapsedSeconds;
+        private boolean completed;
+
+        BatchReport(InvoiceRenderer.Format format) {
+            this.format = format;
+        }
+
+        void finish(long startTime, boolean completed) {
+            this.elapsedSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            this.completed = completed;
+        }
+
+        public long getRendered() { return rendered.get(); }
+        public long getFailed() { return failed.get(); }
+        public long getPages() { return pages.get(); }
+        public long getBytes() { return bytes.get(); }
+        public double getElapsedSeconds() { return elapsedSeconds; }
+
+        /**
+         * @return true if every page of bookings was read
+         */
+        public boolean isCompleted() { return completed; }
+
+        public double getInvoicesPerSecond() {
+            return rendered.get() / Math.max(elapsedSeconds, 0.001);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Invoice run %s in %.1f s: %d %s invoices (%d KB) from %d pages, %d failed, %.0f invoices/s",
+                    completed ? "completed" : "STOPPED EARLY", elapsedSeconds, rendered.get(), format,
+                    bytes.get() / 1024, pages.get(), failed.get(), getInvoicesPerSecond());
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Invoice renderer for the Hotel Management System
+ * Renders invoices from a compiled template as UTF-8 text or as a single-page PDF.
+ * A renderer keeps its character and byte buffers between invoices, so rendering a
+ * batch does not allocate per invoice. Renderers are not thread-safe; give each
+ * worker thread its own.
+ */
+public class InvoiceRenderer {
+    public enum Format {
+        TEXT, PDF;
+
+        public String getExtension() {
+            return this == PDF ? ".pdf" : ".txt";
+        }
+    }
+
+    // US Letter in points, Courier 10 pt on 12 pt lines
+    private static final int PAGE_WIDTH = 612;
+    private static final int PAGE_HEIGHT = 792;
+    private static final int MARGIN_LEFT = 50;
+    private static final int FIRST_BASELINE = PAGE_HEIGHT - 60;
+
+    // Objects 1 to 4 never change, so they are encoded once with their offsets
+    private static final byte[] PDF_PREFIX;
+    private static final int[] PDF_PREFIX_OFFSETS = new int[4];
+    private static final byte[] CONTENT_START = ascii(String.format(Locale.ROOT,
+            "BT\n/F1 10 Tf\n12 TL\n%d %d Td\n", MARGIN_LEFT, FIRST_BASELINE));
+
+    static {
+        String[] objects = {
+            "<< /Type /Catalog /Pages 2 0 R >>",
+            "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+            "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + PAGE_WIDTH + " " + PAGE_HEIGHT + "]"
+                    + " /Resources << /Font << /F1 4 0 R >> >> /Contents 5 0 R >>",
+            "<< /Type /Font /Subtype /Type1 /BaseFont /Courier /Encoding /WinAnsiEncoding >>"
+        };
+        StringBuilder sb = new StringBuilder("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        for (int i = 0; i < objects.length; i++) {
+            PDF_PREFIX_OFFSETS[i] = sb.length();
+            sb.append(i + 1).append(" 0 obj\n").append(objects[i]).append("\nendobj\n");
+        }
+        PDF_PREFIX = sb.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private final InvoiceTemplate template;
+    private final Format format;
+    private final StringBuilder text = new StringBuilder(2048);
+    private final ByteSink content = new ByteSink(4096);
+    private final ByteSink output = new ByteSink(8192);
+
+    /**
+     * @param template Compiled template
+     * @param format Output format
+     */
+    public InvoiceRenderer(InvoiceTemplate template, Format format) {
+        this.template = template;
+        this.format = format;
+    }
+
+    public Format getFormat() { return format; }
+
+    /**
+     * Render an invoice into this renderer's buffer, replacing the previous one
+     * @param invoice Invoice to render
+     * @return Size of the rendered invoice in bytes
+     */
+    public int render(Invoice invoice) {
+        text.setLength(0);
+        template.render(invoice, text);
+        output.reset();
+        if (format == Format.PDF) {
+            writePdf();
+        } else {
+            output.putUtf8(text);
+        }
+        return output.size;
+    }
+
+    /**
+     * @return Copy of the last rendered invoice
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(output.bytes, output.size);
+    }
+
+    /**
+     * Write the last rendered invoice to a file
+     * @param file File to write, replaced if it exists
+     */
+    public void writeTo(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = output.view();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void writePdf() {
+        // Content stream first, since object 5 starts with its length
+        content.reset();
+        content.put(CONTENT_START);
+        int lineStart = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n') {
+                if (i > lineStart) {
+                    content.put((byte) '(');
+                    for (int j = lineStart; j < i; j++) {
+                        putPdfChar(text.charAt(j));
+                    }
+                    content.putAscii(") Tj ");
+                }
+                content.putAscii("T*\n");
+                lineStart = i + 1;
+            }
+        }
+        content.putAscii("ET\n");
+
+        output.put(PDF_PREFIX);
+        int contentsOffset = output.size;
+        output.putAscii("5 0 obj\n<< /Length ").putLong(content.size).putAscii(" >>\nstream\n");
+        output.put(content.bytes, 0, content.size);
+        output.putAscii("\nendstream\nendobj\n");
+
+        int xrefOffset = output.size;
+        output.putAscii("xref\n0 6\n0000000000 65535 f \n");
+        for (int offset : PDF_PREFIX_OFFSETS) {
+            output.putPadded(offset, 10).putAscii(" 00000 n \n");
+        }
+        output.putPadded(contentsOffset, 10).putAscii(" 00000 n \n");
+        output.putAscii("trailer\n<< /Size 6 /Root 1 0 R >>\nstartxref\n").putLong(xrefOffset).putAscii("\n%%EOF\n");
+    }
+
+    private void putPdfChar(char c) {
+        if (c == '(' || c == ')' || c == '\\') {
+            content.put((byte) '\\').put((byte) c);
+        } else if (c >= 0x20 && c < 0x7f || c >= 0xa0 && c <= 0xff) {
+            // WinAnsiEncoding matches Latin-1 in these ranges
+            content.put((byte) c);
+        } else if (c == '\t') {
+            content.put((byte) ' ');
+        } else if (!Character.isLowSurrogate(c)) {
+            content.put((byte) '?');
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Growable byte buffer reused between invoices
+     */
+    private static final class ByteSink {
+        byte[] bytes;
+        int size;
+        private ByteBuffer view;
+
+        ByteSink(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void reset() {
+            size = 0;
+        }
+
+        ByteBuffer view() {
+            if (view == null || view.array() != bytes) {
+                view = ByteBuffer.wrap(bytes);
+            }
+            view.clear().limit(size);
+            return view;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        ByteSink put(byte b) {
+            ensure(1);
+            bytes[size++] = b;
+            return this;
+        }
+
+        ByteSink put(byte[] src) {
+            return put(src, 0, src.length);
+        }
+
+        ByteSink put(byte[] src, int offset, int length) {
+            ensure(length);
+            System.arraycopy(src, offset, bytes, size, length);
+            size += length;
+            return this;
+        }
+
+        ByteSink putAscii(String s) {
+            ensure(s.length());
+            for (int i = 0; i < s.length(); i++) {
+                bytes[size++] = (byte) s.charAt(i);
+            }
+            return this;
+        }
+
+        ByteSink putLong(long value) {
+            return putPadded(value, 1);
+        }
+
+        ByteSink putPadded(long value, int width) {
+            int digits = 1;
+            for (long v = value; v >= 10; v /= 10) {
+                digits++;
+            }
+            int length = Math.max(width, digits);
+            ensure(length);
+            for (int i = size + length - 1; i >= size; i--) {
+                bytes[i] = (byte) ('0' + value % 10);
+                value /= 10;
+            }
+            size += length;
+            return this;
+        }
+
+        void putUtf8(CharSequence s) {
+            ensure(s.length() * 3);
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c < 0x80) {
+                    bytes[size++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[size++] = (byte) (0xc0 | c >> 6);
+                    bytes[size++] = (byte) (0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    bytes[size++] = (byte) (0xf0 | cp >> 18);
+                    bytes[size++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | cp & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    bytes[size++] = (byte) '?';
+                } else {
+                    bytes[size++] = (byte) (0xe0 | c >> 12);
+                    bytes[size++] = (byte) (0x80 | c >> 6 & 0x3f);
+                    bytes[size++] = (byte) (0x80 | c & 0x3f);
+                }
+            }
+        }
+    }
+}
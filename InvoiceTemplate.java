@@ -0,0 +1,201 @@
+package model;
+
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compiled plain-text invoice template
+ * Placeholders are written {{field}}, {{field:N}} (left-aligned in N columns) or
+ * {{field:>N}} (right-aligned). The template is parsed once into literal segments and
+ * field slots, so rendering only appends into a caller's reused StringBuilder.
+ */
+public class InvoiceTemplate {
+    public enum Field {
+        HOTEL_NAME, BOOKING_ID, STATUS, ISSUE_DATE,
+        CUSTOMER_NAME, CUSTOMER_EMAIL, CUSTOMER_PHONE,
+        ROOM_NUMBER, ROOM_TYPE, CHECK_IN, CHECK_OUT, NIGHTS,
+        PRICE_PER_NIGHT, ROOM_CHARGES, EXTRA_CHARGES, SUBTOTAL, TAX, TOTAL,
+        PAYMENTS, BALANCE_DUE
+    }
+
+    public static final String HOTEL_NAME = "Grand Hotel Paradise";
+
+    public static final String DEFAULT_TEMPLATE = """
+        {{hotel_name}}
+        123 Paradise Street, Beach City, BC 12345
+        Phone: (555) 123-4567 | Email: info@grandhotel.com
+
+        BOOKING INVOICE
+        ============================================================
+
+        Booking Information
+          Booking ID:        {{booking_id}}
+          Status:            {{status}}
+          Issue Date:        {{issue_date}}
+
+        Customer Information
+          Name:              {{customer_name}}
+          Email:             {{customer_email}}
+          Phone:             {{customer_phone}}
+
+        Room Information
+          Room Number:       {{room_number}}
+          Room Type:         {{room_type}}
+          Check-in Date:     {{check_in}}
+          Check-out Date:    {{check_out}}
+          Number of Nights:  {{nights}}
+
+        Billing Information
+          Price per Night:   {{price_per_night:>14}}
+          Room Charges:      {{room_charges:>14}}
+          Extra Charges:     {{extra_charges:>14}}
+          Subtotal:          {{subtotal:>14}}
+          Tax (10%):         {{tax:>14}}
+          ------------------------------------
+          Total Amount:      {{total:>14}}
+          Payments:          {{payments:>14}}
+          Balance Due:       {{balance_due:>14}}
+
+        Thank you for choosing Grand Hotel Paradise!
+        """;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final Field[] FIELDS = Field.values();
+
+    // Segment i is literals[i] followed by field slot i (fields[i] < 0 for the trailing literal)
+    private final String[] literals;
+    private final int[] fields;
+    private final int[] widths; // Negative for right-aligned
+
+    private InvoiceTemplate(String[] literals, int[] fields, int[] widths) {
+        this.literals = literals;
+        this.fields = fields;
+        this.widths = widths;
+    }
+
+    /**
+     * Compile a template
+     * @param template Template text
+     * @return Compiled template
+     * @throws IllegalArgumentException if a placeholder is malformed or names an unknown field
+     */
+    public static InvoiceTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<int[]> slots = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf("{{", position);
+            if (open < 0) {
+                literals.add(template.substring(position));
+                slots.add(new int[] {-1, 0});
+                break;
+            }
+            int close = template.indexOf("}}", open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            literals.add(template.substring(position, open));
+            slots.add(parsePlaceholder(template.substring(open + 2, close).trim()));
+            position = close + 2;
+        }
+
+        int[] fields = new int[slots.size()];
+        int[] widths = new int[slots.size()];
+        for (int i = 0; i < slots.size(); i++) {
+            fields[i] = slots.get(i)[0];
+            widths[i] = slots.get(i)[1];
+        }
+        return new InvoiceTemplate(literals.toArray(new String[0]), fields, widths);
+    }
+
+    private static int[] parsePlaceholder(String placeholder) {
+        String name = placeholder;
+        int width = 0;
+        int colon = placeholder.indexOf(':');
+        if (colon >= 0) {
+            name = placeholder.substring(0, colon).trim();
+            String spec = placeholder.substring(colon + 1).trim();
+            try {
+                width = spec.startsWith(">") ? -Integer.parseInt(spec.substring(1)) : Integer.parseInt(spec);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid width in placeholder: " + placeholder);
+            }
+        }
+        try {
+            return new int[] {Field.valueOf(name.toUpperCase(Locale.ROOT)).ordinal(), width};
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown invoice field: " + name);
+        }
+    }
+
+    /**
+     * Render an invoice
+     * @param invoice Invoice to render
+     * @param out Builder to append to; the caller clears and reuses it
+     */
+    public void render(Invoice invoice, StringBuilder out) {
+        for (int i = 0; i < literals.length; i++) {
+            out.append(literals[i]);
+            if (fields[i] >= 0) {
+                int start = out.length();
+                appendField(FIELDS[fields[i]], invoice, out);
+                align(out, start, widths[i]);
+            }
+        }
+    }
+
+    private static void appendField(Field field, Invoice invoice, StringBuilder out) {
+        Booking booking = invoice.getBooking();
+        switch (field) {
+            case HOTEL_NAME: out.append(HOTEL_NAME); break;
+            case BOOKING_ID: out.append(booking.getBookingId()); break;
+            case STATUS: out.append(booking.getBookingStatus().name()); break;
+            case ISSUE_DATE: DATE_FORMAT.formatTo(invoice.getIssueDate(), out); break;
+            case CUSTOMER_NAME: appendText(booking.getCustomerName(), out); break;
+            case CUSTOMER_EMAIL: appendText(invoice.getCustomerEmail(), out); break;
+            case CUSTOMER_PHONE: appendText(invoice.getCustomerPhone(), out); break;
+            case ROOM_NUMBER: appendText(booking.getRoomNumber(), out); break;
+            case ROOM_TYPE: appendText(booking.getRoomType(), out); break;
+            case CHECK_IN: DATE_FORMAT.formatTo(booking.getCheckInDate(), out); break;
+            case CHECK_OUT: DATE_FORMAT.formatTo(booking.getCheckOutDate(), out); break;
+            case NIGHTS: out.append(booking.getNumberOfNights()); break;
+            case PRICE_PER_NIGHT: booking.getPricePerNight().appendTo(out); break;
+            case ROOM_CHARGES: invoice.getRoomCharges().appendTo(out); break;
+            case EXTRA_CHARGES: invoice.getExtraCharges().appendTo(out); break;
+            case SUBTOTAL: invoice.getSubtotal().appendTo(out); break;
+            case TAX: invoice.getTax().appendTo(out); break;
+            case TOTAL: invoice.getTotal().appendTo(out); break;
+            case PAYMENTS: invoice.getPayments().appendTo(out); break;
+            case BALANCE_DUE: invoice.getBalanceDue().appendTo(out); break;
+            default: break;
+        }
+    }
+
+    private static void appendText(String value, StringBuilder out) {
+        out.append(value != null ? value : "");
+    }
+
+    private static void align(StringBuilder out, int start, int width) {
+        int length = out.length() - start;
+        int columns = Math.abs(width);
+        if (width == 0 || length >= columns) {
+            return;
+        }
+        if (width > 0) {
+            for (int i = length; i < columns; i++) {
+                out.append(' ');
+            }
+        } else {
+            // Shift the value right by inserting the padding in front of it
+            out.setLength(start + columns);
+            for (int i = length - 1; i >= 0; i--) {
+                out.setCharAt(start + columns - length + i, out.charAt(start + i));
+            }
+            for (int i = 0; i < columns - length; i++) {
+                out.setCharAt(start + i, ' ');
+            }
+        }
+    }
+}
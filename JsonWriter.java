@@ -0,0 +1,209 @@
+package model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Reusable JSON writer for the Hotel Management System
+ * Builds one JSON document at a time into a char buffer and encodes it into a byte
+ * buffer, both kept between documents. A writer is meant to be owned by one thread
+ * and reset for every response, so serializing allocates nothing once it has warmed up.
+ */
+public class JsonWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final StringBuilder text = new StringBuilder(4096);
+    private byte[] bytes = new byte[8192];
+    private int size;
+
+    // One flag per open object or array: true once it has a member
+    private boolean[] hasMember = new boolean[16];
+    private int depth;
+    private boolean afterName;
+
+    /**
+     * Start a new document, discarding the previous one
+     */
+    public JsonWriter reset() {
+        text.setLength(0);
+        size = 0;
+        depth = 0;
+        afterName = false;
+        return this;
+    }
+
+    public JsonWriter beginObject() {
+        separate();
+        text.append('{');
+        push();
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        depth--;
+        text.append('}');
+        return this;
+    }
+
+    public JsonWriter beginArray() {
+        separate();
+        text.append('[');
+        push();
+        return this;
+    }
+
+    public JsonWriter endArray() {
+        depth--;
+        text.append(']');
+        return this;
+    }
+
+    /**
+     * Write a member name; the next value belongs to it
+     */
+    public JsonWriter name(String name) {
+        separate();
+        appendString(name);
+        text.append(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) {
+        separate();
+        if (value == null) {
+            text.append("null");
+        } else {
+            appendString(value);
+        }
+        return this;
+    }
+
+    public JsonWriter value(long value) {
+        separate();
+        text.append(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) {
+        separate();
+        text.append(value);
+        return this;
+    }
+
+    /**
+     * Write an amount as a plain decimal number, e.g. 120.50
+     */
+    public JsonWriter value(Money value) {
+        separate();
+        if (value == null) {
+            text.append("null");
+        } else {
+            value.appendPlainTo(text);
+        }
+        return this;
+    }
+
+    public JsonWriter value(LocalDate value) {
+        return value(value != null ? value.toString() : null);
+    }
+
+    public JsonWriter nullValue() {
+        separate();
+        text.append("null");
+        return this;
+    }
+
+    /**
+     * Encode the document as UTF-8
+     * @return Size of the encoded document in bytes
+     */
+    public int encode() {
+        size = 0;
+        ensure(text.length() * 3);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes[size++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[size++] = (byte) (0xc0 | c >> 6);
+                bytes[size++] = (byte) (0x80 | c & 0x3f);
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                bytes[size++] = (byte) (0xf0 | cp >> 18);
+                bytes[size++] = (byte) (0x80 | cp >> 12 & 0x3f);
+                bytes[size++] = (byte) (0x80 | cp >> 6 & 0x3f);
+                bytes[size++] = (byte) (0x80 | cp & 0x3f);
+            } else if (Character.isSurrogate(c)) {
+                bytes[size++] = (byte) '?';
+            } else {
+                bytes[size++] = (byte) (0xe0 | c >> 12);
+                bytes[size++] = (byte) (0x80 | c >> 6 & 0x3f);
+                bytes[size++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Write the encoded document
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    private void separate() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (hasMember[depth - 1]) {
+                text.append(',');
+            }
+            hasMember[depth - 1] = true;
+        }
+    }
+
+    private void push() {
+        if (depth == hasMember.length) {
+            hasMember = Arrays.copyOf(hasMember, depth * 2);
+        }
+        hasMember[depth++] = false;
+    }
+
+    private void ensure(int capacity) {
+        if (capacity > bytes.length) {
+            bytes = new byte[Math.max(bytes.length * 2, capacity)];
+        }
+    }
+
+    private void appendString(String value) {
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': text.append("\\\""); break;
+                case '\\': text.append("\\\\"); break;
+                case '\n': text.append("\\n"); break;
+                case '\r': text.append("\\r"); break;
+                case '\t': text.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        text.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                    } else {
+                        text.append(c);
+                    }
+            }
+        }
+        text.append('"');
+    }
+}
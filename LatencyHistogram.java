@@ -0,0 +1,88 @@
+package view;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseEvent;
+
+/**
+ * Bar chart of a statement's latency buckets for the diagnostics tab
+ * Each bar is one bucket, labelled with its upper bound; heights are relative to the fullest bucket.
+ */
+public class LatencyHistogram extends JComponent {
+    private static final Color BAR_COLOR = new Color(52, 152, 219);
+
+    private String title = "Select a statement";
+    private String[] labels = new String[0];
+    private long[] counts = new long[0];
+
+    public LatencyHistogram() {
+        setPreferredSize(new Dimension(600, 180));
+        setToolTipText("");
+    }
+
+    /**
+     * Show new bucket counts
+     * @param title Caption above the bars
+     * @param labels Bucket labels
+     * @param counts Executions per bucket, one per label
+     */
+    public void setData(String title, String[] labels, long[] counts) {
+        this.title = title;
+        this.labels = labels.clone();
+        this.counts = counts.clone();
+        repaint();
+    }
+
+    public void clear() {
+        setData("Select a statement", new String[0], new long[0]);
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent event) {
+        int bucket = bucketAt(event.getX());
+        return bucket >= 0 ? labels[bucket] + ": " + counts[bucket] : null;
+    }
+
+    private int bucketAt(int x) {
+        if (counts.length == 0) {
+            return -1;
+        }
+        int bucket = (x - 10) * counts.length / Math.max(1, getWidth() - 20);
+        return bucket >= 0 && bucket < counts.length ? bucket : -1;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2 = (Graphics2D) g.create();
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setColor(Color.WHITE);
+        g2.fillRect(0, 0, getWidth(), getHeight());
+
+        FontMetrics metrics = g2.getFontMetrics();
+        int lineHeight = metrics.getHeight();
+        g2.setColor(Color.DARK_GRAY);
+        g2.drawString(title, 10, lineHeight);
+
+        long max = 1;
+        for (long count : counts) {
+            max = Math.max(max, count);
+        }
+        int top = lineHeight * 2;
+        int bottom = getHeight() - lineHeight - 6;
+        int slot = counts.length > 0 ? (getWidth() - 20) / counts.length : 0;
+        for (int i = 0; i < counts.length; i++) {
+            int x = 10 + i * slot;
+            int height = (int) ((bottom - top) * counts[i] / max);
+            g2.setColor(BAR_COLOR);
+            g2.fillRect(x + 2, bottom - height, Math.max(1, slot - 4), height);
+            g2.setColor(Color.DARK_GRAY);
+            String label = labels[i];
+            g2.drawString(label, x + (slot - metrics.stringWidth(label)) / 2, getHeight() - 6);
+            if (counts[i] > 0) {
+                String count = Long.toString(counts[i]);
+                g2.drawString(count, x + (slot - metrics.stringWidth(count)) / 2, bottom - height - 2);
+            }
+        }
+        g2.dispose();
+    }
+}
@@ -0,0 +1,114 @@
+package controller;
+
+import model.QueryHandle;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Search-as-you-type helper for the dashboard tabs
+ * Debounces keystrokes, runs each query on a background thread,
+ * cancels superseded queries and drops stale results
+ */
+public class LiveSearch<T> {
+    private static final int DEBOUNCE_DELAY_MS = 300;
+
+    private final BiFunction<String, QueryHandle, List<T>> query;
+    private final Consumer<List<T>> resultHandler;
+    private final ExecutorService queryExecutor;
+    private final ExecutorService cancelExecutor;
+    private final Timer debounceTimer;
+
+    // Only touched on the event dispatch thread
+    private Supplier<String> termSource;
+    private QueryHandle activeHandle;
+    private long generation;
+
+    /**
+     * @param name Name used for the background threads
+     * @param query Query to run for a search term, honouring the given handle
+     * @param resultHandler Receives results on the event dispatch thread
+     */
+    public LiveSearch(String name, BiFunction<String, QueryHandle, List<T>> query, Consumer<List<T>> resultHandler) {
+        this.query = query;
+        this.resultHandler = resultHandler;
+        this.queryExecutor = Executors.newSingleThreadExecutor(r -> createThread(r, name + "-search"));
+        this.cancelExecutor = Executors.newSingleThreadExecutor(r -> createThread(r, name + "-search-cancel"));
+
+        debounceTimer = new Timer(DEBOUNCE_DELAY_MS, e -> search(termSource.get()));
+        debounceTimer.setRepeats(false);
+    }
+
+    private static Thread createThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * Create a document listener that schedules a search on every edit
+     * @param termSource Reads the current search term from the view
+     * @return DocumentListener to register on the search field
+     */
+    public DocumentListener createDocumentListener(Supplier<String> termSource) {
+        this.termSource = termSource;
+        return new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { debounceTimer.restart(); }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) { debounceTimer.restart(); }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) { debounceTimer.restart(); }
+        };
+    }
+
+    /**
+     * Run a search immediately, superseding any pending or running one
+     * @param searchTerm Search term
+     */
+    public void search(String searchTerm) {
+        debounceTimer.stop();
+
+        if (activeHandle != null) {
+            QueryHandle superseded = activeHandle;
+            cancelExecutor.execute(superseded::cancel);
+        }
+
+        long ticket = ++generation;
+        QueryHandle handle = new QueryHandle();
+        activeHandle = handle;
+
+        queryExecutor.execute(() -> {
+            if (handle.isCancelled()) {
+                return; // Superseded while queued
+            }
+
+            List<T> results;
+            try {
+                results = query.apply(searchTerm, handle);
+            } catch (RuntimeException e) {
+                System.err.println("Error running search: " + e.getMessage());
+                e.printStackTrace();
+                return;
+            }
+
+            SwingUtilities.invokeLater(() -> {
+                if (ticket != generation) {
+                    return; // A newer search owns the table
+                }
+                activeHandle = null;
+                resultHandler.accept(results);
+            });
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package controller;
+
+import model.ChangeFeed;
+import model.DBConnection;
+
+import javax.swing.SwingUtilities;
+import javax.swing.table.DefaultTableModel;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Keeps the dashboard tables current with changes made at other desks
+ * Subscribes to the hotel's change notices (see ChangeFeed) and hands each one to the
+ * controller of its table, which re-reads just the changed rows and updates them in place.
+ * After the broker connection drops and comes back every table is reloaded, since
+ * notices sent meanwhile were missed.
+ */
+public class LiveUpdates implements Closeable {
+    static final int MAX_ROWS = 50; // More changed rows than this reload the whole table
+
+    private final ChangeFeed.Subscription subscription;
+
+    public LiveUpdates(RoomController roomController, CustomerController customerController,
+                       BookingController bookingController) {
+        subscription = ChangeFeed.subscribe(new ChangeFeed.Listener() {
+            @Override
+            public void rowsChanged(ChangeFeed.Change change) {
+                // The other desk just committed; read its rows from the primary, not a lagging replica
+                DBConnection.markRemoteWrite();
+                SwingUtilities.invokeLater(() -> {
+                    switch (change.getTable()) {
+                        case ROOMS:
+                            roomController.applyChange(change);
+                            break;
+                        case CUSTOMERS:
+                            customerController.applyChange(change);
+                            break;
+                        case BOOKINGS:
+                            bookingController.applyChange(change);
+                            break;
+                    }
+                });
+            }
+
+            @Override
+            public void reconnected() {
+                SwingUtilities.invokeLater(() -> {
+                    roomController.refreshRooms();
+                    customerController.refreshCustomers();
+                    bookingController.refreshBookings();
+                });
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        subscription.close();
+    }
+
+    /**
+     * @return true if the change should reload its table instead of re-reading single rows
+     */
+    static boolean needsReload(ChangeFeed.Change change) {
+        return change.isReload() || change.getIds().size() > MAX_ROWS;
+    }
+
+    /**
+     * Re-read changed rows in the background
+     * @param ids IDs of the rows
+     * @param loader Loads one row, completing with null if it no longer exists
+     * @param apply Receives each ID and its row, or null for a deleted row, on the event dispatch thread
+     */
+    static <T> void fetch(List<Integer> ids, IntFunction<CompletableFuture<T>> loader, BiConsumer<Integer, T> apply) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            futures.add(loader.apply(id));
+        }
+        SwingFutures.onEdt(CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])), loaded -> {
+            for (int i = 0; i < ids.size(); i++) {
+                apply.accept(ids.get(i), futures.get(i).join());
+            }
+        });
+    }
+
+    /**
+     * Replace, add or remove one row of a table whose first column holds the row IDs
+     * @param model Table model
+     * @param id Row ID
+     * @param rowData New row, or null to remove the row
+     * @param insertAt Index to add the row at if the table does not show it yet, or -1 not to add it
+     */
+    static void updateRow(DefaultTableModel model, int id, Object[] rowData, int insertAt) {
+        int row = findRow(model, id);
+        if (rowData == null) {
+            if (row >= 0) {
+                model.removeRow(row);
+            }
+        } else if (row >= 0) {
+            for (int column = 0; column < rowData.length; column++) {
+                if (!Objects.equals(rowData[column], model.getValueAt(row, column))) {
+                    model.setValueAt(rowData[column], row, column);
+                }
+            }
+        } else if (insertAt >= 0) {
+            model.insertRow(Math.min(insertAt, model.getRowCount()), rowData);
+        }
+    }
+
+    /**
+     * @return Index of the row with the given ID, or -1
+     */
+    static int findRow(DefaultTableModel model, int id) {
+        String key = String.valueOf(id);
+        for (int row = 0; row < model.getRowCount(); row++) {
+            if (key.equals(String.valueOf(model.getValueAt(row, 0)))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+}
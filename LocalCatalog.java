@@ -0,0 +1,428 @@
+package model;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory catalog of rooms, customers and bookings for fast client start-up
+ * On start the catalog is restored from the local binary snapshot and then caught up
+ * with rows whose updated_at is at or after the snapshot's watermark. The watermark trails
+ * the database clock at the last catch-up by a safety margin, so a transaction that stamped
+ * its rows earlier but committed after that read is still picked up. The snapshot is
+ * rewritten periodically so the next start only has a small delta to fetch.
+ * Each hotel has its own partition and snapshot file; every method works on the current
+ * hotel's partition (see Hotel.currentId).
+ */
+public class LocalCatalog {
+    private static final Path SNAPSHOT_DIRECTORY =
+        Paths.get(System.getProperty("user.home"), ".hotel-management");
+
+    // Longer than any write transaction is expected to stay open
+    private static final long WATERMARK_LAG_MILLIS =
+        TimeUnit.SECONDS.toMillis(Long.getLong("hotel.catalog.watermarkLagSeconds", 300));
+
+    private static final Comparator<Timestamp> NEWEST_FIRST =
+        Comparator.nullsLast(Comparator.<Timestamp>reverseOrder());
+
+    private static final Map<Integer, Partition> partitions = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService snapshotScheduler;
+
+    /**
+     * One hotel's cached rows and watermarks, guarded by the partition itself
+     */
+    private static final class Partition {
+        final int hotelId;
+        Map<Integer, Room> rooms = new HashMap<>();
+        Map<Integer, Customer> customers = new HashMap<>();
+        Map<Integer, Booking> bookings = new HashMap<>();
+        long roomsWatermark;
+        long customersWatermark;
+        long bookingsWatermark;
+        boolean loaded;
+
+        Partition(int hotelId) {
+            this.hotelId = hotelId;
+        }
+    }
+
+    private static Partition partition() {
+        return partitions.computeIfAbsent(Hotel.currentId(), Partition::new);
+    }
+
+    private static Path defaultSnapshotFile() {
+        return SNAPSHOT_DIRECTORY.resolve("snapshot-" + Hotel.currentId() + ".bin");
+    }
+
+    /**
+     * Restore the catalog from the default snapshot file and catch up with the database
+     * @return true if the catalog is ready to serve reads
+     */
+    public static boolean warmStart() {
+        return warmStart(defaultSnapshotFile());
+    }
+
+    /**
+     * Restore the catalog from a snapshot file and catch up with the database
+     * Falls back to a full load when there is no usable snapshot.
+     * @param snapshotFile Snapshot file to restore from
+     * @return true if the catalog is ready to serve reads
+     */
+    public static boolean warmStart(Path snapshotFile) {
+        long startTime = System.nanoTime();
+        SnapshotStore.Snapshot snapshot = null;
+        try {
+            snapshot = SnapshotStore.read(snapshotFile);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable snapshot: " + e.getMessage());
+        }
+
+        if (snapshot != null) {
+            Partition partition = partition();
+            synchronized (partition) {
+                partition.rooms = indexRooms(snapshot.getRooms());
+                partition.customers = indexCustomers(snapshot.getCustomers());
+                partition.bookings = indexBookings(snapshot.getBookings());
+                partition.roomsWatermark = snapshot.getRoomsWatermark();
+                partition.customersWatermark = snapshot.getCustomersWatermark();
+                partition.bookingsWatermark = snapshot.getBookingsWatermark();
+                partition.loaded = true;
+            }
+            System.out.println(String.format("Restored %d rooms, %d customers, %d bookings from snapshot in %.0f ms",
+                snapshot.getRooms().size(), snapshot.getCustomers().size(), snapshot.getBookings().size(),
+                (System.nanoTime() - startTime) / 1_000_000.0));
+        }
+
+        return catchUp();
+    }
+
+    /**
+     * Fetch rows changed since the last catch-up and drop rows deleted from the database
+     * Performs a full load if the catalog has not been loaded yet.
+     * @return true if the catalog is up to date
+     */
+    public static boolean catchUp() {
+        Partition partition = partition();
+        int hotelId = partition.hotelId;
+        long roomsSince;
+        long customersSince;
+        long bookingsSince;
+        synchronized (partition) {
+            // A watermark of 0 means everything: a full load
+            roomsSince = partition.loaded ? partition.roomsWatermark : 0;
+            customersSince = partition.loaded ? partition.customersWatermark : 0;
+            bookingsSince = partition.loaded ? partition.bookingsWatermark : 0;
+        }
+
+        try (Connection conn = DBConnection.openStreamingConnection()) {
+            // Rows committed after this read, or stamped up to the lag before it, are re-read next time
+            long newWatermark = databaseTime(conn) - WATERMARK_LAG_MILLIS;
+
+            List<Room> changedRooms = new ArrayList<>();
+            try (PreparedStatement stmt = deltaQuery(conn, "SELECT * FROM rooms", hotelId, roomsSince);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changedRooms.add(new Room(
+                        rs.getInt("room_id"),
+                        rs.getString("room_number"),
+                        rs.getString("room_type"),
+                        Money.getMoney(rs, "price_per_night"),
+                        rs.getBoolean("is_available"),
+                        rs.getString("description")
+                    ));
+                }
+            }
+
+            List<Customer> changedCustomers = new ArrayList<>();
+            try (PreparedStatement stmt = deltaQuery(conn, "SELECT * FROM customers", hotelId, customersSince);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changedCustomers.add(new Customer(
+                        rs.getInt("customer_id"),
+                        rs.getString("first_name"),
+                        rs.getString("last_name"),
+                        rs.getString("email"),
+                        rs.getString("phone"),
+                        rs.getString("address"),
+                        rs.getTimestamp("created_at")
+                    ));
+                }
+            }
+
+            List<Booking> changedBookings = new ArrayList<>();
+            try (PreparedStatement stmt = deltaQuery(conn, "SELECT * FROM bookings", hotelId, bookingsSince);
+                 ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    changedBookings.add(new Booking(
+                        rs.getInt("booking_id"),
+                        rs.getInt("customer_id"),
+                        rs.getInt("room_id"),
+                        rs.getDate("check_in_date").toLocalDate(),
+                        rs.getDate("check_out_date").toLocalDate(),
+                        Money.getMoney(rs, "total_amount"),
+                        Booking.BookingStatus.valueOf(rs.getString("booking_status")),
+                        rs.getTimestamp("created_at")
+                    ));
+                }
+            }
+
+            synchronized (partition) {
+                if (!partition.loaded) {
+                    partition.rooms = new HashMap<>();
+                    partition.customers = new HashMap<>();
+                    partition.bookings = new HashMap<>();
+                }
+                for (Room room : changedRooms) {
+                    partition.rooms.put(room.getRoomId(), room);
+                }
+                for (Customer customer : changedCustomers) {
+                    partition.customers.put(customer.getCustomerId(), customer);
+                }
+                for (Booking booking : changedBookings) {
+                    partition.bookings.put(booking.getBookingId(), booking);
+                }
+                partition.roomsWatermark = Math.max(partition.roomsWatermark, newWatermark);
+                partition.customersWatermark = Math.max(partition.customersWatermark, newWatermark);
+                partition.bookingsWatermark = Math.max(partition.bookingsWatermark, newWatermark);
+                partition.loaded = true;
+            }
+
+            // updated_at cannot show deletes; compare counts and prune only when they differ
+            pruneDeleted(conn, partition, "rooms", "room_id", partition.rooms);
+            pruneDeleted(conn, partition, "customers", "customer_id", partition.customers);
+            pruneDeleted(conn, partition, "bookings", "booking_id", partition.bookings);
+
+            System.out.println("Catalog caught up: " + changedRooms.size() + " rooms, "
+                + changedCustomers.size() + " customers, " + changedBookings.size() + " bookings changed");
+            return true;
+
+        } catch (SQLException e) {
+            System.err.println("Error catching up catalog: " + e.getMessage());
+            e.printStackTrace();
+        }
+        synchronized (partition) {
+            return partition.loaded;
+        }
+    }
+
+    // The database's clock, which stamps updated_at; the client's may be skewed
+    private static long databaseTime(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP")) {
+            rs.next();
+            return rs.getTimestamp(1).getTime();
+        }
+    }
+
+    private static PreparedStatement deltaQuery(Connection conn, String select, int hotelId, long since) throws SQLException {
+        PreparedStatement stmt;
+        if (since > 0) {
+            // Later commits can share the watermark timestamp, so re-read the watermark instant itself
+            stmt = conn.prepareStatement(select + " WHERE hotel_id = ? AND updated_at >= ?",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setTimestamp(2, new Timestamp(since));
+        } else {
+            stmt = conn.prepareStatement(select + " WHERE hotel_id = ?",
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        }
+        stmt.setInt(1, hotelId);
+        stmt.setFetchSize(1000);
+        return stmt;
+    }
+
+    private static void pruneDeleted(Connection conn, Partition partition, String table, String idColumn,
+                                     Map<Integer, ?> cache) throws SQLException {
+        int cachedCount;
+        synchronized (partition) {
+            cachedCount = cache.size();
+        }
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM " + table + " WHERE hotel_id = ?")) {
+            stmt.setInt(1, partition.hotelId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == cachedCount) {
+                    return;
+                }
+            }
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT " + idColumn + " FROM " + table + " WHERE hotel_id = ?",
+                 ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setInt(1, partition.hotelId);
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        synchronized (partition) {
+            cache.keySet().retainAll(ids);
+        }
+    }
+
+    public static boolean isLoaded() {
+        Partition partition = partition();
+        synchronized (partition) {
+            return partition.loaded;
+        }
+    }
+
+    /**
+     * Get all rooms ordered by room number
+     * @return List of rooms
+     */
+    public static List<Room> getRooms() {
+        Partition partition = partition();
+        List<Room> result;
+        synchronized (partition) {
+            result = new ArrayList<>(partition.rooms.values());
+        }
+        result.sort(Comparator.comparing(Room::getRoomNumber, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    /**
+     * Get all customers, newest first
+     * @return List of customers
+     */
+    public static List<Customer> getCustomers() {
+        Partition partition = partition();
+        List<Customer> result;
+        synchronized (partition) {
+            result = new ArrayList<>(partition.customers.values());
+        }
+        result.sort(Comparator.comparing(Customer::getCreatedAt, NEWEST_FIRST));
+        return result;
+    }
+
+    /**
+     * Get all bookings, newest first, with customer and room display fields filled in
+     * @return List of bookings
+     */
+    public static List<Booking> getBookings() {
+        Partition partition = partition();
+        List<Booking> result;
+        synchronized (partition) {
+            result = new ArrayList<>(partition.bookings.size());
+            for (Booking booking : partition.bookings.values()) {
+                Customer customer = partition.customers.get(booking.getCustomerId());
+                Room room = partition.rooms.get(booking.getRoomId());
+                if (customer == null || room == null) {
+                    continue; // Same rows the joined query would leave out
+                }
+                booking.setCustomerName(customer.getFullName());
+                booking.setRoomNumber(room.getRoomNumber());
+                booking.setRoomType(room.getRoomType());
+                booking.setPricePerNight(room.getPricePerNight());
+                result.add(booking);
+            }
+        }
+        result.sort(Comparator.comparing(Booking::getCreatedAt, NEWEST_FIRST));
+        return result;
+    }
+
+    /**
+     * Write the current catalog to the default snapshot file
+     * @return true if the snapshot was written
+     */
+    public static boolean writeSnapshot() {
+        return writeSnapshot(defaultSnapshotFile());
+    }
+
+    /**
+     * Write the current catalog to a snapshot file
+     * @param snapshotFile File to write
+     * @return true if the snapshot was written
+     */
+    public static boolean writeSnapshot(Path snapshotFile) {
+        Partition partition = partition();
+        SnapshotStore.Snapshot snapshot;
+        synchronized (partition) {
+            if (!partition.loaded) {
+                return false;
+            }
+            snapshot = new SnapshotStore.Snapshot(
+                new ArrayList<>(partition.rooms.values()),
+                new ArrayList<>(partition.customers.values()),
+                new ArrayList<>(partition.bookings.values()),
+                partition.roomsWatermark, partition.customersWatermark, partition.bookingsWatermark);
+        }
+
+        try {
+            SnapshotStore.write(snapshotFile, snapshot);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Catch up and rewrite the snapshot of every loaded hotel at a fixed interval in the background
+     * @param intervalMinutes Minutes between snapshots
+     */
+    public static synchronized void startPeriodicSnapshots(long intervalMinutes) {
+        if (snapshotScheduler != null) {
+            return;
+        }
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            for (int hotelId : partitions.keySet()) {
+                Hotel.callAs(hotelId, () -> catchUp() && writeSnapshot());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Stop periodic snapshots
+     */
+    public static synchronized void stopPeriodicSnapshots() {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+            snapshotScheduler = null;
+        }
+    }
+
+    private static Map<Integer, Room> indexRooms(List<Room> list) {
+        Map<Integer, Room> index = new HashMap<>(list.size() * 2);
+        for (Room room : list) {
+            index.put(room.getRoomId(), room);
+        }
+        return index;
+    }
+
+    private static Map<Integer, Customer> indexCustomers(List<Customer> list) {
+        Map<Integer, Customer> index = new HashMap<>(list.size() * 2);
+        for (Customer customer : list) {
+            index.put(customer.getCustomerId(), customer);
+        }
+        return index;
+    }
+
+    private static Map<Integer, Booking> indexBookings(List<Booking> list) {
+        Map<Integer, Booking> index = new HashMap<>(list.size() * 2);
+        for (Booking booking : list) {
+            index.put(booking.getBookingId(), booking);
+        }
+        return index;
+    }
+}
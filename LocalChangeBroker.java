@@ -0,0 +1,240 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded publish/subscribe broker for the Hotel Management System
+ * A local stand-in for the Redis server that carries change notices (see ChangeFeed). It
+ * speaks the part of the Redis protocol the clients use (SUBSCRIBE, UNSUBSCRIBE, PUBLISH,
+ * PING and QUIT) on the loopback interface and keeps nothing once a message is delivered.
+ */
+public class LocalChangeBroker implements Closeable {
+    private final ServerSocket serverSocket;
+    private final Map<String, Set<Session>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong published = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * One client connection; replies and pushed messages are written under its lock
+     */
+    private final class Session {
+        final Socket socket;
+        final OutputStream out;
+        final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+        Session(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        synchronized void send(byte[] reply) throws IOException {
+            out.write(reply);
+            out.flush();
+        }
+    }
+
+    /**
+     * Start listening on the loopback interface
+     * @param port Port to listen on, or 0 for any free port
+     */
+    public LocalChangeBroker(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::acceptConnections, "change-broker-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Number of messages published so far
+     */
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Set<Session> sessions : subscribers.values()) {
+            for (Session session : sessions) {
+                session.socket.close();
+            }
+        }
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread session = new Thread(() -> handleSession(socket), "change-broker-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Error accepting broker connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleSession(Socket socket) {
+        Session session = null;
+        try (socket) {
+            session = new Session(socket);
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            List<String> command;
+            while ((command = readCommand(in)) != null) {
+                if (command.isEmpty()) {
+                    continue;
+                }
+                String name = command.get(0).toUpperCase(Locale.ROOT);
+                switch (name) {
+                    case "SUBSCRIBE":
+                        for (String channel : command.subList(1, command.size())) {
+                            subscribers.computeIfAbsent(channel, c -> new CopyOnWriteArraySet<>()).add(session);
+                            session.channels.add(channel);
+                            session.send(subscription("subscribe", channel, session.channels.size()));
+                        }
+                        break;
+                    case "UNSUBSCRIBE":
+                        List<String> channels = command.size() > 1
+                            ? command.subList(1, command.size()) : new ArrayList<>(session.channels);
+                        for (String channel : channels) {
+                            unsubscribe(session, channel);
+                            session.send(subscription("unsubscribe", channel, session.channels.size()));
+                        }
+                        break;
+                    case "PUBLISH":
+                        if (command.size() != 3) {
+                            session.send(error("wrong number of arguments for 'publish' command"));
+                        } else {
+                            session.send((":" + publish(command.get(1), command.get(2)) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                        }
+                        break;
+                    case "PING":
+                        session.send("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+                        break;
+                    case "QUIT":
+                        session.send("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                        return;
+                    default:
+                        session.send(error("unknown command '" + command.get(0) + "'"));
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("Broker session ended: " + e.getMessage());
+            }
+        } finally {
+            if (session != null) {
+                for (String channel : new ArrayList<>(session.channels)) {
+                    unsubscribe(session, channel);
+                }
+            }
+        }
+    }
+
+    private int publish(String channel, String message) {
+        published.incrementAndGet();
+        Set<Session> sessions = subscribers.get(channel);
+        if (sessions == null) {
+            return 0;
+        }
+        byte[] push = array("message", channel, message);
+        int delivered = 0;
+        for (Session session : sessions) {
+            try {
+                session.send(push);
+                delivered++;
+            } catch (IOException e) {
+                unsubscribe(session, channel); // Its session thread will notice the broken socket
+            }
+        }
+        return delivered;
+    }
+
+    private void unsubscribe(Session session, String channel) {
+        session.channels.remove(channel);
+        Set<Session> sessions = subscribers.get(channel);
+        if (sessions != null) {
+            sessions.remove(session);
+        }
+    }
+
+    // Reads one command: an array of bulk strings, or an inline command typed on one line
+    private static List<String> readCommand(InputStream in) throws IOException {
+        String line = ChangeFeed.readLine(in);
+        if (line == null) {
+            return null;
+        }
+        List<String> command = new ArrayList<>();
+        if (!line.startsWith("*")) {
+            for (String part : line.trim().split("\\s+")) {
+                if (!part.isEmpty()) {
+                    command.add(part);
+                }
+            }
+            return command;
+        }
+        int count = Integer.parseInt(line.substring(1));
+        for (int i = 0; i < count; i++) {
+            String header = ChangeFeed.readLine(in);
+            if (header == null || !header.startsWith("$")) {
+                throw new IOException("Expected a bulk string, got: " + header);
+            }
+            int length = Integer.parseInt(header.substring(1));
+            byte[] bytes = in.readNBytes(length + 2);
+            if (bytes.length < length + 2) {
+                return null;
+            }
+            command.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+        return command;
+    }
+
+    private static byte[] subscription(String kind, String channel, int count) {
+        StringBuilder reply = new StringBuilder("*3\r\n");
+        appendBulk(reply, kind);
+        appendBulk(reply, channel);
+        reply.append(':').append(count).append("\r\n");
+        return reply.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] array(String... items) {
+        StringBuilder reply = new StringBuilder("*").append(items.length).append("\r\n");
+        for (String item : items) {
+            appendBulk(reply, item);
+        }
+        return reply.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendBulk(StringBuilder reply, String value) {
+        reply.append('$').append(value.getBytes(StandardCharsets.UTF_8).length).append("\r\n").append(value).append("\r\n");
+    }
+
+    private static byte[] error(String message) {
+        return ("-ERR " + message + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,245 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded SMTP server for the Hotel Management System
+ * A local stand-in for the mail relay: it accepts every message on the loopback
+ * interface, keeps it in memory and optionally writes it to a directory as an .eml
+ * file. Nothing is delivered onwards. It can be told to answer the next few messages
+ * with a temporary failure to exercise the outbox retries.
+ */
+public class LocalSmtpServer implements Closeable {
+    /**
+     * A message accepted by the server
+     */
+    public static class ReceivedMessage {
+        private final String from;
+        private final List<String> recipients;
+        private final byte[] data;
+
+        ReceivedMessage(String from, List<String> recipients, byte[] data) {
+            this.from = from;
+            this.recipients = Collections.unmodifiableList(new ArrayList<>(recipients));
+            this.data = data;
+        }
+
+        public String getFrom() { return from; }
+        public List<String> getRecipients() { return recipients; }
+        public byte[] getData() { return data; }
+
+        public String getText() {
+            return new String(data, StandardCharsets.UTF_8);
+        }
+    }
+
+    private final ServerSocket serverSocket;
+    private final Path mailDir;
+    private final List<ReceivedMessage> received = new CopyOnWriteArrayList<>();
+    private final AtomicInteger temporaryFailures = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean running = true;
+
+    /**
+     * Start listening on the loopback interface
+     * @param port Port to listen on, or 0 for any free port
+     * @param mailDir Directory to write received messages to, or null to keep them in memory only
+     */
+    public LocalSmtpServer(int port, Path mailDir) throws IOException {
+        this.mailDir = mailDir;
+        if (mailDir != null) {
+            Files.createDirectories(mailDir);
+        }
+        serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        Thread acceptThread = new Thread(this::acceptConnections, "smtp-sink-accept");
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return Messages accepted so far, oldest first
+     */
+    public List<ReceivedMessage> getReceived() {
+        return Collections.unmodifiableList(received);
+    }
+
+    /**
+     * Answer the next messages with 451 instead of accepting them
+     * @param count Number of messages to refuse
+     */
+    public void setTemporaryFailures(int count) {
+        temporaryFailures.set(count);
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+    }
+
+    private void acceptConnections() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread session = new Thread(() -> handleSession(socket), "smtp-sink-session");
+                session.setDaemon(true);
+                session.start();
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("Error accepting SMTP connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void handleSession(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = socket.getOutputStream();
+            ByteArrayOutputStream lineBuffer = new ByteArrayOutputStream(256);
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+
+            write(out, "220 localhost Hotel Management SMTP sink ready");
+            String line;
+            while ((line = readLine(in, lineBuffer)) != null) {
+                String verb = (line.length() >= 4 ? line.substring(0, 4) : line).toUpperCase(Locale.ROOT);
+                switch (verb) {
+                    case "EHLO":
+                        write(out, "250-localhost\r\n250-8BITMIME\r\n250 AUTH PLAIN");
+                        break;
+                    case "HELO":
+                    case "NOOP":
+                        write(out, "250 OK");
+                        break;
+                    case "AUTH":
+                        write(out, "235 Authentication succeeded");
+                        break;
+                    case "MAIL":
+                        from = address(line);
+                        recipients.clear();
+                        write(out, "250 OK");
+                        break;
+                    case "RCPT":
+                        if (from == null) {
+                            write(out, "503 MAIL first");
+                        } else {
+                            recipients.add(address(line));
+                            write(out, "250 OK");
+                        }
+                        break;
+                    case "DATA":
+                        if (recipients.isEmpty()) {
+                            write(out, "503 RCPT first");
+                            break;
+                        }
+                        write(out, "354 End data with <CR><LF>.<CR><LF>");
+                        byte[] data = readData(in, lineBuffer);
+                        if (temporaryFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                            write(out, "451 Try again later");
+                        } else {
+                            accept(from, recipients, data);
+                            write(out, "250 OK queued as " + sequence.get());
+                        }
+                        from = null;
+                        recipients.clear();
+                        break;
+                    case "RSET":
+                        from = null;
+                        recipients.clear();
+                        write(out, "250 OK");
+                        break;
+                    case "QUIT":
+                        write(out, "221 Bye");
+                        return;
+                    default:
+                        write(out, "502 Command not implemented");
+                        break;
+                }
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.err.println("SMTP sink session error: " + e.getMessage());
+            }
+        }
+    }
+
+    private void accept(String from, List<String> recipients, byte[] data) {
+        received.add(new ReceivedMessage(from, recipients, data));
+        long id = sequence.incrementAndGet();
+        if (mailDir != null) {
+            try {
+                Files.write(mailDir.resolve(System.currentTimeMillis() + "-" + id + ".eml"), data);
+            } catch (IOException e) {
+                System.err.println("Error writing received mail: " + e.getMessage());
+            }
+        }
+    }
+
+    // Reads message lines up to the lone "." and undoes dot-stuffing
+    private static byte[] readData(InputStream in, ByteArrayOutputStream lineBuffer) throws IOException {
+        ByteArrayOutputStream data = new ByteArrayOutputStream(4096);
+        String line;
+        while ((line = readLine(in, lineBuffer)) != null) {
+            if (line.equals(".")) {
+                break;
+            }
+            String text = line.startsWith(".") ? line.substring(1) : line;
+            data.write(text.getBytes(StandardCharsets.UTF_8));
+            data.write('\r');
+            data.write('\n');
+        }
+        return data.toByteArray();
+    }
+
+    private static String address(String line) {
+        int open = line.indexOf('<');
+        int close = line.indexOf('>', open + 1);
+        if (open >= 0 && close > open) {
+            return line.substring(open + 1, close);
+        }
+        int colon = line.indexOf(':');
+        return colon >= 0 ? line.substring(colon + 1).trim() : "";
+    }
+
+    private static void write(OutputStream out, String reply) throws IOException {
+        out.write((reply + "\r\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private static String readLine(InputStream in, ByteArrayOutputStream buffer) throws IOException {
+        buffer.reset();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c < 0) {
+                return buffer.size() > 0 ? buffer.toString(StandardCharsets.UTF_8) : null;
+            }
+            buffer.write(c);
+        }
+        byte[] bytes = buffer.toByteArray();
+        int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+}
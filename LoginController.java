@@ -1,6 +1,10 @@
 package controller;
 
+import model.BookingJournal;
 import model.DBConnection;
+import model.Hotel;
+import model.LocalCatalog;
+import model.MailDispatcher;
 import view.LoginView;
 import view.AdminDashboard;
 
@@ -11,15 +15,19 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 /**
  * Login Controller for the Hotel Management System
  * Handles authentication logic and navigation
  */
 public class LoginController {
+    private static final long SNAPSHOT_INTERVAL_MINUTES = 5;
+    
     private LoginView loginView;
     private AdminDashboard adminDashboard;
     private boolean isAuthenticated = false;
+    private LiveUpdates liveUpdates;
     
     public LoginController() {
         initializeDatabase();
@@ -39,11 +47,19 @@ public class LoginController {
                 "Database Error", 
                 JOptionPane.ERROR_MESSAGE);
         }
+        
+        // Booking changes are journaled locally and replayed, including any left from the last run
+        try {
+            BookingJournal.open();
+        } catch (Exception e) {
+            System.err.println("Error opening booking journal, writing bookings directly: " + e.getMessage());
+        }
     }
     
     private void initializeViews() {
         loginView = new LoginView();
         adminDashboard = new AdminDashboard();
+        new DiagnosticsController(adminDashboard); // Metrics cover the whole process, not a login session
     }
     
     private void setupEventHandlers() {
@@ -120,7 +136,7 @@ public class LoginController {
                     SwingUtilities.invokeLater(() -> {
                         loginView.setVisible(false);
                         adminDashboard.setVisible(true);
-                        adminDashboard.refreshStatsButton.doClick(); // Refresh statistics on login
+                        adminDashboard.refreshStatistics(); // Refresh statistics on login
                     });
                 } else {
                     loginView.showErrorMessage("Invalid username or password!");
@@ -161,9 +177,24 @@ public class LoginController {
     private void initializeOtherControllers() {
         // Initialize other controllers that need the authenticated session
         try {
+            selectHotel();
+
+            // Restore the local catalog so the tables fill without a full reload
+            if (LocalCatalog.warmStart()) {
+                LocalCatalog.startPeriodicSnapshots(SNAPSHOT_INTERVAL_MINUTES);
+            }
+            MailDispatcher.start();
+            
             RoomController roomController = new RoomController(adminDashboard);
             CustomerController customerController = new CustomerController(adminDashboard);
             BookingController bookingController = new BookingController(adminDashboard);
+            ReportController reportController = new ReportController(adminDashboard);
+            
+            // Follow changes made at other desks
+            if (liveUpdates != null) {
+                liveUpdates.close();
+            }
+            liveUpdates = new LiveUpdates(roomController, customerController, bookingController);
             
             System.out.println("All controllers initialized successfully!");
         } catch (Exception e) {
@@ -175,6 +206,33 @@ public class LoginController {
         }
     }
     
+    /**
+     * Ask which hotel to work for when the group has more than one
+     */
+    private void selectHotel() {
+        List<Hotel> hotels = Hotel.getAllHotels();
+        Hotel selected = hotels.stream()
+            .filter(hotel -> hotel.getHotelId() == Hotel.currentId())
+            .findFirst()
+            .orElse(hotels.isEmpty() ? null : hotels.get(0));
+        if (hotels.size() > 1) {
+            Object choice = JOptionPane.showInputDialog(adminDashboard,
+                "Select the hotel to manage:",
+                "Select Hotel",
+                JOptionPane.QUESTION_MESSAGE,
+                null,
+                hotels.toArray(),
+                selected);
+            if (choice != null) {
+                selected = (Hotel) choice;
+            }
+        }
+        if (selected != null) {
+            Hotel.setDefaultHotelId(selected.getHotelId());
+            adminDashboard.setTitle("Hotel Management System - " + selected.getName());
+        }
+    }
+    
     private void handleLogout() {
         int result = JOptionPane.showConfirmDialog(adminDashboard, 
             "Are you sure you want to logout?", 
@@ -183,6 +241,10 @@ public class LoginController {
         
         if (result == JOptionPane.YES_OPTION) {
             isAuthenticated = false;
+            if (liveUpdates != null) {
+                liveUpdates.close();
+                liveUpdates = null;
+            }
             adminDashboard.setVisible(false);
             loginView.clearFields();
             loginView.setVisible(true);
@@ -198,6 +260,14 @@ public class LoginController {
             JOptionPane.YES_NO_OPTION);
         
         if (result == JOptionPane.YES_OPTION) {
+            // Leave a fresh snapshot for the next start
+            LocalCatalog.stopPeriodicSnapshots();
+            MailDispatcher.stop();
+            BookingJournal.closeJournal();
+            if (LocalCatalog.isLoaded() && LocalCatalog.catchUp()) {
+                LocalCatalog.writeSnapshot();
+            }
+            
             try {
                 DBConnection.closeConnection();
                 System.out.println("Database connection closed.");
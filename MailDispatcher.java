@@ -0,0 +1,144 @@
+package model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background mail dispatcher for the Hotel Management System
+ * Drains the email outbox on one daemon thread: it claims due messages in batches,
+ * sends each batch over a single SMTP session and records the outcome of every
+ * message. The outbox is polled on a fixed delay and drained immediately when
+ * wake() is called after queuing. The SMTP relay is set with the system properties
+ * hotel.smtp.host, hotel.smtp.port, hotel.smtp.user, hotel.smtp.password and
+ * hotel.mail.from; the defaults point at LocalSmtpServer on localhost:2525.
+ */
+public class MailDispatcher {
+    public static final String SMTP_HOST = System.getProperty("hotel.smtp.host", "localhost");
+    public static final int SMTP_PORT = Integer.getInteger("hotel.smtp.port", 2525);
+    private static final String SMTP_USER = System.getProperty("hotel.smtp.user");
+    private static final String SMTP_PASSWORD = System.getProperty("hotel.smtp.password", "");
+    private static final String MAIL_FROM = System.getProperty("hotel.mail.from", "billing@grandhotel.com");
+    private static final String MAIL_DOMAIN = MAIL_FROM.substring(MAIL_FROM.indexOf('@') + 1);
+    private static final int TIMEOUT_MILLIS = 30000;
+    private static final int BATCH_SIZE = 50;
+    private static final long POLL_SECONDS = 60;
+
+    private static ScheduledExecutorService dispatcher;
+    private static final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    /**
+     * Start polling the outbox
+     */
+    public static synchronized void start() {
+        if (dispatcher != null) {
+            return;
+        }
+        dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "mail-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.scheduleWithFixedDelay(MailDispatcher::drainQuietly, 0, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop polling; messages being sent finish, the rest stay queued for the next start
+     */
+    public static synchronized void stop() {
+        if (dispatcher != null) {
+            dispatcher.shutdown();
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Drain the outbox now instead of at the next poll
+     * Returns immediately; wakes arriving while a drain is queued are merged into it
+     */
+    public static synchronized void wake() {
+        if (dispatcher != null && drainQueued.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                drainQueued.set(false);
+                drainQuietly();
+            });
+        }
+    }
+
+    private static void drainQuietly() {
+        try {
+            drain(SMTP_HOST, SMTP_PORT);
+        } catch (RuntimeException e) {
+            // Keep the scheduled task alive for the next poll
+            System.err.println("Mail dispatcher error: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Send every due message in the outbox
+     * @param host SMTP host
+     * @param port SMTP port
+     * @return Number of messages delivered
+     */
+    public static int drain(String host, int port) {
+        int delivered = 0;
+        while (true) {
+            List<EmailOutbox.OutboxMessage> batch = EmailOutbox.claimBatch(BATCH_SIZE);
+            if (batch.isEmpty()) {
+                return delivered;
+            }
+            int sent = sendBatch(host, port, batch);
+            delivered += sent;
+            // A batch that lost its connection is rescheduled; stop instead of hammering the relay
+            if (sent == 0 || batch.size() < BATCH_SIZE) {
+                return delivered;
+            }
+        }
+    }
+
+    private static int sendBatch(String host, int port, List<EmailOutbox.OutboxMessage> batch) {
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        int next = 0;
+        try (SmtpClient client = new SmtpClient(host, port, TIMEOUT_MILLIS)) {
+            client.hello(MAIL_DOMAIN);
+            if (SMTP_USER != null) {
+                client.login(SMTP_USER, SMTP_PASSWORD);
+            }
+
+            for (; next < batch.size(); next++) {
+                EmailOutbox.OutboxMessage message = batch.get(next);
+                byte[] data = SmtpClient.buildMessage("outbox-" + message.getOutboxId() + "@" + MAIL_DOMAIN,
+                    MAIL_FROM, message.getRecipient(), message.getSubject(), message.getBody(),
+                    message.getAttachmentName(), message.getAttachment());
+                try {
+                    client.send(MAIL_FROM, message.getRecipient(), data);
+                    sentIds.add(message.getOutboxId());
+                } catch (SmtpClient.SmtpException e) {
+                    // The server refused this message; the session is still usable for the rest
+                    EmailOutbox.Status status = EmailOutbox.markFailed(message, e.getMessage(), e.isPermanent());
+                    System.err.println("Email " + message.getOutboxId() + " to " + message.getRecipient()
+                        + " refused (" + status + "): " + e.getMessage());
+                    try {
+                        client.reset();
+                    } catch (IOException resetError) {
+                        next++; // Already recorded above
+                        throw resetError;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Connection lost: everything not yet sent in this batch is retried later
+            System.err.println("Error sending email batch: " + e.getMessage());
+            for (; next < batch.size(); next++) {
+                EmailOutbox.markFailed(batch.get(next), e.getMessage(), false);
+            }
+        }
+        EmailOutbox.markSent(sentIds);
+        return sentIds.size();
+    }
+}
@@ -1,6 +1,29 @@
+import controller.EdtWatchdog;
 import controller.LoginController;
+import model.ApiServer;
+import model.BookingEvents;
+import model.BookingExporter;
+import model.BulkImporter;
+import model.ChangeFeed;
+import model.InvoiceBatch;
+import model.InvoiceRenderer;
+import model.LocalChangeBroker;
+import model.LocalSmtpServer;
+import model.MailDispatcher;
+import model.MetricsServer;
+import model.NightAudit;
+import model.RevenueRollup;
 
 import javax.swing.UIManager;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
 import javax.swing.UnsupportedLookAndFeelException;
 
 /**
@@ -9,9 +32,63 @@ import javax.swing.UnsupportedLookAndFeelException;
  */
 public class Main {
     public static void main(String[] args) {
+        // Prometheus endpoint for JDBC statement metrics: -Dhotel.metrics.port=N
+        MetricsServer.startIfConfigured();
+        
+        // Headless bulk import: --import <rooms|customers|bookings> <file.csv> [options]
+        if (args.length > 0 && args[0].equals("--import")) {
+            System.exit(runImport(args) ? 0 : 1);
+        }
+        
+        // Headless booking export: --export <csv|jsonl> <file> [options]
+        if (args.length > 0 && args[0].equals("--export")) {
+            System.exit(runExport(args) ? 0 : 1);
+        }
+        
+        // Headless night audit: --night-audit [options]
+        if (args.length > 0 && args[0].equals("--night-audit")) {
+            System.exit(runNightAudit(args) ? 0 : 1);
+        }
+        
+        // Headless month-end invoices: --invoices <pdf|text> <output-dir> [options]
+        if (args.length > 0 && args[0].equals("--invoices")) {
+            System.exit(runInvoices(args) ? 0 : 1);
+        }
+        
+        // Headless revenue rollup rebuild: --revenue-backfill [options]
+        if (args.length > 0 && args[0].equals("--revenue-backfill")) {
+            System.exit(runRevenueBackfill(args) ? 0 : 1);
+        }
+        
+        // Headless booking projection rebuild: --rebuild-bookings [options]
+        if (args.length > 0 && args[0].equals("--rebuild-bookings")) {
+            System.exit(runRebuildBookings(args) ? 0 : 1);
+        }
+        
+        // Headless outbox drain: --send-mail
+        if (args.length > 0 && args[0].equals("--send-mail")) {
+            System.out.println("Delivered " + MailDispatcher.drain(MailDispatcher.SMTP_HOST, MailDispatcher.SMTP_PORT) + " emails");
+            System.exit(0);
+        }
+        
+        // Local SMTP stand-in for development: --mail-sink [options]
+        if (args.length > 0 && args[0].equals("--mail-sink")) {
+            System.exit(runMailSink(args) ? 0 : 1);
+        }
+        
+        // Local change broker stand-in for development: --change-broker [options]
+        if (args.length > 0 && args[0].equals("--change-broker")) {
+            System.exit(runChangeBroker(args) ? 0 : 1);
+        }
+        
+        // Headless HTTP API: --server [options]
+        if (args.length > 0 && args[0].equals("--server")) {
+            System.exit(runServer(args) ? 0 : 1);
+        }
+        
         // Set system look and feel for better appearance
         try {
-            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeel());
+            UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (ClassNotFoundException | InstantiationException | 
                  IllegalAccessException | UnsupportedLookAndFeelException e) {
             System.err.println("Could not set system look and feel: " + e.getMessage());
@@ -21,6 +98,9 @@ public class Main {
         System.setProperty("swing.aatext", "true");
         System.setProperty("awt.useSystemAAFontSettings", "on");
         
+        // Report event handlers that freeze the screen: -Dhotel.ui.stallMillis=N
+        EdtWatchdog.install();
+        
         // Initialize and start the application
         try {
             System.out.println("Starting Hotel Management System...");
@@ -39,4 +119,399 @@ public class Main {
             );
         }
     }
+    
+    /**
+     * Run a bulk import from the command line
+     * Options: --batch-size N, --commit-interval N, --no-resume
+     * @return true if the import finished
+     */
+    private static boolean runImport(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: java Main --import <rooms|customers|bookings> <file.csv> "
+                    + "[--batch-size N] [--commit-interval N] [--no-resume]");
+            return false;
+        }
+        
+        BulkImporter.Target target;
+        try {
+            target = BulkImporter.Target.valueOf(args[1].toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown import target: " + args[1]);
+            return false;
+        }
+        Path csvFile = Paths.get(args[2]);
+        
+        BulkImporter importer = new BulkImporter();
+        try {
+            for (int i = 3; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--batch-size":
+                        importer.setBatchSize(Integer.parseInt(args[++i]));
+                        break;
+                    case "--commit-interval":
+                        importer.setCommitInterval(Integer.parseInt(args[++i]));
+                        break;
+                    case "--no-resume":
+                        importer.setResume(false);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        BulkImporter.ImportReport report = importer.importFile(target, csvFile);
+        System.out.println(report);
+        return report.isSuccessful();
+    }
+    
+    /**
+     * Run a streaming booking export from the command line
+     * Options: --gzip, --from yyyy-MM-dd, --to yyyy-MM-dd (check-in date range, end exclusive)
+     * @return true if the export finished
+     */
+    private static boolean runExport(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: java Main --export <csv|jsonl> <file> [--gzip] [--from yyyy-MM-dd] [--to yyyy-MM-dd]");
+            return false;
+        }
+        
+        BookingExporter exporter = new BookingExporter();
+        try {
+            exporter.setFormat(BookingExporter.Format.valueOf(args[1].toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown export format: " + args[1]);
+            return false;
+        }
+        Path outputFile = Paths.get(args[2]);
+        exporter.setGzip(args[2].endsWith(".gz"));
+        
+        try {
+            for (int i = 3; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--gzip":
+                        exporter.setGzip(true);
+                        break;
+                    case "--from":
+                        exporter.setFromDate(LocalDate.parse(args[++i]));
+                        break;
+                    case "--to":
+                        exporter.setToDate(LocalDate.parse(args[++i]));
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        return exporter.export(outputFile) >= 0;
+    }
+    
+    /**
+     * Run the night audit from the command line
+     * Options: --date yyyy-MM-dd, --threads N, --chunk-size N, --window-minutes N,
+     * --schedule HH:mm (keep running and audit every day at that time)
+     * @return true if the audit completed within its window
+     */
+    private static boolean runNightAudit(String[] args) {
+        NightAudit audit = new NightAudit();
+        LocalDate auditDate = LocalDate.now();
+        LocalTime scheduleAt = null;
+        
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--date":
+                        auditDate = LocalDate.parse(args[++i]);
+                        break;
+                    case "--threads":
+                        audit.setThreads(Integer.parseInt(args[++i]));
+                        break;
+                    case "--chunk-size":
+                        audit.setChunkSize(Integer.parseInt(args[++i]));
+                        break;
+                    case "--window-minutes":
+                        audit.setWindow(Duration.ofMinutes(Long.parseLong(args[++i])));
+                        break;
+                    case "--schedule":
+                        scheduleAt = LocalTime.parse(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        if (scheduleAt != null) {
+            audit.scheduleDaily(scheduleAt);
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+        
+        NightAudit.AuditReport report = audit.run(auditDate);
+        System.out.println(report);
+        return report.isCompleted() && report.getErrors() == 0;
+    }
+    
+    /**
+     * Render invoices for checked-out bookings from the command line
+     * Options: --month yyyy-MM, --from yyyy-MM-dd, --to yyyy-MM-dd (check-out date range, end exclusive),
+     * --threads N, --page-size N
+     * @return true if every invoice was written
+     */
+    private static boolean runInvoices(String[] args) {
+        if (args.length < 3) {
+            System.err.println("Usage: java Main --invoices <pdf|text> <output-dir> [--month yyyy-MM] "
+                    + "[--from yyyy-MM-dd] [--to yyyy-MM-dd] [--threads N] [--page-size N]");
+            return false;
+        }
+        
+        InvoiceBatch batch = new InvoiceBatch();
+        try {
+            batch.setFormat(InvoiceRenderer.Format.valueOf(args[1].toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Unknown invoice format: " + args[1]);
+            return false;
+        }
+        Path outputDir = Paths.get(args[2]);
+        
+        try {
+            for (int i = 3; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--month":
+                        YearMonth month = YearMonth.parse(args[++i]);
+                        batch.setFromDate(month.atDay(1));
+                        batch.setToDate(month.plusMonths(1).atDay(1));
+                        break;
+                    case "--from":
+                        batch.setFromDate(LocalDate.parse(args[++i]));
+                        break;
+                    case "--to":
+                        batch.setToDate(LocalDate.parse(args[++i]));
+                        break;
+                    case "--threads":
+                        batch.setThreads(Integer.parseInt(args[++i]));
+                        break;
+                    case "--page-size":
+                        batch.setPageSize(Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (DateTimeParseException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        InvoiceBatch.BatchReport report = batch.run(outputDir);
+        System.out.println(report);
+        return report.isCompleted() && report.getFailed() == 0;
+    }
+    
+    /**
+     * Rebuild the revenue rollups from the bookings table from the command line
+     * Options: --threads N, --chunk-size N
+     * @return true if the rollups were rebuilt
+     */
+    private static boolean runRevenueBackfill(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = 10000;
+        
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--chunk-size":
+                        chunkSize = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        return RevenueRollup.backfill(threads, chunkSize) >= 0;
+    }
+    
+    /**
+     * Rebuild bookings, room availability and revenue rollups from the booking events from the command line
+     * Options: --threads N, --chunk-size N
+     * @return true if the projections were rebuilt
+     */
+    private static boolean runRebuildBookings(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = 10000;
+        
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "--chunk-size":
+                        chunkSize = Math.max(1, Integer.parseInt(args[++i]));
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        return BookingEvents.rebuild(threads, chunkSize) >= 0;
+    }
+    
+    /**
+     * Run the local SMTP stand-in until the process is stopped
+     * Options: --port N (default 2525), --dir <directory> to save messages as .eml files
+     * @return false if the server could not start
+     */
+    private static boolean runMailSink(String[] args) {
+        int port = MailDispatcher.SMTP_PORT;
+        Path mailDir = null;
+        
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--dir":
+                        mailDir = Paths.get(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        try {
+            LocalSmtpServer server = new LocalSmtpServer(port, mailDir);
+            System.out.println("SMTP sink listening on localhost:" + server.getPort()
+                    + (mailDir != null ? ", saving messages to " + mailDir : ""));
+            Thread.currentThread().join();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error starting SMTP sink: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+    
+    /**
+     * Run the local change broker until the process is stopped
+     * Options: --port N (default 6379)
+     * @return false if the broker could not start
+     */
+    private static boolean runChangeBroker(String[] args) {
+        int port = ChangeFeed.BROKER_PORT;
+        
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        
+        try {
+            LocalChangeBroker broker = new LocalChangeBroker(port);
+            System.out.println("Change broker listening on localhost:" + broker.getPort());
+            Thread.currentThread().join();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error starting change broker: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+    
+    /**
+     * Run the HTTP API until the process is stopped
+     * Options: --port N (default 8080), --threads N (default: four per CPU)
+     * @return false if the server could not start
+     */
+    private static boolean runServer(String[] args) {
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors() * 4;
+        
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        return false;
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            return false;
+        }
+        if (threads < 1) {
+            System.err.println("--threads must be at least 1");
+            return false;
+        }
+        
+        try {
+            ApiServer server = new ApiServer(port, threads);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(2)));
+            System.out.println("HTTP API listening on port " + server.getPort() + " with " + threads + " worker threads");
+            Thread.currentThread().join();
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error starting HTTP API: " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
 }
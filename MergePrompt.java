@@ -0,0 +1,112 @@
+package controller;
+
+import javax.swing.*;
+import java.awt.Component;
+import java.awt.GridBagConstraints;
+import java.awt.GridBagLayout;
+import java.awt.Insets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Merge prompt for saves that lost an optimistic version check
+ * Lists each field where the user's edit and the record as it is now differ. A field keeps
+ * the user's value if they changed it and the current value otherwise; the user can switch
+ * any field before saving the merged record.
+ */
+public class MergePrompt {
+    /**
+     * One field of the record being merged
+     */
+    public static class Field {
+        private final String label;
+        private final String original;
+        private final String mine;
+        private final String theirs;
+        private final Runnable takeTheirs;
+
+        /**
+         * @param label Field label
+         * @param original Value when the edit dialog opened
+         * @param mine Value entered by the user
+         * @param theirs Value in the database now
+         * @param takeTheirs Sets the record being saved to the current value
+         */
+        public Field(String label, Object original, Object mine, Object theirs, Runnable takeTheirs) {
+            this.label = label;
+            this.original = text(original);
+            this.mine = text(mine);
+            this.theirs = text(theirs);
+            this.takeTheirs = takeTheirs;
+        }
+
+        private static String text(Object value) {
+            return value != null ? value.toString() : "";
+        }
+    }
+
+    /**
+     * Ask the user how to merge their edit with the current record
+     * @param parent Parent component
+     * @param record Name of the record, e.g. "Booking #12"
+     * @param fields Fields of the record
+     * @return true to save, with the chosen current values applied; false if the user cancelled
+     */
+    public static boolean show(Component parent, String record, List<Field> fields) {
+        List<Field> differing = new ArrayList<>();
+        for (Field field : fields) {
+            if (!field.mine.equals(field.theirs)) {
+                differing.add(field);
+            }
+        }
+        if (differing.isEmpty()) {
+            return true; // Only fields outside the dialog changed
+        }
+
+        JPanel panel = new JPanel(new GridBagLayout());
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(4, 8, 4, 8);
+        gbc.anchor = GridBagConstraints.WEST;
+
+        gbc.gridy = 0;
+        gbc.gridx = 0;
+        gbc.gridwidth = 4;
+        panel.add(new JLabel(record + " was changed by someone else while you were editing it."), gbc);
+        gbc.gridwidth = 1;
+
+        gbc.gridy = 1;
+        String[] headers = {"Field", "Your value", "Current value", "Keep yours"};
+        for (int i = 0; i < headers.length; i++) {
+            gbc.gridx = i;
+            panel.add(new JLabel("<html><b>" + headers[i] + "</b></html>"), gbc);
+        }
+
+        List<JCheckBox> keepMine = new ArrayList<>();
+        for (Field field : differing) {
+            gbc.gridy++;
+            gbc.gridx = 0;
+            panel.add(new JLabel(field.label + ":"), gbc);
+            gbc.gridx = 1;
+            panel.add(new JLabel(field.mine), gbc);
+            gbc.gridx = 2;
+            panel.add(new JLabel(field.theirs), gbc);
+            gbc.gridx = 3;
+            JCheckBox checkBox = new JCheckBox("", !Objects.equals(field.mine, field.original));
+            keepMine.add(checkBox);
+            panel.add(checkBox, gbc);
+        }
+
+        int choice = JOptionPane.showConfirmDialog(parent, panel, "Merge Changes",
+            JOptionPane.OK_CANCEL_OPTION, JOptionPane.WARNING_MESSAGE);
+        if (choice != JOptionPane.OK_OPTION) {
+            return false;
+        }
+        for (int i = 0; i < differing.size(); i++) {
+            if (!keepMine.get(i).isSelected()) {
+                differing.get(i).takeTheirs.run();
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prometheus scrape endpoint for the Hotel Management System
+ * Serves the JDBC statement metrics (see SqlMetrics) in the text exposition format at
+ * /metrics on the loopback interface. Started by Main for any mode when
+ * -Dhotel.metrics.port is set.
+ */
+public class MetricsServer {
+    public static final String PORT_PROPERTY = "hotel.metrics.port";
+
+    private static MetricsServer running;
+
+    private final HttpServer server;
+
+    /**
+     * Start serving
+     * @param port Port to listen on, or 0 for any free port
+     */
+    public MetricsServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 16);
+        server.createContext("/metrics", exchange -> {
+            try (exchange) {
+                if (!exchange.getRequestMethod().equals("GET")) {
+                    exchange.sendResponseHeaders(405, -1);
+                    return;
+                }
+                StringBuilder text = new StringBuilder(8192);
+                SqlMetrics.writePrometheus(text);
+                byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.start(); // Single dispatcher thread; a scrape only reads counters
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * Start the endpoint on the port given by -Dhotel.metrics.port, if any
+     * @return true if the endpoint is running or was not asked for
+     */
+    public static synchronized boolean startIfConfigured() {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null || running != null) {
+            return true;
+        }
+        try {
+            running = new MetricsServer(Integer.parseInt(port));
+            System.out.println("Metrics at http://localhost:" + running.getPort() + "/metrics");
+            return true;
+        } catch (NumberFormatException | IOException e) {
+            System.err.println("Error starting metrics endpoint on port " + port + ": " + e.getMessage());
+        }
+        return false;
+    }
+}
@@ -0,0 +1,294 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable money amount for the Hotel Management System
+ * Stored as a whole number of minor units (cents) with its currency, so sums are exact.
+ * Formatting writes digits straight into a StringBuilder, and the display string is cached
+ * so table cells can repaint without formatting again.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    private static final Map<Currency, String> SYMBOLS = new ConcurrentHashMap<>();
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+
+    private final long minorUnits;
+    private final Currency currency;
+    private String text; // Cached toString(); recomputing it gives the same value
+
+    private Money(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * @param minorUnits Amount in cents
+     * @return Amount in the default currency
+     */
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * @param minorUnits Amount in the currency's minor units
+     * @param currency Currency of the amount
+     * @return Amount in the given currency
+     */
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return currency.equals(DEFAULT_CURRENCY) ? ofMinor(minorUnits) : new Money(minorUnits, currency);
+    }
+
+    /**
+     * Convert a decimal amount, rounding half up to the currency's minor unit
+     * @param amount Decimal amount, e.g. from a DECIMAL(10,2) column
+     * @return Amount in the default currency, or null if amount is null
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Convert a decimal amount
+     * @param amount Decimal amount
+     * @param currency Currency of the amount
+     * @param rounding How to round digits beyond the minor unit
+     * @return Amount in the given currency, or null if amount is null
+     */
+    public static Money of(BigDecimal amount, Currency currency, RoundingMode rounding) {
+        if (amount == null) {
+            return null;
+        }
+        return ofMinor(amount.setScale(fractionDigits(currency), rounding).unscaledValue().longValueExact(), currency);
+    }
+
+    /**
+     * Parse an amount typed by a user, e.g. "120", "120.5" or "$1,200.00"
+     * @param text Text to parse
+     * @return Amount in the default currency
+     * @throws NumberFormatException if the text is not an amount
+     */
+    public static Money parse(String text) {
+        String cleaned = text.trim().replace(",", "");
+        String symbol = symbol(DEFAULT_CURRENCY);
+        boolean negative = cleaned.startsWith("-");
+        if (negative) {
+            cleaned = cleaned.substring(1).trim();
+        }
+        if (cleaned.startsWith(symbol)) {
+            cleaned = cleaned.substring(symbol.length()).trim();
+        }
+        if (cleaned.isEmpty()) {
+            throw new NumberFormatException("Empty amount");
+        }
+        try {
+            Money amount = of(new BigDecimal(cleaned));
+            return negative ? amount.negate() : amount;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /**
+     * Read a DECIMAL column
+     * @param rs Result set positioned on a row
+     * @param column Column label
+     * @return Amount, or null if the column is NULL
+     */
+    public static Money getMoney(ResultSet rs, String column) throws SQLException {
+        return of(rs.getBigDecimal(column));
+    }
+
+    /**
+     * Bind an amount to a DECIMAL parameter
+     * @param stmt Statement to bind
+     * @param index Parameter index
+     * @param amount Amount to bind
+     */
+    public static void setMoney(PreparedStatement stmt, int index, Money amount) throws SQLException {
+        stmt.setBigDecimal(index, amount.toBigDecimal());
+    }
+
+    public long getMinorUnits() { return minorUnits; }
+    public Currency getCurrency() { return currency; }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    public Money plus(Money other) {
+        checkCurrency(other);
+        return other.minorUnits == 0 ? this : ofMinor(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        checkCurrency(other);
+        return other.minorUnits == 0 ? this : ofMinor(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money negate() {
+        return ofMinor(Math.negateExact(minorUnits), currency);
+    }
+
+    /**
+     * @param quantity Number of units, e.g. nights
+     * @return This amount times the quantity
+     */
+    public Money times(long quantity) {
+        return quantity == 1 ? this : ofMinor(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    /**
+     * Multiply by a fraction, e.g. a 10% tax is multiply(10, 100, RoundingMode.HALF_UP)
+     * @param numerator Fraction numerator
+     * @param denominator Fraction denominator, not zero
+     * @param rounding How to round to a whole minor unit
+     * @return Rounded result
+     */
+    public Money multiply(long numerator, long denominator, RoundingMode rounding) {
+        if (denominator < 0) {
+            numerator = Math.negateExact(numerator);
+            denominator = -denominator;
+        }
+        return ofMinor(divide(Math.multiplyExact(minorUnits, numerator), denominator, rounding), currency);
+    }
+
+    private static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        int sign = dividend < 0 ? -1 : 1;
+        int half = Long.compare(Math.abs(remainder), divisor - Math.abs(remainder)); // remainder vs divisor / 2
+        boolean awayFromZero;
+        switch (rounding) {
+            case UP: awayFromZero = true; break;
+            case DOWN: awayFromZero = false; break;
+            case CEILING: awayFromZero = sign > 0; break;
+            case FLOOR: awayFromZero = sign < 0; break;
+            case HALF_UP: awayFromZero = half >= 0; break;
+            case HALF_DOWN: awayFromZero = half > 0; break;
+            case HALF_EVEN: awayFromZero = half > 0 || (half == 0 && (quotient & 1) != 0); break;
+            default: throw new ArithmeticException("Rounding necessary");
+        }
+        return awayFromZero ? quotient + sign : quotient;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, fractionDigits(currency));
+    }
+
+    /**
+     * Append the amount with its currency symbol, e.g. "$1200.50"
+     * @param sb Builder to append to
+     * @return The builder
+     */
+    public StringBuilder appendTo(StringBuilder sb) {
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        sb.append(symbol(currency));
+        return appendDigits(sb);
+    }
+
+    /**
+     * Append the amount without a currency symbol, e.g. "1200.50"
+     * @param sb Builder to append to
+     * @return The builder
+     */
+    public StringBuilder appendPlainTo(StringBuilder sb) {
+        if (minorUnits < 0) {
+            sb.append('-');
+        }
+        return appendDigits(sb);
+    }
+
+    private StringBuilder appendDigits(StringBuilder sb) {
+        int digits = fractionDigits(currency);
+        long factor = POWERS_OF_TEN[digits];
+        long whole = Math.abs(minorUnits / factor);
+        long fraction = Math.abs(minorUnits % factor);
+        sb.append(whole);
+        if (digits > 0) {
+            sb.append('.');
+            for (long place = factor / 10; place > fraction && place > 1; place /= 10) {
+                sb.append('0');
+            }
+            sb.append(fraction);
+        }
+        return sb;
+    }
+
+    private static int fractionDigits(Currency currency) {
+        return Math.max(0, Math.min(currency.getDefaultFractionDigits(), POWERS_OF_TEN.length - 1));
+    }
+
+    private static String symbol(Currency currency) {
+        return SYMBOLS.computeIfAbsent(currency, c -> c.getSymbol(Locale.US));
+    }
+
+    /**
+     * @return Amount without a currency symbol, for input fields
+     */
+    public String toPlainString() {
+        return appendPlainTo(new StringBuilder(16)).toString();
+    }
+
+    /**
+     * @return Amount with its currency symbol, e.g. "$1200.50"
+     */
+    @Override
+    public String toString() {
+        String result = text;
+        if (result == null) {
+            result = appendTo(new StringBuilder(16)).toString();
+            text = result;
+        }
+        return result;
+    }
+
+    private void checkCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        checkCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Money)) {
+            return false;
+        }
+        Money other = (Money) o;
+        return minorUnits == other.minorUnits && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(minorUnits) + currency.hashCode();
+    }
+}
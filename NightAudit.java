@@ -0,0 +1,463 @@
+package model;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Night audit job for the Hotel Management System
+ * Moves stale bookings along: unconfirmed bookings whose check-in date has passed,
+ * confirmed no-shows and guests still checked in after their check-out date.
+ * The bookings table is split into booking ID ranges that worker threads claim in
+ * order; each range is read with one keyset query and written in one batched
+ * transaction. Workers stop claiming ranges when the time window runs out; a range
+ * that fails is rolled back and listed in the report so the audit can be rerun.
+ * An audit covers one hotel: the current hotel when it is created, unless set otherwise.
+ */
+public class NightAudit {
+    private List<Rule> rules = new ArrayList<>(defaultRules());
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 10000;
+    private Duration window = Duration.ofMinutes(30);
+    private int hotelId = Hotel.currentId();
+
+    /**
+     * A transition applied to bookings in a given status once a date has passed
+     */
+    public static class Rule {
+        public enum DateField {
+            CHECK_IN, CHECK_OUT
+        }
+
+        private final String name;
+        private final Booking.BookingStatus fromStatus;
+        private final Booking.BookingStatus toStatus;
+        private final DateField dateField;
+        private final int graceDays;
+
+        /**
+         * @param name Name shown in the audit report
+         * @param fromStatus Status the booking must be in
+         * @param toStatus Status to move the booking to
+         * @param dateField Date the rule is measured from
+         * @param graceDays Days after that date before the rule applies
+         */
+        public Rule(String name, Booking.BookingStatus fromStatus, Booking.BookingStatus toStatus,
+                    DateField dateField, int graceDays) {
+            if (!fromStatus.canTransitionTo(toStatus)) {
+                throw new IllegalArgumentException("Rule " + name + ": cannot change from " + fromStatus + " to " + toStatus);
+            }
+            this.name = name;
+            this.fromStatus = fromStatus;
+            this.toStatus = toStatus;
+            this.dateField = dateField;
+            this.graceDays = graceDays;
+        }
+
+        public String getName() { return name; }
+        public Booking.BookingStatus getFromStatus() { return fromStatus; }
+        public Booking.BookingStatus getToStatus() { return toStatus; }
+        public DateField getDateField() { return dateField; }
+        public int getGraceDays() { return graceDays; }
+
+        boolean matches(Booking.BookingStatus status, LocalDate checkInDate, LocalDate checkOutDate, LocalDate auditDate) {
+            if (status != fromStatus) {
+                return false;
+            }
+            LocalDate date = dateField == DateField.CHECK_IN ? checkInDate : checkOutDate;
+            return date.plusDays(graceDays).isBefore(auditDate);
+        }
+    }
+
+    /**
+     * Default rules: expire unconfirmed bookings and no-shows, check out overdue stays
+     * @return List of default rules
+     */
+    public static List<Rule> defaultRules() {
+        List<Rule> rules = new ArrayList<>();
+        rules.add(new Rule("Expired pending booking", Booking.BookingStatus.PENDING,
+                Booking.BookingStatus.CANCELLED, Rule.DateField.CHECK_IN, 0));
+        rules.add(new Rule("No-show", Booking.BookingStatus.CONFIRMED,
+                Booking.BookingStatus.CANCELLED, Rule.DateField.CHECK_IN, 0));
+        rules.add(new Rule("Overdue check-out", Booking.BookingStatus.CHECKED_IN,
+                Booking.BookingStatus.CHECKED_OUT, Rule.DateField.CHECK_OUT, 0));
+        return rules;
+    }
+
+    public List<Rule> getRules() { return rules; }
+    public void setRules(List<Rule> rules) { this.rules = new ArrayList<>(rules); }
+
+    public int getThreads() { return threads; }
+    public void setThreads(int threads) { this.threads = Math.max(1, threads); }
+
+    public int getChunkSize() { return chunkSize; }
+    public void setChunkSize(int chunkSize) { this.chunkSize = Math.max(1, chunkSize); }
+
+    public Duration getWindow() { return window; }
+    public void setWindow(Duration window) { this.window = window; }
+
+    public int getHotelId() { return hotelId; }
+    public void setHotelId(int hotelId) { this.hotelId = hotelId; }
+
+    /**
+     * Run the audit for today's date
+     * @return Audit report
+     */
+    public AuditReport run() {
+        return run(LocalDate.now());
+    }
+
+    /**
+     * Run the audit
+     * @param auditDate Date the audit is run for; rules compare booking dates against it
+     * @return Audit report
+     */
+    public AuditReport run(LocalDate auditDate) {
+        AuditReport report = new AuditReport(auditDate, rules);
+        long startTime = System.nanoTime();
+        long deadline = startTime + window.toNanos();
+
+        Set<Booking.BookingStatus> statuses = EnumSet.noneOf(Booking.BookingStatus.class);
+        for (Rule rule : rules) {
+            statuses.add(rule.getFromStatus());
+        }
+        if (statuses.isEmpty()) {
+            report.finish(startTime, true, -1);
+            return report;
+        }
+
+        long maxBookingId;
+        try (Connection conn = DBConnection.openConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(booking_id), 0) FROM bookings")) {
+            rs.next();
+            maxBookingId = rs.getLong(1);
+        } catch (SQLException e) {
+            System.err.println("Error starting night audit: " + e.getMessage());
+            e.printStackTrace();
+            report.errors.incrementAndGet();
+            report.finish(startTime, false, 0);
+            return report;
+        }
+
+        AtomicLong nextChunkStart = new AtomicLong(1);
+        String selectSql = buildSelectSql(statuses);
+
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "night-audit-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(workers.submit(() -> {
+                try (Connection conn = DBConnection.openConnection()) {
+                    conn.setAutoCommit(false);
+                    while (System.nanoTime() < deadline) {
+                        long from = nextChunkStart.getAndAdd(chunkSize);
+                        if (from > maxBookingId) {
+                            break;
+                        }
+                        processChunk(conn, selectSql, statuses, from, from + chunkSize - 1, auditDate, report);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("Night audit worker failed: " + e.getMessage());
+                    e.printStackTrace();
+                    report.errors.incrementAndGet();
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                System.err.println("Night audit worker failed: " + e.getMessage());
+                report.errors.incrementAndGet();
+            }
+        }
+        workers.shutdown();
+
+        long resumeFrom = nextChunkStart.get();
+        boolean reachedAll = resumeFrom > maxBookingId;
+        report.finish(startTime, reachedAll, reachedAll ? -1 : resumeFrom);
+        return report;
+    }
+
+    private static String buildSelectSql(Set<Booking.BookingStatus> statuses) {
+        StringBuilder sql = new StringBuilder(
+            "SELECT b.booking_id, b.room_id, b.booking_status, b.check_in_date, b.check_out_date, b.total_amount, r.room_type "
+            + "FROM bookings b JOIN rooms r ON b.room_id = r.room_id "
+            + "WHERE b.booking_id BETWEEN ? AND ? AND b.hotel_id = ? AND b.booking_status IN (");
+        int i = 0;
+        for (Booking.BookingStatus status : statuses) {
+            sql.append(i++ == 0 ? "'" : ", '").append(status.name()).append("'");
+        }
+        return sql.append(") ORDER BY b.booking_id").toString();
+    }
+
+    private void processChunk(Connection conn, String selectSql, Set<Booking.BookingStatus> statuses,
+                              long fromId, long toId, LocalDate auditDate, AuditReport report) throws SQLException {
+        String updateSql = "UPDATE bookings SET booking_status = ? WHERE booking_id = ? AND booking_status = ?";
+        String roomSql = "UPDATE rooms SET is_available = TRUE WHERE room_id = ?";
+
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+             PreparedStatement update = conn.prepareStatement(updateSql);
+             PreparedStatement releaseRoom = conn.prepareStatement(roomSql)) {
+
+            select.setLong(1, fromId);
+            select.setLong(2, toId);
+            select.setInt(3, hotelId);
+
+            List<Rule> applied = new ArrayList<>();
+            List<Integer> bookingIds = new ArrayList<>();
+            List<Integer> roomIds = new ArrayList<>();
+            List<RevenueRollup.Stay> stays = new ArrayList<>();
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    report.scanned.incrementAndGet();
+                    Booking.BookingStatus status = Booking.BookingStatus.valueOf(rs.getString("booking_status"));
+                    LocalDate checkIn = rs.getDate("check_in_date").toLocalDate();
+                    LocalDate checkOut = rs.getDate("check_out_date").toLocalDate();
+
+                    for (Rule rule : rules) {
+                        if (rule.matches(status, checkIn, checkOut, auditDate)) {
+                            // Guard on the old status so a clerk's concurrent change wins
+                            update.setString(1, rule.getToStatus().name());
+                            update.setInt(2, rs.getInt("booking_id"));
+                            update.setString(3, status.name());
+                            update.addBatch();
+                            applied.add(rule);
+                            bookingIds.add(rs.getInt("booking_id"));
+                            roomIds.add(rs.getInt("room_id"));
+                            stays.add(new RevenueRollup.Stay(hotelId, rs.getString("room_type"), checkIn, checkOut,
+                                    Money.getMoney(rs, "total_amount"), status));
+                            break;
+                        }
+                    }
+                }
+            }
+
+            if (!applied.isEmpty()) {
+                int[] counts = update.executeBatch();
+                
+                // Only bookings whose guarded update went through leave or free their room
+                RevenueRollup.Delta revenue = new RevenueRollup.Delta();
+                Map<Integer, BookingEvents.EventType> events = new LinkedHashMap<>();
+                List<Integer> releasedRoomIds = new ArrayList<>();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        Booking.BookingStatus toStatus = applied.get(i).getToStatus();
+                        revenue.change(stays.get(i), stays.get(i).withStatus(toStatus));
+                        events.put(bookingIds.get(i), BookingEvents.EventType.forStatus(toStatus));
+                        if (toStatus == Booking.BookingStatus.CANCELLED || toStatus == Booking.BookingStatus.CHECKED_OUT) {
+                            releaseRoom.setInt(1, roomIds.get(i));
+                            releaseRoom.addBatch();
+                            releasedRoomIds.add(roomIds.get(i));
+                        }
+                    }
+                }
+                if (!releasedRoomIds.isEmpty()) {
+                    releaseRoom.executeBatch();
+                }
+                revenue.write(conn);
+                BookingEvents.append(conn, events);
+                ChangeFeed.changed(hotelId, ChangeFeed.Table.BOOKINGS, events.keySet());
+                ChangeFeed.changed(hotelId, ChangeFeed.Table.ROOMS, releasedRoomIds);
+                conn.commit();
+                DBConnection.markWrite();
+
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] == 0) {
+                        report.conflicts.incrementAndGet();
+                    } else {
+                        report.transitions.get(applied.get(i)).incrementAndGet();
+                    }
+                }
+            } else {
+                conn.commit();
+            }
+            report.chunks.incrementAndGet();
+
+        } catch (SQLException e) {
+            System.err.println("Night audit failed for bookings " + fromId + "-" + toId + ": " + e.getMessage());
+            report.errors.incrementAndGet();
+            report.failedRanges.add(fromId + "-" + toId);
+            conn.rollback();
+        }
+    }
+
+    /**
+     * Run the audit every day at the given time
+     * @param at Local time of day to run the audit
+     * @return Scheduler running the audit; shut it down to stop
+     */
+    public ScheduledExecutorService scheduleDaily(LocalTime at) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "night-audit-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        ZonedDateTime firstRun = nextRun(at, null);
+        scheduleRun(scheduler, at, firstRun);
+
+        System.out.println("Night audit scheduled daily at " + at + " (first run " + firstRun + ")");
+        return scheduler;
+    }
+
+    /**
+     * Schedule one run and, once it ends, the next. Each delay is measured to the
+     * next local time of day, so runs stay at that time across daylight saving changes.
+     */
+    private void scheduleRun(ScheduledExecutorService scheduler, LocalTime at, ZonedDateTime runAt) {
+        long delay = Math.max(0, Duration.between(ZonedDateTime.now(), runAt).toMillis());
+        try {
+            scheduler.schedule(() -> {
+                try {
+                    AuditReport report = run();
+                    if (report.isCompleted()) {
+                        System.out.println(report);
+                    } else {
+                        System.err.println(report);
+                    }
+                } catch (RuntimeException e) {
+                    System.err.println("Night audit failed: " + e.getMessage());
+                    e.printStackTrace();
+                }
+                scheduleRun(scheduler, at, nextRun(at, runAt));
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The scheduler was shut down
+        }
+    }
+
+    /**
+     * @param at Local time of day to run the audit
+     * @param previous Previous run, or null for the first
+     * @return The day after the previous run at that time, or the next such time from now if that
+     *         has passed; a time skipped by a daylight saving change moves to just after the gap
+     */
+    static ZonedDateTime nextRun(LocalTime at, ZonedDateTime previous) {
+        ZonedDateTime now = ZonedDateTime.now();
+        if (previous != null) {
+            ZonedDateTime next = ZonedDateTime.of(previous.toLocalDate().plusDays(1), at, now.getZone());
+            if (next.isAfter(now)) {
+                return next;
+            }
+        }
+        ZonedDateTime next = ZonedDateTime.of(now.toLocalDate(), at, now.getZone());
+        return next.isAfter(now) ? next : ZonedDateTime.of(now.toLocalDate().plusDays(1), at, now.getZone());
+    }
+
+    /**
+     * Summary of a night audit run
+     */
+    public static class AuditReport {
+        private final LocalDate auditDate;
+        private final Map<Rule, AtomicLong> transitions = new LinkedHashMap<>();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final AtomicLong conflicts = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private final List<String> failedRanges = Collections.synchronizedList(new ArrayList<>());
+        private double elapsedSeconds;
+        private boolean reachedAll;
+        private boolean completed;
+        private long resumeFromBookingId = -1;
+
+        AuditReport(LocalDate auditDate, List<Rule> rules) {
+            this.auditDate = auditDate;
+            for (Rule rule : rules) {
+                transitions.put(rule, new AtomicLong());
+            }
+        }
+
+        void finish(long startTime, boolean reachedAll, long resumeFromBookingId) {
+            this.elapsedSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+            this.reachedAll = reachedAll;
+            this.completed = reachedAll && errors.get() == 0;
+            this.resumeFromBookingId = resumeFromBookingId;
+        }
+
+        public LocalDate getAuditDate() { return auditDate; }
+        public long getScanned() { return scanned.get(); }
+        public long getChunks() { return chunks.get(); }
+        public long getConflicts() { return conflicts.get(); }
+        public long getErrors() { return errors.get(); }
+        public double getElapsedSeconds() { return elapsedSeconds; }
+
+        /**
+         * @return true if every booking range was processed within the window without errors
+         */
+        public boolean isCompleted() { return completed; }
+
+        /**
+         * @return Booking ID ranges ("from-to") that failed and were rolled back
+         */
+        public List<String> getFailedRanges() {
+            synchronized (failedRanges) {
+                return new ArrayList<>(failedRanges);
+            }
+        }
+
+        /**
+         * @return First booking ID not reached before the window closed, or -1 if every range was reached
+         */
+        public long getResumeFromBookingId() { return resumeFromBookingId; }
+
+        /**
+         * @return Number of bookings changed by each rule
+         */
+        public Map<String, Long> getTransitions() {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            for (Map.Entry<Rule, AtomicLong> entry : transitions.entrySet()) {
+                counts.put(entry.getKey().getName(), entry.getValue().get());
+            }
+            return Collections.unmodifiableMap(counts);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            String outcome = completed ? "completed"
+                    : reachedAll ? "FINISHED WITH ERRORS"
+                    : errors.get() == 0 ? "STOPPED AT WINDOW END"
+                    : "STOPPED WITH ERRORS";
+            sb.append(String.format("Night audit for %s %s in %.1f s: %d chunks, %d bookings scanned",
+                    auditDate, outcome, elapsedSeconds, chunks.get(), scanned.get()));
+            for (Map.Entry<Rule, AtomicLong> entry : transitions.entrySet()) {
+                Rule rule = entry.getKey();
+                sb.append(System.lineSeparator()).append(String.format("  %-25s %s -> %s: %d",
+                        rule.getName(), rule.getFromStatus(), rule.getToStatus(), entry.getValue().get()));
+            }
+            sb.append(System.lineSeparator()).append("  Skipped (changed concurrently): ").append(conflicts.get());
+            sb.append(System.lineSeparator()).append("  Errors: ").append(errors.get());
+            List<String> failed = getFailedRanges();
+            if (!failed.isEmpty()) {
+                sb.append(System.lineSeparator()).append("  Failed and rolled back: bookings ")
+                        .append(String.join(", ", failed));
+            }
+            if (!completed && resumeFromBookingId > 0) {
+                sb.append(System.lineSeparator()).append("  Not reached: bookings from ID ").append(resumeFromBookingId);
+            }
+            return sb.toString();
+        }
+    }
+}
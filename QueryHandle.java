@@ -0,0 +1,60 @@
+package model;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cancellation handle for a running query
+ * Lets a caller on another thread abort a statement that has been superseded
+ */
+public class QueryHandle {
+    private Statement statement;
+    private boolean cancelled;
+
+    /**
+     * Attach the statement that is about to execute
+     * @param statement Statement to cancel on request
+     * @return false if the handle was already cancelled and the query should not run
+     */
+    public synchronized boolean attach(Statement statement) {
+        if (cancelled) {
+            return false;
+        }
+        this.statement = statement;
+        return true;
+    }
+
+    /**
+     * Detach the statement once it has finished executing
+     */
+    public synchronized void detach() {
+        statement = null;
+    }
+
+    /**
+     * Mark the query as cancelled without touching the database
+     * @return Statement still executing, or null if there is nothing to abort
+     */
+    public synchronized Statement markCancelled() {
+        cancelled = true;
+        return statement;
+    }
+
+    /**
+     * Cancel the query, aborting the statement if it is still executing
+     */
+    public void cancel() {
+        Statement running = markCancelled();
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                System.err.println("Error cancelling query: " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+}
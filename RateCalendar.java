@@ -0,0 +1,310 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-night rate engine for the Hotel Management System
+ * Each hotel's rate rules from the rate_rules table are compiled per room type into arrays
+ * indexed by epoch day and cached per hotel. Each night starts at the room's own price (the base layer), then season and
+ * day-of-week rules set or adjust it, and the best length-of-stay discount is applied to
+ * the stay total. Quoting walks the arrays once and allocates nothing per night.
+ */
+public class RateCalendar {
+    public enum Layer {
+        SEASON, DAY_OF_WEEK, LENGTH_OF_STAY
+    }
+
+    private static final int UNCHANGED = 10_000; // Basis points: 100%
+    private static final long NO_OVERRIDE = -1;
+    private static final int DAYS_BEFORE_TODAY = 60;
+    private static final int DAYS_AFTER_TODAY = 730;
+
+    private static final Map<Integer, HotelRates> hotels = new ConcurrentHashMap<>();
+
+    /**
+     * A rate rule
+     */
+    public static class Rule {
+        private final String roomType;
+        private final Layer layer;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final int daysOfWeek;
+        private final int minNights;
+        private final RoomRates.Adjustment adjustment;
+        private final BigDecimal value;
+
+        /**
+         * @param roomType Room type the rule applies to, or null for every type
+         * @param layer Layer of the rule
+         * @param startDate First night the rule applies to, or null for no start
+         * @param endDate Last night the rule applies to (inclusive), or null for no end
+         * @param daysOfWeek Bit mask of days for DAY_OF_WEEK rules, Monday = 1 ... Sunday = 64
+         * @param minNights Minimum stay for LENGTH_OF_STAY rules
+         * @param adjustment Whether value is a nightly price or a percentage change
+         * @param value Nightly price, or percentage to add (negative for a discount)
+         */
+        public Rule(String roomType, Layer layer, LocalDate startDate, LocalDate endDate, int daysOfWeek,
+                    int minNights, RoomRates.Adjustment adjustment, BigDecimal value) {
+            if (layer == Layer.LENGTH_OF_STAY && adjustment == RoomRates.Adjustment.SET_PRICE) {
+                throw new IllegalArgumentException("Length-of-stay rules must be percentages");
+            }
+            if (adjustment == RoomRates.Adjustment.ADJUST_PERCENT && value.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+                throw new IllegalArgumentException("Percentage must be greater than -100");
+            }
+            this.roomType = roomType;
+            this.layer = layer;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.daysOfWeek = daysOfWeek;
+            this.minNights = minNights;
+            this.adjustment = adjustment;
+            this.value = value;
+        }
+
+        public String getRoomType() { return roomType; }
+        public Layer getLayer() { return layer; }
+        public LocalDate getStartDate() { return startDate; }
+        public LocalDate getEndDate() { return endDate; }
+        public int getDaysOfWeek() { return daysOfWeek; }
+        public int getMinNights() { return minNights; }
+        public RoomRates.Adjustment getAdjustment() { return adjustment; }
+        public BigDecimal getValue() { return value; }
+
+        boolean appliesTo(String type) {
+            return roomType == null || roomType.equals(type);
+        }
+
+        int multiplier() {
+            // 15.5% -> 11550 basis points of the nightly price
+            return UNCHANGED + value.movePointRight(2).setScale(0, RoundingMode.HALF_UP).intValueExact();
+        }
+    }
+
+    /**
+     * One hotel's rules and compiled calendars
+     */
+    private static final class HotelRates {
+        final int hotelId;
+        final Map<String, CompiledCalendar> calendars = new ConcurrentHashMap<>();
+        volatile List<Rule> rules;
+
+        HotelRates(int hotelId) {
+            this.hotelId = hotelId;
+        }
+    }
+
+    /**
+     * Compiled calendar for one room type
+     */
+    private static final class CompiledCalendar {
+        final long firstDay;
+        final long[] priceOverride;   // Nightly price in cents set by a rule, or NO_OVERRIDE
+        final int[] multiplier;       // Basis points applied to the nightly price
+        final int[] losMinNights;     // Ascending
+        final int[] losMultiplier;
+
+        CompiledCalendar(long firstDay, long[] priceOverride, int[] multiplier, int[] losMinNights, int[] losMultiplier) {
+            this.firstDay = firstDay;
+            this.priceOverride = priceOverride;
+            this.multiplier = multiplier;
+            this.losMinNights = losMinNights;
+            this.losMultiplier = losMultiplier;
+        }
+
+        boolean covers(long fromDay, int nights) {
+            return fromDay >= firstDay && fromDay + nights <= firstDay + multiplier.length;
+        }
+    }
+
+    /**
+     * Quote a stay in a room
+     * @param room Room to quote; its price is the base rate
+     * @param checkInDate First night
+     * @param checkOutDate Departure date
+     * @return Total for the stay
+     */
+    public static Money quote(Room room, LocalDate checkInDate, LocalDate checkOutDate) {
+        long nights = checkOutDate.toEpochDay() - checkInDate.toEpochDay();
+        if (nights <= 0) {
+            return Money.ZERO;
+        }
+        return Money.ofMinor(quoteCents(room.getRoomType(), room.getPricePerNight().getMinorUnits(),
+            checkInDate.toEpochDay(), Math.toIntExact(nights)), room.getPricePerNight().getCurrency());
+    }
+
+    /**
+     * Quote a stay in cents
+     * @param roomType Room type whose calendar applies
+     * @param baseCents Room's own nightly price in cents
+     * @param fromEpochDay First night as an epoch day
+     * @param nights Number of nights
+     * @return Total for the stay in cents
+     */
+    public static long quoteCents(String roomType, long baseCents, long fromEpochDay, int nights) {
+        CompiledCalendar calendar = calendarFor(roomType, fromEpochDay, nights);
+        long[] priceOverride = calendar.priceOverride;
+        int[] multiplier = calendar.multiplier;
+
+        long total = 0;
+        int day = (int) (fromEpochDay - calendar.firstDay);
+        for (int end = day + nights; day < end; day++) {
+            long nightly = priceOverride[day] == NO_OVERRIDE ? baseCents : priceOverride[day];
+            total += roundBasisPoints(nightly * multiplier[day]);
+        }
+
+        // Longest qualifying length-of-stay rule wins
+        int[] losMinNights = calendar.losMinNights;
+        for (int i = losMinNights.length - 1; i >= 0; i--) {
+            if (nights >= losMinNights[i]) {
+                return roundBasisPoints(total * calendar.losMultiplier[i]);
+            }
+        }
+        return total;
+    }
+
+    private static long roundBasisPoints(long value) {
+        return value >= 0 ? (value + UNCHANGED / 2) / UNCHANGED : -((-value + UNCHANGED / 2) / UNCHANGED);
+    }
+
+    private static HotelRates ratesFor(int hotelId) {
+        return hotels.computeIfAbsent(hotelId, HotelRates::new);
+    }
+
+    private static CompiledCalendar calendarFor(String roomType, long fromEpochDay, int nights) {
+        HotelRates rates = ratesFor(Hotel.currentId());
+        CompiledCalendar calendar = rates.calendars.get(roomType);
+        if (calendar == null) {
+            long today = LocalDate.now().toEpochDay();
+            calendar = compile(rates, roomType, today - DAYS_BEFORE_TODAY, DAYS_BEFORE_TODAY + DAYS_AFTER_TODAY);
+            if (rates.rules != null) {
+                rates.calendars.put(roomType, calendar); // Not cached if the rules could not be loaded
+            }
+        }
+        if (!calendar.covers(fromEpochDay, nights)) {
+            // Outside the cached window: compile just this stay
+            calendar = compile(rates, roomType, fromEpochDay, nights);
+        }
+        return calendar;
+    }
+
+    private static CompiledCalendar compile(HotelRates rates, String roomType, long firstDay, int days) {
+        long[] priceOverride = new long[days];
+        int[] multiplier = new int[days];
+        Arrays.fill(priceOverride, NO_OVERRIDE);
+        Arrays.fill(multiplier, UNCHANGED);
+        List<int[]> lengthOfStay = new ArrayList<>();
+
+        List<Rule> activeRules = getRules(rates);
+        for (Layer layer : Layer.values()) {
+            for (Rule rule : activeRules) {
+                if (rule.layer != layer || !rule.appliesTo(roomType)) {
+                    continue;
+                }
+                if (layer == Layer.LENGTH_OF_STAY) {
+                    lengthOfStay.add(new int[] {rule.minNights, rule.multiplier()});
+                    continue;
+                }
+
+                long from = rule.startDate != null ? Math.max(firstDay, rule.startDate.toEpochDay()) : firstDay;
+                long to = rule.endDate != null ? Math.min(firstDay + days - 1, rule.endDate.toEpochDay()) : firstDay + days - 1;
+                for (long epochDay = from; epochDay <= to; epochDay++) {
+                    if (layer == Layer.DAY_OF_WEEK && (rule.daysOfWeek & dayBit(epochDay)) == 0) {
+                        continue;
+                    }
+                    int i = (int) (epochDay - firstDay);
+                    if (rule.adjustment == RoomRates.Adjustment.SET_PRICE) {
+                        // A fixed price replaces everything below it
+                        priceOverride[i] = Money.of(rule.value).getMinorUnits();
+                        multiplier[i] = UNCHANGED;
+                    } else {
+                        multiplier[i] = (int) roundBasisPoints((long) multiplier[i] * rule.multiplier());
+                    }
+                }
+            }
+        }
+
+        lengthOfStay.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] losMinNights = new int[lengthOfStay.size()];
+        int[] losMultiplier = new int[lengthOfStay.size()];
+        for (int i = 0; i < losMinNights.length; i++) {
+            losMinNights[i] = lengthOfStay.get(i)[0];
+            losMultiplier[i] = lengthOfStay.get(i)[1];
+        }
+        return new CompiledCalendar(firstDay, priceOverride, multiplier, losMinNights, losMultiplier);
+    }
+
+    private static int dayBit(long epochDay) {
+        // 1970-01-01 was a Thursday
+        int dayIndex = (int) Math.floorMod(epochDay + DayOfWeek.THURSDAY.ordinal(), 7L);
+        return 1 << dayIndex;
+    }
+
+    /**
+     * Drop the current hotel's compiled calendars so its next quote reloads the rules
+     */
+    public static void invalidate() {
+        hotels.remove(Hotel.currentId());
+    }
+
+    /**
+     * Get the current hotel's active rate rules, loading them on first use
+     * @return List of rules, empty if they could not be loaded
+     */
+    public static List<Rule> getRules() {
+        return getRules(ratesFor(Hotel.currentId()));
+    }
+
+    private static List<Rule> getRules(HotelRates rates) {
+        List<Rule> current = rates.rules;
+        if (current == null) {
+            current = loadRules(rates.hotelId);
+            rates.rules = current;
+        }
+        return current != null ? current : List.of();
+    }
+
+    private static List<Rule> loadRules(int hotelId) {
+        List<Rule> loaded = new ArrayList<>();
+        String sql = "SELECT * FROM rate_rules WHERE hotel_id = ? ORDER BY rule_id";
+
+        try (Connection conn = DBConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, hotelId);
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Date startDate = rs.getDate("start_date");
+                Date endDate = rs.getDate("end_date");
+                try {
+                    loaded.add(new Rule(
+                        rs.getString("room_type"),
+                        Layer.valueOf(rs.getString("layer")),
+                        startDate != null ? startDate.toLocalDate() : null,
+                        endDate != null ? endDate.toLocalDate() : null,
+                        rs.getInt("days_of_week"),
+                        rs.getInt("min_nights"),
+                        RoomRates.Adjustment.valueOf(rs.getString("adjustment")),
+                        rs.getBigDecimal("value")
+                    ));
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Skipping rate rule " + rs.getInt("rule_id") + ": " + e.getMessage());
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading rate rules, quoting base prices: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return loaded;
+    }
+}
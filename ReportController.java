@@ -0,0 +1,85 @@
+package controller;
+
+import model.RevenueRollup;
+import model.ServiceExecutor;
+import view.AdminDashboard;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Report Controller for the Hotel Management System
+ * Shows revenue, room-nights, ADR and RevPAR for a month from the revenue rollups
+ */
+public class ReportController {
+    private AdminDashboard adminDashboard;
+    private DefaultTableModel revenueByTypeTableModel;
+    private DefaultTableModel revenueDailyTableModel;
+
+    public ReportController(AdminDashboard adminDashboard) {
+        this.adminDashboard = adminDashboard;
+        this.revenueByTypeTableModel = adminDashboard.getRevenueByTypeTableModel();
+        this.revenueDailyTableModel = adminDashboard.getRevenueDailyTableModel();
+
+        setupEventHandlers();
+        loadReport(YearMonth.now());
+    }
+
+    private void setupEventHandlers() {
+        adminDashboard.addShowReportButtonListener(e -> showReport());
+    }
+
+    private void showReport() {
+        YearMonth month;
+        try {
+            month = YearMonth.parse(adminDashboard.getReportMonthText());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(adminDashboard, "Please enter the month as yyyy-MM, e.g. 2024-06.",
+                "Validation Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        loadReport(month);
+    }
+
+    private void loadReport(YearMonth month) {
+        // The two tables come from separate rollups, so query them at the same time
+        CompletableFuture<List<RevenueRollup.RevenueFigures>> byTypeFuture =
+            ServiceExecutor.supply(() -> RevenueRollup.getMonthByRoomType(month));
+        CompletableFuture<List<RevenueRollup.RevenueFigures>> dailyFuture =
+            ServiceExecutor.supply(() -> RevenueRollup.getDailyTotals(month.atDay(1), month.plusMonths(1).atDay(1)));
+        
+        SwingFutures.onEdt(CompletableFuture.allOf(byTypeFuture, dailyFuture),
+            loaded -> populateReport(byTypeFuture.join(), dailyFuture.join()));
+    }
+    
+    private void populateReport(List<RevenueRollup.RevenueFigures> byType, List<RevenueRollup.RevenueFigures> daily) {
+        revenueByTypeTableModel.setRowCount(0);
+        for (RevenueRollup.RevenueFigures row : byType) {
+            addRow(revenueByTypeTableModel, row);
+        }
+        if (!byType.isEmpty()) {
+            addRow(revenueByTypeTableModel, RevenueRollup.RevenueFigures.sum("All Room Types", byType));
+        }
+
+        revenueDailyTableModel.setRowCount(0);
+        for (RevenueRollup.RevenueFigures row : daily) {
+            addRow(revenueDailyTableModel, row);
+        }
+    }
+
+    private void addRow(DefaultTableModel model, RevenueRollup.RevenueFigures row) {
+        Object[] rowData = {
+            row.getLabel(),
+            row.getRoomNights(),
+            row.getRevenue(),
+            row.getAdr(),
+            row.getRevPar(),
+            String.format("%.1f%%", row.getOccupancyPercent())
+        };
+        model.addRow(rowData);
+    }
+}
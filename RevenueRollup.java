@@ -0,0 +1,550 @@
+package model;
+
+import java.math.RoundingMode;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Revenue rollups for the Hotel Management System
+ * Keeps room revenue and room-nights per hotel, stay date and room type (revenue_daily) and
+ * per hotel, month and room type (revenue_monthly). Every booking write adjusts the rollups in the
+ * same transaction by removing the booking's old contribution and adding its new one, so
+ * reports read a handful of rows instead of scanning bookings. A booking's total is spread
+ * evenly over its nights; cancelled bookings contribute nothing.
+ */
+public class RevenueRollup {
+    private static final String UPSERT_DAILY = "INSERT INTO revenue_daily (hotel_id, stay_date, room_type, room_nights, revenue) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE room_nights = room_nights + VALUES(room_nights), revenue = revenue + VALUES(revenue)";
+    private static final String UPSERT_MONTHLY = "INSERT INTO revenue_monthly (hotel_id, month_start, room_type, room_nights, revenue) VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE room_nights = room_nights + VALUES(room_nights), revenue = revenue + VALUES(revenue)";
+    private static final String STAY_COLUMNS = "SELECT b.booking_id, b.hotel_id, b.check_in_date, b.check_out_date, b.total_amount, "
+            + "b.booking_status, r.room_type FROM bookings b JOIN rooms r ON b.room_id = r.room_id ";
+
+    /**
+     * The parts of a booking that count towards revenue
+     */
+    static final class Stay {
+        final int hotelId;
+        final String roomType;
+        final LocalDate checkInDate;
+        final LocalDate checkOutDate;
+        final long totalCents;
+        final Booking.BookingStatus status;
+
+        Stay(int hotelId, String roomType, LocalDate checkInDate, LocalDate checkOutDate, Money totalAmount, Booking.BookingStatus status) {
+            this.hotelId = hotelId;
+            this.roomType = roomType;
+            this.checkInDate = checkInDate;
+            this.checkOutDate = checkOutDate;
+            this.totalCents = totalAmount.getMinorUnits();
+            this.status = status;
+        }
+
+        Stay withStatus(Booking.BookingStatus newStatus) {
+            return new Stay(hotelId, roomType, checkInDate, checkOutDate, Money.ofMinor(totalCents), newStatus);
+        }
+
+        Stay withRoomType(String newRoomType) {
+            return new Stay(hotelId, newRoomType, checkInDate, checkOutDate, Money.ofMinor(totalCents), status);
+        }
+
+        boolean counts() {
+            return status != Booking.BookingStatus.CANCELLED && checkOutDate.isAfter(checkInDate);
+        }
+    }
+
+    /**
+     * Rollup key: a hotel, a day or first day of a month, and a room type
+     * Ordered so every transaction upserts rollup rows in the same order
+     */
+    private static final class Bucket implements Comparable<Bucket> {
+        final int hotelId;
+        final LocalDate date;
+        final String roomType;
+
+        Bucket(int hotelId, LocalDate date, String roomType) {
+            this.hotelId = hotelId;
+            this.date = date;
+            this.roomType = roomType;
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            int byHotel = Integer.compare(hotelId, other.hotelId);
+            if (byHotel != 0) {
+                return byHotel;
+            }
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : roomType.compareTo(other.roomType);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Bucket)) {
+                return false;
+            }
+            Bucket other = (Bucket) o;
+            return hotelId == other.hotelId && date.equals(other.date) && roomType.equals(other.roomType);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * hotelId + date.hashCode()) + roomType.hashCode();
+        }
+    }
+
+    /**
+     * Pending changes to the rollups, as {room-nights, revenue cents} per bucket
+     */
+    static final class Delta {
+        private final Map<Bucket, long[]> daily = new TreeMap<>();
+        private final Map<Bucket, long[]> monthly = new TreeMap<>();
+
+        void add(Stay stay) {
+            accumulate(stay, 1);
+        }
+
+        void remove(Stay stay) {
+            accumulate(stay, -1);
+        }
+
+        /**
+         * Record a booking changing from one state to another
+         * @param before Booking before the change, or null if it was created
+         * @param after Booking after the change, or null if it was deleted
+         */
+        void change(Stay before, Stay after) {
+            if (before != null) {
+                remove(before);
+            }
+            if (after != null) {
+                add(after);
+            }
+        }
+
+        void addAll(Delta other) {
+            merge(daily, other.daily);
+            merge(monthly, other.monthly);
+        }
+
+        boolean isEmpty() {
+            return daily.isEmpty() && monthly.isEmpty();
+        }
+
+        private void accumulate(Stay stay, int sign) {
+            if (stay == null || !stay.counts()) {
+                return;
+            }
+            int nights = (int) (stay.checkOutDate.toEpochDay() - stay.checkInDate.toEpochDay());
+            long nightly = Math.floorDiv(stay.totalCents, nights);
+            long remainder = Math.floorMod(stay.totalCents, nights); // First nights take the odd cents
+
+            LocalDate night = stay.checkInDate;
+            for (int i = 0; i < nights; i++, night = night.plusDays(1)) {
+                long cents = nightly + (i < remainder ? 1 : 0);
+                add(daily, new Bucket(stay.hotelId, night, stay.roomType), sign, sign * cents);
+                add(monthly, new Bucket(stay.hotelId, night.withDayOfMonth(1), stay.roomType), sign, sign * cents);
+            }
+        }
+
+        private static void add(Map<Bucket, long[]> totals, Bucket bucket, long roomNights, long cents) {
+            long[] total = totals.computeIfAbsent(bucket, b -> new long[2]);
+            total[0] += roomNights;
+            total[1] += cents;
+        }
+
+        private static void merge(Map<Bucket, long[]> into, Map<Bucket, long[]> from) {
+            for (Map.Entry<Bucket, long[]> entry : from.entrySet()) {
+                add(into, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+        }
+
+        /**
+         * Apply the changes on the given connection and clear them
+         * @param conn Connection whose transaction also holds the booking write
+         */
+        void write(Connection conn) throws SQLException {
+            upsert(conn, UPSERT_DAILY, daily);
+            upsert(conn, UPSERT_MONTHLY, monthly);
+            daily.clear();
+            monthly.clear();
+        }
+
+        private static void upsert(Connection conn, String sql, Map<Bucket, long[]> totals) throws SQLException {
+            if (totals.isEmpty()) {
+                return;
+            }
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Bucket, long[]> entry : totals.entrySet()) {
+                    long[] total = entry.getValue();
+                    if (total[0] == 0 && total[1] == 0) {
+                        continue; // A change that cancels out, e.g. a status change that keeps the booking counted
+                    }
+                    stmt.setInt(1, entry.getKey().hotelId);
+                    stmt.setDate(2, Date.valueOf(entry.getKey().date));
+                    stmt.setString(3, entry.getKey().roomType);
+                    stmt.setLong(4, total[0]);
+                    Money.setMoney(stmt, 5, Money.ofMinor(total[1]));
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Record a single booking change in the rollups
+     * @param conn Connection whose transaction also holds the booking write
+     * @param before Booking before the change, or null if it was created
+     * @param after Booking after the change, or null if it was deleted
+     */
+    static void recordChange(Connection conn, Stay before, Stay after) throws SQLException {
+        Delta delta = new Delta();
+        delta.change(before, after);
+        delta.write(conn);
+    }
+
+    /**
+     * Read the revenue-relevant state of a booking
+     * @param conn Connection to read on
+     * @param bookingId ID of the booking
+     * @return Stay, or null if the booking does not exist
+     */
+    static Stay readStay(Connection conn, int bookingId) throws SQLException {
+        return readStays(conn, List.of(bookingId)).get(bookingId);
+    }
+
+    /**
+     * Read the revenue-relevant state of several bookings
+     * @param conn Connection to read on
+     * @param bookingIds IDs of the bookings
+     * @return Stays by booking ID; missing bookings are left out
+     */
+    static Map<Integer, Stay> readStays(Connection conn, Collection<Integer> bookingIds) throws SQLException {
+        Map<Integer, Stay> stays = new HashMap<>();
+        if (bookingIds.isEmpty()) {
+            return stays;
+        }
+        StringBuilder sql = new StringBuilder(STAY_COLUMNS).append("WHERE b.booking_id IN (");
+        for (int i = 0; i < bookingIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int parameterIndex = 1;
+            for (int bookingId : bookingIds) {
+                stmt.setInt(parameterIndex++, bookingId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stays.put(rs.getInt("booking_id"), stayFrom(rs));
+                }
+            }
+        }
+        return stays;
+    }
+
+    /**
+     * Read the revenue-relevant state of every booking of a room or customer
+     * @param conn Connection to read on
+     * @param column "room_id" or "customer_id"
+     * @param id Room or customer ID
+     * @return Stays of the matching bookings
+     */
+    static List<Stay> readStaysFor(Connection conn, String column, int id) throws SQLException {
+        if (!column.equals("room_id") && !column.equals("customer_id")) {
+            throw new IllegalArgumentException("Unknown booking column: " + column);
+        }
+        List<Stay> stays = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(STAY_COLUMNS + "WHERE b." + column + " = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    stays.add(stayFrom(rs));
+                }
+            }
+        }
+        return stays;
+    }
+
+    private static Stay stayFrom(ResultSet rs) throws SQLException {
+        return new Stay(
+            rs.getInt("hotel_id"),
+            rs.getString("room_type"),
+            rs.getDate("check_in_date").toLocalDate(),
+            rs.getDate("check_out_date").toLocalDate(),
+            Money.getMoney(rs, "total_amount"),
+            Booking.BookingStatus.valueOf(rs.getString("booking_status"))
+        );
+    }
+
+    /**
+     * Rebuild the current hotel's rollups from the bookings table
+     * Worker threads read booking ID ranges in parallel and total them in memory; the
+     * hotel's rollup rows are then replaced in one transaction. Run it once after upgrading, or to
+     * repair the rollups, while bookings are not being changed.
+     * @param threads Number of worker threads
+     * @param chunkSize Booking IDs per range
+     * @return Number of bookings read, or -1 if the backfill failed
+     */
+    public static long backfill(int threads, int chunkSize) {
+        long startTime = System.nanoTime();
+        int hotelId = Hotel.currentId();
+        long maxBookingId;
+        try (Connection conn = DBConnection.openConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(booking_id), 0) FROM bookings")) {
+            rs.next();
+            maxBookingId = rs.getLong(1);
+        } catch (SQLException e) {
+            System.err.println("Error starting revenue backfill: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        AtomicLong nextChunkStart = new AtomicLong(1);
+        AtomicLong scanned = new AtomicLong();
+        String selectSql = STAY_COLUMNS + "WHERE b.booking_id BETWEEN ? AND ? AND b.hotel_id = ? AND b.booking_status <> 'CANCELLED'";
+
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "revenue-backfill-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<Delta>> futures = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, threads); i++) {
+            futures.add(workers.submit(() -> {
+                Delta totals = new Delta();
+                try (Connection conn = DBConnection.openConnection();
+                     PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+                    while (true) {
+                        long from = nextChunkStart.getAndAdd(chunkSize);
+                        if (from > maxBookingId) {
+                            return totals;
+                        }
+                        stmt.setLong(1, from);
+                        stmt.setLong(2, from + chunkSize - 1);
+                        stmt.setInt(3, hotelId);
+                        try (ResultSet rs = stmt.executeQuery()) {
+                            while (rs.next()) {
+                                totals.add(stayFrom(rs));
+                                scanned.incrementAndGet();
+                            }
+                        }
+                    }
+                }
+            }));
+        }
+
+        Delta totals = new Delta();
+        try {
+            for (Future<Delta> future : futures) {
+                totals.addAll(future.get());
+            }
+        } catch (Exception e) {
+            System.err.println("Revenue backfill worker failed: " + e.getMessage());
+            e.printStackTrace();
+            workers.shutdownNow();
+            return -1;
+        }
+        workers.shutdown();
+
+        try (Connection conn = DBConnection.openBatchConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement daily = conn.prepareStatement("DELETE FROM revenue_daily WHERE hotel_id = ?");
+                 PreparedStatement monthly = conn.prepareStatement("DELETE FROM revenue_monthly WHERE hotel_id = ?")) {
+                daily.setInt(1, hotelId);
+                daily.executeUpdate();
+                monthly.setInt(1, hotelId);
+                monthly.executeUpdate();
+                totals.write(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error writing revenue rollups: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+
+        double seconds = Math.max((System.nanoTime() - startTime) / 1_000_000_000.0, 0.001);
+        System.out.println(String.format("Revenue rollups rebuilt from %d bookings in %.1f s (%.0f bookings/s)",
+                scanned.get(), seconds, scanned.get() / seconds));
+        return scanned.get();
+    }
+
+    /**
+     * Revenue figures for one row of a report
+     */
+    public static class RevenueFigures {
+        private final String label;
+        private final long roomNights;
+        private final Money revenue;
+        private final long availableRoomNights;
+
+        public RevenueFigures(String label, long roomNights, Money revenue, long availableRoomNights) {
+            this.label = label;
+            this.roomNights = roomNights;
+            this.revenue = revenue;
+            this.availableRoomNights = availableRoomNights;
+        }
+
+        public String getLabel() { return label; }
+        public long getRoomNights() { return roomNights; }
+        public Money getRevenue() { return revenue; }
+        public long getAvailableRoomNights() { return availableRoomNights; }
+
+        /**
+         * @return Average daily rate: revenue per room-night sold
+         */
+        public Money getAdr() {
+            return roomNights > 0 ? revenue.multiply(1, roomNights, RoundingMode.HALF_UP) : Money.ZERO;
+        }
+
+        /**
+         * @return Revenue per available room-night
+         */
+        public Money getRevPar() {
+            return availableRoomNights > 0 ? revenue.multiply(1, availableRoomNights, RoundingMode.HALF_UP) : Money.ZERO;
+        }
+
+        /**
+         * @return Room-nights sold as a percentage of room-nights available
+         */
+        public double getOccupancyPercent() {
+            return availableRoomNights > 0 ? roomNights * 100.0 / availableRoomNights : 0;
+        }
+
+        /**
+         * @param label Label of the total row
+         * @param rows Rows to add up
+         * @return Sum of the rows
+         */
+        public static RevenueFigures sum(String label, List<RevenueFigures> rows) {
+            long roomNights = 0;
+            long available = 0;
+            Money revenue = Money.ZERO;
+            for (RevenueFigures row : rows) {
+                roomNights += row.roomNights;
+                available += row.availableRoomNights;
+                revenue = revenue.plus(row.revenue);
+            }
+            return new RevenueFigures(label, roomNights, revenue, available);
+        }
+    }
+
+    /**
+     * Get a month's figures by room type
+     * Availability counts the rooms of each type in the current inventory.
+     * @param month Month to report
+     * @return One row per room type, sorted by type
+     */
+    public static List<RevenueFigures> getMonthByRoomType(YearMonth month) {
+        List<RevenueFigures> rows = new ArrayList<>();
+        String sql = "SELECT room_type, room_nights, revenue FROM revenue_monthly WHERE hotel_id = ? AND month_start = ?";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            Map<String, Integer> roomCounts = getRoomCounts(conn);
+            Map<String, long[]> sold = new TreeMap<>();
+            for (String roomType : roomCounts.keySet()) {
+                sold.put(roomType, new long[2]);
+            }
+
+            stmt.setInt(1, Hotel.currentId());
+            stmt.setDate(2, Date.valueOf(month.atDay(1)));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    long[] total = sold.computeIfAbsent(rs.getString("room_type"), t -> new long[2]);
+                    total[0] = rs.getLong("room_nights");
+                    total[1] = Money.getMoney(rs, "revenue").getMinorUnits();
+                }
+            }
+
+            for (Map.Entry<String, long[]> entry : sold.entrySet()) {
+                long available = (long) roomCounts.getOrDefault(entry.getKey(), 0) * month.lengthOfMonth();
+                rows.add(new RevenueFigures(entry.getKey(), entry.getValue()[0],
+                        Money.ofMinor(entry.getValue()[1]), available));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting monthly revenue: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return rows;
+    }
+
+    /**
+     * Get daily figures across all room types
+     * @param fromDate First day
+     * @param toDate Day after the last day
+     * @return One row per day in the range, labelled yyyy-MM-dd
+     */
+    public static List<RevenueFigures> getDailyTotals(LocalDate fromDate, LocalDate toDate) {
+        List<RevenueFigures> rows = new ArrayList<>();
+        String sql = """
+            SELECT stay_date, SUM(room_nights) AS room_nights, SUM(revenue) AS revenue
+            FROM revenue_daily
+            WHERE hotel_id = ? AND stay_date >= ? AND stay_date < ?
+            GROUP BY stay_date
+            """;
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            long rooms = 0;
+            for (int count : getRoomCounts(conn).values()) {
+                rooms += count;
+            }
+
+            Map<LocalDate, long[]> sold = new HashMap<>();
+            stmt.setInt(1, Hotel.currentId());
+            stmt.setDate(2, Date.valueOf(fromDate));
+            stmt.setDate(3, Date.valueOf(toDate));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sold.put(rs.getDate("stay_date").toLocalDate(),
+                            new long[] {rs.getLong("room_nights"), Money.getMoney(rs, "revenue").getMinorUnits()});
+                }
+            }
+
+            for (LocalDate day = fromDate; day.isBefore(toDate); day = day.plusDays(1)) {
+                long[] total = sold.getOrDefault(day, new long[2]);
+                rows.add(new RevenueFigures(day.toString(), total[0], Money.ofMinor(total[1]), rooms));
+            }
+
+        } catch (SQLException e) {
+            System.err.println("Error getting daily revenue: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return rows;
+    }
+
+    private static Map<String, Integer> getRoomCounts(Connection conn) throws SQLException {
+        Map<String, Integer> counts = new TreeMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT room_type, COUNT(*) AS rooms FROM rooms WHERE hotel_id = ? GROUP BY room_type")) {
+            stmt.setInt(1, Hotel.currentId());
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getString("room_type"), rs.getInt("rooms"));
+                }
+            }
+        }
+        return counts;
+    }
+}
@@ -12,14 +12,15 @@ public class Room {
     private int roomId;
     private String roomNumber;
     private String roomType;
-    private double pricePerNight;
+    private Money pricePerNight;
     private boolean isAvailable;
     private String description;
+    private Timestamp updatedAt;
     
     // Constructors
     public Room() {}
     
-    public Room(String roomNumber, String roomType, double pricePerNight, String description) {
+    public Room(String roomNumber, String roomType, Money pricePerNight, String description) {
         this.roomNumber = roomNumber;
         this.roomType = roomType;
         this.pricePerNight = pricePerNight;
@@ -27,7 +28,7 @@ public class Room {
         this.isAvailable = true;
     }
     
-    public Room(int roomId, String roomNumber, String roomType, double pricePerNight, boolean isAvailable, String description) {
+    public Room(int roomId, String roomNumber, String roomType, Money pricePerNight, boolean isAvailable, String description) {
         this.roomId = roomId;
         this.roomNumber = roomNumber;
         this.roomType = roomType;
@@ -46,8 +47,8 @@ public class Room {
     public String getRoomType() { return roomType; }
     public void setRoomType(String roomType) { this.roomType = roomType; }
     
-    public double getPricePerNight() { return pricePerNight; }
-    public void setPricePerNight(double pricePerNight) { this.pricePerNight = pricePerNight; }
+    public Money getPricePerNight() { return pricePerNight; }
+    public void setPricePerNight(Money pricePerNight) { this.pricePerNight = pricePerNight; }
     
     public boolean isAvailable() { return isAvailable; }
     public void setAvailable(boolean available) { isAvailable = available; }
@@ -55,21 +56,28 @@ public class Room {
     public String getDescription() { return description; }
     public void setDescription(String description) { this.description = description; }
     
+    /**
+     * @return Version of the row as loaded by getRoomById, or null if not loaded; updateRoom checks it
+     */
+    public Timestamp getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
+    
     /**
      * Add a new room to the database
      * @return true if successful, false otherwise
      */
     public boolean addRoom() {
-        String sql = "INSERT INTO rooms (room_number, room_type, price_per_night, is_available, description) VALUES (?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO rooms (room_number, room_type, price_per_night, is_available, description, hotel_id) VALUES (?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             stmt.setString(1, roomNumber);
             stmt.setString(2, roomType);
-            stmt.setDouble(3, pricePerNight);
+            Money.setMoney(stmt, 3, pricePerNight);
             stmt.setBoolean(4, isAvailable);
             stmt.setString(5, description);
+            stmt.setInt(6, Hotel.currentId());
             
             int affectedRows = stmt.executeUpdate();
             
@@ -79,6 +87,8 @@ public class Room {
                         this.roomId = generatedKeys.getInt(1);
                     }
                 }
+                ChangeFeed.changed(ChangeFeed.Table.ROOMS, roomId);
+                DBConnection.markWrite();
                 return true;
             }
         } catch (SQLException e) {
@@ -90,29 +100,71 @@ public class Room {
     
     /**
      * Update room information in the database
-     * @return true if successful, false otherwise
+     * Nothing is written if the room changed since it was loaded; a room without a
+     * loaded version (see getUpdatedAt) is overwritten.
+     * @return Result of the update; on a conflict it carries the room as it is now
      */
-    public boolean updateRoom() {
-        String sql = "UPDATE rooms SET room_number = ?, room_type = ?, price_per_night = ?, is_available = ?, description = ? WHERE room_id = ?";
+    public UpdateResult<Room> updateRoom() {
+        String lockSql = "SELECT room_type FROM rooms WHERE room_id = ? AND hotel_id = ? FOR UPDATE";
+        String sql = "UPDATE rooms SET room_number = ?, room_type = ?, price_per_night = ?, is_available = ?, description = ? WHERE room_id = ? AND hotel_id = ?"
+            + (updatedAt != null ? " AND updated_at = ?" : "");
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, roomNumber);
-            stmt.setString(2, roomType);
-            stmt.setDouble(3, pricePerNight);
-            stmt.setBoolean(4, isAvailable);
-            stmt.setString(5, description);
-            stmt.setInt(6, roomId);
-            
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement lock = conn.prepareStatement(lockSql);
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+                
+                String oldRoomType = null;
+                lock.setInt(1, roomId);
+                lock.setInt(2, Hotel.currentId());
+                try (ResultSet rs = lock.executeQuery()) {
+                    if (rs.next()) {
+                        oldRoomType = rs.getString("room_type");
+                    }
+                }
+                
+                stmt.setString(1, roomNumber);
+                stmt.setString(2, roomType);
+                Money.setMoney(stmt, 3, pricePerNight);
+                stmt.setBoolean(4, isAvailable);
+                stmt.setString(5, description);
+                stmt.setInt(6, roomId);
+                stmt.setInt(7, Hotel.currentId());
+                if (updatedAt != null) {
+                    stmt.setTimestamp(8, updatedAt);
+                }
+                
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows == 0) {
+                    Room current = getRoomById(conn, roomId);
+                    conn.rollback();
+                    return current != null ? UpdateResult.conflict(current) : UpdateResult.notFound();
+                }
+                
+                if (oldRoomType != null && !oldRoomType.equals(roomType)) {
+                    // Revenue rollups count a room's bookings under its current type
+                    RevenueRollup.Delta revenue = new RevenueRollup.Delta();
+                    for (RevenueRollup.Stay stay : RevenueRollup.readStaysFor(conn, "room_id", roomId)) {
+                        revenue.change(stay.withRoomType(oldRoomType), stay);
+                    }
+                    revenue.write(conn);
+                }
+                updatedAt = UpdateResult.readVersion(conn, "rooms", "room_id", roomId);
+                ChangeFeed.changed(ChangeFeed.Table.ROOMS, roomId);
+                conn.commit();
+                DBConnection.markWrite();
+                return UpdateResult.updated(this);
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error updating room: " + e.getMessage());
             e.printStackTrace();
         }
-        return false;
+        return UpdateResult.failed();
     }
     
     /**
@@ -121,15 +173,34 @@ public class Room {
      * @return true if successful, false otherwise
      */
     public static boolean deleteRoom(int roomId) {
-        String sql = "DELETE FROM rooms WHERE room_id = ?";
+        String sql = "DELETE FROM rooms WHERE room_id = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, roomId);
-            int affectedRows = stmt.executeUpdate();
-            return affectedRows > 0;
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
             
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                // The room's bookings are deleted with it, so take them out of the revenue rollups
+                RevenueRollup.Delta revenue = new RevenueRollup.Delta();
+                for (RevenueRollup.Stay stay : RevenueRollup.readStaysFor(conn, "room_id", roomId)) {
+                    revenue.remove(stay);
+                }
+                BookingEvents.appendDeletedFor(conn, "room_id", roomId);
+                
+                stmt.setInt(1, roomId);
+                stmt.setInt(2, Hotel.currentId());
+                int affectedRows = stmt.executeUpdate();
+                if (affectedRows > 0) {
+                    revenue.write(conn);
+                    ChangeFeed.changed(ChangeFeed.Table.ROOMS, roomId);
+                }
+                conn.commit();
+                DBConnection.markWrite();
+                return affectedRows > 0;
+                
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
             System.err.println("Error deleting room: " + e.getMessage());
             e.printStackTrace();
@@ -143,27 +214,35 @@ public class Room {
      * @return Room object or null if not found
      */
     public static Room getRoomById(int roomId) {
-        String sql = "SELECT * FROM rooms WHERE room_id = ?";
+        try (Connection conn = DBConnection.getReadConnection()) {
+            return getRoomById(conn, roomId);
+        } catch (SQLException e) {
+            System.err.println("Error getting room by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+    
+    private static Room getRoomById(Connection conn, int roomId) throws SQLException {
+        String sql = "SELECT * FROM rooms WHERE room_id = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, roomId);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
-                return new Room(
+                Room room = new Room(
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 );
+                room.setUpdatedAt(rs.getTimestamp("updated_at"));
+                return room;
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting room by ID: " + e.getMessage());
-            e.printStackTrace();
         }
         return null;
     }
@@ -174,12 +253,13 @@ public class Room {
      * @return Room object or null if not found
      */
     public static Room getRoomByNumber(String roomNumber) {
-        String sql = "SELECT * FROM rooms WHERE room_number = ?";
+        String sql = "SELECT * FROM rooms WHERE room_number = ? AND hotel_id = ?";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, roomNumber);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             if (rs.next()) {
@@ -187,7 +267,7 @@ public class Room {
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 );
@@ -205,18 +285,20 @@ public class Room {
      */
     public static List<Room> getAllRooms() {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms ORDER BY room_number";
+        String sql = "SELECT * FROM rooms WHERE hotel_id = ? ORDER BY room_number";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, Hotel.currentId());
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 rooms.add(new Room(
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 ));
@@ -234,18 +316,20 @@ public class Room {
      */
     public static List<Room> getAvailableRooms() {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE is_available = TRUE ORDER BY room_number";
+        String sql = "SELECT * FROM rooms WHERE hotel_id = ? AND is_available = TRUE ORDER BY room_number";
         
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, Hotel.currentId());
+            ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
                 rooms.add(new Room(
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 ));
@@ -264,12 +348,13 @@ public class Room {
      */
     public static List<Room> getRoomsByType(String roomType) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE room_type = ? ORDER BY room_number";
+        String sql = "SELECT * FROM rooms WHERE room_type = ? AND hotel_id = ? ORDER BY room_number";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, roomType);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -277,7 +362,7 @@ public class Room {
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 ));
@@ -296,12 +381,13 @@ public class Room {
      */
     public static List<Room> getAvailableRoomsByType(String roomType) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE room_type = ? AND is_available = TRUE ORDER BY room_number";
+        String sql = "SELECT * FROM rooms WHERE room_type = ? AND is_available = TRUE AND hotel_id = ? ORDER BY room_number";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.getReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setString(1, roomType);
+            stmt.setInt(2, Hotel.currentId());
             ResultSet rs = stmt.executeQuery();
             
             while (rs.next()) {
@@ -309,7 +395,7 @@ public class Room {
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 ));
@@ -327,16 +413,31 @@ public class Room {
      * @return List of matching rooms
      */
     public static List<Room> searchRooms(String searchTerm) {
+        return searchRooms(searchTerm, null);
+    }
+    
+    /**
+     * Search rooms by room number or type on a dedicated connection
+     * @param searchTerm Search term
+     * @param handle Handle used to cancel the query when it is superseded, or null
+     * @return List of matching rooms, empty if the query was cancelled
+     */
+    public static List<Room> searchRooms(String searchTerm, QueryHandle handle) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM rooms WHERE room_number LIKE ? OR room_type LIKE ? OR description LIKE ? ORDER BY room_number";
+        String sql = "SELECT * FROM rooms WHERE (room_number LIKE ? OR room_type LIKE ? OR description LIKE ?) AND hotel_id = ? ORDER BY room_number";
         
-        try (Connection conn = DBConnection.getConnection();
+        try (Connection conn = DBConnection.openReadConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
+            if (handle != null && !handle.attach(stmt)) {
+                return rooms;
+            }
+            
             String searchPattern = "%" + searchTerm + "%";
             stmt.setString(1, searchPattern);
             stmt.setString(2, searchPattern);
             stmt.setString(3, searchPattern);
+            stmt.setInt(4, Hotel.currentId());
             
             ResultSet rs = stmt.executeQuery();
             
@@ -345,14 +446,21 @@ public class Room {
                     rs.getInt("room_id"),
                     rs.getString("room_number"),
                     rs.getString("room_type"),
-                    rs.getDouble("price_per_night"),
+                    Money.getMoney(rs, "price_per_night"),
                     rs.getBoolean("is_available"),
                     rs.getString("description")
                 ));
             }
         } catch (SQLException e) {
+            if (handle != null && handle.isCancelled()) {
+                return new ArrayList<>();
+            }
             System.err.println("Error searching rooms: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            if (handle != null) {
+                handle.detach();
+            }
         }
         return rooms;
     }
@@ -364,15 +472,18 @@ public class Room {
      * @return true if successful, false otherwise
      */
     public static boolean updateRoomAvailability(int roomId, boolean available) {
-        String sql = "UPDATE rooms SET is_available = ? WHERE room_id = ?";
+        String sql = "UPDATE rooms SET is_available = ? WHERE room_id = ? AND hotel_id = ?";
         
         try (Connection conn = DBConnection.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             
             stmt.setBoolean(1, available);
             stmt.setInt(2, roomId);
+            stmt.setInt(3, Hotel.currentId());
             
             int affectedRows = stmt.executeUpdate();
+            ChangeFeed.changed(ChangeFeed.Table.ROOMS, roomId);
+            DBConnection.markWrite();
             return affectedRows > 0;
             
         } catch (SQLException e) {
@@ -384,7 +495,7 @@ public class Room {
     
     @Override
     public String toString() {
-        return String.format("Room{ID: %d, Number: %s, Type: %s, Price: $%.2f, Available: %s}", 
+        return String.format("Room{ID: %d, Number: %s, Type: %s, Price: %s, Available: %s}", 
                            roomId, roomNumber, roomType, pricePerNight, isAvailable ? "Yes" : "No");
     }
 }
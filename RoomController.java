@@ -1,14 +1,23 @@
 package controller;
 
+import model.ChangeFeed;
+import model.LocalCatalog;
+import model.Money;
+import model.RateCalendar;
 import model.Room;
+import model.RoomRates;
+import model.RoomService;
+import model.UpdateResult;
 import view.AdminDashboard;
 import view.BookingView;
 import view.CustomerRegistrationView;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
+import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -16,18 +25,32 @@ import java.util.List;
  * Handles room management operations
  */
 public class RoomController {
+    private static final String[] ROOM_TYPES = {
+        "Standard Single", "Standard Double", "Deluxe Suite", "Executive Suite", "Presidential Suite"
+    };
+    
     private AdminDashboard adminDashboard;
     private JDialog roomDialog;
     private JTable roomsTable;
     private DefaultTableModel roomsTableModel;
+    private LiveSearch<Room> roomSearch;
     
     public RoomController(AdminDashboard adminDashboard) {
         this.adminDashboard = adminDashboard;
         this.roomsTable = adminDashboard.getRoomsTable();
         this.roomsTableModel = adminDashboard.getRoomsTableModel();
+        this.roomSearch = new LiveSearch<>("rooms", Room::searchRooms, this::showSearchResults);
         
         setupEventHandlers();
-        loadRooms();
+        
+        // Start from the warm catalog when available; Refresh always queries the database
+        if (LocalCatalog.isLoaded()) {
+            List<Room> rooms = LocalCatalog.getRooms();
+            populateRoomsTable(rooms);
+            System.out.println("Loaded " + rooms.size() + " rooms from catalog");
+        } else {
+            loadRooms();
+        }
     }
     
     private void setupEventHandlers() {
@@ -35,8 +58,13 @@ public class RoomController {
         adminDashboard.addRoomsAddButtonListener(e -> showAddRoomDialog());
         adminDashboard.addRoomsEditButtonListener(e -> showEditRoomDialog());
         adminDashboard.addRoomsDeleteButtonListener(e -> deleteRoom());
-        adminDashboard.addRoomsRefreshButtonListener(e -> loadRooms());
+        adminDashboard.addRoomsBulkRatesButtonListener(e -> showBulkRatesDialog());
+        adminDashboard.addRoomsRefreshButtonListener(e -> {
+            RateCalendar.invalidate(); // Pick up rate rule changes made in the database
+            loadRooms();
+        });
         adminDashboard.addRoomsSearchButtonListener(e -> searchRooms());
+        adminDashboard.addRoomsSearchFieldListener(roomSearch.createDocumentListener(adminDashboard::getRoomsSearchText));
     }
     
     private void showAddRoomDialog() {
@@ -84,9 +112,7 @@ public class RoomController {
         formPanel.add(roomNumberField, gbc);
         
         // Room Type
-        JComboBox<String> roomTypeCombo = new JComboBox<>(new String[]{
-            "Standard Single", "Standard Double", "Deluxe Suite", "Executive Suite", "Presidential Suite"
-        });
+        JComboBox<String> roomTypeCombo = new JComboBox<>(ROOM_TYPES);
         gbc.gridx = 0; gbc.gridy = 1;
         formPanel.add(new JLabel("Room Type:*"), gbc);
         gbc.gridx = 1;
@@ -124,7 +150,7 @@ public class RoomController {
         if (isEditMode) {
             roomNumberField.setText(room.getRoomNumber());
             roomTypeCombo.setSelectedItem(room.getRoomType());
-            priceField.setText(String.valueOf(room.getPricePerNight()));
+            priceField.setText(room.getPricePerNight().toPlainString());
             availableCheckBox.setSelected(room.isAvailable());
             descriptionArea.setText(room.getDescription());
         }
@@ -167,9 +193,10 @@ public class RoomController {
             return false;
         }
         
+        Money price;
         try {
-            double price = Double.parseDouble(priceField.getText().trim());
-            if (price <= 0) {
+            price = Money.parse(priceField.getText().trim());
+            if (price.signum() <= 0) {
                 JOptionPane.showMessageDialog(adminDashboard, "Price must be greater than 0!", "Validation Error", JOptionPane.ERROR_MESSAGE);
                 priceField.requestFocus();
                 return false;
@@ -183,17 +210,33 @@ public class RoomController {
         // Create or update room
         Room room;
         if (existingRoom != null) {
-            // Update existing room
+            // Update existing room, keeping a copy of it as loaded to merge against
+            Room original = copyOf(existingRoom);
             room = existingRoom;
             room.setRoomNumber(roomNumberField.getText().trim());
             room.setRoomType((String) roomTypeCombo.getSelectedItem());
-            room.setPricePerNight(Double.parseDouble(priceField.getText().trim()));
+            room.setPricePerNight(price);
             room.setAvailable(availableCheckBox.isSelected());
             room.setDescription(descriptionArea.getText().trim());
             
-            if (room.updateRoom()) {
+            UpdateResult<Room> result = room.updateRoom();
+            while (result.isConflict()) {
+                Room current = result.getCurrent();
+                if (!MergePrompt.show(adminDashboard, "Room " + original.getRoomNumber(), mergeFields(original, room, current))) {
+                    JOptionPane.showMessageDialog(adminDashboard, "Your changes were not saved.", "Update Cancelled", JOptionPane.INFORMATION_MESSAGE);
+                    return false;
+                }
+                room.setUpdatedAt(current.getUpdatedAt());
+                original = current;
+                result = room.updateRoom();
+            }
+            
+            if (result.isUpdated()) {
                 JOptionPane.showMessageDialog(adminDashboard, "Room updated successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 return true;
+            } else if (result.getStatus() == UpdateResult.Status.NOT_FOUND) {
+                JOptionPane.showMessageDialog(adminDashboard, "This room has been deleted by someone else.", "Error", JOptionPane.ERROR_MESSAGE);
+                return false;
             } else {
                 JOptionPane.showMessageDialog(adminDashboard, "Failed to update room!", "Error", JOptionPane.ERROR_MESSAGE);
                 return false;
@@ -203,7 +246,7 @@ public class RoomController {
             room = new Room(
                 roomNumberField.getText().trim(),
                 (String) roomTypeCombo.getSelectedItem(),
-                Double.parseDouble(priceField.getText().trim()),
+                price,
                 descriptionArea.getText().trim()
             );
             room.setAvailable(availableCheckBox.isSelected());
@@ -218,6 +261,28 @@ public class RoomController {
         }
     }
     
+    private static Room copyOf(Room room) {
+        Room copy = new Room(room.getRoomId(), room.getRoomNumber(), room.getRoomType(),
+            room.getPricePerNight(), room.isAvailable(), room.getDescription());
+        copy.setUpdatedAt(room.getUpdatedAt());
+        return copy;
+    }
+    
+    private static List<MergePrompt.Field> mergeFields(Room original, Room mine, Room current) {
+        return List.of(
+            new MergePrompt.Field("Room number", original.getRoomNumber(), mine.getRoomNumber(), current.getRoomNumber(),
+                () -> mine.setRoomNumber(current.getRoomNumber())),
+            new MergePrompt.Field("Room type", original.getRoomType(), mine.getRoomType(), current.getRoomType(),
+                () -> mine.setRoomType(current.getRoomType())),
+            new MergePrompt.Field("Price per night", original.getPricePerNight(), mine.getPricePerNight(), current.getPricePerNight(),
+                () -> mine.setPricePerNight(current.getPricePerNight())),
+            new MergePrompt.Field("Available", original.isAvailable(), mine.isAvailable(), current.isAvailable(),
+                () -> mine.setAvailable(current.isAvailable())),
+            new MergePrompt.Field("Description", original.getDescription(), mine.getDescription(), current.getDescription(),
+                () -> mine.setDescription(current.getDescription()))
+        );
+    }
+    
     private void deleteRoom() {
         int selectedRow = adminDashboard.getSelectedRoomsRow();
         if (selectedRow == -1) {
@@ -246,53 +311,181 @@ public class RoomController {
         }
     }
     
-    private void loadRooms() {
-        // Clear existing data
-        roomsTableModel.setRowCount(0);
+    private void showBulkRatesDialog() {
+        JDialog dialog = new JDialog(adminDashboard, "Bulk Rate Update", true);
+        dialog.setSize(420, 330);
+        dialog.setLocationRelativeTo(adminDashboard);
+        dialog.setLayout(new BorderLayout());
+        
+        JPanel formPanel = new JPanel(new GridBagLayout());
+        formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+        
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(8, 10, 8, 10);
+        gbc.anchor = GridBagConstraints.WEST;
+        
+        // Room Type
+        JComboBox<String> roomTypeCombo = new JComboBox<>();
+        roomTypeCombo.addItem("All Types");
+        for (String roomType : ROOM_TYPES) {
+            roomTypeCombo.addItem(roomType);
+        }
+        gbc.gridx = 0; gbc.gridy = 0;
+        formPanel.add(new JLabel("Room Type:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(roomTypeCombo, gbc);
+        
+        // Floor (blank for all floors)
+        JTextField floorField = new JTextField(15);
+        gbc.gridx = 0; gbc.gridy = 1;
+        formPanel.add(new JLabel("Floor:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(floorField, gbc);
+        
+        // Adjustment
+        JComboBox<String> adjustmentCombo = new JComboBox<>(new String[]{"Set price to ($)", "Adjust by (%)"});
+        gbc.gridx = 0; gbc.gridy = 2;
+        formPanel.add(new JLabel("Change:*"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(adjustmentCombo, gbc);
+        
+        JTextField valueField = new JTextField(15);
+        gbc.gridx = 0; gbc.gridy = 3;
+        formPanel.add(new JLabel("Value:*"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(valueField, gbc);
+        
+        JTextField reasonField = new JTextField(15);
+        gbc.gridx = 0; gbc.gridy = 4;
+        formPanel.add(new JLabel("Reason:"), gbc);
+        gbc.gridx = 1;
+        formPanel.add(reasonField, gbc);
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        JButton applyButton = new JButton("Apply");
+        JButton cancelButton = new JButton("Cancel");
+        
+        applyButton.addActionListener(e -> {
+            RoomRates.RateRule rule;
+            try {
+                String roomType = roomTypeCombo.getSelectedIndex() == 0 ? null : (String) roomTypeCombo.getSelectedItem();
+                Integer floor = floorField.getText().trim().isEmpty() ? null : Integer.valueOf(floorField.getText().trim());
+                String value = valueField.getText().trim();
+                rule = adjustmentCombo.getSelectedIndex() == 0 
+                    ? RoomRates.RateRule.setPrice(roomType, floor, Money.parse(value)) 
+                    : RoomRates.RateRule.adjustPercent(roomType, floor, new BigDecimal(value));
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(dialog, "Please enter a valid floor and value!", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(dialog, ex.getMessage() + "!", "Validation Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            
+            int result = JOptionPane.showConfirmDialog(dialog, 
+                "Apply rate change?\n" + rule, 
+                "Confirm Rate Update", 
+                JOptionPane.YES_NO_OPTION);
+            if (result != JOptionPane.YES_OPTION) {
+                return;
+            }
+            
+            String reason = reasonField.getText().trim().isEmpty() ? "Bulk rate update" : reasonField.getText().trim();
+            int changed = RoomRates.applyRules(List.of(rule), reason);
+            if (changed >= 0) {
+                JOptionPane.showMessageDialog(dialog, "Rates updated for " + changed + " rooms!", "Success", JOptionPane.INFORMATION_MESSAGE);
+                dialog.dispose();
+                loadRooms();
+            } else {
+                JOptionPane.showMessageDialog(dialog, "Failed to update rates!", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
         
+        cancelButton.addActionListener(e -> dialog.dispose());
+        
+        buttonPanel.add(applyButton);
+        buttonPanel.add(cancelButton);
+        
+        dialog.add(formPanel, BorderLayout.CENTER);
+        dialog.add(buttonPanel, BorderLayout.SOUTH);
+        dialog.setVisible(true);
+    }
+    
+    private void loadRooms() {
         // Load all rooms
         List<Room> rooms = Room.getAllRooms();
-        for (Room room : rooms) {
-            Object[] rowData = {
-                room.getRoomId(),
-                room.getRoomNumber(),
-                room.getRoomType(),
-                String.format("$%.2f", room.getPricePerNight()),
-                room.isAvailable() ? "Yes" : "No",
-                room.getDescription()
-            };
-            roomsTableModel.addRow(rowData);
-        }
+        populateRoomsTable(rooms);
         
         System.out.println("Loaded " + rooms.size() + " rooms");
     }
     
     private void searchRooms() {
-        String searchTerm = adminDashboard.getRoomsSearchText();
+        // Runs in the background; results arrive through showSearchResults
+        roomSearch.search(adminDashboard.getRoomsSearchText());
+    }
+    
+    private void showSearchResults(List<Room> rooms) {
+        populateRoomsTable(rooms);
         
+        String searchTerm = adminDashboard.getRoomsSearchText();
         if (searchTerm.isEmpty()) {
-            loadRooms();
-            return;
+            System.out.println("Loaded " + rooms.size() + " rooms");
+        } else {
+            System.out.println("Found " + rooms.size() + " rooms matching: " + searchTerm);
         }
-        
+    }
+    
+    private void populateRoomsTable(List<Room> rooms) {
         // Clear existing data
         roomsTableModel.setRowCount(0);
         
-        // Search rooms
-        List<Room> rooms = Room.searchRooms(searchTerm);
         for (Room room : rooms) {
-            Object[] rowData = {
-                room.getRoomId(),
-                room.getRoomNumber(),
-                room.getRoomType(),
-                String.format("$%.2f", room.getPricePerNight()),
-                room.isAvailable() ? "Yes" : "No",
-                room.getDescription()
-            };
-            roomsTableModel.addRow(rowData);
+            roomsTableModel.addRow(roomRow(room));
+        }
+    }
+    
+    static Object[] roomRow(Room room) {
+        return new Object[] {
+            room.getRoomId(),
+            room.getRoomNumber(),
+            room.getRoomType(),
+            room.getPricePerNight(), // Renders through its cached display string
+            room.isAvailable() ? "Yes" : "No",
+            room.getDescription()
+        };
+    }
+    
+    /**
+     * Re-read rooms changed at another desk and update their rows in place
+     * New rooms are added in room number order unless a search is showing.
+     */
+    void applyChange(ChangeFeed.Change change) {
+        if (LiveUpdates.needsReload(change)) {
+            refreshRooms();
+            return;
+        }
+        LiveUpdates.fetch(change.getIds(), RoomService::getRoomById, (roomId, room) -> {
+            int insertAt = -1;
+            if (room != null && adminDashboard.getRoomsSearchText().isEmpty()) {
+                insertAt = 0;
+                while (insertAt < roomsTableModel.getRowCount() && String.valueOf(roomsTableModel.getValueAt(insertAt, 1))
+                        .compareToIgnoreCase(room.getRoomNumber()) < 0) {
+                    insertAt++;
+                }
+            }
+            LiveUpdates.updateRow(roomsTableModel, roomId, room != null ? roomRow(room) : null, insertAt);
+        });
+    }
+    
+    /**
+     * Reload the rooms table, keeping any search
+     */
+    public void refreshRooms() {
+        if (adminDashboard.getRoomsSearchText().isEmpty()) {
+            loadRooms();
+        } else {
+            searchRooms();
         }
-        
-        System.out.println("Found " + rooms.size() + " rooms matching: " + searchTerm);
     }
     
     // Method to get available rooms for booking
@@ -0,0 +1,226 @@
+package model;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk room rate management for the Hotel Management System
+ * Applies rate rules to every matching room with one set-based statement per rule
+ * and records each price change in room_rate_history within the same transaction.
+ */
+public class RoomRates {
+    public enum Adjustment {
+        SET_PRICE, ADJUST_PERCENT
+    }
+
+    // Floor is derived from the room number: 101 -> 1, 1203 -> 12
+    private static final String FLOOR_EXPRESSION = "CAST(room_number AS UNSIGNED) DIV 100";
+
+    /**
+     * A rate change for all rooms matching a room type and/or floor
+     */
+    public static class RateRule {
+        private final String roomType;
+        private final Integer floor;
+        private final Adjustment adjustment;
+        private final Money price;
+        private final BigDecimal percent;
+
+        private RateRule(String roomType, Integer floor, Adjustment adjustment, Money price, BigDecimal percent) {
+            this.roomType = roomType;
+            this.floor = floor;
+            this.adjustment = adjustment;
+            this.price = price;
+            this.percent = percent;
+        }
+
+        /**
+         * @param roomType Room type to match, or null for any type
+         * @param floor Floor to match, or null for any floor
+         * @param price New price per night
+         * @return Rule setting a fixed price
+         */
+        public static RateRule setPrice(String roomType, Integer floor, Money price) {
+            if (price.signum() <= 0) {
+                throw new IllegalArgumentException("Price must be greater than 0");
+            }
+            return new RateRule(roomType, floor, Adjustment.SET_PRICE, price, null);
+        }
+
+        /**
+         * @param roomType Room type to match, or null for any type
+         * @param floor Floor to match, or null for any floor
+         * @param percent Percentage to add (negative to lower)
+         * @return Rule changing prices by a percentage, rounded to the cent
+         */
+        public static RateRule adjustPercent(String roomType, Integer floor, BigDecimal percent) {
+            if (percent.compareTo(BigDecimal.valueOf(-100)) <= 0) {
+                throw new IllegalArgumentException("Percentage must be greater than -100");
+            }
+            return new RateRule(roomType, floor, Adjustment.ADJUST_PERCENT, null, percent);
+        }
+
+        public String getRoomType() { return roomType; }
+        public Integer getFloor() { return floor; }
+        public Adjustment getAdjustment() { return adjustment; }
+        public Money getPrice() { return price; }
+        public BigDecimal getPercent() { return percent; }
+
+        void bindValue(PreparedStatement stmt, int index) throws SQLException {
+            if (adjustment == Adjustment.SET_PRICE) {
+                Money.setMoney(stmt, index, price);
+            } else {
+                stmt.setBigDecimal(index, percent);
+            }
+        }
+
+        String newPriceExpression() {
+            return adjustment == Adjustment.SET_PRICE
+                ? "ROUND(?, 2)"
+                : "ROUND(price_per_night * (1 + ? / 100), 2)";
+        }
+
+        String whereClause() {
+            StringBuilder where = new StringBuilder("hotel_id = ?");
+            if (roomType != null) {
+                where.append(" AND room_type = ?");
+            }
+            if (floor != null) {
+                where.append(" AND ").append(FLOOR_EXPRESSION).append(" = ?");
+            }
+            return where.toString();
+        }
+
+        int bindFilter(PreparedStatement stmt, int index) throws SQLException {
+            stmt.setInt(index++, Hotel.currentId());
+            if (roomType != null) {
+                stmt.setString(index++, roomType);
+            }
+            if (floor != null) {
+                stmt.setInt(index++, floor);
+            }
+            return index;
+        }
+
+        @Override
+        public String toString() {
+            String target = (roomType != null ? roomType : "All types") + (floor != null ? ", floor " + floor : "");
+            return adjustment == Adjustment.SET_PRICE
+                ? target + ": set to " + price
+                : String.format("%s: adjust by %+.1f%%", target, percent);
+        }
+    }
+
+    /**
+     * A recorded price change
+     */
+    public static class RateChange {
+        private final int roomId;
+        private final Money oldPrice;
+        private final Money newPrice;
+        private final String reason;
+        private final Timestamp changedAt;
+
+        public RateChange(int roomId, Money oldPrice, Money newPrice, String reason, Timestamp changedAt) {
+            this.roomId = roomId;
+            this.oldPrice = oldPrice;
+            this.newPrice = newPrice;
+            this.reason = reason;
+            this.changedAt = changedAt;
+        }
+
+        public int getRoomId() { return roomId; }
+        public Money getOldPrice() { return oldPrice; }
+        public Money getNewPrice() { return newPrice; }
+        public String getReason() { return reason; }
+        public Timestamp getChangedAt() { return changedAt; }
+    }
+
+    /**
+     * Apply rate rules in one transaction
+     * @param rules Rules to apply, in order
+     * @param reason Reason stored with each history row
+     * @return Number of room price changes made, or -1 if the update failed and was rolled back
+     */
+    public static int applyRules(List<RateRule> rules, String reason) {
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            int changed = 0;
+
+            try {
+                for (RateRule rule : rules) {
+                    String newPrice = rule.newPriceExpression();
+                    String where = rule.whereClause() + " AND " + newPrice + " <> price_per_night";
+
+                    // History first, while the old prices are still in place
+                    String historySql = "INSERT INTO room_rate_history (room_id, old_price, new_price, reason) "
+                        + "SELECT room_id, price_per_night, " + newPrice + ", ? FROM rooms WHERE " + where;
+                    try (PreparedStatement stmt = conn.prepareStatement(historySql)) {
+                        rule.bindValue(stmt, 1);
+                        stmt.setString(2, reason);
+                        int index = rule.bindFilter(stmt, 3);
+                        rule.bindValue(stmt, index);
+                        stmt.executeUpdate();
+                    }
+
+                    String updateSql = "UPDATE rooms SET price_per_night = " + newPrice + " WHERE " + where;
+                    try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+                        rule.bindValue(stmt, 1);
+                        int index = rule.bindFilter(stmt, 2);
+                        rule.bindValue(stmt, index);
+                        changed += stmt.executeUpdate();
+                    }
+                }
+
+                if (changed > 0) {
+                    ChangeFeed.changedAll(ChangeFeed.Table.ROOMS);
+                }
+                conn.commit();
+                DBConnection.markWrite();
+                System.out.println("Updated rates for " + changed + " rooms (" + reason + ")");
+                return changed;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error applying rate rules: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Get the price history of a room, newest first
+     * @param roomId ID of the room
+     * @return List of price changes
+     */
+    public static List<RateChange> getRateHistory(int roomId) {
+        List<RateChange> changes = new ArrayList<>();
+        String sql = "SELECT * FROM room_rate_history WHERE room_id = ? ORDER BY changed_at DESC, history_id DESC";
+
+        try (Connection conn = DBConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, roomId);
+            ResultSet rs = stmt.executeQuery();
+
+            while (rs.next()) {
+                changes.add(new RateChange(
+                    rs.getInt("room_id"),
+                    Money.getMoney(rs, "old_price"),
+                    Money.getMoney(rs, "new_price"),
+                    rs.getString("reason"),
+                    rs.getTimestamp("changed_at")
+                ));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error getting rate history: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,63 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous room service for the Hotel Management System
+ * Each method runs the matching Room call on the ServiceExecutor and returns at once
+ */
+public class RoomService {
+    public static CompletableFuture<Boolean> addRoom(Room room) {
+        return ServiceExecutor.supply(room::addRoom);
+    }
+
+    public static CompletableFuture<UpdateResult<Room>> updateRoom(Room room) {
+        return ServiceExecutor.supply(room::updateRoom);
+    }
+
+    public static CompletableFuture<Boolean> deleteRoom(int roomId) {
+        return ServiceExecutor.supply(() -> Room.deleteRoom(roomId));
+    }
+
+    public static CompletableFuture<Boolean> updateRoomAvailability(int roomId, boolean available) {
+        return ServiceExecutor.supply(() -> Room.updateRoomAvailability(roomId, available));
+    }
+
+    /**
+     * @return Future completed with the room, or null if not found
+     */
+    public static CompletableFuture<Room> getRoomById(int roomId) {
+        return ServiceExecutor.supply(() -> Room.getRoomById(roomId));
+    }
+
+    /**
+     * @return Future completed with the room, or null if not found
+     */
+    public static CompletableFuture<Room> getRoomByNumber(String roomNumber) {
+        return ServiceExecutor.supply(() -> Room.getRoomByNumber(roomNumber));
+    }
+
+    public static CompletableFuture<List<Room>> getAllRooms() {
+        return ServiceExecutor.supply(Room::getAllRooms);
+    }
+
+    public static CompletableFuture<List<Room>> getAvailableRooms() {
+        return ServiceExecutor.supply(Room::getAvailableRooms);
+    }
+
+    public static CompletableFuture<List<Room>> getRoomsByType(String roomType) {
+        return ServiceExecutor.supply(() -> Room.getRoomsByType(roomType));
+    }
+
+    public static CompletableFuture<List<Room>> getAvailableRoomsByType(String roomType) {
+        return ServiceExecutor.supply(() -> Room.getAvailableRoomsByType(roomType));
+    }
+
+    /**
+     * @param handle Handle to cancel the query with, or null
+     */
+    public static CompletableFuture<List<Room>> searchRooms(String searchTerm, QueryHandle handle) {
+        return ServiceExecutor.supply(() -> Room.searchRooms(searchTerm, handle));
+    }
+}
@@ -0,0 +1,51 @@
+package model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor behind the asynchronous service layer
+ * Runs blocking model calls on a pool of daemon threads that grows to THREADS
+ * under load and shrinks when idle. Each thread uses its own database connection
+ * (see DBConnection.getConnection), so calls running at the same time do not
+ * interfere with one another. Calls run as the caller's current hotel.
+ */
+public class ServiceExecutor {
+    public static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final long IDLE_SECONDS = 30;
+
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final ThreadPoolExecutor executor;
+
+    static {
+        executor = new ThreadPoolExecutor(THREADS, THREADS, IDLE_SECONDS, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "service-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @return Executor for continuations that block, e.g. thenApplyAsync(..., ServiceExecutor.executor())
+     */
+    public static Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Run a blocking call in the background
+     * @param call Call to run
+     * @return Future completed with the call's result, or exceptionally if it throws
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        int hotelId = Hotel.currentId();
+        return CompletableFuture.supplyAsync(() -> Hotel.callAs(hotelId, call), executor);
+    }
+}
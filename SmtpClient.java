@@ -0,0 +1,258 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+
+/**
+ * Minimal SMTP client for the Hotel Management System
+ * Speaks plain SMTP (EHLO, optional AUTH PLAIN, MAIL, RCPT, DATA) over one connection,
+ * so a dispatcher can send a whole batch of messages per session. Used against the
+ * hotel's relay or the embedded LocalSmtpServer; TLS is left to the relay.
+ */
+public class SmtpClient implements Closeable {
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    /**
+     * An SMTP reply other than the one expected
+     */
+    public static class SmtpException extends IOException {
+        private final int code;
+
+        public SmtpException(int code, String reply) {
+            super(reply);
+            this.code = code;
+        }
+
+        public int getCode() { return code; }
+
+        /**
+         * @return true for 5xx replies, which will fail the same way on retry
+         */
+        public boolean isPermanent() { return code >= 500; }
+    }
+
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private final StringBuilder reply = new StringBuilder();
+
+    /**
+     * Connect and read the server greeting
+     * @param host SMTP host
+     * @param port SMTP port
+     * @param timeoutMillis Connect and read timeout
+     */
+    public SmtpClient(String host, int port, int timeoutMillis) throws IOException {
+        socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            socket.setSoTimeout(timeoutMillis);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+            expect(readReply(), 220);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Introduce this client, falling back to HELO for servers without ESMTP
+     * @param domain Client domain name
+     */
+    public void hello(String domain) throws IOException {
+        if (command("EHLO " + domain) != 250) {
+            expect(command("HELO " + domain), 250);
+        }
+    }
+
+    /**
+     * Authenticate with AUTH PLAIN
+     */
+    public void login(String username, String password) throws IOException {
+        String credentials = "\0" + username + "\0" + password;
+        String encoded = Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        expect(command("AUTH PLAIN " + encoded), 235);
+    }
+
+    /**
+     * Send one message
+     * @param from Envelope sender
+     * @param to Envelope recipient
+     * @param message Complete message with CRLF line endings, as built by buildMessage
+     */
+    public void send(String from, String to, byte[] message) throws IOException {
+        expect(command("MAIL FROM:<" + from + ">"), 250);
+        int code = command("RCPT TO:<" + to + ">");
+        if (code != 250 && code != 251) {
+            throw new SmtpException(code, reply.toString());
+        }
+        expect(command("DATA"), 354);
+
+        // Dot-stuff lines starting with '.' so they are not read as the end of the data
+        boolean lineStart = true;
+        for (byte b : message) {
+            if (lineStart && b == '.') {
+                out.write('.');
+            }
+            out.write(b);
+            lineStart = b == '\n';
+        }
+        if (!lineStart) {
+            out.write(CRLF);
+        }
+        out.write('.');
+        out.write(CRLF);
+        out.flush();
+        expect(readReply(), 250);
+    }
+
+    /**
+     * Abandon the current message so the session can carry on with the next one
+     */
+    public void reset() throws IOException {
+        expect(command("RSET"), 250);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!socket.isClosed()) {
+                command("QUIT");
+            }
+        } catch (IOException e) {
+            // The server may already have gone away
+        } finally {
+            socket.close();
+        }
+    }
+
+    private int command(String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write(CRLF);
+        out.flush();
+        return readReply();
+    }
+
+    private void expect(int code, int expected) throws SmtpException {
+        if (code != expected) {
+            throw new SmtpException(code, reply.toString());
+        }
+    }
+
+    // Reads a possibly multi-line reply ("250-..." lines followed by "250 ...") and returns its code
+    private int readReply() throws IOException {
+        reply.setLength(0);
+        while (true) {
+            int start = reply.length();
+            int c;
+            while ((c = in.read()) != '\n') {
+                if (c < 0) {
+                    throw new EOFException("SMTP connection closed");
+                }
+                if (c != '\r') {
+                    reply.append((char) c);
+                }
+            }
+            if (reply.length() - start < 3) {
+                throw new IOException("Malformed SMTP reply: " + reply);
+            }
+            boolean last = reply.length() - start == 3 || reply.charAt(start + 3) != '-';
+            if (last) {
+                try {
+                    return Integer.parseInt(reply.substring(start, start + 3));
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed SMTP reply: " + reply);
+                }
+            }
+            reply.append('\n');
+        }
+    }
+
+    /**
+     * Build a MIME message with a plain-text body and an optional attachment
+     * @param messageId Unique message ID without angle brackets
+     * @param attachmentName File name of the attachment, or null for none
+     * @param attachment Attachment bytes, or null for none
+     * @return Message with CRLF line endings
+     */
+    public static byte[] buildMessage(String messageId, String from, String to, String subject, String body,
+                                      String attachmentName, byte[] attachment) {
+        String boundary = "=_hotel_" + Long.toHexString(System.nanoTime());
+        StringBuilder sb = new StringBuilder(1024 + (attachment != null ? attachment.length * 4 / 3 : 0));
+        header(sb, "Date", DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now()));
+        header(sb, "From", from);
+        header(sb, "To", to);
+        header(sb, "Subject", encodeHeader(subject));
+        header(sb, "Message-ID", "<" + messageId + ">");
+        header(sb, "MIME-Version", "1.0");
+        if (attachment != null) {
+            header(sb, "Content-Type", "multipart/mixed; boundary=\"" + boundary + "\"");
+            sb.append("\r\n--").append(boundary).append("\r\n");
+        }
+        appendTextPart(sb, body);
+        if (attachment != null) {
+            sb.append("\r\n--").append(boundary).append("\r\n");
+            String contentType = attachmentName.endsWith(".pdf") ? "application/pdf" : "application/octet-stream";
+            header(sb, "Content-Type", contentType + "; name=\"" + attachmentName + "\"");
+            header(sb, "Content-Disposition", "attachment; filename=\"" + attachmentName + "\"");
+            header(sb, "Content-Transfer-Encoding", "base64");
+            sb.append("\r\n").append(Base64.getMimeEncoder().encodeToString(attachment)).append("\r\n");
+            sb.append("--").append(boundary).append("--\r\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendTextPart(StringBuilder sb, String body) {
+        String text = body.replace("\r\n", "\n").replace("\n", "\r\n");
+        header(sb, "Content-Type", "text/plain; charset=UTF-8");
+        if (isPlainAscii(text)) {
+            header(sb, "Content-Transfer-Encoding", "7bit");
+            sb.append("\r\n").append(text);
+        } else {
+            header(sb, "Content-Transfer-Encoding", "base64");
+            sb.append("\r\n").append(Base64.getMimeEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8)));
+        }
+        sb.append("\r\n");
+    }
+
+    // 7bit bodies must be ASCII with lines of at most 998 characters
+    private static boolean isPlainAscii(String text) {
+        int lineLength = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80 || c == 0) {
+                return false;
+            }
+            lineLength = c == '\n' ? 0 : lineLength + 1;
+            if (lineLength > 998) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String encodeHeader(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return "=?UTF-8?B?" + Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8)) + "?=";
+            }
+        }
+        return value;
+    }
+
+    private static void header(StringBuilder sb, String name, String value) {
+        sb.append(name).append(": ").append(value.replace("\r", " ").replace("\n", " ")).append("\r\n");
+    }
+}
@@ -0,0 +1,302 @@
+package model;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot file for the core tables
+ *
+ * Layout (big-endian):
+ *   header     magic "HMSS", version, created-at millis, updated_at watermark per table,
+ *              string count, room count, customer count, booking count
+ *   strings    offset table (int per string, plus end offset) followed by the UTF-8 bytes
+ *   rooms      fixed-width records, strings stored as dictionary indexes (-1 for null)
+ *   customers  fixed-width records
+ *   bookings   fixed-width records
+ *
+ * Amounts are stored as whole cents and dates as epoch days.
+ */
+public class SnapshotStore {
+    private static final int MAGIC = 0x484D5353; // "HMSS"
+    private static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 2 + 8 + 8 * 3 + 4 * 4;
+    private static final int ROOM_RECORD_SIZE = 4 + 4 + 4 + 8 + 1 + 4;
+    private static final int CUSTOMER_RECORD_SIZE = 4 + 4 * 5 + 8;
+    private static final int BOOKING_RECORD_SIZE = 4 + 4 + 4 + 4 + 4 + 8 + 1 + 8;
+
+    private static final Booking.BookingStatus[] STATUSES = Booking.BookingStatus.values();
+
+    /**
+     * Contents of a snapshot
+     */
+    public static class Snapshot {
+        private final List<Room> rooms;
+        private final List<Customer> customers;
+        private final List<Booking> bookings;
+        private final long roomsWatermark;
+        private final long customersWatermark;
+        private final long bookingsWatermark;
+
+        /**
+         * @param rooms Rooms in the snapshot
+         * @param customers Customers in the snapshot
+         * @param bookings Bookings in the snapshot (display fields are not stored)
+         * @param roomsWatermark Highest rooms.updated_at covered, in epoch millis
+         * @param customersWatermark Highest customers.updated_at covered, in epoch millis
+         * @param bookingsWatermark Highest bookings.updated_at covered, in epoch millis
+         */
+        public Snapshot(List<Room> rooms, List<Customer> customers, List<Booking> bookings,
+                        long roomsWatermark, long customersWatermark, long bookingsWatermark) {
+            this.rooms = rooms;
+            this.customers = customers;
+            this.bookings = bookings;
+            this.roomsWatermark = roomsWatermark;
+            this.customersWatermark = customersWatermark;
+            this.bookingsWatermark = bookingsWatermark;
+        }
+
+        public List<Room> getRooms() { return rooms; }
+        public List<Customer> getCustomers() { return customers; }
+        public List<Booking> getBookings() { return bookings; }
+        public long getRoomsWatermark() { return roomsWatermark; }
+        public long getCustomersWatermark() { return customersWatermark; }
+        public long getBookingsWatermark() { return bookingsWatermark; }
+    }
+
+    /**
+     * Write a snapshot atomically: the file is written beside the target and renamed into place.
+     * Neither the file nor the target is left memory-mapped, since Windows cannot replace a mapped file.
+     * @param file Snapshot file
+     * @param snapshot Contents to write
+     * @throws IOException if writing fails
+     */
+    public static void write(Path file, Snapshot snapshot) throws IOException {
+        // Build the string dictionary
+        Map<String, Integer> indexes = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        for (Room room : snapshot.rooms) {
+            intern(room.getRoomNumber(), indexes, strings);
+            intern(room.getRoomType(), indexes, strings);
+            intern(room.getDescription(), indexes, strings);
+        }
+        for (Customer customer : snapshot.customers) {
+            intern(customer.getFirstName(), indexes, strings);
+            intern(customer.getLastName(), indexes, strings);
+            intern(customer.getEmail(), indexes, strings);
+            intern(customer.getPhone(), indexes, strings);
+            intern(customer.getAddress(), indexes, strings);
+        }
+
+        long stringBytes = 0;
+        for (byte[] bytes : strings) {
+            stringBytes += bytes.length;
+        }
+        long size = HEADER_SIZE + 4L * (strings.size() + 1) + stringBytes
+            + (long) ROOM_RECORD_SIZE * snapshot.rooms.size()
+            + (long) CUSTOMER_RECORD_SIZE * snapshot.customers.size()
+            + (long) BOOKING_RECORD_SIZE * snapshot.bookings.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Snapshot too large: " + size + " bytes");
+        }
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = ByteBuffer.allocate((int) size);
+
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putLong(System.currentTimeMillis());
+            out.putLong(snapshot.roomsWatermark);
+            out.putLong(snapshot.customersWatermark);
+            out.putLong(snapshot.bookingsWatermark);
+            out.putInt(strings.size());
+            out.putInt(snapshot.rooms.size());
+            out.putInt(snapshot.customers.size());
+            out.putInt(snapshot.bookings.size());
+
+            int offset = 0;
+            for (byte[] bytes : strings) {
+                out.putInt(offset);
+                offset += bytes.length;
+            }
+            out.putInt(offset);
+            for (byte[] bytes : strings) {
+                out.put(bytes);
+            }
+
+            for (Room room : snapshot.rooms) {
+                out.putInt(room.getRoomId());
+                out.putInt(indexOf(room.getRoomNumber(), indexes));
+                out.putInt(indexOf(room.getRoomType(), indexes));
+                out.putLong(room.getPricePerNight().getMinorUnits());
+                out.put((byte) (room.isAvailable() ? 1 : 0));
+                out.putInt(indexOf(room.getDescription(), indexes));
+            }
+
+            for (Customer customer : snapshot.customers) {
+                out.putInt(customer.getCustomerId());
+                out.putInt(indexOf(customer.getFirstName(), indexes));
+                out.putInt(indexOf(customer.getLastName(), indexes));
+                out.putInt(indexOf(customer.getEmail(), indexes));
+                out.putInt(indexOf(customer.getPhone(), indexes));
+                out.putInt(indexOf(customer.getAddress(), indexes));
+                out.putLong(customer.getCreatedAt() != null ? customer.getCreatedAt().getTime() : Long.MIN_VALUE);
+            }
+
+            for (Booking booking : snapshot.bookings) {
+                out.putInt(booking.getBookingId());
+                out.putInt(booking.getCustomerId());
+                out.putInt(booking.getRoomId());
+                out.putInt((int) booking.getCheckInDate().toEpochDay());
+                out.putInt((int) booking.getCheckOutDate().toEpochDay());
+                out.putLong(booking.getTotalAmount().getMinorUnits());
+                out.put((byte) booking.getBookingStatus().ordinal());
+                out.putLong(booking.getCreatedAt() != null ? booking.getCreatedAt().getTime() : Long.MIN_VALUE);
+            }
+
+            out.flip();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void intern(String value, Map<String, Integer> indexes, List<byte[]> strings) {
+        if (value != null && !indexes.containsKey(value)) {
+            indexes.put(value, strings.size());
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static int indexOf(String value, Map<String, Integer> indexes) {
+        return value == null ? -1 : indexes.get(value);
+    }
+
+    /**
+     * Read a snapshot into memory in one pass, without keeping the file mapped
+     * @param file Snapshot file
+     * @return Snapshot contents, or null if the file is missing or was written by another version
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static Snapshot read(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            ByteBuffer in = ByteBuffer.allocate((int) size);
+            while (in.hasRemaining()) {
+                if (channel.read(in) < 0) {
+                    throw new IOException("Corrupt snapshot file: " + file);
+                }
+            }
+            in.flip();
+            if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            if (in.getShort() != VERSION) {
+                return null;
+            }
+            in.getLong(); // created-at
+            long roomsWatermark = in.getLong();
+            long customersWatermark = in.getLong();
+            long bookingsWatermark = in.getLong();
+            int stringCount = in.getInt();
+            int roomCount = in.getInt();
+            int customerCount = in.getInt();
+            int bookingCount = in.getInt();
+
+            // Decode each dictionary string once; records share the instances
+            int offsetTable = in.position();
+            int stringData = offsetTable + 4 * (stringCount + 1);
+            String[] strings = new String[stringCount];
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < stringCount; i++) {
+                int start = in.getInt(offsetTable + 4 * i);
+                int length = in.getInt(offsetTable + 4 * (i + 1)) - start;
+                if (length > scratch.length) {
+                    scratch = new byte[length];
+                }
+                in.get(stringData + start, scratch, 0, length);
+                strings[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+            }
+            in.position(stringData + in.getInt(offsetTable + 4 * stringCount));
+
+            List<Room> rooms = new ArrayList<>(roomCount);
+            for (int i = 0; i < roomCount; i++) {
+                rooms.add(new Room(
+                    in.getInt(),
+                    lookup(strings, in.getInt()),
+                    lookup(strings, in.getInt()),
+                    Money.ofMinor(in.getLong()),
+                    in.get() != 0,
+                    lookup(strings, in.getInt())
+                ));
+            }
+
+            List<Customer> customers = new ArrayList<>(customerCount);
+            for (int i = 0; i < customerCount; i++) {
+                customers.add(new Customer(
+                    in.getInt(),
+                    lookup(strings, in.getInt()),
+                    lookup(strings, in.getInt()),
+                    lookup(strings, in.getInt()),
+                    lookup(strings, in.getInt()),
+                    lookup(strings, in.getInt()),
+                    timestamp(in.getLong())
+                ));
+            }
+
+            List<Booking> bookings = new ArrayList<>(bookingCount);
+            for (int i = 0; i < bookingCount; i++) {
+                bookings.add(new Booking(
+                    in.getInt(),
+                    in.getInt(),
+                    in.getInt(),
+                    LocalDate.ofEpochDay(in.getInt()),
+                    LocalDate.ofEpochDay(in.getInt()),
+                    Money.ofMinor(in.getLong()),
+                    STATUSES[in.get()],
+                    timestamp(in.getLong())
+                ));
+            }
+
+            return new Snapshot(rooms, customers, bookings, roomsWatermark, customersWatermark, bookingsWatermark);
+
+        } catch (IndexOutOfBoundsException | BufferUnderflowException e) {
+            throw new IOException("Corrupt snapshot file: " + file, e);
+        }
+    }
+
+    private static String lookup(String[] strings, int index) {
+        return index < 0 ? null : strings[index];
+    }
+
+    private static Timestamp timestamp(long millis) {
+        return millis == Long.MIN_VALUE ? null : new Timestamp(millis);
+    }
+}
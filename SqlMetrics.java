@@ -0,0 +1,416 @@
+package model;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement JDBC latency, row and error counts
+ * DBConnection passes every connection it opens through instrument, so each statement
+ * execution is timed and counted under its SQL text, with whitespace collapsed and IN lists
+ * and multi-row VALUES shortened so one statement keeps one entry. The time is until the
+ * driver returns from execute; rows read from a result are counted as they are fetched.
+ * Latencies go into fixed buckets, the same ones the Prometheus endpoint reports (see MetricsServer).
+ * Run with -Dhotel.metrics.disabled=true to hand out the driver's connections unwrapped.
+ */
+public class SqlMetrics {
+    private static final boolean ENABLED = !Boolean.getBoolean("hotel.metrics.disabled");
+
+    /** Upper bounds of the latency buckets in milliseconds; a last bucket holds slower executions */
+    public static final double[] BUCKET_BOUNDS_MS = {0.5, 1, 2.5, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+    private static final long[] BUCKET_BOUNDS_NANOS = new long[BUCKET_BOUNDS_MS.length];
+    static {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            BUCKET_BOUNDS_NANOS[i] = (long) (BUCKET_BOUNDS_MS[i] * 1_000_000);
+        }
+    }
+
+    private static final int MAX_STATEMENTS = 500; // Further distinct statements share one entry
+    private static final int MAX_RAW_SQL = 2_000;
+    private static final String OTHER_STATEMENTS = "(other statements)";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN \\(\\?(?: ?, ?\\?)+\\)");
+    private static final Pattern REPEATED_TUPLES = Pattern.compile("(\\([^()]*\\))(?: ?, ?\\1)+");
+
+    private static final Map<String, Recorder> statements = new ConcurrentHashMap<>();
+    private static final Map<String, Recorder> rawSql = new ConcurrentHashMap<>();
+
+    /**
+     * Running counts for one statement
+     */
+    private static final class Recorder {
+        final String sql;
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        final LongAdder totalNanos = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+
+        Recorder(String sql) {
+            this.sql = sql;
+        }
+
+        void record(long nanos, boolean failed) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_NANOS.length && nanos > BUCKET_BOUNDS_NANOS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        void clear() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            totalNanos.reset();
+            maxNanos.set(0);
+            rows.reset();
+            errors.reset();
+        }
+    }
+
+    /**
+     * Counts for one statement at the time of a snapshot
+     */
+    public static class Stats {
+        private final String sql;
+        private final long[] buckets;
+        private final long executions;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long rows;
+        private final long errors;
+
+        Stats(Recorder recorder) {
+            sql = recorder.sql;
+            buckets = new long[recorder.buckets.length()];
+            long inBuckets = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = recorder.buckets.get(i);
+                inBuckets += buckets[i];
+            }
+            executions = inBuckets; // Consistent with the buckets even while executions are recorded
+            totalNanos = recorder.totalNanos.sum();
+            maxNanos = recorder.maxNanos.get();
+            rows = recorder.rows.sum();
+            errors = recorder.errors.sum();
+        }
+
+        public String getSql() { return sql; }
+        public long getExecutions() { return executions; }
+        public long getRows() { return rows; }
+        public long getErrors() { return errors; }
+        public double getTotalMillis() { return totalNanos / 1_000_000.0; }
+        public double getMaxMillis() { return maxNanos / 1_000_000.0; }
+
+        /**
+         * @return Executions per bucket, the last one above the highest bound (see BUCKET_BOUNDS_MS)
+         */
+        public long[] getBuckets() { return buckets.clone(); }
+
+        public double getMeanMillis() {
+            return executions > 0 ? getTotalMillis() / executions : 0;
+        }
+
+        /**
+         * Estimate a percentile from the buckets
+         * @param fraction Percentile as a fraction, e.g. 0.95
+         * @return Upper bound of the bucket the percentile falls in, at most the slowest execution
+         */
+        public double getPercentileMillis(double fraction) {
+            long rank = (long) Math.ceil(fraction * executions);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return Math.min(BUCKET_BOUNDS_MS[i], getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+    }
+
+    /**
+     * Wrap a connection so the statements it creates are measured
+     * @param conn Driver connection
+     * @return Instrumented connection, or conn itself when metrics are disabled
+     */
+    public static Connection instrument(Connection conn) {
+        if (!ENABLED || conn == null) {
+            return conn;
+        }
+        return (Connection) Proxy.newProxyInstance(SqlMetrics.class.getClassLoader(),
+            new Class<?>[] {Connection.class}, new ConnectionHandler(conn));
+    }
+
+    /**
+     * Get the counts of every statement run or failed since start or reset, slowest in total first
+     * @return List of statement counts
+     */
+    public static List<Stats> snapshot() {
+        List<Stats> result = new ArrayList<>(statements.size());
+        for (Recorder recorder : statements.values()) {
+            Stats stats = new Stats(recorder);
+            if (stats.executions > 0 || stats.errors > 0) {
+                result.add(stats);
+            }
+        }
+        result.sort(Comparator.comparingDouble(Stats::getTotalMillis).reversed());
+        return result;
+    }
+
+    /**
+     * Set all counts back to zero
+     * Open statements keep their entries, so the entries are cleared rather than dropped.
+     */
+    public static void reset() {
+        for (Recorder recorder : statements.values()) {
+            recorder.clear();
+        }
+    }
+
+    /**
+     * Write all counts in the Prometheus text exposition format
+     * @param out Destination
+     */
+    public static void writePrometheus(StringBuilder out) {
+        List<Stats> all = snapshot();
+        out.append("# HELP hotel_sql_duration_seconds Time for the JDBC driver to execute a statement.\n");
+        out.append("# TYPE hotel_sql_duration_seconds histogram\n");
+        for (Stats stats : all) {
+            String label = "statement=\"" + escapeLabel(stats.sql) + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < stats.buckets.length; i++) {
+                cumulative += stats.buckets[i];
+                String bound = i < BUCKET_BOUNDS_MS.length
+                    ? BigDecimal.valueOf(BUCKET_BOUNDS_MS[i]).movePointLeft(3).stripTrailingZeros().toPlainString() : "+Inf";
+                out.append("hotel_sql_duration_seconds_bucket{").append(label).append(",le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+            }
+            out.append("hotel_sql_duration_seconds_sum{").append(label).append("} ")
+                .append(String.format(Locale.ROOT, "%.6f", stats.totalNanos / 1e9)).append('\n');
+            out.append("hotel_sql_duration_seconds_count{").append(label).append("} ").append(stats.executions).append('\n');
+        }
+        out.append("# HELP hotel_sql_rows_total Rows read or changed by a statement.\n");
+        out.append("# TYPE hotel_sql_rows_total counter\n");
+        for (Stats stats : all) {
+            out.append("hotel_sql_rows_total{statement=\"").append(escapeLabel(stats.sql)).append("\"} ").append(stats.rows).append('\n');
+        }
+        out.append("# HELP hotel_sql_errors_total Executions of a statement that failed.\n");
+        out.append("# TYPE hotel_sql_errors_total counter\n");
+        for (Stats stats : all) {
+            out.append("hotel_sql_errors_total{statement=\"").append(escapeLabel(stats.sql)).append("\"} ").append(stats.errors).append('\n');
+        }
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Collapse whitespace, IN lists and repeated VALUES tuples so variants of one statement share a key
+     * @param sql SQL text
+     * @return Normalized SQL text
+     */
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = IN_LIST.matcher(normalized).replaceAll("IN (?, ...)");
+        return REPEATED_TUPLES.matcher(normalized).replaceAll("$1, ...");
+    }
+
+    private static Recorder recorderFor(String sql) {
+        if (sql == null) {
+            sql = OTHER_STATEMENTS;
+        }
+        Recorder recorder = rawSql.get(sql);
+        if (recorder != null) {
+            return recorder;
+        }
+        String normalized = normalize(sql);
+        recorder = statements.get(normalized);
+        if (recorder == null) {
+            String key = statements.size() < MAX_STATEMENTS ? normalized : OTHER_STATEMENTS;
+            recorder = statements.computeIfAbsent(key, Recorder::new);
+        }
+        if (rawSql.size() < MAX_RAW_SQL) {
+            rawSql.put(sql, recorder);
+        }
+        return recorder;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Proxies compare by identity, as drivers' own objects do
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class && !method.getName().equals("toString");
+    }
+
+    /**
+     * Hands out measured statements
+     */
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result;
+            try {
+                result = SqlMetrics.invoke(target, method, args);
+            } catch (SQLException e) {
+                if (method.getName().startsWith("prepare")) {
+                    recorderFor((String) args[0]).errors.increment(); // Rejected before it could run
+                }
+                throw e;
+            }
+            switch (method.getName()) {
+                case "prepareStatement":
+                    return measure((Statement) result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall":
+                    return measure((Statement) result, CallableStatement.class, (String) args[0]);
+                case "createStatement":
+                    return measure((Statement) result, Statement.class, null);
+                default:
+                    return result;
+            }
+        }
+
+        private static Object measure(Statement statement, Class<?> type, String sql) {
+            return Proxy.newProxyInstance(SqlMetrics.class.getClassLoader(), new Class<?>[] {type},
+                new StatementHandler(statement, sql));
+        }
+    }
+
+    /**
+     * Times executions; a plain Statement is measured under the SQL passed to execute
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Recorder prepared;
+        private String lastSql;
+        private String batchSql;
+
+        StatementHandler(Statement target, String sql) {
+            this.target = target;
+            this.prepared = sql != null ? recorderFor(sql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                if (name.equals("addBatch") && args != null && batchSql == null) {
+                    batchSql = (String) args[0];
+                } else if (name.equals("getResultSet")) {
+                    return countRows((ResultSet) SqlMetrics.invoke(target, method, args), currentRecorder(lastSql));
+                }
+                return SqlMetrics.invoke(target, method, args);
+            }
+
+            if (args != null && args.length > 0 && args[0] instanceof String) {
+                lastSql = (String) args[0];
+            }
+            Recorder recorder = currentRecorder(name.startsWith("executeBatch") || name.startsWith("executeLargeBatch")
+                ? batchSql : lastSql);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = SqlMetrics.invoke(target, method, args);
+            } catch (Throwable e) {
+                recorder.record(System.nanoTime() - start, true);
+                throw e;
+            }
+            recorder.record(System.nanoTime() - start, false);
+
+            if (result instanceof ResultSet) {
+                return countRows((ResultSet) result, recorder);
+            } else if (result instanceof Integer || result instanceof Long) {
+                recorder.rows.add(Math.max(0, ((Number) result).longValue()));
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    recorder.rows.add(Math.max(0, count));
+                }
+                batchSql = null;
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    recorder.rows.add(Math.max(0, count));
+                }
+                batchSql = null;
+            } else if (Boolean.FALSE.equals(result)) {
+                recorder.rows.add(Math.max(0, target.getUpdateCount()));
+            }
+            return result;
+        }
+
+        private Recorder currentRecorder(String sql) {
+            return prepared != null ? prepared : recorderFor(sql);
+        }
+    }
+
+    private static ResultSet countRows(ResultSet resultSet, Recorder recorder) {
+        if (resultSet == null) {
+            return null;
+        }
+        return (ResultSet) Proxy.newProxyInstance(SqlMetrics.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> {
+                if (isIdentityMethod(method)) {
+                    return identity(proxy, method, args);
+                }
+                Object result = invoke(resultSet, method, args);
+                if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                    recorder.rows.increment();
+                }
+                return result;
+            });
+    }
+}
@@ -0,0 +1,63 @@
+package controller;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Helpers for handing service-layer results back to the event dispatch thread
+ */
+public class SwingFutures {
+    /**
+     * Executor that runs tasks on the event dispatch thread, e.g. for thenAcceptAsync(..., SwingFutures.EDT)
+     */
+    public static final Executor EDT = task -> {
+        if (SwingUtilities.isEventDispatchThread()) {
+            task.run();
+        } else {
+            SwingUtilities.invokeLater(task);
+        }
+    };
+
+    /**
+     * Handle a future's result on the event dispatch thread
+     * @param future Future to wait for
+     * @param onSuccess Receives the result on the event dispatch thread
+     * @param onFailure Receives the underlying exception on the event dispatch thread
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<? super T> onSuccess,
+                                 Consumer<Throwable> onFailure) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                System.err.println("Background task failed: " + cause.getMessage());
+                cause.printStackTrace();
+                onFailure.accept(cause);
+            } else {
+                onSuccess.accept(result);
+            }
+        }, EDT);
+    }
+
+    /**
+     * Handle a future's result on the event dispatch thread, logging any failure
+     * @param future Future to wait for
+     * @param onSuccess Receives the result on the event dispatch thread
+     */
+    public static <T> void onEdt(CompletableFuture<T> future, Consumer<? super T> onSuccess) {
+        onEdt(future, onSuccess, error -> { });
+    }
+
+    /**
+     * @return The exception a CompletableFuture wrapped, or the given one if it is not a wrapper
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,66 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Outcome of a version-checked update
+ * An update only succeeds if the row still has the updated_at it had when it was loaded.
+ * Otherwise nothing is written and the result carries the row as it is now, so the
+ * caller can merge the two versions and save again.
+ */
+public class UpdateResult<T> {
+    public enum Status {
+        UPDATED, CONFLICT, NOT_FOUND, FAILED
+    }
+
+    private final Status status;
+    private final T current;
+
+    private UpdateResult(Status status, T current) {
+        this.status = status;
+        this.current = current;
+    }
+
+    static <T> UpdateResult<T> updated(T saved) {
+        return new UpdateResult<>(Status.UPDATED, saved);
+    }
+
+    static <T> UpdateResult<T> conflict(T current) {
+        return new UpdateResult<>(Status.CONFLICT, current);
+    }
+
+    static <T> UpdateResult<T> notFound() {
+        return new UpdateResult<>(Status.NOT_FOUND, null);
+    }
+
+    static <T> UpdateResult<T> failed() {
+        return new UpdateResult<>(Status.FAILED, null);
+    }
+
+    public Status getStatus() { return status; }
+    public boolean isUpdated() { return status == Status.UPDATED; }
+    public boolean isConflict() { return status == Status.CONFLICT; }
+
+    /**
+     * @return The saved row when updated, the row as someone else left it on a conflict, otherwise null
+     */
+    public T getCurrent() { return current; }
+
+    /**
+     * Read a row's updated_at on the given connection
+     * @return updated_at, or null if the row does not exist
+     */
+    static Timestamp readVersion(Connection conn, String table, String idColumn, int id) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "SELECT updated_at FROM " + table + " WHERE " + idColumn + " = ?")) {
+            stmt.setInt(1, id);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getTimestamp(1) : null;
+            }
+        }
+    }
+}
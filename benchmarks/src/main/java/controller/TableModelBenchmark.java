@@ -0,0 +1,79 @@
+package controller;
+
+import model.Booking;
+import model.Customer;
+import model.Room;
+import model.SyntheticHotel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.swing.table.DefaultTableModel;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling the dashboard tables, as the controllers do after a load or refresh
+ * Uses the controllers' own row builders on table models without a window, so it also runs headless.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TableModelBenchmark {
+    private List<Room> rooms;
+    private List<Customer> customers;
+    private List<Booking> bookings;
+    private DefaultTableModel roomsTableModel;
+    private DefaultTableModel customersTableModel;
+    private DefaultTableModel bookingsTableModel;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SyntheticHotel hotel = SyntheticHotel.get();
+        rooms = hotel.getRooms();
+        customers = hotel.getCustomers();
+        bookings = hotel.getBookings();
+        roomsTableModel = new DefaultTableModel(0, RoomController.roomRow(rooms.get(0)).length);
+        customersTableModel = new DefaultTableModel(0, CustomerController.customerRow(customers.get(0)).length);
+        bookingsTableModel = new DefaultTableModel(0, BookingController.bookingRow(bookings.get(0)).length);
+    }
+
+    @Benchmark
+    public DefaultTableModel populateRooms() {
+        roomsTableModel.setRowCount(0);
+        for (Room room : rooms) {
+            roomsTableModel.addRow(RoomController.roomRow(room));
+        }
+        return roomsTableModel;
+    }
+
+    @Benchmark
+    public DefaultTableModel populateCustomers() {
+        customersTableModel.setRowCount(0);
+        for (Customer customer : customers) {
+            customersTableModel.addRow(CustomerController.customerRow(customer));
+        }
+        return customersTableModel;
+    }
+
+    @Benchmark
+    public DefaultTableModel populateBookings() {
+        bookingsTableModel.setRowCount(0);
+        for (Booking booking : bookings) {
+            bookingsTableModel.addRow(BookingController.bookingRow(booking));
+        }
+        return bookingsTableModel;
+    }
+}
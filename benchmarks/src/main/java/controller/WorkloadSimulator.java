@@ -0,0 +1,457 @@
+package controller;
+
+import model.Booking;
+import model.Customer;
+import model.DBConnection;
+import model.Money;
+import model.RateCalendar;
+import model.Room;
+import model.SimulatedHotel;
+import model.SqlMetrics;
+import model.SyntheticHotel;
+
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front desk load generator
+ * Loads a SimulatedHotel into the in-memory database, then runs a number of desks at once for a
+ * fixed time. Each desk is a thread doing what the controllers do for a receptionist: search rooms
+ * and customers and build their table rows, quote stays, reserve (check availability, quote, add
+ * the booking, confirm it), check guests in and out and cancel reservations. It reports
+ * throughput and latency percentiles per operation, the statements that took the most time, and
+ * every pair of confirmed or in-house stays that ended up in the same room on the same night.
+ * Desks call the model on their own threads, as each desk's dispatch thread would in its own
+ * process, rather than through the shared service executor.
+ * Usage: java -cp benchmarks/target/benchmarks.jar controller.WorkloadSimulator [options]
+ * Options: --rooms N, --desks N, --years N, --seconds N, --warmup-seconds N, --think-ms N, --seed N
+ * Exit status: 0 if no room was booked twice, 2 if one was, 1 if the simulation could not run.
+ */
+public class WorkloadSimulator {
+    enum Operation {
+        SEARCH(40), QUOTE(25), RESERVE(20), CHECK_IN(6), CHECK_OUT(6), CANCEL(3);
+
+        final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    enum Outcome { OK, REJECTED, FAILED }
+
+    private static final int ROOM_TRIES = 5; // Rooms a desk tries before telling the guest it is full
+    private static final double WALK_IN_RATE = 0.3;
+    private static final int VIOLATIONS_SHOWN = 10;
+
+    private int roomCount = 1000;
+    private int desks = 20;
+    private int years = 2;
+    private int seconds = 60;
+    private int warmupSeconds = 10;
+    private int thinkMillis = 0;
+    private long seed = SyntheticHotel.SEED;
+
+    private SimulatedHotel hotel;
+    private final Queue<Integer> arrivals = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> departures = new ConcurrentLinkedQueue<>();
+    private final Queue<Integer> upcoming = new ConcurrentLinkedQueue<>();
+    private volatile long measureFrom;
+
+    /**
+     * Latencies and outcomes one desk measured for one operation
+     */
+    private static final class Tally {
+        long[] nanos = new long[1024];
+        int count;
+        final long[] outcomes = new long[Outcome.values().length];
+
+        void add(long elapsed, Outcome outcome) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = elapsed;
+            outcomes[outcome.ordinal()]++;
+        }
+
+        void addAll(Tally other) {
+            if (count + other.count > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, count + other.count));
+            }
+            System.arraycopy(other.nanos, 0, nanos, count, other.count);
+            count += other.count;
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += other.outcomes[i];
+            }
+        }
+
+        double percentileMillis(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(fraction * count);
+            return nanos[Math.max(0, rank - 1)] / 1_000_000.0;
+        }
+    }
+
+    public static void main(String[] args) {
+        WorkloadSimulator simulator = new WorkloadSimulator();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--rooms":
+                        simulator.roomCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--desks":
+                        simulator.desks = Integer.parseInt(args[++i]);
+                        break;
+                    case "--years":
+                        simulator.years = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seconds":
+                        simulator.seconds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--warmup-seconds":
+                        simulator.warmupSeconds = Integer.parseInt(args[++i]);
+                        break;
+                    case "--think-ms":
+                        simulator.thinkMillis = Integer.parseInt(args[++i]);
+                        break;
+                    case "--seed":
+                        simulator.seed = Long.parseLong(args[++i]);
+                        break;
+                    default:
+                        System.err.println("Unknown option: " + args[i]);
+                        System.exit(1);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.err.println("Invalid option value: " + e.getMessage());
+            System.exit(1);
+        }
+        if (simulator.roomCount < 1 || simulator.desks < 1 || simulator.years < 1 || simulator.seconds < 1
+                || simulator.warmupSeconds < 0 || simulator.thinkMillis < 0) {
+            System.err.println("Rooms, desks, years and seconds must be positive");
+            System.exit(1);
+        }
+
+        int violations = simulator.run(System.out);
+        System.exit(violations < 0 ? 1 : violations == 0 ? 0 : 2);
+    }
+
+    /**
+     * Generate and load the hotel, run the desks and print the report
+     * @param out Destination of the report; model logging to System.out is silenced meanwhile
+     * @return Number of double bookings found, or -1 if the simulation could not run
+     */
+    int run(PrintStream out) {
+        long started = System.nanoTime();
+        hotel = new SimulatedHotel(seed, roomCount, years);
+        SyntheticHotel.quiet();
+        try {
+            hotel.load();
+        } catch (SQLException e) {
+            System.err.println("Error loading simulated hotel: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        queueWork();
+        out.printf(Locale.ROOT, "Hotel: %d rooms, %d customers, %d bookings over %d years (%d cancelled, %d requests turned away), loaded in %.1f s%n",
+            hotel.getRooms().size(), hotel.getCustomers().size(), hotel.getBookings().size(), years,
+            hotel.getCancelled(), hotel.getTurnedAway(), (System.nanoTime() - started) / 1e9);
+        out.printf(Locale.ROOT, "Today: %d arrivals, %d departures, %d upcoming reservations%n",
+            arrivals.size(), departures.size(), upcoming.size());
+        out.printf(Locale.ROOT, "Running %d desks for %d s after %d s of warm-up, %d ms think time%n%n",
+            desks, seconds, warmupSeconds, thinkMillis);
+
+        long now = System.nanoTime();
+        measureFrom = now + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long until = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        List<Map<Operation, Tally>> tallies = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int desk = 0; desk < desks; desk++) {
+            Map<Operation, Tally> tally = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                tally.put(operation, new Tally());
+            }
+            tallies.add(tally);
+            Random random = new Random(seed + 1 + desk);
+            Thread thread = new Thread(() -> runDesk(random, tally, until), "desk-" + (desk + 1));
+            threads.add(thread);
+            thread.start();
+        }
+
+        try {
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(Math.max(0, measureFrom - System.nanoTime())));
+            SqlMetrics.reset();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+
+        Map<Operation, Tally> totals = new EnumMap<>(Operation.class);
+        Tally all = new Tally();
+        for (Operation operation : Operation.values()) {
+            Tally total = new Tally();
+            for (Map<Operation, Tally> tally : tallies) {
+                total.addAll(tally.get(operation));
+            }
+            all.addAll(total);
+            Arrays.sort(total.nanos, 0, total.count);
+            totals.put(operation, total);
+        }
+        Arrays.sort(all.nanos, 0, all.count);
+
+        out.printf(Locale.ROOT, "%-10s %9s %9s %9s %9s %7s %9s %9s %9s %9s%n",
+            "Operation", "Count", "Per sec", "OK", "Rejected", "Failed", "p50 ms", "p95 ms", "p99 ms", "Max ms");
+        for (Operation operation : Operation.values()) {
+            printRow(out, operation.name(), totals.get(operation));
+        }
+        printRow(out, "ALL", all);
+        out.println("Rejected: reserve found no free room, or a status change was refused");
+
+        out.println();
+        out.println("Statements by total time:");
+        List<SqlMetrics.Stats> statements = SqlMetrics.snapshot();
+        for (SqlMetrics.Stats stats : statements.subList(0, Math.min(5, statements.size()))) {
+            out.printf(Locale.ROOT, "%10.0f ms %8d x %8.2f ms  %s%n", stats.getTotalMillis(), stats.getExecutions(),
+                stats.getMeanMillis(), abbreviate(stats.getSql(), 100));
+        }
+
+        out.println();
+        return reportDoubleBookings(out);
+    }
+
+    private void printRow(PrintStream out, String name, Tally tally) {
+        out.printf(Locale.ROOT, "%-10s %9d %9.1f %9d %9d %7d %9.2f %9.2f %9.2f %9.2f%n",
+            name, tally.count, tally.count / (double) seconds,
+            tally.outcomes[Outcome.OK.ordinal()], tally.outcomes[Outcome.REJECTED.ordinal()],
+            tally.outcomes[Outcome.FAILED.ordinal()], tally.percentileMillis(0.50), tally.percentileMillis(0.95),
+            tally.percentileMillis(0.99), tally.percentileMillis(1.0));
+    }
+
+    /**
+     * Share today's arrivals, departures and later reservations out to the desks
+     */
+    private void queueWork() {
+        LocalDate today = hotel.getToday();
+        List<Integer> later = new ArrayList<>();
+        for (Booking booking : hotel.getBookings()) {
+            if (booking.getBookingStatus() == Booking.BookingStatus.CONFIRMED) {
+                if (booking.getCheckInDate().equals(today)) {
+                    arrivals.add(booking.getBookingId());
+                } else {
+                    later.add(booking.getBookingId());
+                }
+            } else if (booking.getBookingStatus() == Booking.BookingStatus.CHECKED_IN
+                    && booking.getCheckOutDate().equals(today)) {
+                departures.add(booking.getBookingId());
+            }
+        }
+        Collections.shuffle(later, new Random(seed));
+        upcoming.addAll(later);
+    }
+
+    private void runDesk(Random random, Map<Operation, Tally> tally, long until) {
+        List<Room> rooms = hotel.getRooms();
+        List<Customer> customers = hotel.getCustomers();
+        int totalWeight = 0;
+        for (Operation operation : Operation.values()) {
+            totalWeight += operation.weight;
+        }
+
+        while (System.nanoTime() < until) {
+            int draw = random.nextInt(totalWeight);
+            Operation operation = Operation.values()[0];
+            for (Operation candidate : Operation.values()) {
+                draw -= candidate.weight;
+                if (draw < 0) {
+                    operation = candidate;
+                    break;
+                }
+            }
+
+            // Nobody left to check in, check out or cancel: the desk searches instead
+            Queue<Integer> queue = operation == Operation.CHECK_IN ? arrivals
+                : operation == Operation.CHECK_OUT ? departures
+                : operation == Operation.CANCEL ? upcoming : null;
+            Integer bookingId = queue != null ? queue.poll() : null;
+            if (queue != null && bookingId == null) {
+                operation = Operation.SEARCH;
+            }
+
+            long start = System.nanoTime();
+            Outcome outcome;
+            switch (operation) {
+                case QUOTE:
+                    outcome = quote(random, rooms);
+                    break;
+                case RESERVE:
+                    outcome = reserve(random, rooms, customers);
+                    break;
+                case CHECK_IN:
+                    outcome = changeStatus(bookingId, Booking.BookingStatus.CHECKED_IN);
+                    break;
+                case CHECK_OUT:
+                    outcome = changeStatus(bookingId, Booking.BookingStatus.CHECKED_OUT);
+                    break;
+                case CANCEL:
+                    outcome = changeStatus(bookingId, Booking.BookingStatus.CANCELLED);
+                    break;
+                default:
+                    outcome = search(random, rooms, customers);
+            }
+            if (start >= measureFrom) {
+                tally.get(operation).add(System.nanoTime() - start, outcome);
+            }
+
+            if (thinkMillis > 0) {
+                try {
+                    Thread.sleep(thinkMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // As the live search boxes on the rooms and customers tabs
+    private Outcome search(Random random, List<Room> rooms, List<Customer> customers) {
+        List<Object[]> rows = new ArrayList<>();
+        if (random.nextBoolean()) {
+            String term = random.nextBoolean()
+                ? SimulatedHotel.ROOM_TYPES[random.nextInt(SimulatedHotel.ROOM_TYPES.length)]
+                : rooms.get(random.nextInt(rooms.size())).getRoomNumber().substring(0, 2);
+            for (Room room : Room.searchRooms(term)) {
+                rows.add(RoomController.roomRow(room));
+            }
+        } else {
+            for (Customer customer : Customer.searchCustomers(customers.get(random.nextInt(customers.size())).getLastName())) {
+                rows.add(CustomerController.customerRow(customer));
+            }
+        }
+        return Outcome.OK;
+    }
+
+    // As the booking dialog recalculating its total
+    private Outcome quote(Random random, List<Room> rooms) {
+        LocalDate checkIn = hotel.getToday().plusDays(random.nextInt(180));
+        Money total = RateCalendar.quote(rooms.get(random.nextInt(rooms.size())), checkIn, checkIn.plusDays(1 + random.nextInt(7)));
+        return total != null ? Outcome.OK : Outcome.FAILED;
+    }
+
+    // As BookingController.handleSaveBooking for a new booking, followed by confirming it
+    private Outcome reserve(Random random, List<Room> rooms, List<Customer> customers) {
+        String lastName = customers.get(random.nextInt(customers.size())).getLastName();
+        List<Customer> matches = Customer.searchCustomers(lastName);
+        if (matches.isEmpty()) {
+            return Outcome.FAILED;
+        }
+        Customer customer = matches.get(random.nextInt(matches.size()));
+
+        LocalDate checkIn = random.nextDouble() < WALK_IN_RATE
+            ? hotel.getToday() : hotel.getToday().plusDays(1 + random.nextInt(60));
+        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+        String roomType = SimulatedHotel.ROOM_TYPES[random.nextInt(SimulatedHotel.ROOM_TYPES.length)];
+
+        for (int tries = 0, picks = 0; tries < ROOM_TRIES && picks < rooms.size(); picks++) {
+            Room room = rooms.get(random.nextInt(rooms.size()));
+            if (!room.getRoomType().equals(roomType)) {
+                continue;
+            }
+            tries++;
+            if (!Booking.isRoomAvailable(room.getRoomId(), checkIn, checkOut)) {
+                continue;
+            }
+            Booking booking = new Booking(customer.getCustomerId(), room.getRoomId(), checkIn, checkOut,
+                RateCalendar.quote(room, checkIn, checkOut));
+            if (!booking.addBooking()) {
+                return Outcome.FAILED;
+            }
+            Outcome confirmed = changeStatus(booking.getBookingId(), Booking.BookingStatus.CONFIRMED);
+            if (confirmed == Outcome.OK) {
+                (checkIn.equals(hotel.getToday()) ? arrivals : upcoming).add(booking.getBookingId());
+            }
+            return confirmed;
+        }
+        return Outcome.REJECTED;
+    }
+
+    private Outcome changeStatus(int bookingId, Booking.BookingStatus status) {
+        Booking.StatusChangeResult result = Booking.updateBookingStatuses(List.of(bookingId), status);
+        if (result.isApplied()) {
+            if (status == Booking.BookingStatus.CHECKED_IN) {
+                departures.add(bookingId); // Early departures keep the check-out desks busy
+            }
+            return Outcome.OK;
+        }
+        return result.getRejected().isEmpty() ? Outcome.FAILED : Outcome.REJECTED;
+    }
+
+    /**
+     * Find stays that hold the same room on the same night
+     * @return Number of overlapping pairs, or -1 if the check failed
+     */
+    private int reportDoubleBookings(PrintStream out) {
+        String sql = """
+            SELECT a.room_id, a.booking_id, a.check_in_date, a.check_out_date,
+                   b.booking_id, b.check_in_date, b.check_out_date
+            FROM bookings a JOIN bookings b
+              ON b.hotel_id = a.hotel_id AND b.room_id = a.room_id AND b.booking_id > a.booking_id
+             AND b.check_in_date < a.check_out_date AND a.check_in_date < b.check_out_date
+            WHERE a.booking_status IN ('CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT')
+              AND b.booking_status IN ('CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT')
+            ORDER BY a.room_id, a.check_in_date
+            """;
+        int generated = hotel.getBookings().size();
+        int violations = 0;
+        int fromRun = 0;
+        List<String> shown = new ArrayList<>();
+        try (Connection conn = DBConnection.openConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                violations++;
+                if (rs.getInt(5) > generated) {
+                    fromRun++;
+                }
+                if (violations <= VIOLATIONS_SHOWN) {
+                    shown.add(String.format("  Room %d: booking %d (%s to %s) and booking %d (%s to %s)", rs.getInt(1),
+                        rs.getInt(2), rs.getDate(3), rs.getDate(4), rs.getInt(5), rs.getDate(6), rs.getDate(7)));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error checking for double bookings: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+        out.println("Double bookings: " + violations + " pairs of stays share a room on the same night ("
+            + fromRun + " involving bookings made during the run)");
+        for (String line : shown) {
+            out.println(line);
+        }
+        return violations;
+    }
+
+    private static String abbreviate(String text, int length) {
+        return text.length() <= length ? text : text.substring(0, length - 3) + "...";
+    }
+}
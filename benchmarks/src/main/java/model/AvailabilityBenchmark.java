@@ -0,0 +1,61 @@
+package model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room availability checks as made by the booking dialog (Booking.isRoomAvailable)
+ * Each call cycles through a fixed set of room and date range requests.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AvailabilityBenchmark {
+    private static final int REQUESTS = 1024;
+
+    private final int[] roomIds = new int[REQUESTS];
+    private final LocalDate[] checkInDates = new LocalDate[REQUESTS];
+    private final LocalDate[] checkOutDates = new LocalDate[REQUESTS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SyntheticHotel hotel = SyntheticHotel.get();
+        SyntheticHotel.quiet();
+        Random random = new Random(SyntheticHotel.SEED + 1);
+        for (int i = 0; i < REQUESTS; i++) {
+            roomIds[i] = 1 + random.nextInt(SyntheticHotel.ROOMS);
+            checkInDates[i] = hotel.getToday().plusDays(random.nextInt(365));
+            checkOutDates[i] = checkInDates[i].plusDays(1 + random.nextInt(7));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DBConnection.closeConnection();
+    }
+
+    @Benchmark
+    public boolean isRoomAvailable() {
+        int i = next++ & (REQUESTS - 1);
+        return Booking.isRoomAvailable(roomIds[i], checkInDates[i], checkOutDates[i]);
+    }
+}
@@ -0,0 +1,80 @@
+package model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping the joined bookings query to Booking objects
+ * mapResultSet re-reads one scrollable result, so it measures Booking.fromJoinedRow alone;
+ * getAllBookings adds running the query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BookingMappingBenchmark {
+    private static final String SQL = """
+        SELECT b.*, CONCAT(c.first_name, ' ', c.last_name) as customer_name,
+               r.room_number, r.room_type, r.price_per_night
+        FROM bookings b
+        JOIN customers c ON b.customer_id = c.customer_id
+        JOIN rooms r ON b.room_id = r.room_id
+        WHERE b.hotel_id = ?
+        ORDER BY b.created_at DESC
+        """;
+
+    private Connection conn;
+    private PreparedStatement stmt;
+    private ResultSet rs;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SyntheticHotel.get();
+        SyntheticHotel.quiet();
+        conn = DBConnection.openConnection();
+        stmt = conn.prepareStatement(SQL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        stmt.setInt(1, Hotel.currentId());
+        rs = stmt.executeQuery();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        rs.close();
+        stmt.close();
+        conn.close();
+        DBConnection.closeConnection();
+    }
+
+    @Benchmark
+    public void mapResultSet(Blackhole blackhole) throws SQLException {
+        rs.beforeFirst();
+        while (rs.next()) {
+            blackhole.consume(Booking.fromJoinedRow(rs));
+        }
+    }
+
+    @Benchmark
+    public List<Booking> getAllBookings() {
+        return Booking.getAllBookings();
+    }
+}
@@ -0,0 +1,71 @@
+package model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Price calculation for a stay
+ * quote runs against the compiled rate calendar; quoteAfterRateChange also reloads the rate
+ * rules and recompiles the calendar, as the first quote after a rate change does;
+ * calculateTotalAmount is the flat nightly price used for a booking's stored total.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PricingBenchmark {
+    private static final int STAYS = 1024;
+
+    private final Room[] rooms = new Room[STAYS];
+    private final Booking[] stays = new Booking[STAYS];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SyntheticHotel hotel = SyntheticHotel.get();
+        SyntheticHotel.quiet();
+        List<Room> allRooms = hotel.getRooms();
+        Random random = new Random(SyntheticHotel.SEED + 2);
+        for (int i = 0; i < STAYS; i++) {
+            rooms[i] = allRooms.get(random.nextInt(allRooms.size()));
+            LocalDate checkIn = hotel.getToday().plusDays(random.nextInt(365));
+            stays[i] = new Booking(0, rooms[i].getRoomId(), checkIn, checkIn.plusDays(1 + random.nextInt(21)), null);
+        }
+    }
+
+    @Benchmark
+    public Money quote() {
+        int i = next++ & (STAYS - 1);
+        return RateCalendar.quote(rooms[i], stays[i].getCheckInDate(), stays[i].getCheckOutDate());
+    }
+
+    @Benchmark
+    public Money quoteAfterRateChange() {
+        int i = next++ & (STAYS - 1);
+        RateCalendar.invalidate();
+        return RateCalendar.quote(rooms[i], stays[i].getCheckInDate(), stays[i].getCheckOutDate());
+    }
+
+    @Benchmark
+    public Money calculateTotalAmount() {
+        int i = next++ & (STAYS - 1);
+        return stays[i].calculateTotalAmount(rooms[i].getPricePerNight());
+    }
+}
@@ -0,0 +1,49 @@
+package model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Customer and room search as typed into the dashboard search fields
+ * The terms match many rows ("ar"), a few ("smith", "suite") and none ("zzz").
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+    @Param({"ar", "smith", "suite", "zzz"})
+    public String term;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        SyntheticHotel.get();
+        SyntheticHotel.quiet();
+    }
+
+    @Benchmark
+    public List<Customer> searchCustomers() {
+        return Customer.searchCustomers(term);
+    }
+
+    @Benchmark
+    public List<Room> searchRooms() {
+        return Room.searchRooms(term);
+    }
+}
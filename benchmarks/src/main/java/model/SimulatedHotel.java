@@ -0,0 +1,205 @@
+package model;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible hotel with a booking history, for the front desk load simulation
+ * Rooms are spread over the types in fixed shares, 50 to a floor. Booking requests arrive every
+ * day of the history with a seasonal, weekly rate sized to fill about 70% of the rooms. Each asks
+ * for a room type, a lead time and a length of stay, and gets the first free room of that type
+ * or is turned away, so no room is booked twice. 12% are cancelled later. Stays that ended before
+ * today are checked out, guests who arrived before today are in house and the rest are confirmed,
+ * which leaves today's arrivals and departures to the desks.
+ * The same seed and size always give the same hotel, relative to the day it is generated.
+ */
+public class SimulatedHotel {
+    static {
+        // Must be set before DBConnection is initialised
+        if (System.getProperty("db.url") == null) {
+            System.setProperty("db.url", SyntheticHotel.DB_URL);
+        }
+    }
+
+    public static final String[] ROOM_TYPES = {"Single", "Double", "Deluxe", "Suite"};
+    private static final double[] TYPE_SHARES = {0.35, 0.35, 0.20, 0.10};
+    private static final long[] TYPE_PRICES = {8_000, 12_000, 18_000, 25_000};
+    private static final int ROOMS_PER_FLOOR = 50;
+    private static final int CUSTOMERS_PER_ROOM = 20;
+
+    private static final double OCCUPANCY = 0.7;
+    private static final double MEAN_LEAD_DAYS = 30;
+    private static final int MAX_LEAD_DAYS = 365;
+    private static final double MEAN_NIGHTS = 2.5;
+    private static final int MAX_NIGHTS = 14;
+    private static final double CANCELLATION_RATE = 0.12;
+
+    private final List<Room> rooms = new ArrayList<>();
+    private final List<Customer> customers = new ArrayList<>();
+    private final List<Booking> bookings = new ArrayList<>();
+    private final LocalDate today = LocalDate.now();
+    private int turnedAway;
+    private int cancelled;
+
+    /**
+     * Generate a hotel
+     * @param seed Random seed
+     * @param roomCount Number of rooms
+     * @param years Years of booking history before today
+     */
+    public SimulatedHotel(long seed, int roomCount, int years) {
+        Random random = new Random(seed);
+        LocalDate opened = today.minusYears(years);
+        Timestamp openedAt = Timestamp.valueOf(opened.atStartOfDay());
+
+        List<List<Room>> roomsByType = new ArrayList<>();
+        for (int type = 0; type < ROOM_TYPES.length; type++) {
+            roomsByType.add(new ArrayList<>());
+        }
+        for (int i = 1; i <= roomCount; i++) {
+            int type = pick(random, TYPE_SHARES);
+            int floor = 1 + (i - 1) / ROOMS_PER_FLOOR;
+            String number = Integer.toString(floor * 100 + (i - 1) % ROOMS_PER_FLOOR + 1);
+            Room room = new Room(i, number, ROOM_TYPES[type], Money.ofMinor(TYPE_PRICES[type] + 500L * (floor % 5)),
+                true, ROOM_TYPES[type] + " room on floor " + floor);
+            rooms.add(room);
+            roomsByType.get(type).add(room);
+        }
+
+        int customerCount = roomCount * CUSTOMERS_PER_ROOM;
+        for (int i = 1; i <= customerCount; i++) {
+            String first = SyntheticHotel.FIRST_NAMES[random.nextInt(SyntheticHotel.FIRST_NAMES.length)];
+            String last = SyntheticHotel.LAST_NAMES[random.nextInt(SyntheticHotel.LAST_NAMES.length)];
+            customers.add(new Customer(i, first, last,
+                first.toLowerCase() + "." + last.toLowerCase() + i + "@example.com",
+                String.format("555-%03d-%04d", random.nextInt(1000), i % 10_000),
+                (1 + random.nextInt(9_999)) + " Main Street",
+                new Timestamp(openedAt.getTime() + i * 1_000L)));
+        }
+
+        // Nights each room is taken, counted from the day the history starts
+        int horizon = (int) ChronoUnit.DAYS.between(opened, today) + MAX_LEAD_DAYS + MAX_NIGHTS + 1;
+        BitSet[] taken = new BitSet[roomCount + 1];
+        for (Room room : rooms) {
+            taken[room.getRoomId()] = new BitSet(horizon);
+        }
+
+        double requestsPerDay = OCCUPANCY * roomCount / MEAN_NIGHTS;
+        for (LocalDate day = opened; day.isBefore(today); day = day.plusDays(1)) {
+            int requests = poisson(random, requestsPerDay * seasonality(day));
+            for (int r = 0; r < requests; r++) {
+                LocalDate checkIn = day.plusDays(Math.min(MAX_LEAD_DAYS, exponential(random, MEAN_LEAD_DAYS)));
+                LocalDate checkOut = checkIn.plusDays(Math.min(MAX_NIGHTS, 1 + exponential(random, MEAN_NIGHTS - 1)));
+                int from = (int) ChronoUnit.DAYS.between(opened, checkIn);
+                int to = (int) ChronoUnit.DAYS.between(opened, checkOut);
+
+                List<Room> candidates = roomsByType.get(pick(random, TYPE_SHARES));
+                Room room = null;
+                int offset = candidates.isEmpty() ? 0 : random.nextInt(candidates.size());
+                for (int i = 0; i < candidates.size() && room == null; i++) {
+                    Room candidate = candidates.get((offset + i) % candidates.size());
+                    int next = taken[candidate.getRoomId()].nextSetBit(from);
+                    if (next < 0 || next >= to) {
+                        room = candidate;
+                    }
+                }
+                if (room == null) {
+                    turnedAway++;
+                    continue;
+                }
+
+                Booking.BookingStatus status;
+                if (random.nextDouble() < CANCELLATION_RATE) {
+                    status = Booking.BookingStatus.CANCELLED;
+                    cancelled++;
+                } else {
+                    taken[room.getRoomId()].set(from, to);
+                    status = checkOut.isBefore(today) ? Booking.BookingStatus.CHECKED_OUT
+                        : checkIn.isBefore(today) ? Booking.BookingStatus.CHECKED_IN
+                        : Booking.BookingStatus.CONFIRMED;
+                }
+
+                Customer customer = customers.get(repeatGuest(random, customerCount));
+                Booking booking = new Booking(bookings.size() + 1, customer.getCustomerId(), room.getRoomId(),
+                    checkIn, checkOut, room.getPricePerNight().times(to - from), status,
+                    new Timestamp(Timestamp.valueOf(day.atStartOfDay()).getTime() + r * 1_000L));
+                booking.setCustomerName(customer.getFullName());
+                booking.setRoomNumber(room.getRoomNumber());
+                booking.setRoomType(room.getRoomType());
+                booking.setPricePerNight(room.getPricePerNight());
+                bookings.add(booking);
+            }
+        }
+    }
+
+    /**
+     * Create the schema in the in-memory database and load the hotel into it
+     */
+    public void load() throws SQLException {
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            SyntheticHotel.createSchema(conn);
+            SyntheticHotel.insert(conn, rooms, customers, bookings);
+            SyntheticHotel.insertRateRules(conn, today);
+            conn.commit();
+        }
+    }
+
+    public List<Room> getRooms() { return Collections.unmodifiableList(rooms); }
+    public List<Customer> getCustomers() { return Collections.unmodifiableList(customers); }
+    public List<Booking> getBookings() { return Collections.unmodifiableList(bookings); }
+    public LocalDate getToday() { return today; }
+    public int getTurnedAway() { return turnedAway; }
+    public int getCancelled() { return cancelled; }
+
+    // Busiest in midsummer and at weekends
+    private static double seasonality(LocalDate day) {
+        double season = 1 + 0.25 * Math.sin(2 * Math.PI * (day.getDayOfYear() - 90) / 365.0);
+        boolean weekend = day.getDayOfWeek() == DayOfWeek.FRIDAY || day.getDayOfWeek() == DayOfWeek.SATURDAY;
+        return season * (weekend ? 1.2 : 0.92);
+    }
+
+    private static int pick(Random random, double[] shares) {
+        double u = random.nextDouble();
+        for (int i = 0; i < shares.length - 1; i++) {
+            u -= shares[i];
+            if (u < 0) {
+                return i;
+            }
+        }
+        return shares.length - 1;
+    }
+
+    private static int poisson(Random random, double mean) {
+        if (mean > 30) {
+            return Math.max(0, (int) Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+        }
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    private static int exponential(Random random, double mean) {
+        return (int) (-Math.log(1 - random.nextDouble()) * mean);
+    }
+
+    // Earlier customers come back more often
+    private static int repeatGuest(Random random, int customerCount) {
+        double u = random.nextDouble();
+        return (int) (u * u * customerCount);
+    }
+}
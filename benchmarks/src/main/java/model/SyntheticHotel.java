@@ -0,0 +1,307 @@
+package model;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible synthetic hotel for the benchmarks
+ * Rooms, customers, bookings and rate rules are generated from a fixed seed and loaded into an
+ * in-memory H2 database in MySQL mode, which DBConnection uses through -Ddb.url, so the model
+ * code under test runs its own SQL without a MySQL server. Stay dates are relative to today so
+ * they fall inside RateCalendar's compiled window.
+ */
+public class SyntheticHotel {
+    public static final long SEED = 20240601L;
+    public static final int ROOMS = 200;
+    public static final int CUSTOMERS = 5_000;
+    public static final int BOOKINGS = 20_000;
+
+    static final String DB_URL = "jdbc:h2:mem:hotel_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+        + "IGNORECASE=TRUE;NON_KEYWORDS=VALUE;DB_CLOSE_DELAY=-1";
+
+    static {
+        // Must be set before DBConnection is initialised
+        if (System.getProperty("db.url") == null) {
+            System.setProperty("db.url", DB_URL);
+        }
+    }
+
+    private static final String[] ROOM_TYPES = {"Single", "Double", "Suite", "Deluxe"};
+    private static final long[] ROOM_PRICES = {8_000, 12_000, 25_000, 18_000};
+    static final String[] FIRST_NAMES = {
+        "James", "Mary", "Robert", "Patricia", "John", "Jennifer", "Michael", "Linda", "David", "Elizabeth",
+        "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Carlos", "Aisha"
+    };
+    static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin"
+    };
+    private static final int BATCH_SIZE = 5_000;
+    private static final Booking.BookingStatus[] STATUSES = Booking.BookingStatus.values();
+
+    private static SyntheticHotel loaded;
+
+    private final List<Room> rooms = new ArrayList<>(ROOMS);
+    private final List<Customer> customers = new ArrayList<>(CUSTOMERS);
+    private final List<Booking> bookings = new ArrayList<>(BOOKINGS);
+    private final LocalDate today = LocalDate.now();
+
+    private SyntheticHotel() {
+        Random random = new Random(SEED);
+        Timestamp opened = Timestamp.valueOf(today.minusYears(2).atStartOfDay());
+
+        for (int i = 1; i <= ROOMS; i++) {
+            int type = random.nextInt(ROOM_TYPES.length);
+            String number = (100 * (1 + (i - 1) / 50) + (i - 1) % 50 + 1) + "";
+            rooms.add(new Room(i, number, ROOM_TYPES[type], Money.ofMinor(ROOM_PRICES[type] + 500L * random.nextInt(5)),
+                true, ROOM_TYPES[type] + " room on floor " + number.charAt(0)));
+        }
+
+        for (int i = 1; i <= CUSTOMERS; i++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            customers.add(new Customer(i, first, last,
+                first.toLowerCase() + "." + last.toLowerCase() + i + "@example.com",
+                String.format("555-%03d-%04d", random.nextInt(1000), i % 10_000),
+                (1 + random.nextInt(9_999)) + " Main Street",
+                new Timestamp(opened.getTime() + i * 60_000L)));
+        }
+
+        for (int i = 1; i <= BOOKINGS; i++) {
+            Room room = rooms.get(random.nextInt(ROOMS));
+            Customer customer = customers.get(random.nextInt(CUSTOMERS));
+            LocalDate checkIn = today.plusDays(random.nextInt(420) - 60);
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(10));
+            Booking booking = new Booking(i, customer.getCustomerId(), room.getRoomId(), checkIn, checkOut,
+                room.getPricePerNight().times(checkOut.toEpochDay() - checkIn.toEpochDay()),
+                STATUSES[random.nextInt(STATUSES.length)],
+                new Timestamp(opened.getTime() + i * 3_600_000L));
+            booking.setCustomerName(customer.getFullName());
+            booking.setRoomNumber(room.getRoomNumber());
+            booking.setRoomType(room.getRoomType());
+            booking.setPricePerNight(room.getPricePerNight());
+            bookings.add(booking);
+        }
+    }
+
+    /**
+     * Get the dataset, loading it into the database on first use
+     * @return The dataset shared by all benchmarks in this JVM
+     */
+    public static synchronized SyntheticHotel get() throws SQLException {
+        if (loaded == null) {
+            SyntheticHotel hotel = new SyntheticHotel();
+            hotel.load();
+            loaded = hotel;
+        }
+        return loaded;
+    }
+
+    /**
+     * Stop model code from logging every connection it opens, which would swamp the JMH output
+     */
+    public static void quiet() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    public List<Room> getRooms() { return Collections.unmodifiableList(rooms); }
+    public List<Customer> getCustomers() { return Collections.unmodifiableList(customers); }
+    public List<Booking> getBookings() { return Collections.unmodifiableList(bookings); }
+    public LocalDate getToday() { return today; }
+
+    private void load() throws SQLException {
+        try (Connection conn = DBConnection.openConnection()) {
+            conn.setAutoCommit(false);
+            createSchema(conn);
+            insert(conn, rooms, customers, bookings);
+            insertRateRules(conn, today);
+            conn.commit();
+        }
+    }
+
+    /**
+     * Create the tables the model uses, with the columns it reads and writes and the indexes of hotel_db.sql
+     * @param conn Connection to the empty in-memory database
+     */
+    static void createSchema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE rooms (
+                    room_id INT PRIMARY KEY, hotel_id INT NOT NULL DEFAULT 1,
+                    room_number VARCHAR(10) NOT NULL, room_type VARCHAR(50) NOT NULL,
+                    price_per_night DECIMAL(10,2) NOT NULL, is_available BOOLEAN DEFAULT TRUE,
+                    description TEXT, created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3))
+                """);
+            stmt.execute("CREATE UNIQUE INDEX uq_rooms_hotel_number ON rooms (hotel_id, room_number)");
+            stmt.execute("""
+                CREATE TABLE customers (
+                    customer_id INT PRIMARY KEY, hotel_id INT NOT NULL DEFAULT 1,
+                    first_name VARCHAR(50) NOT NULL, last_name VARCHAR(50) NOT NULL,
+                    email VARCHAR(100) NOT NULL, phone VARCHAR(20) NOT NULL, address TEXT,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3))
+                """);
+            stmt.execute("CREATE UNIQUE INDEX uq_customers_hotel_email ON customers (hotel_id, email)");
+            stmt.execute("""
+                CREATE TABLE bookings (
+                    booking_id INT PRIMARY KEY AUTO_INCREMENT, hotel_id INT NOT NULL DEFAULT 1,
+                    customer_id INT NOT NULL, room_id INT NOT NULL,
+                    check_in_date DATE NOT NULL, check_out_date DATE NOT NULL,
+                    total_amount DECIMAL(10,2) NOT NULL, booking_status VARCHAR(20) DEFAULT 'PENDING',
+                    folio_charges DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+                    folio_payments DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+                    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3))
+                """);
+            stmt.execute("CREATE INDEX idx_booking_dates ON bookings (hotel_id, check_in_date, check_out_date)");
+            stmt.execute("CREATE INDEX idx_booking_status ON bookings (hotel_id, booking_status)");
+            stmt.execute("CREATE INDEX idx_booking_customer ON bookings (customer_id)");
+            stmt.execute("CREATE INDEX idx_booking_room ON bookings (hotel_id, room_id, check_in_date)");
+            stmt.execute("""
+                CREATE TABLE rate_rules (
+                    rule_id INT PRIMARY KEY AUTO_INCREMENT, hotel_id INT NOT NULL DEFAULT 1,
+                    room_type VARCHAR(50), layer VARCHAR(20) NOT NULL, start_date DATE, end_date DATE,
+                    days_of_week TINYINT NOT NULL DEFAULT 0, min_nights INT NOT NULL DEFAULT 0,
+                    adjustment VARCHAR(20) NOT NULL, value DECIMAL(10,2) NOT NULL)
+                """);
+            stmt.execute("CREATE INDEX idx_rate_rules_hotel ON rate_rules (hotel_id)");
+
+            // Written alongside every booking change
+            stmt.execute("""
+                CREATE TABLE booking_events (
+                    event_id BIGINT PRIMARY KEY AUTO_INCREMENT, hotel_id INT NOT NULL, booking_id INT NOT NULL,
+                    version INT NOT NULL, event_type VARCHAR(20) NOT NULL, customer_id INT, room_id INT,
+                    check_in_date DATE, check_out_date DATE, total_amount DECIMAL(10,2), booking_status VARCHAR(20),
+                    occurred_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3))
+                """);
+            stmt.execute("CREATE UNIQUE INDEX uq_booking_events_version ON booking_events (booking_id, version)");
+            stmt.execute("""
+                CREATE TABLE booking_snapshots (
+                    booking_id INT PRIMARY KEY, hotel_id INT NOT NULL, version INT NOT NULL,
+                    customer_id INT NOT NULL, room_id INT NOT NULL,
+                    check_in_date DATE NOT NULL, check_out_date DATE NOT NULL,
+                    total_amount DECIMAL(10,2) NOT NULL, booking_status VARCHAR(20) NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)
+                """);
+            stmt.execute("""
+                CREATE TABLE revenue_daily (
+                    hotel_id INT NOT NULL, stay_date DATE NOT NULL, room_type VARCHAR(50) NOT NULL,
+                    room_nights INT NOT NULL DEFAULT 0, revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                    PRIMARY KEY (hotel_id, stay_date, room_type))
+                """);
+            stmt.execute("""
+                CREATE TABLE revenue_monthly (
+                    hotel_id INT NOT NULL, month_start DATE NOT NULL, room_type VARCHAR(50) NOT NULL,
+                    room_nights INT NOT NULL DEFAULT 0, revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+                    PRIMARY KEY (hotel_id, month_start, room_type))
+                """);
+        }
+    }
+
+    /**
+     * Insert rooms, customers and bookings with their own IDs
+     * @param conn Connection to use; the caller owns the transaction
+     */
+    static void insert(Connection conn, List<Room> rooms, List<Customer> customers, List<Booking> bookings) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO rooms (room_id, room_number, room_type, price_per_night, is_available, description) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (Room room : rooms) {
+                stmt.setInt(1, room.getRoomId());
+                stmt.setString(2, room.getRoomNumber());
+                stmt.setString(3, room.getRoomType());
+                Money.setMoney(stmt, 4, room.getPricePerNight());
+                stmt.setBoolean(5, room.isAvailable());
+                stmt.setString(6, room.getDescription());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO customers (customer_id, first_name, last_name, email, phone, address, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (Customer customer : customers) {
+                stmt.setInt(1, customer.getCustomerId());
+                stmt.setString(2, customer.getFirstName());
+                stmt.setString(3, customer.getLastName());
+                stmt.setString(4, customer.getEmail());
+                stmt.setString(5, customer.getPhone());
+                stmt.setString(6, customer.getAddress());
+                stmt.setTimestamp(7, customer.getCreatedAt());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO bookings (booking_id, customer_id, room_id, check_in_date, check_out_date, total_amount, booking_status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int batched = 0;
+            for (Booking booking : bookings) {
+                stmt.setInt(1, booking.getBookingId());
+                stmt.setInt(2, booking.getCustomerId());
+                stmt.setInt(3, booking.getRoomId());
+                stmt.setDate(4, Date.valueOf(booking.getCheckInDate()));
+                stmt.setDate(5, Date.valueOf(booking.getCheckOutDate()));
+                Money.setMoney(stmt, 6, booking.getTotalAmount());
+                stmt.setString(7, booking.getBookingStatus().name());
+                stmt.setTimestamp(8, booking.getCreatedAt());
+                stmt.addBatch();
+                if (++batched % BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            stmt.executeBatch();
+        }
+
+        // Bookings made by the code under test are numbered after the loaded ones
+        int lastBookingId = 0;
+        for (Booking booking : bookings) {
+            lastBookingId = Math.max(lastBookingId, booking.getBookingId());
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ALTER TABLE bookings ALTER COLUMN booking_id RESTART WITH " + (lastBookingId + 1));
+        }
+    }
+
+    /**
+     * Insert a summer season, a Suite event price, a weekend uplift and two length-of-stay discounts
+     * @param conn Connection to use; the caller owns the transaction
+     * @param today Day the seasons are placed relative to
+     */
+    static void insertRateRules(Connection conn, LocalDate today) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(
+                 "INSERT INTO rate_rules (room_type, layer, start_date, end_date, days_of_week, min_nights, adjustment, value) VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            addRule(stmt, null, "SEASON", today.plusDays(30), today.plusDays(120), 0, 0, "ADJUST_PERCENT", "20.00");
+            addRule(stmt, "Suite", "SEASON", today.plusDays(60), today.plusDays(63), 0, 0, "SET_PRICE", "450.00");
+            addRule(stmt, null, "DAY_OF_WEEK", null, null, 0b0110000, 0, "ADJUST_PERCENT", "15.00");
+            addRule(stmt, null, "LENGTH_OF_STAY", null, null, 0, 7, "ADJUST_PERCENT", "-10.00");
+            addRule(stmt, null, "LENGTH_OF_STAY", null, null, 0, 14, "ADJUST_PERCENT", "-15.00");
+            stmt.executeBatch();
+        }
+    }
+
+    private static void addRule(PreparedStatement stmt, String roomType, String layer, LocalDate startDate, LocalDate endDate,
+                                int daysOfWeek, int minNights, String adjustment, String value) throws SQLException {
+        stmt.setString(1, roomType);
+        stmt.setString(2, layer);
+        stmt.setDate(3, startDate != null ? Date.valueOf(startDate) : null);
+        stmt.setDate(4, endDate != null ? Date.valueOf(endDate) : null);
+        stmt.setInt(5, daysOfWeek);
+        stmt.setInt(6, minNights);
+        stmt.setString(7, adjustment);
+        stmt.setBigDecimal(8, new BigDecimal(value));
+        stmt.addBatch();
+    }
+}
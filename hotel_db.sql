@@ -6,9 +6,19 @@ CREATE DATABASE IF NOT EXISTS hotel_db;
 USE hotel_db;
 
 -- Drop tables if they exist (in reverse order of dependencies)
+DROP TABLE IF EXISTS email_outbox;
+DROP TABLE IF EXISTS folio_entries;
+DROP TABLE IF EXISTS revenue_monthly;
+DROP TABLE IF EXISTS revenue_daily;
+DROP TABLE IF EXISTS booking_journal_state;
+DROP TABLE IF EXISTS booking_snapshots;
+DROP TABLE IF EXISTS booking_events;
+DROP TABLE IF EXISTS rate_rules;
+DROP TABLE IF EXISTS room_rate_history;
 DROP TABLE IF EXISTS bookings;
 DROP TABLE IF EXISTS customers;
 DROP TABLE IF EXISTS rooms;
+DROP TABLE IF EXISTS hotels;
 DROP TABLE IF EXISTS admin_users;
 
 -- Create admin_users table
@@ -22,47 +32,193 @@ CREATE TABLE admin_users (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
 
+-- Create hotels table (one row per property; rooms, customers and bookings belong to one hotel)
+CREATE TABLE hotels (
+    hotel_id INT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(100) NOT NULL,
+    address TEXT,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Create rooms table
 CREATE TABLE rooms (
     room_id INT PRIMARY KEY AUTO_INCREMENT,
-    room_number VARCHAR(10) UNIQUE NOT NULL,
+    hotel_id INT NOT NULL DEFAULT 1,
+    room_number VARCHAR(10) NOT NULL,
     room_type VARCHAR(50) NOT NULL,
     price_per_night DECIMAL(10,2) NOT NULL,
     is_available BOOLEAN DEFAULT TRUE,
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+    UNIQUE KEY uq_rooms_hotel_number (hotel_id, room_number)
 );
 
 -- Create customers table
 CREATE TABLE customers (
     customer_id INT PRIMARY KEY AUTO_INCREMENT,
+    hotel_id INT NOT NULL DEFAULT 1,
     first_name VARCHAR(50) NOT NULL,
     last_name VARCHAR(50) NOT NULL,
-    email VARCHAR(100) UNIQUE NOT NULL,
+    email VARCHAR(100) NOT NULL,
     phone VARCHAR(20) NOT NULL,
     address TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+    UNIQUE KEY uq_customers_hotel_email (hotel_id, email)
 );
 
 -- Create bookings table
 CREATE TABLE bookings (
     booking_id INT PRIMARY KEY AUTO_INCREMENT,
+    hotel_id INT NOT NULL DEFAULT 1,
     customer_id INT NOT NULL,
     room_id INT NOT NULL,
     check_in_date DATE NOT NULL,
     check_out_date DATE NOT NULL,
     total_amount DECIMAL(10,2) NOT NULL,
     booking_status ENUM('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED') DEFAULT 'PENDING',
+    folio_charges DECIMAL(12,2) NOT NULL DEFAULT 0.00,
+    folio_payments DECIMAL(12,2) NOT NULL DEFAULT 0.00,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
     FOREIGN KEY (customer_id) REFERENCES customers(customer_id) ON DELETE CASCADE,
     FOREIGN KEY (room_id) REFERENCES rooms(room_id) ON DELETE CASCADE,
-    INDEX idx_booking_dates (check_in_date, check_out_date),
-    INDEX idx_booking_status (booking_status),
+    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+    INDEX idx_booking_dates (hotel_id, check_in_date, check_out_date),
+    INDEX idx_booking_status (hotel_id, booking_status),
     INDEX idx_booking_customer (customer_id),
-    INDEX idx_booking_room (room_id)
+    INDEX idx_booking_room (hotel_id, room_id, check_in_date)
+);
+
+-- Create room rate history table
+CREATE TABLE room_rate_history (
+    history_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    room_id INT NOT NULL,
+    old_price DECIMAL(10,2) NOT NULL,
+    new_price DECIMAL(10,2) NOT NULL,
+    reason VARCHAR(255),
+    changed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (room_id) REFERENCES rooms(room_id) ON DELETE CASCADE,
+    INDEX idx_rate_history_room (room_id, changed_at)
+);
+
+-- Create rate rules table
+-- Layers apply in order: the room's own price, SEASON, DAY_OF_WEEK, then the longest
+-- qualifying LENGTH_OF_STAY discount on the stay total. days_of_week is a bit mask,
+-- Monday = 1, Tuesday = 2, ... Saturday = 32, Sunday = 64. A NULL room_type matches every type.
+CREATE TABLE rate_rules (
+    rule_id INT PRIMARY KEY AUTO_INCREMENT,
+    hotel_id INT NOT NULL DEFAULT 1,
+    room_type VARCHAR(50),
+    layer ENUM('SEASON', 'DAY_OF_WEEK', 'LENGTH_OF_STAY') NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    days_of_week TINYINT NOT NULL DEFAULT 0,
+    min_nights INT NOT NULL DEFAULT 0,
+    adjustment ENUM('SET_PRICE', 'ADJUST_PERCENT') NOT NULL,
+    value DECIMAL(10,2) NOT NULL,
+    description VARCHAR(255),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (hotel_id) REFERENCES hotels(hotel_id),
+    INDEX idx_rate_rules_hotel (hotel_id)
+);
+
+-- Create booking event store tables (one numbered event per booking write; rebuild bookings with Main --rebuild-bookings)
+-- No foreign keys, so the history of deleted bookings is kept
+CREATE TABLE booking_events (
+    event_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    hotel_id INT NOT NULL,
+    booking_id INT NOT NULL,
+    version INT NOT NULL,
+    event_type ENUM('CREATED', 'AMENDED', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED', 'DELETED') NOT NULL,
+    customer_id INT,
+    room_id INT,
+    check_in_date DATE,
+    check_out_date DATE,
+    total_amount DECIMAL(10,2),
+    booking_status ENUM('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED'),
+    occurred_at TIMESTAMP(3) DEFAULT CURRENT_TIMESTAMP(3),
+    UNIQUE KEY uq_booking_events_version (booking_id, version),
+    INDEX idx_booking_events_hotel (hotel_id, booking_id)
+);
+
+-- Booking state every 20 events, so replays start from the latest snapshot
+CREATE TABLE booking_snapshots (
+    booking_id INT PRIMARY KEY,
+    hotel_id INT NOT NULL,
+    version INT NOT NULL,
+    customer_id INT NOT NULL,
+    room_id INT NOT NULL,
+    check_in_date DATE NOT NULL,
+    check_out_date DATE NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    booking_status ENUM('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CHECKED_OUT', 'CANCELLED') NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_booking_snapshots_hotel (hotel_id, booking_id)
+);
+
+-- Create booking journal state table (last journal record replayed per client journal)
+CREATE TABLE booking_journal_state (
+    journal_id BIGINT PRIMARY KEY,
+    last_applied_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Create revenue rollup tables (kept current by every booking write; rebuild with Main --revenue-backfill)
+CREATE TABLE revenue_daily (
+    hotel_id INT NOT NULL,
+    stay_date DATE NOT NULL,
+    room_type VARCHAR(50) NOT NULL,
+    room_nights INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (hotel_id, stay_date, room_type)
+);
+
+CREATE TABLE revenue_monthly (
+    hotel_id INT NOT NULL,
+    month_start DATE NOT NULL,
+    room_type VARCHAR(50) NOT NULL,
+    room_nights INT NOT NULL DEFAULT 0,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0.00,
+    PRIMARY KEY (hotel_id, month_start, room_type)
+);
+
+-- Create folio entries table (append-only; bookings.folio_charges and folio_payments hold the totals)
+-- balance_after is the folio balance (extra charges less payments) once the entry is posted
+CREATE TABLE folio_entries (
+    entry_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    booking_id INT NOT NULL,
+    entry_type ENUM('CHARGE', 'PAYMENT') NOT NULL,
+    category VARCHAR(50) NOT NULL,
+    description VARCHAR(255),
+    amount DECIMAL(10,2) NOT NULL,
+    balance_after DECIMAL(12,2) NOT NULL,
+    posted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE CASCADE,
+    INDEX idx_folio_booking (booking_id, entry_id)
+);
+
+-- Create email outbox table (queued mail, sent in the background by MailDispatcher)
+CREATE TABLE email_outbox (
+    outbox_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    booking_id INT,
+    recipient VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body MEDIUMTEXT NOT NULL,
+    attachment_name VARCHAR(100),
+    attachment MEDIUMBLOB,
+    status ENUM('PENDING', 'SENDING', 'SENT', 'FAILED') NOT NULL DEFAULT 'PENDING',
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL,
+    FOREIGN KEY (booking_id) REFERENCES bookings(booking_id) ON DELETE SET NULL,
+    INDEX idx_outbox_due (status, next_attempt_at),
+    INDEX idx_outbox_booking (booking_id)
 );
 
 -- Insert sample admin user
@@ -70,6 +226,10 @@ INSERT INTO admin_users (username, password, full_name, email) VALUES
 ('admin', 'admin123', 'System Administrator', 'admin@hotel.com'),
 ('manager', 'manager123', 'Hotel Manager', 'manager@hotel.com');
 
+-- Insert sample hotel
+INSERT INTO hotels (hotel_id, name, address) VALUES
+(1, 'Grand Hotel', NULL);
+
 -- Insert sample rooms
 INSERT INTO rooms (room_number, room_type, price_per_night, is_available, description) VALUES
 ('101', 'Standard Single', 80.00, TRUE, 'Comfortable single room with basic amenities, perfect for solo travelers'),
@@ -88,6 +248,14 @@ INSERT INTO rooms (room_number, room_type, price_per_night, is_available, descri
 ('303', 'Deluxe Suite', 200.00, TRUE, 'Luxury suite with premium amenities and city view'),
 ('304', 'Executive Suite', 300.00, TRUE, 'Premium executive suite with business facilities');
 
+-- Insert sample rate rules
+INSERT INTO rate_rules (room_type, layer, start_date, end_date, days_of_week, min_nights, adjustment, value, description) VALUES
+(NULL, 'DAY_OF_WEEK', NULL, NULL, 48, 0, 'ADJUST_PERCENT', 15.00, 'Friday and Saturday nights'),
+(NULL, 'SEASON', '2024-06-15', '2024-08-31', 0, 0, 'ADJUST_PERCENT', 20.00, 'Summer season'),
+('Deluxe Suite', 'SEASON', '2024-12-24', '2024-12-31', 0, 0, 'SET_PRICE', 350.00, 'Holiday suite rate'),
+(NULL, 'LENGTH_OF_STAY', NULL, NULL, 0, 7, 'ADJUST_PERCENT', -10.00, 'Weekly stay discount'),
+(NULL, 'LENGTH_OF_STAY', NULL, NULL, 0, 14, 'ADJUST_PERCENT', -15.00, 'Two-week stay discount');
+
 -- Insert sample customers
 INSERT INTO customers (first_name, last_name, email, phone, address) VALUES
 ('John', 'Doe', 'john.doe@email.com', '+1-555-0101', '123 Main Street, New York, NY 10001'),
@@ -113,12 +281,14 @@ INSERT INTO bookings (customer_id, room_id, check_in_date, check_out_date, total
 (8, 8, '2024-02-08', '2024-02-12', 320.00, 'PENDING'),
 (9, 9, '2024-02-10', '2024-02-15', 600.00, 'CONFIRMED'),
 (10, 10, '2024-02-12', '2024-02-14', 400.00, 'CHECKED_IN');
+-- The sample bookings bypass the application; run Main --revenue-backfill once to fill the revenue rollups
 
 -- Create views for common queries
 
 -- View for available rooms
 CREATE VIEW available_rooms AS
 SELECT 
+    hotel_id,
     room_id,
     room_number,
     room_type,
@@ -131,6 +301,7 @@ ORDER BY room_number;
 -- View for booking details with customer and room information
 CREATE VIEW booking_details AS
 SELECT 
+    b.hotel_id,
     b.booking_id,
     CONCAT(c.first_name, ' ', c.last_name) AS customer_name,
     c.email AS customer_email,
@@ -152,6 +323,7 @@ ORDER BY b.created_at DESC;
 -- View for room occupancy
 CREATE VIEW room_occupancy AS
 SELECT 
+    r.hotel_id,
     r.room_id,
     r.room_number,
     r.room_type,
@@ -196,7 +368,8 @@ BEGIN
 END //
 DELIMITER ;
 
--- Procedure to calculate booking total
+-- Procedure to calculate booking total at the base room price
+-- The application quotes stays with rate_rules applied (see RateCalendar)
 DELIMITER //
 CREATE PROCEDURE CalculateBookingTotal(
     IN p_room_id INT,
@@ -262,18 +435,37 @@ BEGIN
 END //
 DELIMITER ;
 
+-- Triggers to keep folio entries append-only (corrections are posted as reversing entries)
+DELIMITER //
+CREATE TRIGGER prevent_folio_entry_update
+BEFORE UPDATE ON folio_entries
+FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Folio entries are append-only';
+END //
+DELIMITER ;
+
+DELIMITER //
+CREATE TRIGGER prevent_folio_entry_delete
+BEFORE DELETE ON folio_entries
+FOR EACH ROW
+BEGIN
+    SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'Folio entries are append-only';
+END //
+DELIMITER ;
+
 -- Create indexes for better performance
-CREATE INDEX idx_customers_email ON customers(email);
-CREATE INDEX idx_customers_phone ON customers(phone);
-CREATE INDEX idx_rooms_room_number ON rooms(room_number);
-CREATE INDEX idx_rooms_room_type ON rooms(room_type);
-CREATE INDEX idx_rooms_availability ON rooms(is_available);
-CREATE INDEX idx_bookings_dates ON bookings(check_in_date, check_out_date);
-CREATE INDEX idx_bookings_customer ON bookings(customer_id);
-CREATE INDEX idx_bookings_room ON bookings(room_id);
-CREATE INDEX idx_bookings_status ON bookings(booking_status);
+-- Every index leads with hotel_id so a property's queries only touch its own part of the index
+CREATE INDEX idx_customers_phone ON customers(hotel_id, phone);
+CREATE INDEX idx_rooms_room_type ON rooms(hotel_id, room_type);
+CREATE INDEX idx_rooms_availability ON rooms(hotel_id, is_available);
 CREATE INDEX idx_admin_username ON admin_users(username);
 
+-- Delta queries for the client catalog
+CREATE INDEX idx_rooms_updated_at ON rooms(hotel_id, updated_at);
+CREATE INDEX idx_customers_updated_at ON customers(hotel_id, updated_at);
+CREATE INDEX idx_bookings_updated_at ON bookings(hotel_id, updated_at);
+
 -- Insert additional sample data for testing
 
 -- More rooms